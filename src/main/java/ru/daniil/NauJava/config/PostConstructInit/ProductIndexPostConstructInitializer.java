@@ -0,0 +1,25 @@
+package ru.daniil.NauJava.config.PostConstructInit;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.repository.ProductRepository;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndex;
+
+@Component
+public class ProductIndexPostConstructInitializer {
+
+    private final ProductRepository productRepository;
+    private final ProductNameIndex productNameIndex;
+
+    public ProductIndexPostConstructInitializer(ProductRepository productRepository,
+                                                ProductNameIndex productNameIndex) {
+        this.productRepository = productRepository;
+        this.productNameIndex = productNameIndex;
+    }
+
+    @PostConstruct
+    public void initializeProductIndex() {
+        productNameIndex.rebuild(productRepository.findAllNameEntries());
+        System.out.println("Индекс названий продуктов построен: " + productNameIndex.size() + " продуктов");
+    }
+}
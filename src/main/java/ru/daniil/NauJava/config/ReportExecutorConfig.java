@@ -0,0 +1,75 @@
+package ru.daniil.NauJava.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Отдельные ограниченные пулы для формирования отчётов, чтобы тяжёлые отчёты
+ * не занимали общий ForkJoinPool. Задачи отчётов и их подзапросы выполняются
+ * в разных пулах: задача ждёт подзапросы, и в общем пуле это могло бы привести к взаимной блокировке
+ */
+@Configuration
+public class ReportExecutorConfig {
+
+    @Value("${app.reports.workers:2}")
+    private int workers;
+
+    @Value("${app.reports.query-threads:4}")
+    private int queryThreads;
+
+    @Value("${app.reports.slice-threads:4}")
+    private int sliceThreads;
+
+    /**
+     * Пул задач формирования отчётов: не больше workers отчётов одновременно.
+     * Ожидающие отчёты хранятся в БД, а небольшая очередь пула нужна для следующей задачи,
+     * которую завершающаяся задача отправляет, пока её поток ещё занят
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor reportWorkerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("report-worker-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Пул подзапросов отчёта. При переполнении подзапрос выполняется в потоке задачи
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor reportQueryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(queryThreads);
+        executor.setMaxPoolSize(queryThreads);
+        executor.setQueueCapacity(queryThreads * 4);
+        executor.setThreadNamePrefix("report-query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Пул параллельного пересчёта интервалов дневных сводок. Размер пула - степень параллелизма:
+     * каждый интервал занимает соединение с БД, поэтому пул должен быть меньше пула соединений.
+     * Подзапросы отчёта ждут интервалы, поэтому интервалы выполняются в отдельном от них пуле
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor reportSliceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(sliceThreads);
+        executor.setMaxPoolSize(sliceThreads);
+        executor.setQueueCapacity(sliceThreads * 16);
+        executor.setThreadNamePrefix("report-slice-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
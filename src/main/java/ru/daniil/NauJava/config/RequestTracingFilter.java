@@ -1,47 +1,158 @@
 package ru.daniil.NauJava.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.HandlerMapping;
 import ru.daniil.NauJava.utils.Loggers;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Трассировка запросов: id запроса в MDC и гистограмма времени обработки по эндпоинтам.
+ * Тело ответа не буферизуется, статус читается из ответа после цепочки фильтров,
+ * поэтому большие и потоковые ответы отдаются клиенту сразу.
+ * В лог пишутся только медленные запросы и ответы 5xx
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class RequestTracingFilter extends OncePerRequestFilter {
 
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Value("${app.tracing.excluded-prefixes:/css/,/js/,/favicon.ico}")
+    private List<String> excludedPrefixes;
+
+    @Value("${app.tracing.slow-request-ms:1000}")
+    private long slowRequestMs;
+
+    public RequestTracingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String prefix : excludedPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain chain)
             throws ServletException, IOException {
 
-        long startTime = System.currentTimeMillis();
-
+        long start = System.nanoTime();
         String requestId = Loggers.initRequestContext(request);
+        boolean failed = false;
 
         try {
-            // Перехват статуса запроса
-            ContentCachingResponseWrapper responseWrapper =
-                    new ContentCachingResponseWrapper(response);
-
-            chain.doFilter(request, responseWrapper);
-
-            responseWrapper.copyBodyToResponse();
-
+            chain.doFilter(request, response);
         } catch (Exception e) {
+            failed = true;
             Loggers.logError("Необработанное исключение в фильтре", e);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             throw e;
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            Loggers.finishRequestContext(response.getStatus(), duration);
+            if (!failed && request.isAsyncStarted()) {
+                // Потоковые и SSE-ответы завершаются позже, время считается до конца асинхронной обработки
+                request.getAsyncContext().addListener(new CompletionListener(request, response, start, requestId));
+                Loggers.clearRequestContext();
+            } else {
+                complete(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), start);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, int status, long start) {
+        long durationNanos = System.nanoTime() - start;
+        timer(request.getMethod(), uriTag(request, status), status).record(durationNanos, TimeUnit.NANOSECONDS);
+        Loggers.finishRequestContext(status, TimeUnit.NANOSECONDS.toMillis(durationNanos), slowRequestMs);
+    }
+
+    private Timer timer(String method, String uri, int status) {
+        return timers.computeIfAbsent(new TimerKey(method, uri, status), key -> Timer.builder("app.http.requests")
+                .tag("method", key.method())
+                .tag("uri", key.uri())
+                .tag("status", String.valueOf(key.status()))
+                .description("Время обработки HTTP-запросов по эндпоинтам")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+
+    /**
+     * Шаблон пути из маппинга контроллера вместо фактического URI, чтобы id в пути
+     * не размножали серии метрик
+     */
+    private static String uriTag(HttpServletRequest request, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        if (status == HttpServletResponse.SC_NOT_FOUND) {
+            return "NOT_FOUND";
+        }
+        if (status >= 300 && status < 400) {
+            return "REDIRECTION";
+        }
+        return "UNKNOWN";
+    }
+
+    private record TimerKey(String method, String uri, int status) {
+    }
+
+    private final class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+        private final String requestId;
+
+        private CompletionListener(HttpServletRequest request, HttpServletResponse response,
+                                   long start, String requestId) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+            this.requestId = requestId;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            Loggers.restoreRequestContext(requestId, request);
+            complete(request, response.getStatus(), start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync сбрасывает слушателей, поэтому регистрируемся заново
+            event.getAsyncContext().addListener(this);
         }
     }
 }
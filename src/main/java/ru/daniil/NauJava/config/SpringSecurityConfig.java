@@ -1,7 +1,12 @@
 package ru.daniil.NauJava.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,11 +15,19 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.DelegatingSecurityContextRepository;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.CsrfFilter;
 import ru.daniil.NauJava.config.jwt.JwtAuthenticationFilter;
+import ru.daniil.NauJava.config.security.BoundedPasswordEncoder;
+import ru.daniil.NauJava.config.security.LoginFailureHandler;
 import ru.daniil.NauJava.config.swagger.CsrfRequestMatcher;
 import ru.daniil.NauJava.config.swagger.SwaggerCsrfRequestHandler;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 @EnableWebSecurity
 public class SpringSecurityConfig {
@@ -22,6 +35,18 @@ public class SpringSecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsConfig baseCorsConfig;
 
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.hashing.threads:2}")
+    private int hashingThreads;
+
+    @Value("${app.security.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.hashing.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
     public SpringSecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
                                 CorsConfig baseCorsConfig,
                                 SwaggerCsrfRequestHandler swaggerCsrfRequestHandler) {
@@ -43,7 +68,12 @@ public class SpringSecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
                 )
+                .securityContext(context -> context
+                        .securityContextRepository(securityContextRepository())
+                )
                 .authorizeHttpRequests(auth -> auth
+                        // Потоковые ответы (SSE, выгрузки) уже авторизованы при исходном запросе
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/",
                                 "/register",
@@ -81,7 +111,7 @@ public class SpringSecurityConfig {
                         .loginPage("/login")
                         .loginProcessingUrl("/login")
                         .defaultSuccessUrl("/", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(new LoginFailureHandler("/login?error=true"))
                         .permitAll()
                 )
                 .logout(logout -> logout
@@ -94,14 +124,49 @@ public class SpringSecurityConfig {
                 .build();
     }
 
+    /**
+     * Хранилище SecurityContext: атрибут запроса и HTTP-сессия (в Redis).
+     * Вынесено в бин, чтобы сохранять контекст после изменения principal
+     */
+    @Bean
+    public SecurityContextRepository securityContextRepository() {
+        return new DelegatingSecurityContextRepository(
+                new RequestAttributeSecurityContextRepository(),
+                new HttpSessionSecurityContextRepository());
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig)
             throws Exception {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt с настраиваемой стоимостью, выполняемый в пуле passwordHashingExecutor.
+     * Хэши с меньшей стоимостью пересчитываются при следующем успешном входе
+     * (UserDetailsPasswordService в UserDetailsServiceImpl)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor passwordHashingExecutor,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+                passwordHashingExecutor, meterRegistry, retryAfterSeconds);
+    }
+
+    /**
+     * Пул хэширования паролей при входе, регистрации и смене пароля.
+     * Очередь ограничена: при её заполнении запрос отклоняется с 503, а не ждёт бесконечно
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hashingThreads);
+        executor.setMaxPoolSize(hashingThreads);
+        executor.setQueueCapacity(hashingQueueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
     }
 }
\ No newline at end of file
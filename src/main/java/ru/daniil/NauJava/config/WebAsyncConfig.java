@@ -0,0 +1,43 @@
+package ru.daniil.NauJava.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Пул для асинхронных ответов MVC (потоковые выгрузки).
+ * Пулы отчётов отключают стандартный applicationTaskExecutor, и без этой настройки
+ * Spring MVC создавал бы новый поток на каждый потоковый ответ
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${app.web.async.threads:8}")
+    private int threads;
+
+    @Value("${app.web.async.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor webAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix("web-async-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(webAsyncExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.daniil.NauJava.config.cache;
+
+import java.time.Duration;
+
+/**
+ * Настройки локального (L1) уровня кэша
+ * @param maximumSize максимальное количество записей в памяти узла
+ * @param timeToLive время жизни записи с момента записи, должно быть не больше TTL в Redis
+ */
+public record NearCacheSpec(long maximumSize, Duration timeToLive) {
+}
@@ -0,0 +1,166 @@
+package ru.daniil.NauJava.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Двухуровневый кэш: локальный Caffeine (L1) перед общим Redis (L2).
+ * Чтение сначала идёт в L1, при промахе - в Redis с сохранением ответа в L1.
+ * Запись и удаление выполняются в обоих уровнях, а остальные узлы получают
+ * сообщение об инвалидации, чтобы сбросить свою локальную копию
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    static final String CLEAR_ALL_KEY = "*";
+
+    private final String name;
+    private final Cache<String, Object> localCache;
+    private final org.springframework.cache.Cache remoteCache;
+    private final Consumer<String> invalidationPublisher;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    /**
+     * @param name название кэша
+     * @param localCache локальный уровень
+     * @param remoteCache кэш Redis
+     * @param invalidationPublisher рассылает ключ инвалидации остальным узлам
+     */
+    public TwoLevelCache(String name,
+                         Cache<String, Object> localCache,
+                         org.springframework.cache.Cache remoteCache,
+                         Consumer<String> invalidationPublisher) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue == null || remoteValue.get() == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        localCache.put(localKey, remoteValue.get());
+        return remoteValue.get();
+    }
+
+    /**
+     * Загрузка выполняется внутри вычисления Caffeine для этого ключа: параллельные промахи
+     * по одному ключу ждут одну загрузку, а промахи по разным ключам друг друга не блокируют
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) localCache.get(localKey(key), localKey -> loadThroughRemote(key, localKey, valueLoader));
+    }
+
+    private Object loadThroughRemote(Object key, String localKey, Callable<?> valueLoader) {
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null && remoteValue.get() != null) {
+            remoteHits.increment();
+            return remoteValue.get();
+        }
+        remoteMisses.increment();
+
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            remoteCache.put(key, value);
+            invalidationPublisher.accept(localKey);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        remoteCache.put(key, value);
+        localCache.put(localKey(key), value);
+        invalidationPublisher.accept(localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = lookup(key);
+        if (existing != null) {
+            return new SimpleValueWrapper(existing);
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(localKey(key));
+        invalidationPublisher.accept(localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.accept(CLEAR_ALL_KEY);
+    }
+
+    /**
+     * Сбрасывает локальную копию по сообщению от другого узла, Redis не затрагивается
+     * @param key ключ записи или {@value CLEAR_ALL_KEY} для сброса всего кэша
+     */
+    void invalidateLocal(String key) {
+        if (CLEAR_ALL_KEY.equals(key)) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    Cache<String, Object> getLocalCache() {
+        return localCache;
+    }
+
+    long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    long getRemoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,148 @@
+package ru.daniil.NauJava.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Менеджер двухуровневых кэшей поверх RedisCacheManager.
+ * Для каждого кэша создаётся локальный Caffeine с ограничением размера и TTL,
+ * изменения рассылаются остальным узлам через Redis pub/sub.
+ * Метрики попаданий и промахов по уровням публикуются в Micrometer как cache.level.gets
+ */
+public class TwoLevelCacheManager implements CacheManager {
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    private static final char SEPARATOR = '|';
+
+    private final CacheManager remoteCacheManager;
+    private final Map<String, NearCacheSpec> nearCacheSpecs;
+    private final NearCacheSpec defaultSpec;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> decoratedCaches = new ConcurrentHashMap<>();
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                Map<String, NearCacheSpec> nearCacheSpecs,
+                                NearCacheSpec defaultSpec,
+                                StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.nearCacheSpecs = nearCacheSpecs;
+        this.defaultSpec = defaultSpec;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return decoratedCaches.computeIfAbsent(name, cacheName -> {
+            Cache remoteCache = remoteCacheManager.getCache(cacheName);
+            if (remoteCache == null) {
+                return null;
+            }
+            TwoLevelCache cache = createCache(cacheName, remoteCache);
+            caches.put(cacheName, cache);
+            return new TransactionAwareCacheDecorator(cache);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableCollection(remoteCacheManager.getCacheNames());
+    }
+
+    /**
+     * Обрабатывает сообщение об инвалидации из Redis.
+     * Собственные сообщения узла пропускаются: его L1 уже изменён
+     * @param message сообщение вида nodeId|cacheName|key
+     */
+    public void handleInvalidation(String message) {
+        int first = message.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : message.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            methodLogger.warn("{TwoLevelCacheManager.handleInvalidation} |" +
+                    " Некорректное сообщение инвалидации: {}", message);
+            return;
+        }
+        if (message.substring(0, first).equals(nodeId)) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(message.substring(first + 1, second));
+        if (cache != null) {
+            cache.invalidateLocal(message.substring(second + 1));
+        }
+    }
+
+    private TwoLevelCache createCache(String cacheName, Cache remoteCache) {
+        NearCacheSpec spec = nearCacheSpecs.getOrDefault(cacheName, defaultSpec);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(spec.maximumSize())
+                .expireAfterWrite(spec.timeToLive())
+                .recordStats()
+                .build();
+
+        TwoLevelCache cache = new TwoLevelCache(cacheName, localCache, remoteCache,
+                key -> publishInvalidation(cacheName, key));
+        registerMetrics(cache);
+        methodLogger.info("{TwoLevelCacheManager.createCache} |" +
+                " Создан двухуровневый кэш {} (L1: {} записей, TTL {})",
+                cacheName, spec.maximumSize(), spec.timeToLive());
+        return cache;
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (Exception e) {
+            methodLogger.warn("{TwoLevelCacheManager.publishInvalidation} |" +
+                    " Не удалось разослать инвалидацию {}:{} - {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private void registerMetrics(TwoLevelCache cache) {
+        String name = cache.getName();
+        FunctionCounter.builder("cache.level.gets", cache, c -> c.getLocalCache().stats().hitCount())
+                .tags("cache", name, "level", "l1", "result", "hit")
+                .description("Обращения к уровню кэша")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.gets", cache, c -> c.getLocalCache().stats().missCount())
+                .tags("cache", name, "level", "l1", "result", "miss")
+                .description("Обращения к уровню кэша")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.gets", cache, TwoLevelCache::getRemoteHits)
+                .tags("cache", name, "level", "l2", "result", "hit")
+                .description("Обращения к уровню кэша")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.gets", cache, TwoLevelCache::getRemoteMisses)
+                .tags("cache", name, "level", "l2", "result", "miss")
+                .description("Обращения к уровню кэша")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.evictions", cache, c -> c.getLocalCache().stats().evictionCount())
+                .tags("cache", name, "level", "l1")
+                .description("Вытеснения из локального кэша по размеру и TTL")
+                .register(meterRegistry);
+        Gauge.builder("cache.level.size", cache, c -> c.getLocalCache().estimatedSize())
+                .tags("cache", name, "level", "l1")
+                .description("Количество записей в локальном кэше")
+                .register(meterRegistry);
+    }
+}
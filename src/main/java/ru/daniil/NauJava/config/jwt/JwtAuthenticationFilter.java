@@ -14,6 +14,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -44,8 +45,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(jwt)) {
             logger.debug("Найден JWT токен для запроса {}", requestURI);
 
-            if (jwtTokenProvider.validateToken(jwt)) {
-                Authentication authentication = jwtTokenProvider.getAuthentication(jwt);
+            Optional<Authentication> verified = jwtTokenProvider.authenticate(jwt);
+            if (verified.isPresent()) {
+                Authentication authentication = verified.get();
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
                 CsrfFilter.skipRequest(request);
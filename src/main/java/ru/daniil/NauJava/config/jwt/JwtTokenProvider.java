@@ -1,7 +1,15 @@
 package ru.daniil.NauJava.config.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,13 +20,16 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
 import ru.daniil.NauJava.entity.User;
 
 import javax.crypto.SecretKey;
-import java.util.Arrays;
-import java.util.Base64;
-import java.util.Collection;
-import java.util.Date;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -36,12 +47,39 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration:86400000}") // Здесь миллисекунды. Суммарно 24 часа
     private long jwtExpiration;
 
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    // Дольше этого срока проверенный токен не живёт в кэше, даже если сам токен ещё действует
+    @Value("${jwt.cache.max-ttl:PT5M}")
+    private Duration cacheMaxTtl;
+
+    private final MeterRegistry meterRegistry;
+
     private SecretKey secretKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private Timer validVerifications;
+    private Timer invalidVerifications;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @PostConstruct
     public void init() {
         byte[] keyBytes = Base64.getDecoder().decode(base64Secret);
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        // Собранный парсер неизменяем и потокобезопасен, поэтому один на все запросы
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new VerifiedTokenExpiry(cacheMaxTtl))
+                .recordStats()
+                .build();
+        registerMetrics();
         logger.info("JWT Token Provider инициализирован. Секрет: {}, Срок действия: {} мс",
                 base64Secret.substring(0, 10) + "...", jwtExpiration);
     }
@@ -58,43 +96,57 @@ public class JwtTokenProvider {
                 .subject(user.getUsername())
                 .claim(AUTHORITIES_KEY, authorities)
                 .claim(USERNAME_KEY, user.getUsername())
-                .claim("userId", user.getId())
+                .claim(USER_ID_KEY, user.getId())
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(secretKey, Jwts.SIG.HS512)
                 .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Jws<Claims> claimsJws = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token);
-
-        Claims claims = claimsJws.getPayload();
-
-        Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+    /**
+     * Проверяет токен и строит по нему аутентификацию за один разбор.
+     * Результат кэшируется по SHA-256 токена до истечения токена, но не дольше jwt.cache.max-ttl,
+     * так что повторные запросы с тем же токеном не проверяют подпись заново
+     * @param token JWT без префикса Bearer
+     * @return аутентификация или пустой Optional, если токен невалиден
+     */
+    public Optional<Authentication> authenticate(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached.authentication());
+        }
 
-        org.springframework.security.core.userdetails.User principal =
-                new org.springframework.security.core.userdetails.User(
-                        claims.getSubject(),
-                        "",
-                        authorities
-                );
+        Optional<Claims> claims = parseClaims(token);
+        if (claims.isEmpty()) {
+            return Optional.empty();
+        }
+        Authentication authentication = toAuthentication(claims.get(), token);
+        Date expiration = claims.get().getExpiration();
+        verifiedTokens.put(key, new VerifiedToken(authentication,
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE));
+        return Optional.of(authentication);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    public Authentication getAuthentication(String token) {
+        return toAuthentication(parser.parseSignedClaims(token).getPayload(), token);
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена
+     * @param token JWT без префикса Bearer
+     * @return claims токена или пустой Optional, если токен невалиден
+     */
+    public Optional<Claims> parseClaims(String token) {
+        long start = System.nanoTime();
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            validVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(claims);
         } catch (SecurityException | MalformedJwtException e) {
             logger.error("Неверная подпись JWT: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -104,24 +156,99 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string пустой: {}", e.getMessage());
         }
-        return false;
+        invalidVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return Optional.empty();
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload()
                 .getExpiration();
     }
+
+    private Authentication toAuthentication(Claims claims, String token) {
+        Object authoritiesClaim = claims.get(AUTHORITIES_KEY);
+        Collection<? extends GrantedAuthority> authorities = authoritiesClaim == null
+                ? List.of()
+                : Arrays.stream(authoritiesClaim.toString().split(","))
+                        .filter(authority -> !authority.isBlank())
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+
+        Number userId = claims.get(USER_ID_KEY, Number.class);
+        AuthenticatedUser principal = new AuthenticatedUser(
+                userId != null ? userId.longValue() : null,
+                claims.getSubject(),
+                authorities
+        );
+
+        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private void registerMetrics() {
+        validVerifications = Timer.builder("jwt.verification")
+                .tag("result", "valid")
+                .description("Проверка подписи и срока действия JWT")
+                .register(meterRegistry);
+        invalidVerifications = Timer.builder("jwt.verification")
+                .tag("result", "invalid")
+                .description("Проверка подписи и срока действия JWT")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.gets", verifiedTokens, c -> c.stats().hitCount())
+                .tag("result", "hit")
+                .description("Обращения к кэшу проверенных JWT")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.gets", verifiedTokens, c -> c.stats().missCount())
+                .tag("result", "miss")
+                .description("Обращения к кэшу проверенных JWT")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", verifiedTokens, Cache::estimatedSize)
+                .description("Количество проверенных JWT в кэше")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param authentication аутентификация, построенная по токену
+     * @param expiresAtMillis момент истечения токена
+     */
+    private record VerifiedToken(Authentication authentication, long expiresAtMillis) {
+    }
+
+    /**
+     * Запись живёт до истечения токена, но не дольше maxTtl
+     */
+    private record VerifiedTokenExpiry(Duration maxTtl) implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long untilExpiration = Duration.ofMillis(
+                    Math.max(0, value.expiresAtMillis() - System.currentTimeMillis())).toNanos();
+            return Math.min(untilExpiration, maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
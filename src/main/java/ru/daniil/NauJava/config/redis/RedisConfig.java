@@ -2,6 +2,7 @@ package ru.daniil.NauJava.config.redis;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,15 +18,34 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.StringUtils;
+import ru.daniil.NauJava.config.cache.NearCacheSpec;
+import ru.daniil.NauJava.config.cache.TwoLevelCacheManager;
+import ru.daniil.NauJava.config.redis.codec.CacheValueCodec;
+import ru.daniil.NauJava.config.redis.codec.CompactCacheSerializer;
+import ru.daniil.NauJava.config.redis.codec.MealTypeListCodec;
+import ru.daniil.NauJava.config.redis.codec.ProductListCodec;
+import ru.daniil.NauJava.config.redis.codec.SessionAttributeSerializer;
 import ru.daniil.NauJava.config.redis.listSerializators.MealTypesSerializer;
 import ru.daniil.NauJava.config.redis.listSerializators.ProductListSerializer;
-
+import ru.daniil.NauJava.service.admin.ReportProgressService;
+import ru.daniil.NauJava.service.admin.ReportProgressServiceImpl;
+import ru.daniil.NauJava.service.catalog.GlobalCatalog;
+import ru.daniil.NauJava.service.catalog.GlobalCatalogImpl;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexSync;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexSyncImpl;
+
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -49,6 +69,15 @@ public class RedisConfig {
     @Value("${spring.data.redis.timeout:2000}")
     private long redisTimeout;
 
+    @Value("${app.cache.near.max-size:2000}")
+    private long nearCacheMaxSize;
+
+    @Value("${app.cache.codec:binary}")
+    private String cacheCodec;
+
+    @Value("${app.cache.codec.compress-threshold:4096}")
+    private int cacheCompressThreshold;
+
     @Bean
     public RedisStandaloneConfiguration redisStandaloneConfiguration() {
         logger.info("Конфигурация Redis Подключение к {}:{} (database: {})",
@@ -117,7 +146,58 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    /**
+     * Сериализатор атрибутов HTTP-сессий, хранимых в Redis (Spring Session).
+     * Имя бина задаёт Spring Session, подключение берётся общее - redisConnectionFactory
+     */
+    @Bean("springSessionDefaultRedisSerializer")
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+        logger.info("Сессии хранятся в Redis с компактной записью SecurityContext");
+        return new SessionAttributeSerializer(getClass().getClassLoader());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheManager cacheManager,
+            GlobalCatalog globalCatalog,
+            ProductNameIndexSync productNameIndexSync,
+            ReportProgressService reportProgressService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+            container.addMessageListener(
+                    (message, pattern) -> twoLevelCacheManager.handleInvalidation(
+                            new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        }
+        container.addMessageListener(
+                (message, pattern) -> globalCatalog.handleChange(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(GlobalCatalogImpl.CHANGES_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> productNameIndexSync.handleChange(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(ProductNameIndexSyncImpl.CHANGES_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> reportProgressService.handleMessage(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(ReportProgressServiceImpl.PROGRESS_CHANNEL));
+        logger.info("Подписка на инвалидацию локальных кэшей: {}, {}, {}",
+                TwoLevelCacheManager.INVALIDATION_CHANNEL, GlobalCatalogImpl.CHANGES_CHANNEL,
+                ProductNameIndexSyncImpl.CHANGES_CHANNEL);
+        logger.info("Подписка на события формирования отчётов: {}", ReportProgressServiceImpl.PROGRESS_CHANNEL);
+        return container;
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     MeterRegistry meterRegistry) {
         logger.info("Конфигурация Redis CacheManager");
 
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
@@ -133,7 +213,7 @@ public class RedisConfig {
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(
                         new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
-                        new ProductListSerializer()))
+                        listSerializer(new ProductListCodec(), new ProductListSerializer())))
                 .prefixCacheNameWith("cache:");
 
         RedisCacheConfiguration mealTypesConfig = RedisCacheConfiguration.defaultCacheConfig()
@@ -142,25 +222,53 @@ public class RedisConfig {
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(
                         new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
-                        new MealTypesSerializer()))
+                        listSerializer(new MealTypeListCodec(), new MealTypesSerializer())))
                 .prefixCacheNameWith("cache:");
 
         // Настройки для разных кэшей
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        cacheConfigurations.put("admin-reports-page", defaultConfig.entryTtl(Duration.ofMinutes(5)));
-        cacheConfigurations.put("admin-users-list", defaultConfig.entryTtl(Duration.ofMinutes(5)));
+        cacheConfigurations.put("admin-reports-page", defaultConfig.entryTtl(Duration.ofMinutes(30)));
         cacheConfigurations.put("admin-users-stats", defaultConfig.entryTtl(Duration.ofMinutes(5)));
         cacheConfigurations.put("calendar-month", defaultConfig.entryTtl(Duration.ofMinutes(10)));
+        // Окончательные отчёты за закрытые периоды не меняются, поэтому хранятся без срока жизни
+        cacheConfigurations.put("report-results", defaultConfig.entryTtl(Duration.ZERO));
         cacheConfigurations.put("user-products", userProductsConfig);
         cacheConfigurations.put("meal-type", mealTypesConfig);
 
         logger.info("Кэш конфигурация: {}", cacheConfigurations.keySet());
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // Локальный уровень: TTL не больше, чем у записи в Redis
+        Map<String, NearCacheSpec> nearCacheSpecs = new HashMap<>();
+        nearCacheSpecs.put("admin-reports-page", new NearCacheSpec(500, Duration.ofMinutes(5)));
+        nearCacheSpecs.put("admin-users-stats", new NearCacheSpec(10, Duration.ofMinutes(1)));
+        nearCacheSpecs.put("calendar-month", new NearCacheSpec(nearCacheMaxSize, Duration.ofMinutes(2)));
+        nearCacheSpecs.put("user-products", new NearCacheSpec(nearCacheMaxSize, Duration.ofMinutes(5)));
+        nearCacheSpecs.put("meal-type", new NearCacheSpec(10, Duration.ofMinutes(30)));
+        nearCacheSpecs.put("report-results", new NearCacheSpec(1000, Duration.ofHours(1)));
+
+        // Кэши оборачиваются в TransactionAwareCacheDecorator, как раньше делал transactionAware()
+        return new TwoLevelCacheManager(redisCacheManager, nearCacheSpecs,
+                new NearCacheSpec(nearCacheMaxSize, Duration.ofMinutes(1)),
+                stringRedisTemplate, meterRegistry);
+    }
+
+    /**
+     * Выбирает сериализатор списков сущностей по настройке app.cache.codec.
+     * В режиме binary записи прежнего JSON-формата продолжают читаться,
+     * поэтому переключение не требует очистки Redis
+     */
+    private RedisSerializer<Object> listSerializer(CacheValueCodec<?> codec,
+                                                   RedisSerializer<Object> jsonSerializer) {
+        if ("json".equalsIgnoreCase(cacheCodec)) {
+            return jsonSerializer;
+        }
+        return new CompactCacheSerializer<>(codec, List.class, jsonSerializer, cacheCompressThreshold);
     }
 
     @Bean
@@ -0,0 +1,33 @@
+package ru.daniil.NauJava.config.redis.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Бинарный формат значения в кэше Redis.
+ * Версия формата записывается в заголовок каждого значения, поэтому при изменении
+ * формата версия увеличивается, а записи старой версии считаются промахом кэша
+ * @param <T> тип кэшируемого значения
+ */
+public interface CacheValueCodec<T> {
+    /**
+     * Текущая версия формата
+     * @return номер версии от 1 до 127
+     */
+    byte version();
+
+    /**
+     * Записывает значение в поток
+     * @param value значение
+     * @param out поток
+     */
+    void write(T value, DataOutputStream out) throws IOException;
+
+    /**
+     * Читает значение, записанное методом write той же версии
+     * @param in поток
+     * @return значение
+     */
+    T read(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,82 @@
+package ru.daniil.NauJava.config.redis.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Примитивы компактной записи: числа переменной длины, строки и битовые маски null
+ */
+final class CodecIO {
+
+    private CodecIO() {
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Слишком длинное число переменной длины");
+    }
+
+    static void writeZigZag(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZag(DataInputStream in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Записывает маску строк, у которых значение колонки отсутствует
+     */
+    static <T> BitSet writeNullMask(DataOutputStream out, List<T> rows, Predicate<T> isNull) throws IOException {
+        BitSet mask = new BitSet(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (isNull.test(rows.get(i))) {
+                mask.set(i);
+            }
+        }
+        byte[] bytes = new byte[(rows.size() + 7) / 8];
+        byte[] set = mask.toByteArray();
+        System.arraycopy(set, 0, bytes, 0, set.length);
+        out.write(bytes);
+        return mask;
+    }
+
+    static BitSet readNullMask(DataInputStream in, int size) throws IOException {
+        byte[] bytes = new byte[(size + 7) / 8];
+        in.readFully(bytes);
+        return BitSet.valueOf(bytes);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.daniil.NauJava.config.redis.codec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Сериализатор значений кэша в компактный бинарный формат.
+ * Заголовок значения: признак формата, версия кодека и флаги (сжатие).
+ * Значения больше порога сжимаются, если сжатие действительно уменьшает размер.
+ * Записи без заголовка (сделанные прежним JSON-сериализатором) читаются через legacySerializer,
+ * записи другой версии кодека считаются промахом и будут перезаписаны
+ * @param <T> тип кэшируемого значения
+ */
+public class CompactCacheSerializer<T> implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xC7;
+    static final byte FLAG_DEFLATE = 0x01;
+    private static final int HEADER_SIZE = 3;
+
+    private final CacheValueCodec<T> codec;
+    private final Class<?> valueType;
+    private final RedisSerializer<Object> legacySerializer;
+    private final int compressThreshold;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    /**
+     * @param codec бинарный формат значения
+     * @param valueType тип значения, например List для списков сущностей
+     * @param legacySerializer сериализатор для чтения записей, сделанных до перехода на бинарный формат
+     * @param compressThreshold размер в байтах, начиная с которого значение сжимается
+     */
+    public CompactCacheSerializer(CacheValueCodec<T> codec,
+                                  Class<?> valueType,
+                                  RedisSerializer<Object> legacySerializer,
+                                  int compressThreshold) {
+        this.codec = codec;
+        this.valueType = valueType;
+        this.legacySerializer = legacySerializer;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (!valueType.isInstance(value)) {
+            throw new SerializationException("Ожидалось значение типа " + valueType.getName() +
+                    ", получено " + value.getClass().getName());
+        }
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(body)) {
+                codec.write((T) value, out);
+            }
+            byte[] raw = body.toByteArray();
+
+            byte flags = 0;
+            byte[] payload = raw;
+            if (raw.length >= compressThreshold) {
+                byte[] compressed = deflate(raw);
+                if (compressed.length < raw.length) {
+                    payload = compressed;
+                    flags |= FLAG_DEFLATE;
+                }
+            }
+
+            byte[] result = new byte[HEADER_SIZE + payload.length];
+            result[0] = MAGIC;
+            result[1] = codec.version();
+            result[2] = flags;
+            System.arraycopy(payload, 0, result, HEADER_SIZE, payload.length);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("Ошибка бинарной сериализации значения кэша", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer != null ? legacySerializer.deserialize(bytes) : null;
+        }
+        if (bytes.length < HEADER_SIZE || bytes[1] != codec.version()) {
+            methodLogger.debug("{CompactCacheSerializer.deserialize} |" +
+                    " Запись другой версии формата, считается промахом кэша");
+            return null;
+        }
+        InputStream body = new ByteArrayInputStream(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+        if ((bytes[2] & FLAG_DEFLATE) != 0) {
+            body = new InflaterInputStream(body);
+        }
+        try (DataInputStream in = new DataInputStream(body)) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new SerializationException("Ошибка бинарной десериализации значения кэша", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
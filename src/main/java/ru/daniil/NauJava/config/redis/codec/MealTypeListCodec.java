@@ -0,0 +1,61 @@
+package ru.daniil.NauJava.config.redis.codec;
+
+import ru.daniil.NauJava.entity.MealType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запись списка типов приёмов пищи: id, название и описание каждого типа
+ */
+public class MealTypeListCodec implements CacheValueCodec<List<MealType>> {
+    private static final byte VERSION = 1;
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(List<MealType> mealTypes, DataOutputStream out) throws IOException {
+        CodecIO.writeVarLong(out, mealTypes.size());
+        for (MealType mealType : mealTypes) {
+            out.writeBoolean(mealType.getId() != null);
+            if (mealType.getId() != null) {
+                CodecIO.writeVarLong(out, mealType.getId());
+            }
+            writeNullableString(out, mealType.getName());
+            writeNullableString(out, mealType.getDescription());
+        }
+    }
+
+    @Override
+    public List<MealType> read(DataInputStream in) throws IOException {
+        int size = (int) CodecIO.readVarLong(in);
+        List<MealType> mealTypes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            MealType mealType = new MealType();
+            if (in.readBoolean()) {
+                mealType.setId(CodecIO.readVarLong(in));
+            }
+            mealType.setName(readNullableString(in));
+            mealType.setDescription(readNullableString(in));
+            mealTypes.add(mealType);
+        }
+        return mealTypes;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            CodecIO.writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? CodecIO.readString(in) : null;
+    }
+}
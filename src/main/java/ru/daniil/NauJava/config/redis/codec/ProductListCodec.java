@@ -0,0 +1,106 @@
+package ru.daniil.NauJava.config.redis.codec;
+
+import ru.daniil.NauJava.entity.Product;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Поколоночная запись списка продуктов: сначала все id (разностями от предыдущего),
+ * затем все названия, затем по колонке на каждый показатель питательности.
+ * Сохраняются те же поля, что попадали в кэш при JSON-сериализации
+ */
+public class ProductListCodec implements CacheValueCodec<List<Product>> {
+    private static final byte VERSION = 1;
+
+    private static final List<Function<Product, Double>> NUTRIENT_GETTERS = List.of(
+            Product::getCaloriesPer100g,
+            Product::getProteinsPer100g,
+            Product::getFatsPer100g,
+            Product::getCarbsPer100g
+    );
+    private static final List<BiConsumer<Product, Double>> NUTRIENT_SETTERS = List.of(
+            Product::setCaloriesPer100g,
+            Product::setProteinsPer100g,
+            Product::setFatsPer100g,
+            Product::setCarbsPer100g
+    );
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(List<Product> products, DataOutputStream out) throws IOException {
+        int size = products.size();
+        CodecIO.writeVarLong(out, size);
+
+        BitSet nullIds = CodecIO.writeNullMask(out, products, product -> product.getId() == null);
+        long previousId = 0;
+        for (int i = 0; i < size; i++) {
+            if (!nullIds.get(i)) {
+                long id = products.get(i).getId();
+                CodecIO.writeZigZag(out, id - previousId);
+                previousId = id;
+            }
+        }
+
+        BitSet nullNames = CodecIO.writeNullMask(out, products, product -> product.getName() == null);
+        for (int i = 0; i < size; i++) {
+            if (!nullNames.get(i)) {
+                CodecIO.writeString(out, products.get(i).getName());
+            }
+        }
+
+        for (Function<Product, Double> getter : NUTRIENT_GETTERS) {
+            BitSet nulls = CodecIO.writeNullMask(out, products, product -> getter.apply(product) == null);
+            for (int i = 0; i < size; i++) {
+                if (!nulls.get(i)) {
+                    out.writeDouble(getter.apply(products.get(i)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Product> read(DataInputStream in) throws IOException {
+        int size = (int) CodecIO.readVarLong(in);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product());
+        }
+
+        BitSet nullIds = CodecIO.readNullMask(in, size);
+        long previousId = 0;
+        for (int i = 0; i < size; i++) {
+            if (!nullIds.get(i)) {
+                previousId += CodecIO.readZigZag(in);
+                products.get(i).setId(previousId);
+            }
+        }
+
+        BitSet nullNames = CodecIO.readNullMask(in, size);
+        for (int i = 0; i < size; i++) {
+            if (!nullNames.get(i)) {
+                products.get(i).setName(CodecIO.readString(in));
+            }
+        }
+
+        for (BiConsumer<Product, Double> setter : NUTRIENT_SETTERS) {
+            BitSet nulls = CodecIO.readNullMask(in, size);
+            for (int i = 0; i < size; i++) {
+                if (!nulls.get(i)) {
+                    setter.accept(products.get(i), in.readDouble());
+                }
+            }
+        }
+        return products;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.daniil.NauJava.config.redis.codec;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сериализатор атрибутов HTTP-сессий в Redis.
+ * Служебные поля сессии (время создания и последнего обращения, таймаут) пишутся числами переменной длины,
+ * SecurityContext с AuthenticatedUser - как id, логин и роли, без WebAuthenticationDetails и учётных данных.
+ * Остальные атрибуты сериализуются стандартной Java-сериализацией.
+ * Первый байт значения - признак формата
+ */
+public class SessionAttributeSerializer implements RedisSerializer<Object> {
+    static final byte JAVA = 0x00;
+    static final byte LONG = 0x01;
+    static final byte INTEGER = 0x02;
+    static final byte SECURITY_CONTEXT = 0x03;
+
+    private static final long NO_USER_ID = -1L;
+
+    private final RedisSerializer<Object> javaSerializer;
+
+    public SessionAttributeSerializer(ClassLoader classLoader) {
+        this.javaSerializer = new JdkSerializationRedisSerializer(classLoader);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (value instanceof Long number) {
+                out.writeByte(LONG);
+                CodecIO.writeZigZag(out, number);
+            } else if (value instanceof Integer number) {
+                out.writeByte(INTEGER);
+                CodecIO.writeZigZag(out, number);
+            } else if (value instanceof SecurityContext context && isCompact(context.getAuthentication())) {
+                out.writeByte(SECURITY_CONTEXT);
+                writePrincipal(out, (AuthenticatedUser) context.getAuthentication().getPrincipal());
+            } else {
+                out.writeByte(JAVA);
+                out.write(javaSerializer.serialize(value));
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Не удалось сериализовать атрибут сессии", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            return switch (bytes[0]) {
+                case LONG -> CodecIO.readZigZag(in);
+                case INTEGER -> (int) CodecIO.readZigZag(in);
+                case SECURITY_CONTEXT -> readSecurityContext(in);
+                case JAVA -> javaSerializer.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+                default -> throw new SerializationException("Неизвестный формат атрибута сессии: " + bytes[0]);
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Повреждённый атрибут сессии", e);
+        }
+    }
+
+    /**
+     * Компактно хранится только аутентификация формы входа с AuthenticatedUser и уже затёртым паролем
+     */
+    private static boolean isCompact(Authentication authentication) {
+        return authentication instanceof UsernamePasswordAuthenticationToken
+                && authentication.isAuthenticated()
+                && authentication.getCredentials() == null
+                && authentication.getPrincipal() instanceof AuthenticatedUser;
+    }
+
+    private static void writePrincipal(DataOutputStream out, AuthenticatedUser principal) throws IOException {
+        CodecIO.writeZigZag(out, principal.getId() != null ? principal.getId() : NO_USER_ID);
+        CodecIO.writeString(out, principal.getLogin());
+        CodecIO.writeVarLong(out, principal.getAuthorities().size());
+        for (GrantedAuthority authority : principal.getAuthorities()) {
+            CodecIO.writeString(out, authority.getAuthority());
+        }
+    }
+
+    private static SecurityContext readSecurityContext(DataInputStream in) throws IOException {
+        long id = CodecIO.readZigZag(in);
+        String login = CodecIO.readString(in);
+        int size = (int) CodecIO.readVarLong(in);
+        List<GrantedAuthority> authorities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authorities.add(new SimpleGrantedAuthority(CodecIO.readString(in)));
+        }
+        AuthenticatedUser principal = new AuthenticatedUser(id != NO_USER_ID ? id : null, login, authorities);
+        return new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+}
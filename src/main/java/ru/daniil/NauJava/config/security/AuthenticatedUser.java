@@ -0,0 +1,120 @@
+package ru.daniil.NauJava.config.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import ru.daniil.NauJava.entity.User;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Аутентифицированный пользователь в SecurityContext: id, логин и роли.
+ * Одинаково заполняется при входе через форму и по claims JWT,
+ * поэтому id текущего пользователя доступен без обращения к БД.
+ * Хэш пароля нужен только на время проверки при входе и затирается после неё
+ */
+public final class AuthenticatedUser implements UserDetails, CredentialsContainer {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Long id;
+    private final String login;
+    private final List<GrantedAuthority> authorities;
+    private String password;
+
+    public AuthenticatedUser(Long id, String login, Collection<? extends GrantedAuthority> authorities) {
+        this(id, login, authorities, null);
+    }
+
+    private AuthenticatedUser(Long id, String login, Collection<? extends GrantedAuthority> authorities,
+                              String password) {
+        this.id = id;
+        this.login = Objects.requireNonNull(login);
+        this.authorities = List.copyOf(authorities);
+        this.password = password;
+    }
+
+    /**
+     * Создаёт principal для проверки пароля при входе через форму
+     * @param user сущность пользователя с загруженными ролями
+     * @return principal с хэшем пароля
+     */
+    public static AuthenticatedUser forLogin(User user) {
+        return new AuthenticatedUser(user.getId(), user.getLogin(), authoritiesOf(user), user.getPassword());
+    }
+
+    /**
+     * Создаёт principal без пароля, например после изменения данных аккаунта
+     * @param user сущность пользователя с загруженными ролями
+     * @return principal без пароля
+     */
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getLogin(), authoritiesOf(user));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    /**
+     * @param roleName название роли без префикса ROLE_
+     * @return true, если у пользователя есть роль
+     */
+    public boolean hasRole(String roleName) {
+        String authority = ROLE_PREFIX + roleName;
+        return authorities.stream().anyMatch(granted -> granted.getAuthority().equals(authority));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return login;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AuthenticatedUser that)) return false;
+        return Objects.equals(id, that.id) && login.equals(that.login);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, login);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", login='" + login + "', authorities=" + authorities + "}";
+    }
+
+    private static List<GrantedAuthority> authoritiesOf(User user) {
+        return user.getRoles().stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role.getName()))
+                .toList();
+    }
+}
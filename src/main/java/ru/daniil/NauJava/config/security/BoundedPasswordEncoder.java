@@ -0,0 +1,128 @@
+package ru.daniil.NauJava.config.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.daniil.NauJava.exception.PasswordHashingBusyException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Кодировщик паролей, выполняющий хэширование в отдельном ограниченном пуле.
+ * Хэширование занимает не больше потоков, чем в пуле, поэтому всплеск входов не забирает
+ * все ядра у остальных запросов. Если очередь пула заполнена, запрос сразу отклоняется
+ * исключением PasswordHashingBusyException (ответ 503 с Retry-After).
+ * Время ожидания в очереди и время хэширования публикуются как password.hashing.queue
+ * и password.hashing с тегом operation
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolTaskExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final Timer queueTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    /**
+     * @param delegate кодировщик, выполняющий хэширование
+     * @param executor ограниченный пул с ограниченной очередью и AbortPolicy
+     * @param meterRegistry реестр метрик
+     * @param retryAfterSeconds значение Retry-After при отказе
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry,
+                                  long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queueTimer = Timer.builder("password.hashing.queue")
+                .description("Ожидание хэширования пароля в очереди")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing")
+                .tag("operation", "encode")
+                .description("Хэширование пароля")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing")
+                .tag("operation", "matches")
+                .description("Хэширование пароля")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Отклонённые из-за заполненной очереди запросы хэширования")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Количество запросов хэширования в очереди")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Не хэширует пароль, а только сравнивает параметры хэша, поэтому выполняется в текущем потоке
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> hashing) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return hashing.get();
+                } finally {
+                    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            methodLogger.warn("{BoundedPasswordEncoder.submit} | Очередь хэширования паролей заполнена");
+            throw busy();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+        }
+    }
+
+    private PasswordHashingBusyException busy() {
+        return new PasswordHashingBusyException(
+                "Сервер перегружен входами, повторите попытку через " + retryAfterSeconds + " с",
+                retryAfterSeconds);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.daniil.NauJava.config.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import ru.daniil.NauJava.exception.PasswordHashingBusyException;
+
+import java.io.IOException;
+
+/**
+ * Обработчик неудачного входа через форму: при перегрузке хэширования паролей
+ * отвечает 503 с Retry-After, в остальных случаях перенаправляет на страницу входа с ошибкой
+ */
+public class LoginFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+    public LoginFailureHandler(String failureUrl) {
+        super(failureUrl);
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request,
+                                        HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+        if (exception instanceof PasswordHashingBusyException busy) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, busy.getMessage());
+            return;
+        }
+        super.onAuthenticationFailure(request, response, exception);
+    }
+}
@@ -1,9 +1,11 @@
 package ru.daniil.NauJava.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import ru.daniil.NauJava.entity.User;
+import ru.daniil.NauJava.exception.PasswordHashingBusyException;
 import ru.daniil.NauJava.request.create.RegistrationRequest;
 import ru.daniil.NauJava.service.UserProfileService;
 import ru.daniil.NauJava.service.UserService;
@@ -63,7 +66,9 @@ public class AuthController {
     @PostMapping("/register")
     public String registerUser(@Valid @ModelAttribute("user") RegistrationRequest registrationRequest,
                                BindingResult bindingResult,
-                               RedirectAttributes redirectAttributes) {
+                               RedirectAttributes redirectAttributes,
+                               Model model,
+                               HttpServletResponse response) {
 
         if (bindingResult.hasErrors()) {
             return "register";
@@ -82,6 +87,11 @@ public class AuthController {
 
             return "redirect:/login";
 
+        } catch (PasswordHashingBusyException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            model.addAttribute("errorMessage", e.getMessage());
+            return "register";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage",
                     "Ошибка регистрации: " + e.getMessage());
@@ -1,6 +1,7 @@
 package ru.daniil.NauJava.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -112,6 +113,28 @@ public class NewExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Обрабатывает отказ в хэшировании пароля из-за заполненной очереди:
+     * возвращает 503 с заголовком Retry-After
+     *
+     * @param ex      ошибка
+     * @param request запрос в котором произошла ошибка
+     * @return ответ с ошибкой
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ApiError> handlePasswordHashingBusy(PasswordHashingBusyException ex, WebRequest request) {
+        ApiError apiError = new ApiError(
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                getRequestPath(request)
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(apiError);
+    }
+
     private String getRequestPath(WebRequest request) {
         if (request instanceof ServletWebRequest) {
             HttpServletRequest servletRequest = ((ServletWebRequest) request).getRequest();
@@ -1,5 +1,6 @@
 package ru.daniil.NauJava.controller.admin;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -103,17 +104,16 @@ public class JwtAuthController {
     @PostMapping("/validate")
     public ResponseEntity<?> validateToken(@RequestBody String token) {
 
-        if (!jwtTokenProvider.validateToken(token)) {
+        Optional<Claims> claims = jwtTokenProvider.parseClaims(token);
+        if (claims.isEmpty()) {
             return ResponseEntity.accepted()
                     .body(Map.of("valid", false, "message", "Невалидный токен"));
         }
 
-        String username = jwtTokenProvider.getUsernameFromToken(token);
-
         Map<String, Object> response = new HashMap<>();
         response.put("valid", true);
-        response.put("username", username);
-        response.put("expiresAt", jwtTokenProvider.getExpirationDateFromToken(token));
+        response.put("username", claims.get().getSubject());
+        response.put("expiresAt", claims.get().getExpiration());
 
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,86 @@
+package ru.daniil.NauJava.controller.admin.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.daniil.NauJava.enums.ExportFormat;
+import ru.daniil.NauJava.service.export.MealExportService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/admin/api/export")
+public class MealExportApiController {
+
+    private final MealExportService mealExportService;
+
+    private static final Logger logger = LoggerFactory.getLogger(MealExportApiController.class);
+    private static final Logger appLogger = LoggerFactory.getLogger("APP-LOGGER");
+
+    public MealExportApiController(MealExportService mealExportService) {
+        this.mealExportService = mealExportService;
+    }
+
+    /**
+     * Потоковая выгрузка всех продуктов из приёмов пищи за период, сжатая gzip
+     * @param from дата начала периода
+     * @param to дата окончания периода
+     * @param format csv или ndjson
+     * @return файл выгрузки, 400 при неверных параметрах или 503 если уже идёт слишком много выгрузок
+     */
+    @GetMapping("/meals")
+    public ResponseEntity<StreamingResponseBody> exportMeals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        appLogger.info("GET /admin/api/export/meals | Выгрузка приёмов пищи за {} - {}", from, to);
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (!mealExportService.tryAcquireSlot()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                mealExportService.export(from, to, exportFormat, out);
+            } catch (Exception e) {
+                logger.warn("Выгрузка приёмов пищи за {} - {} прервана: {}", from, to, e.getMessage());
+                throw e;
+            } finally {
+                mealExportService.releaseSlot();
+            }
+        };
+
+        String filename = String.format("meals_%s_%s.%s.gz",
+                from.format(DateTimeFormatter.BASIC_ISO_DATE),
+                to.format(DateTimeFormatter.BASIC_ISO_DATE),
+                exportFormat.getExtension());
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, "application/gzip")
+                .header("Cache-Control", "no-cache, no-store, must-revalidate")
+                .body(body);
+    }
+}
@@ -9,56 +9,73 @@ import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportMetrics;
 import ru.daniil.NauJava.enums.ReportStatus;
 import ru.daniil.NauJava.request.create.CreateReportRequest;
 import ru.daniil.NauJava.response.ReportCreationResponse;
 import ru.daniil.NauJava.response.ReportDataResponse;
 import ru.daniil.NauJava.response.ReportResponse;
+import ru.daniil.NauJava.response.ReportsPageResponse;
+import ru.daniil.NauJava.response.StandardReportResponse;
+import ru.daniil.NauJava.service.admin.ReportProgressService;
 import ru.daniil.NauJava.service.admin.ReportService;
 import ru.daniil.NauJava.service.admin.ReportServiceImpl;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 @Controller
 @RequestMapping("/admin/api/reports")
 public class ReportApiController {
+    private static final List<Integer> PAGE_SIZES = List.of(8, 16, 32, 48);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter FILE_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final DateTimeFormatter CSV_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter CSV_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
 
     private final ReportService reportService;
+    private final ReportProgressService reportProgressService;
 
     private static final Logger logger = LoggerFactory.getLogger(ReportApiController.class);
     private static final Logger appLogger = LoggerFactory.getLogger("APP-LOGGER");
 
-    public ReportApiController(ReportServiceImpl reportService) {
+    public ReportApiController(ReportServiceImpl reportService,
+                               ReportProgressService reportProgressService) {
         this.reportService = reportService;
+        this.reportProgressService = reportProgressService;
     }
 
+    /**
+     * Возвращает страницу отчётов, новые сначала
+     * @param cursor курсор следующей страницы из предыдущего ответа или ничего для первой страницы
+     * @param size размер страницы
+     * @return отчёты страницы и курсор следующей страницы, 400 при некорректном курсоре
+     */
     @GetMapping("/page")
-    public ResponseEntity<List<ReportResponse>> getReportsPage(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<ReportsPageResponse> getReportsPage(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "8") int size)
     {
         try {
             appLogger.info("GET /admin/api/reports/page | Получение страницы отчётов");
-            if (page < 0) {
-                page = 0;
-            }
-
-            if (!Arrays.asList(8, 16, 32, 48).contains(size)) {
+            if (!PAGE_SIZES.contains(size)) {
                 size = 8;
             }
 
-            List<ReportResponse> reports = reportService.getPaginateReports(page, size);
-
-            return ResponseEntity.ok(reports);
+            return ResponseEntity.ok(reportService.getReportsPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Некорректный курсор страницы отчётов: {}", cursor);
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Ошибка при получении страницы отчётов");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -86,9 +103,9 @@ public class ReportApiController {
      * @return данные последнего отчёта
      */
     @GetMapping("/latest")
-    public ResponseEntity<Report> getLatestReport() {
+    public ResponseEntity<ReportResponse> getLatestReport() {
         try {
-            Optional<Report> reports = reportService.getLatestReport();
+            Optional<ReportResponse> reports = reportService.getLatestReport();
 
             return reports.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -98,8 +115,24 @@ public class ReportApiController {
     }
 
     /**
-     * Создает новый отчет и запускает его формирование
-     * @return ID созданного отчета
+     * Возвращает стандартные периоды с заранее сформированными отчётами,
+     * чтобы готовый отчёт открывался без запуска формирования
+     * @return периоды с краткими данными отчётов
+     */
+    @GetMapping("/standard")
+    public ResponseEntity<List<StandardReportResponse>> getStandardReports() {
+        try {
+            return ResponseEntity.ok(reportService.getStandardReports());
+        } catch (Exception e) {
+            logger.error("При получении отчётов за стандартные периоды возникла ошибка: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Возвращает отчёт за период: готовый или формирующийся отчёт отдаётся сразу,
+     * иначе отчёт создаётся и ставится в очередь формирования
+     * @return ID отчета за период
      */
     @PostMapping("/generate")
     public ResponseEntity<ReportCreationResponse> generateReport(
@@ -110,34 +143,22 @@ public class ReportApiController {
                 ReportCreationResponse response = new ReportCreationResponse(
                         null, "error",
                         "Дата начала не может быть позже даты окончания",
-                        request.getStartDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))
-                        , request.getEndDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))
+                        request.getStartDate().format(DATE_FORMAT)
+                        , request.getEndDate().format(DATE_FORMAT)
                 );
                 return ResponseEntity.badRequest().body(response);
             }
 
-            LocalDate today = LocalDate.now();
-            if (!request.getEndDate().isEqual(today) &&
-                    reportService.reportExistsForPeriod(request.getStartDate(), request.getEndDate())) {
-                ReportCreationResponse response = new ReportCreationResponse(
-                        null, "error",
-                        "Отчет за указанный период уже существует",
-                        request.getStartDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")),
-                        request.getEndDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))
-                );
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            Long reportId = reportService.createReport(request.getStartDate(), request.getEndDate());
-
-            reportService.generateReportAsync(reportId);
+            // Готовый или уже формирующийся отчёт за период возвращается без повторного формирования
+            Long reportId = reportService.requestReport(request.getStartDate(), request.getEndDate());
+            boolean ready = reportService.getReportStatus(reportId) == ReportStatus.COMPLETED;
 
             ReportCreationResponse response = new ReportCreationResponse(
                     reportId,
                     "success",
-                    "Формирование отчета начато",
-                    request.getStartDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")),
-                    request.getEndDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))
+                    ready ? "Отчет за указанный период уже сформирован" : "Формирование отчета начато",
+                    request.getStartDate().format(DATE_FORMAT),
+                    request.getEndDate().format(DATE_FORMAT)
             );
 
             return ResponseEntity.ok(response);
@@ -148,13 +169,30 @@ public class ReportApiController {
                     null,
                     "error",
                     "Ошибка при создании отчета: " + e.getMessage(),
-                    request.getStartDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")),
-                    request.getEndDate().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))
+                    request.getStartDate().format(DATE_FORMAT),
+                    request.getEndDate().format(DATE_FORMAT)
             );
             return ResponseEntity.badRequest().body(response);
         }
     }
 
+    /**
+     * Подписка на ход формирования отчётов через Server-Sent Events.
+     * Событие progress приходит при каждой смене статуса и этапа отчёта
+     * @param reportId id отчёта или ничего, чтобы получать события всех отчётов
+     * @return поток событий или 503, если подписчиков слишком много
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToReportEvents(@RequestParam(required = false) Long reportId) {
+        try {
+            appLogger.info("GET /admin/api/reports/events | Подписка на события отчётов");
+            return ResponseEntity.ok(reportProgressService.subscribe(reportId));
+        } catch (IllegalStateException e) {
+            logger.warn("Отказ в подписке на события отчётов: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     /**
      * Получает статус отчета
      * @param reportId ID отчёта
@@ -196,6 +234,28 @@ public class ReportApiController {
         }
     }
 
+    /**
+     * Получает метрики питания отчёта: квантили калорий и макронутриентов,
+     * достижение целей, частые продукты и разбивку по типам приёмов пищи
+     * @param reportId ID отчёта
+     * @return метрики отчёта
+     */
+    @GetMapping("/{reportId}/metrics")
+    @ResponseBody
+    public ResponseEntity<ReportMetrics> getReportMetrics(@PathVariable Long reportId) {
+        try {
+            appLogger.info("GET /admin/api/reports/{reportId}/metrics | Получение метрик отчёта");
+            ReportMetrics metrics = reportService.getReportMetrics(reportId);
+            if (metrics == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(metrics);
+        } catch (Exception e) {
+            logger.error("Ошибка при получении метрик отчёта {}: {}", reportId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Возвращает информацию по определённому отчёту
      * @param reportId id отчёта
@@ -206,14 +266,14 @@ public class ReportApiController {
     public ResponseEntity<ReportDataResponse> getReportData(@PathVariable Long reportId) {
         try {
             appLogger.info("GET /admin/api/reports/{reportId}/data | Получение даты за которые формировался отчёт");
-            Report report = reportService.getReportById(reportId).orElse(null);
+            ReportResponse report = reportService.getReportSummary(reportId).orElse(null);
             if (report == null) {
                 return ResponseEntity.notFound().build();
             }
             ReportDataResponse response = new ReportDataResponse(
-                    report.getStatus().toString(),
-                    report.getReportPeriodStart().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")),
-                    report.getReportPeriodEnd().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")),
+                    report.getStatus(),
+                    report.getPeriodStart(),
+                    report.getPeriodEnd(),
                     report.getTotalExecutionTime()
             );
             return ResponseEntity.ok(response);
@@ -265,9 +325,9 @@ public class ReportApiController {
             byte[] contentBytes = csvContent.getBytes(StandardCharsets.UTF_8);
 
             String filename = String.format("report_%s_%s_%s.csv",
-                    report.getReportPeriodStart().format(DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    report.getReportPeriodEnd().format(DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    report.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
+                    report.getReportPeriodStart().format(FILE_DATE_FORMAT),
+                    report.getReportPeriodEnd().format(FILE_DATE_FORMAT),
+                    report.getCreatedAt().format(FILE_DATE_TIME_FORMAT));
 
             ByteArrayResource resource = new ByteArrayResource(contentBytes);
 
@@ -306,6 +366,26 @@ public class ReportApiController {
         }
     }
 
+    /**
+     * Отменяет формирование отчёта, ожидающего в очереди или формирующегося
+     * @param reportId id отчёта
+     * @return код ответа 200, 409 если отчёт уже сформирован или 500
+     */
+    @PostMapping("/{reportId}/cancel")
+    @ResponseBody
+    public ResponseEntity<Void> cancelReport(@PathVariable Long reportId) {
+        try {
+            appLogger.info("POST /admin/api/reports/{reportId}/cancel | Отмена формирования отчёта {}", reportId);
+            if (reportService.cancelReport(reportId)) {
+                return ResponseEntity.ok().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("Ошибка при отмене формирования отчёта {}: {}", reportId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Генерирует CSV содержимое отчёта
      * @param report содержимое отчёта
@@ -319,9 +399,9 @@ public class ReportApiController {
 
         // Основные данные
         csv.append(String.format("Период отчёта (начало),%s,дата,\n",
-                report.getReportPeriodStart().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))));
+                report.getReportPeriodStart().format(CSV_DATE_FORMAT)));
         csv.append(String.format("Период отчёта (окончание),%s,дата,\n",
-                report.getReportPeriodEnd().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))));
+                report.getReportPeriodEnd().format(CSV_DATE_FORMAT)));
 
         if (report.getTotalUsersRegistered() != null) {
             csv.append(String.format("Зарегистрировано пользователей,%d,чел.,\n",
@@ -356,11 +436,11 @@ public class ReportApiController {
         }
 
         csv.append(String.format("Дата создания отчёта,%s,дата/время,\n",
-                report.getCreatedAt().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))));
+                report.getCreatedAt().format(CSV_DATE_TIME_FORMAT)));
 
         if (report.getCompletedAt() != null) {
             csv.append(String.format("Дата завершения отчёта,%s,дата/время,\n",
-                    report.getCompletedAt().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))));
+                    report.getCompletedAt().format(CSV_DATE_TIME_FORMAT)));
         }
 
         csv.append(String.format("Статус отчёта,%s,,\n", report.getStatus()));
@@ -8,20 +8,21 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.daniil.NauJava.response.UserDetailsResponse;
-import ru.daniil.NauJava.response.UsersListResponse;
+import ru.daniil.NauJava.response.UsersPageResponse;
 import ru.daniil.NauJava.response.UsersStatisticsResponse;
 import ru.daniil.NauJava.service.admin.AdminService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/admin/api/users")
 public class AdminUsersApiController {
 
     private final AdminService adminService;
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private static final Logger logger = LoggerFactory.getLogger(AdminUsersApiController.class);
     private static final Logger appLogger = LoggerFactory.getLogger("APP-LOGGER");
 
@@ -30,17 +31,24 @@ public class AdminUsersApiController {
     }
 
     /**
-     * Метод контроллера, что служит для генерации списка из информации по пользователям вместе
-     * с их датой последней активности
-     * @return список DTO UsersListResponse
+     * Метод контроллера, что служит для постраничной выдачи информации по пользователям вместе
+     * с их датой последней активности. Страницы идут от самых недавно активных пользователей
+     * @param cursor курсор следующей страницы из предыдущего ответа, для первой страницы не указывается
+     * @param limit размер страницы (от 1 до 200)
+     * @return DTO UsersPageResponse со списком пользователей и курсором следующей страницы
      */
     @GetMapping
-    public ResponseEntity<List<UsersListResponse>> getUsersList() {
+    public ResponseEntity<UsersPageResponse> getUsersList(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int limit) {
         try {
-            appLogger.info("GET /admin/api/users/ | Получение данных о пользователях");
-            List<UsersListResponse> users = adminService.getUsersWithLastActivity();
-            appLogger.debug("Данные о пользователях получены");
-            return ResponseEntity.ok(users);
+            appLogger.info("GET /admin/api/users/ | Получение страницы данных о пользователях");
+            int boundedLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            UsersPageResponse page = adminService.getUsersPage(cursor, boundedLimit);
+            appLogger.debug("Данные о пользователях получены, на странице: {}", page.getUsers().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Некорректный курсор страницы пользователей:{}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.warn("Получение данных о пользователях прошло неудачно с ошибкой:{}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
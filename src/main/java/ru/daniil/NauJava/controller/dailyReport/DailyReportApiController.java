@@ -7,7 +7,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.response.CalendarDayResponse;
 import ru.daniil.NauJava.response.DailyReportResponse;
 import ru.daniil.NauJava.service.DailyReportService;
@@ -50,9 +49,9 @@ public class DailyReportApiController {
                 targetDate = LocalDate.of(year, month, 1);
             }
 
-            User user = userService.getAuthUser()
+            Long userId = userService.getAuthUserId()
                     .orElseThrow(() -> new RuntimeException("Пользователь не авторизован"));
-            List<CalendarDayResponse> calendarData = dailyReportService.getCalendarDataForMonth(targetDate, user.getId());
+            List<CalendarDayResponse> calendarData = dailyReportService.getCalendarDataForMonth(targetDate, userId);
             return ResponseEntity.ok(calendarData);
         } catch (Exception e) {
             logger.warn("Получение календаря для профиля пользователя прошло неудачно с ошибкой:{}", e.getMessage());
@@ -74,9 +73,9 @@ public class DailyReportApiController {
         try {
             appLogger.info("GET /api/daily-reports/data | Получение статистики по пользовательскому потреблению");
 
-            User user = userService.getAuthUser()
+            Long userId = userService.getAuthUserId()
                     .orElseThrow(() -> new RuntimeException("Пользователь не авторизован"));
-            List<DailyReportResponse> reports = dailyReportService.getDailyReportsForMonth(year, month, user.getId());
+            List<DailyReportResponse> reports = dailyReportService.getDailyReportsForMonth(year, month, userId);
             return ResponseEntity.ok(reports);
         } catch (Exception e) {
             logger.warn("Получение статистики прошло неудачно с ошибкой:{}", e.getMessage());
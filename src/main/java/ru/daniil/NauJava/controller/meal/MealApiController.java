@@ -35,7 +35,6 @@ public class MealApiController {
 
             Meal meal = mealService.createMealWithProducts(request.getMealTypeName(),
                     request.getProductNames(), request.getQuantities());
-            mealService.updateNutritionSum(meal.getDailyReport().getId());
 
             appLogger.debug("Создание нового приёма пищи прошло успешно, его id:{}", meal.getId());
 
@@ -56,9 +55,8 @@ public class MealApiController {
                 return ResponseEntity.badRequest().build();
             }
 
-            Meal meal = mealService.updateMealWithProducts(request.getId(), request.getMealTypeName(),
+            mealService.updateMealWithProducts(request.getId(), request.getMealTypeName(),
                     request.getProductNames(), request.getQuantities());
-            mealService.updateNutritionSum(meal.getDailyReport().getId());
 
             logger.debug("Обновление приёма пищи с id:{} прошло успешно", id);
 
@@ -90,7 +88,7 @@ public class MealApiController {
         try {
             logger.info("GET /api/meals/{id} | Получение приёма пищи пользователя");
 
-            Meal meal = mealService.getMealById(id).orElseThrow();
+            Meal meal = mealService.getMealWithEntriesById(id).orElseThrow();
             MealResponse response = convertToResponse(meal);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
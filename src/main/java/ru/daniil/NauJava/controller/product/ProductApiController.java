@@ -9,7 +9,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.web.bind.annotation.*;
 import ru.daniil.NauJava.entity.Product;
-import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.request.update.UpdateProductRequest;
 import ru.daniil.NauJava.response.ProductInfoResponse;
 import ru.daniil.NauJava.service.ProductService;
@@ -42,9 +41,9 @@ public class ProductApiController {
     public Iterable<Product> getAllProducts() {
         appLogger.info("GET /all | Получение продуктов пользователя");
 
-        User user = userService.getAuthUser().orElseThrow(
+        Long userId = userService.getAuthUserId().orElseThrow(
                 () -> new AuthenticationCredentialsNotFoundException("Пользователь не найден или не авторизован"));
-        return productService.getAll(user.getId());
+        return productService.getAll(userId);
     }
 
     /**
@@ -56,9 +55,28 @@ public class ProductApiController {
     public List<ProductInfoResponse> getAllBaseInfoProducts() {
         appLogger.info("GET /all/baseInfo | Получение id и имён продуктов пользователя");
 
-        User user = userService.getAuthUser().orElseThrow(
+        Long userId = userService.getAuthUserId().orElseThrow(
                 () -> new AuthenticationCredentialsNotFoundException("Пользователь не найден или не авторизован"));
-        return productService.getAll(user.getId()).stream()
+        return productService.getAll(userId).stream()
+                .map(product -> new ProductInfoResponse(product.getId(), product.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ищет продукты пользователя и общего каталога по части названия
+     * @param query часть названия продукта
+     * @param limit максимальное количество результатов
+     * @return id и названия найденных продуктов в порядке релевантности
+     */
+    @GetMapping("/search")
+    public List<ProductInfoResponse> searchProducts(@RequestParam String query,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        appLogger.info("GET /search | Поиск продуктов по части названия");
+
+        Long userId = userService.getAuthUserId().orElseThrow(
+                () -> new AuthenticationCredentialsNotFoundException("Пользователь не найден или не авторизован"));
+        int boundedLimit = Math.max(1, Math.min(limit, 50));
+        return productService.searchByName(query, userId, boundedLimit).stream()
                 .map(product -> new ProductInfoResponse(product.getId(), product.getName()))
                 .collect(Collectors.toList());
     }
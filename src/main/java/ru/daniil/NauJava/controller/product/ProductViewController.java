@@ -12,7 +12,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import ru.daniil.NauJava.entity.Product;
-import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.request.create.CreateProductRequest;
 import ru.daniil.NauJava.service.ProductService;
 import ru.daniil.NauJava.service.UserService;
@@ -40,10 +39,10 @@ public class ProductViewController {
     @GetMapping("/list")
     public ModelAndView productListView() {
         Map<String, Object> model = new HashMap<>();
-        User user = userService.getAuthUser().orElseThrow(
+        Long userId = userService.getAuthUserId().orElseThrow(
                 () -> new AuthenticationCredentialsNotFoundException("Пользователь не найден или не авторизован"));
-        List<Product> products = productService.getAll(user.getId());
-
+        // getAll отдаёт неизменяемое представление каталога, поэтому сортируется копия
+        List<Product> products = new ArrayList<>(productService.getAll(userId));
         products.sort(Comparator.comparing(Product::getId));
 
         model.put("products", products);
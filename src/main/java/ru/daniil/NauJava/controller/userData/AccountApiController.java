@@ -1,15 +1,20 @@
 package ru.daniil.NauJava.controller.userData;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.daniil.NauJava.exception.ApiError;
+import ru.daniil.NauJava.exception.PasswordHashingBusyException;
 import ru.daniil.NauJava.request.update.UpdateAccountRequest;
 import ru.daniil.NauJava.service.UserService;
 
@@ -21,19 +26,27 @@ import java.util.Map;
 public class AccountApiController {
 
     private final UserService userService;
+    private final SecurityContextRepository securityContextRepository;
 
     private static final Logger logger = LoggerFactory.getLogger(AccountApiController.class);
 
-    public AccountApiController(UserService userService) {
+    public AccountApiController(UserService userService, SecurityContextRepository securityContextRepository) {
         this.userService = userService;
+        this.securityContextRepository = securityContextRepository;
     }
 
     @PutMapping("/update")
-    public ResponseEntity<?> updateAccount(@Valid @RequestBody UpdateAccountRequest request) {
+    public ResponseEntity<?> updateAccount(@Valid @RequestBody UpdateAccountRequest request,
+                                           HttpServletRequest httpRequest,
+                                           HttpServletResponse httpResponse) {
         try {
             logger.info("PUT /api/account/update | Обновление учётной записи пользователя");
 
             userService.updateUserAccount(request);
+            // Сессия в Redis сохраняет только явно переданные атрибуты, поэтому обновлённый principal сохраняется явно
+            if (httpRequest.getSession(false) != null) {
+                securityContextRepository.saveContext(SecurityContextHolder.getContext(), httpRequest, httpResponse);
+            }
 
             logger.debug("Обновление учётной записи пользователя c логином {} завершено успешно.",
                     request.getLogin());
@@ -43,6 +56,8 @@ public class AccountApiController {
             response.put("status", "success");
 
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             logger.warn("Ошибка при обновлении аккаунта: {}", e.getMessage());
             System.out.println("Ошибка при обновлении аккаунта: " + e.getMessage());
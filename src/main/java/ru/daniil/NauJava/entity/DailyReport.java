@@ -12,7 +12,8 @@ import java.util.List;
 @Table(name = "tbl_daily_report")
 public class DailyReport {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_report_seq_gen")
+    @SequenceGenerator(name = "daily_report_seq_gen", sequenceName = "tbl_daily_report_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,6 +42,10 @@ public class DailyReport {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     // Связь 1:М с приемами пищи
     @OneToMany(mappedBy = "dailyReport", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Meal> meals = new ArrayList<>();
@@ -126,6 +131,10 @@ public class DailyReport {
         isGoalAchieved = goalAchieved;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public LocalDate getReportDate() {
         return reportDate;
     }
@@ -0,0 +1,123 @@
+package ru.daniil.NauJava.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Сводная статистика системы за один день.
+ * Строки пересчитываются целиком из исходных таблиц, поэтому пересчёт можно повторять
+ */
+@Entity
+@Table(name = "tbl_daily_stats")
+public class DailyStats {
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "users_registered", nullable = false)
+    private long usersRegistered;
+
+    @Column(name = "products_created", nullable = false)
+    private long productsCreated;
+
+    @Column(name = "daily_reports_created", nullable = false)
+    private long dailyReportsCreated;
+
+    @Column(name = "meals_count", nullable = false)
+    private long mealsCount;
+
+    @Column(name = "active_users", nullable = false)
+    private long activeUsers;
+
+    @Column(name = "active_users_sketch")
+    private byte[] activeUsersSketch;
+
+    @Column(name = "active_user_ids")
+    private byte[] activeUserIds;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public DailyStats() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Конструктор пустой сводки за день
+     * @param statDate дата сводки
+     */
+    public DailyStats(LocalDate statDate) {
+        this();
+        this.statDate = statDate;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public long getUsersRegistered() {
+        return usersRegistered;
+    }
+
+    public void setUsersRegistered(long usersRegistered) {
+        this.usersRegistered = usersRegistered;
+    }
+
+    public long getProductsCreated() {
+        return productsCreated;
+    }
+
+    public void setProductsCreated(long productsCreated) {
+        this.productsCreated = productsCreated;
+    }
+
+    public long getDailyReportsCreated() {
+        return dailyReportsCreated;
+    }
+
+    public void setDailyReportsCreated(long dailyReportsCreated) {
+        this.dailyReportsCreated = dailyReportsCreated;
+    }
+
+    public long getMealsCount() {
+        return mealsCount;
+    }
+
+    public void setMealsCount(long mealsCount) {
+        this.mealsCount = mealsCount;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(long activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+
+    public byte[] getActiveUsersSketch() {
+        return activeUsersSketch;
+    }
+
+    public void setActiveUsersSketch(byte[] activeUsersSketch) {
+        this.activeUsersSketch = activeUsersSketch;
+    }
+
+    public byte[] getActiveUserIds() {
+        return activeUserIds;
+    }
+
+    public void setActiveUserIds(byte[] activeUserIds) {
+        this.activeUserIds = activeUserIds;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
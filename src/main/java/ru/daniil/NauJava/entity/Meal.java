@@ -1,6 +1,7 @@
 package ru.daniil.NauJava.entity;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,7 +10,8 @@ import java.util.List;
 @Table(name = "tbl_meals")
 public class Meal {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meals_seq_gen")
+    @SequenceGenerator(name = "meals_seq_gen", sequenceName = "tbl_meals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -23,6 +25,16 @@ public class Meal {
     @Column(name = "eaten_at")
     private LocalDateTime eatenAt;
 
+    /**
+     * Копия id пользователя из дневного отчёта. Позволяет запросам активности
+     * фильтровать приёмы пищи по пользователю без соединения с tbl_daily_report
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "eaten_date")
+    private LocalDate eatenDate;
+
     @OneToMany(mappedBy = "meal", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<MealEntry> mealEntries = new ArrayList<>();
 
@@ -86,6 +98,31 @@ public class Meal {
         this.eatenAt = eatenAt;
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getEatenDate() {
+        return eatenDate;
+    }
+
+    /**
+     * Заполняет денормализованные поля пользователя и даты приёма пищи
+     * перед сохранением сущности
+     */
+    @PrePersist
+    @PreUpdate
+    void fillDenormalizedFields() {
+        if (dailyReport != null && dailyReport.getUser() != null) {
+            userId = dailyReport.getUser().getId();
+        }
+        if (eatenAt != null) {
+            eatenDate = eatenAt.toLocalDate();
+        } else if (dailyReport != null) {
+            eatenDate = dailyReport.getReportDate();
+        }
+    }
+
     public Double getTotalCalories() {
         return mealEntries.stream()
                 .mapToDouble(MealEntry::getCalculatedCalories)
@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 public class MealEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_entries_seq_gen")
+    @SequenceGenerator(name = "meal_entries_seq_gen", sequenceName = "tbl_meal_entries_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
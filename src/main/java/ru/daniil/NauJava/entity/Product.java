@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 )
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq_gen")
+    @SequenceGenerator(name = "product_seq_gen", sequenceName = "tbl_product_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
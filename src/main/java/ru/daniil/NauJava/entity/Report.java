@@ -1,6 +1,8 @@
 package ru.daniil.NauJava.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import ru.daniil.NauJava.enums.ReportStatus;
 
 import java.time.LocalDate;
@@ -33,6 +35,9 @@ public class Report {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
     @Column(name = "total_execution_time")
     private Long totalExecutionTime;
 
@@ -51,6 +56,28 @@ public class Report {
     @Column(name = "active_users_count")
     private Long activeUsersCount;
 
+    @Column(name = "slice_count")
+    private Integer sliceCount;
+
+    @Column(name = "max_slice_time")
+    private Long maxSliceTime;
+
+    @Column(name = "slice_timings", columnDefinition = "TEXT")
+    private String sliceTimings;
+
+    /**
+     * Распределения калорий и макронутриентов, достижение целей, частые продукты и типы приёмов пищи
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "metrics", columnDefinition = "jsonb")
+    private ReportMetrics metrics;
+
+    /**
+     * Версия набора показателей, которой сформирован отчёт
+     */
+    @Column(name = "metrics_version")
+    private Integer metricsVersion;
+
     /**
      * Конструктор по умолчанию для формирования сущности отчёта.
      * Указывает время создания сущности.
@@ -125,6 +152,14 @@ public class Report {
         return completedAt;
     }
 
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
     public Long getTotalExecutionTime() {
         return totalExecutionTime;
     }
@@ -172,4 +207,44 @@ public class Report {
     public void setActiveUsersCount(Long activeUsersCount) {
         this.activeUsersCount = activeUsersCount;
     }
-}
\ No newline at end of file
+
+    public Integer getSliceCount() {
+        return sliceCount;
+    }
+
+    public void setSliceCount(Integer sliceCount) {
+        this.sliceCount = sliceCount;
+    }
+
+    public Long getMaxSliceTime() {
+        return maxSliceTime;
+    }
+
+    public void setMaxSliceTime(Long maxSliceTime) {
+        this.maxSliceTime = maxSliceTime;
+    }
+
+    public String getSliceTimings() {
+        return sliceTimings;
+    }
+
+    public void setSliceTimings(String sliceTimings) {
+        this.sliceTimings = sliceTimings;
+    }
+
+    public ReportMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(ReportMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Integer getMetricsVersion() {
+        return metricsVersion;
+    }
+
+    public void setMetricsVersion(Integer metricsVersion) {
+        this.metricsVersion = metricsVersion;
+    }
+}
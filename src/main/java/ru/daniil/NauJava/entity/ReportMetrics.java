@@ -0,0 +1,52 @@
+package ru.daniil.NauJava.entity;
+
+import java.util.List;
+
+/**
+ * Метрики питания за период отчёта, хранятся в отчёте в колонке metrics (jsonb).
+ * Распределения построены по дням пользователей: одно значение - сумма за день одного пользователя
+ * @param userDays количество дней пользователей с приёмами пищи
+ * @param calories распределение калорий за день
+ * @param proteins распределение белков за день, г
+ * @param fats распределение жиров за день, г
+ * @param carbs распределение углеводов за день, г
+ * @param userDaysWithGoal дни пользователей, у которых задана цель по калориям
+ * @param userDaysGoalAchieved дни, в которые калорийность отличалась от цели не больше чем на 10%
+ * @param goalAchievementRate доля дней с достигнутой целью среди дней с целью или null, если целей нет
+ * @param topProducts самые частые продукты в записях о приёмах пищи
+ * @param mealTypes разбивка по типам приёмов пищи
+ */
+public record ReportMetrics(long userDays,
+                            Distribution calories,
+                            Distribution proteins,
+                            Distribution fats,
+                            Distribution carbs,
+                            long userDaysWithGoal,
+                            long userDaysGoalAchieved,
+                            Double goalAchievementRate,
+                            List<ProductCount> topProducts,
+                            List<MealTypeBreakdown> mealTypes) {
+
+    /**
+     * Квантили распределения
+     */
+    public record Distribution(double p50, double p90, double p99) {
+    }
+
+    /**
+     * @param productId id продукта
+     * @param name название продукта
+     * @param entries оценка количества записей с продуктом (может быть занижена)
+     */
+    public record ProductCount(Long productId, String name, long entries) {
+    }
+
+    /**
+     * @param name название типа приёма пищи
+     * @param meals количество приёмов пищи
+     * @param entries количество записей о продуктах
+     * @param calories сумма калорий
+     */
+    public record MealTypeBreakdown(String name, long meals, long entries, double calories) {
+    }
+}
@@ -0,0 +1,91 @@
+package ru.daniil.NauJava.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Сохранённый итог отчёта за его закрытые дни (с начала периода по closedThrough).
+ * При обновлении отчёта за период, заканчивающийся сегодня, к нему добавляются
+ * только дни после closedThrough, а весь период заново не суммируется.
+ * Метрики питания за те же дни хранятся рядом, итог без них не используется
+ */
+@Entity
+@Table(name = "tbl_report_partial")
+public class ReportPartial {
+    @Id
+    @Column(name = "report_id")
+    private Long reportId;
+
+    @Column(name = "closed_through", nullable = false)
+    private LocalDate closedThrough;
+
+    @Column(name = "aggregate_data", nullable = false)
+    private byte[] aggregate;
+
+    @Column(name = "metrics_data")
+    private byte[] metrics;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    public ReportPartial() {
+    }
+
+    /**
+     * @param reportId id отчёта
+     * @param closedThrough последний учтённый закрытый день
+     * @param aggregate итог за закрытые дни
+     * @param metrics накопитель метрик питания за закрытые дни
+     * @param computedAt момент, на который были прочитаны дневные сводки
+     */
+    public ReportPartial(Long reportId, LocalDate closedThrough, byte[] aggregate, byte[] metrics,
+                         LocalDateTime computedAt) {
+        this.reportId = reportId;
+        this.closedThrough = closedThrough;
+        this.aggregate = aggregate;
+        this.metrics = metrics;
+        this.computedAt = computedAt;
+    }
+
+    public Long getReportId() {
+        return reportId;
+    }
+
+    public void setReportId(Long reportId) {
+        this.reportId = reportId;
+    }
+
+    public LocalDate getClosedThrough() {
+        return closedThrough;
+    }
+
+    public void setClosedThrough(LocalDate closedThrough) {
+        this.closedThrough = closedThrough;
+    }
+
+    public byte[] getAggregate() {
+        return aggregate;
+    }
+
+    public void setAggregate(byte[] aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    public byte[] getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(byte[] metrics) {
+        this.metrics = metrics;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+}
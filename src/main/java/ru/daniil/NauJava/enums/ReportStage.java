@@ -0,0 +1,25 @@
+package ru.daniil.NauJava.enums;
+
+/**
+ * Этапы формирования отчёта, о которых сообщается подписчикам прогресса
+ */
+public enum ReportStage {
+    QUEUED("В очереди"),
+    USERS("Пользователи"),
+    PRODUCTS("Продукты"),
+    DAILY_REPORTS("Дневные отчёты"),
+    MEALS("Приёмы пищи"),
+    METRICS("Метрики питания"),
+    SAVING("Сохранение"),
+    FINISHED("Завершено");
+
+    private final String displayName;
+
+    ReportStage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
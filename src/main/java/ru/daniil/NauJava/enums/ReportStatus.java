@@ -4,7 +4,8 @@ public enum ReportStatus {
     CREATED("Создан"),
     PROCESSING("Формируется"),
     COMPLETED("Завершен"),
-    ERROR("Ошибка");
+    ERROR("Ошибка"),
+    CANCELLED("Отменён");
 
     private final String displayName;
 
@@ -0,0 +1,48 @@
+package ru.daniil.NauJava.enums;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Стандартные периоды отчётов, которые формируются заранее по расписанию.
+ * Все периоды заканчиваются не позже вчерашнего дня, поэтому готовый отчёт
+ * за них больше не меняется
+ */
+public enum StandardReportPeriod {
+    YESTERDAY("Вчера"),
+    LAST_7_DAYS("Последние 7 дней"),
+    LAST_MONTH("Прошлый месяц");
+
+    private final String displayName;
+
+    StandardReportPeriod(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @param today текущая дата
+     * @return первая дата периода
+     */
+    public LocalDate start(LocalDate today) {
+        return switch (this) {
+            case YESTERDAY -> today.minusDays(1);
+            case LAST_7_DAYS -> today.minusDays(7);
+            case LAST_MONTH -> YearMonth.from(today).minusMonths(1).atDay(1);
+        };
+    }
+
+    /**
+     * @param today текущая дата
+     * @return последняя дата периода включительно
+     */
+    public LocalDate end(LocalDate today) {
+        return switch (this) {
+            case YESTERDAY, LAST_7_DAYS -> today.minusDays(1);
+            case LAST_MONTH -> YearMonth.from(today).minusMonths(1).atEndOfMonth();
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package ru.daniil.NauJava.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Очередь хэширования паролей заполнена: запрос нужно повторить позже.
+ * Наследует AuthenticationServiceException, чтобы при входе через форму
+ * дойти до обработчика неудачного входа, а не завершиться ошибкой 500
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return через сколько секунд стоит повторить запрос (заголовок Retry-After)
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.daniil.NauJava.repository;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -46,4 +47,57 @@ public interface DailyReportRepository extends CrudRepository<DailyReport, Long>
             LocalDate endDate);
 
     Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Атомарно прибавляет к суммарным показателям дневного отчёта изменение
+     * и увеличивает версию записи, чтобы устаревшие копии сущности не перезаписали итог
+     * @return количество обновлённых строк
+     */
+    @Modifying
+    @Query("UPDATE DailyReport dr SET " +
+            "dr.totalCaloriesConsumed = COALESCE(dr.totalCaloriesConsumed, 0) + :calories, " +
+            "dr.totalProteinsConsumed = COALESCE(dr.totalProteinsConsumed, 0) + :proteins, " +
+            "dr.totalFatsConsumed = COALESCE(dr.totalFatsConsumed, 0) + :fats, " +
+            "dr.totalCarbsConsumed = COALESCE(dr.totalCarbsConsumed, 0) + :carbs, " +
+            "dr.version = dr.version + 1 " +
+            "WHERE dr.id = :dailyReportId")
+    int applyNutritionDelta(@Param("dailyReportId") Long dailyReportId,
+                            @Param("calories") Double calories,
+                            @Param("proteins") Double proteins,
+                            @Param("fats") Double fats,
+                            @Param("carbs") Double carbs);
+
+    /**
+     * Пересчитывает суммарные показатели дневных отчётов начиная с указанной даты
+     * по записям о съеденных продуктах и исправляет только разошедшиеся строки.
+     * Суммы считаются по снимку на начало запроса, поэтому строка перезаписывается, только если
+     * её версия с тех пор не изменилась: отчёт, к которому успело закоммититься изменение
+     * из {@link #applyNutritionDelta}, пропускается и будет сверен при следующем запуске
+     * @param since дата, начиная с которой проверяются отчёты
+     * @return количество исправленных отчётов
+     */
+    @Modifying
+    @Query(value = "UPDATE tbl_daily_report dr SET " +
+            "total_calories_consumed = s.calories, " +
+            "total_proteins_consumed = s.proteins, " +
+            "total_fats_consumed = s.fats, " +
+            "total_carbs_consumed = s.carbs, " +
+            "version = dr.version + 1 " +
+            "FROM (SELECT d.id AS report_id, d.version AS version, " +
+            "COALESCE(SUM(me.calculated_calories), 0) AS calories, " +
+            "COALESCE(SUM(me.calculated_proteins), 0) AS proteins, " +
+            "COALESCE(SUM(me.calculated_fats), 0) AS fats, " +
+            "COALESCE(SUM(me.calculated_carbs), 0) AS carbs " +
+            "FROM tbl_daily_report d " +
+            "LEFT JOIN tbl_meals m ON m.daily_report_id = d.id " +
+            "LEFT JOIN tbl_meal_entries me ON me.meal_id = m.id " +
+            "WHERE d.report_date >= :since " +
+            "GROUP BY d.id) s " +
+            "WHERE dr.id = s.report_id AND dr.version = s.version " +
+            "AND (ABS(COALESCE(dr.total_calories_consumed, 0) - s.calories) > 0.01 " +
+            "OR ABS(COALESCE(dr.total_proteins_consumed, 0) - s.proteins) > 0.01 " +
+            "OR ABS(COALESCE(dr.total_fats_consumed, 0) - s.fats) > 0.01 " +
+            "OR ABS(COALESCE(dr.total_carbs_consumed, 0) - s.carbs) > 0.01)",
+            nativeQuery = true)
+    int reconcileTotalsSince(@Param("since") LocalDate since);
 }
@@ -0,0 +1,102 @@
+package ru.daniil.NauJava.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.daniil.NauJava.entity.DailyStats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyStatsRepository extends CrudRepository<DailyStats, LocalDate> {
+
+    List<DailyStats> findByStatDateBetweenOrderByStatDateAsc(LocalDate start, LocalDate end);
+
+    /**
+     * Проверяет, есть ли за диапазон дат сводки, пересчитанные после указанного момента
+     */
+    boolean existsByStatDateBetweenAndUpdatedAtAfter(LocalDate start, LocalDate end, LocalDateTime updatedAt);
+
+    /**
+     * Количество регистраций пользователей по дням
+     * @return строки [дата, количество]
+     */
+    @Query(value = "SELECT CAST(created_at AS DATE), COUNT(*) FROM tbl_user " +
+            "WHERE created_at >= :from AND created_at < :to GROUP BY CAST(created_at AS DATE)",
+            nativeQuery = true)
+    List<Object[]> countUsersByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Количество созданных продуктов по дням
+     * @return строки [дата, количество]
+     */
+    @Query(value = "SELECT CAST(created_at AS DATE), COUNT(*) FROM tbl_product " +
+            "WHERE created_at >= :from AND created_at < :to GROUP BY CAST(created_at AS DATE)",
+            nativeQuery = true)
+    List<Object[]> countProductsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Количество созданных дневных отчётов по дням
+     * @return строки [дата, количество]
+     */
+    @Query(value = "SELECT CAST(created_at AS DATE), COUNT(*) FROM tbl_daily_report " +
+            "WHERE created_at >= :from AND created_at < :to GROUP BY CAST(created_at AS DATE)",
+            nativeQuery = true)
+    List<Object[]> countDailyReportsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Количество приёмов пищи каждого пользователя по дням
+     * @return строки [дата, id пользователя, количество приёмов пищи]
+     */
+    @Query(value = "SELECT CAST(eaten_at AS DATE), user_id, COUNT(*) FROM tbl_meals " +
+            "WHERE eaten_at >= :from AND eaten_at < :to AND user_id IS NOT NULL " +
+            "GROUP BY CAST(eaten_at AS DATE), user_id",
+            nativeQuery = true)
+    List<Object[]> countMealsByDayAndUser(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Записывает сводку за день, заменяя прежнюю. Сводку за один и тот же день могут
+     * одновременно пересчитывать несколько узлов, поэтому строка вставляется через
+     * ON CONFLICT, а не через save с заранее заданным id
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_daily_stats (stat_date, users_registered, products_created, " +
+            "daily_reports_created, meals_count, active_users, active_users_sketch, active_user_ids, updated_at) " +
+            "VALUES (:statDate, :usersRegistered, :productsCreated, :dailyReportsCreated, :mealsCount, " +
+            ":activeUsers, CAST(:activeUsersSketch AS BYTEA), CAST(:activeUserIds AS BYTEA), :updatedAt) " +
+            "ON CONFLICT (stat_date) DO UPDATE SET " +
+            "users_registered = EXCLUDED.users_registered, " +
+            "products_created = EXCLUDED.products_created, " +
+            "daily_reports_created = EXCLUDED.daily_reports_created, " +
+            "meals_count = EXCLUDED.meals_count, " +
+            "active_users = EXCLUDED.active_users, " +
+            "active_users_sketch = EXCLUDED.active_users_sketch, " +
+            "active_user_ids = EXCLUDED.active_user_ids, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int upsert(@Param("statDate") LocalDate statDate,
+               @Param("usersRegistered") long usersRegistered,
+               @Param("productsCreated") long productsCreated,
+               @Param("dailyReportsCreated") long dailyReportsCreated,
+               @Param("mealsCount") long mealsCount,
+               @Param("activeUsers") long activeUsers,
+               @Param("activeUsersSketch") byte[] activeUsersSketch,
+               @Param("activeUserIds") byte[] activeUserIds,
+               @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Записывает сводки за несколько дней через {@link #upsert}
+     */
+    default void upsertAll(Collection<DailyStats> stats) {
+        for (DailyStats day : stats) {
+            upsert(day.getStatDate(), day.getUsersRegistered(), day.getProductsCreated(),
+                    day.getDailyReportsCreated(), day.getMealsCount(), day.getActiveUsers(),
+                    day.getActiveUsersSketch(), day.getActiveUserIds(), day.getUpdatedAt());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.daniil.NauJava.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +13,7 @@ import ru.daniil.NauJava.entity.MealType;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 @RepositoryRestResource(path = "meals")
@@ -20,20 +22,40 @@ public interface MealRepository extends CrudRepository<Meal, Long> {
 
     List<Meal> findByDailyReportUserIdAndDailyReportReportDate(Long userId, LocalDate reportDate);
 
-    @Query("SELECT MAX(m.eatenAt) FROM Meal m WHERE m.dailyReport.user.id = :userId")
+    /**
+     * Загружает приёмы пищи дневного отчёта одним запросом
+     * вместе с типами, записями и продуктами этих записей
+     * @param dailyReportId id дневного отчёта
+     * @return приёмы пищи в порядке времени приёма
+     */
+    @EntityGraph(attributePaths = {"mealType", "mealEntries", "mealEntries.product"})
+    @Query("SELECT m FROM Meal m WHERE m.dailyReport.id = :dailyReportId " +
+            "ORDER BY m.eatenAt, m.id")
+    List<Meal> findWithEntriesByDailyReportId(@Param("dailyReportId") Long dailyReportId);
+
+    /**
+     * Загружает приём пищи одним запросом вместе с типом, записями и продуктами
+     * @param mealId id приёма пищи
+     * @return приём пищи или пустой Optional
+     */
+    @EntityGraph(attributePaths = {"mealType", "mealEntries", "mealEntries.product"})
+    @Query("SELECT m FROM Meal m WHERE m.id = :mealId")
+    Optional<Meal> findWithEntriesById(@Param("mealId") Long mealId);
+
+    @Query("SELECT MAX(m.eatenAt) FROM Meal m WHERE m.userId = :userId")
     LocalDateTime findLastMealActivityByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT COUNT(DISTINCT m.dailyReport.user.id) FROM Meal m WHERE m.eatenAt >= :after")
+    @Query("SELECT COUNT(DISTINCT m.userId) FROM Meal m WHERE m.eatenAt >= :after")
     Long countUsersWithActivityAfter(@Param("after") LocalDateTime after);
 
-    @Query("SELECT DISTINCT dr.user.id FROM Meal m JOIN m.dailyReport dr " +
+    @Query("SELECT DISTINCT m.userId FROM Meal m " +
             "WHERE m.eatenAt BETWEEN :start AND :end")
     List<Long> findDistinctUserIdsWithMealsBetween(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
 
-    @Query("SELECT COUNT(m) FROM Meal m JOIN m.dailyReport dr " +
-            "WHERE dr.user.id IN :userIds AND m.eatenAt BETWEEN :start AND :end")
+    @Query("SELECT COUNT(m) FROM Meal m " +
+            "WHERE m.userId IN :userIds AND m.eatenAt BETWEEN :start AND :end")
     Long countMealsForUsersBetweenDates(
             @Param("userIds") List<Long> userIds,
             @Param("start") LocalDateTime start,
@@ -6,8 +6,10 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 import ru.daniil.NauJava.entity.Product;
+import ru.daniil.NauJava.service.productIndex.ProductNameEntry;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,4 +44,42 @@ public interface ProductRepository extends CrudRepository<Product, Long> {
     Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
     boolean existsByNameIgnoreCase(String name);
+
+    /**
+     * Находит продукты общего каталога и продукты пользователя с точным совпадением названия
+     * (без учета регистра) с любым из переданных
+     * @param lowerNames названия продуктов в нижнем регистре
+     * @param userId id пользователя
+     * @return список найденных продуктов
+     */
+    @Query("SELECT p FROM Product p WHERE LOWER(p.name) IN :lowerNames " +
+            "AND (p.createdByUser IS NULL OR p.createdByUser.id = :userId)")
+    List<Product> findVisibleByLowerNameIn(
+            @Param("lowerNames") Collection<String> lowerNames,
+            @Param("userId") Long userId
+    );
+
+    /**
+     * Находит продукты общего каталога и продукты пользователя, название которых (без учета регистра)
+     * подходит под любой из шаблонов LIKE. Все шаблоны проверяются одним запросом
+     * @param lowerPatterns шаблоны LIKE в нижнем регистре
+     * @param userId id пользователя или null, тогда ищется только в общем каталоге
+     * @return список найденных продуктов
+     */
+    @Query(value = "SELECT p.* FROM tbl_product p " +
+            "WHERE (p.created_by_user_id IS NULL OR p.created_by_user_id = :userId) " +
+            "AND LOWER(p.name) LIKE ANY (ARRAY[:lowerPatterns])",
+            nativeQuery = true)
+    List<Product> findVisibleByLowerNameLikeAny(
+            @Param("lowerPatterns") Collection<String> lowerPatterns,
+            @Param("userId") Long userId
+    );
+
+    /**
+     * Загружает только id, название и владельца всех продуктов для построения индекса названий
+     * @return список облегчённых записей о продуктах
+     */
+    @Query("SELECT new ru.daniil.NauJava.service.productIndex.ProductNameEntry(p.id, p.name, u.id) " +
+            "FROM Product p LEFT JOIN p.createdByUser u")
+    List<ProductNameEntry> findAllNameEntries();
 }
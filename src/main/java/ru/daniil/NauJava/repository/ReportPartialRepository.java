@@ -0,0 +1,9 @@
+package ru.daniil.NauJava.repository;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import ru.daniil.NauJava.entity.ReportPartial;
+
+@Repository
+public interface ReportPartialRepository extends CrudRepository<ReportPartial, Long> {
+}
@@ -1,14 +1,22 @@
 package ru.daniil.NauJava.repository;
 
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportMetrics;
 import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.projection.ReportKeyView;
+import ru.daniil.NauJava.repository.projection.ReportSummaryView;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,7 +32,26 @@ public interface ReportRepository extends CrudRepository<Report, Long> {
 
     boolean existsByReportPeriodStartAndReportPeriodEnd(LocalDate startDate, LocalDate endDate);
 
-    Optional<Report> findByReportPeriodStartAndReportPeriodEnd(LocalDate startDate, LocalDate endDate);
+    /**
+     * Находит ключ последнего созданного отчёта за период без загрузки самого отчёта
+     */
+    Optional<ReportKeyView> findFirstByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(
+            LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Находит последний созданный отчёт за период
+     */
+    Optional<Report> findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(
+            LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Берёт advisory-блокировку по ключу до конца текущей транзакции,
+     * дожидаясь, пока её отпустит транзакция другого узла
+     * @param key ключ блокировки
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(hashtext(:key))) AS locked",
+            nativeQuery = true)
+    long lockForTransaction(@Param("key") String key);
 
     /**
      * Получает все отчёты с ограничением 48 записей
@@ -37,4 +64,97 @@ public interface ReportRepository extends CrudRepository<Report, Long> {
      */
     @Query("SELECT r FROM Report r ORDER BY r.createdAt DESC")
     Page<Report> findAllWithPagination(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Первая страница списка отчётов: новые сначала
+     * @param pageable ограничение количества
+     * @return id и время создания отчётов
+     */
+    @Query("SELECT r.id AS id, r.createdAt AS createdAt FROM Report r ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportKeyView> findPageKeys(Pageable pageable);
+
+    /**
+     * Следующая страница списка отчётов после указанного отчёта
+     * @param createdAt время создания последнего отчёта предыдущей страницы
+     * @param id id последнего отчёта предыдущей страницы
+     * @param pageable ограничение количества
+     * @return id и время создания отчётов
+     */
+    @Query("SELECT r.id AS id, r.createdAt AS createdAt FROM Report r " +
+            "WHERE r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportKeyView> findPageKeysAfter(@Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    /**
+     * Краткие данные всех отчётов без содержимого, новые сначала
+     */
+    @Query("SELECT r.id AS id, r.status AS status, r.reportPeriodStart AS reportPeriodStart, " +
+            "r.reportPeriodEnd AS reportPeriodEnd, r.createdAt AS createdAt, r.completedAt AS completedAt, " +
+            "r.totalExecutionTime AS totalExecutionTime FROM Report r ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportSummaryView> findAllSummaries();
+
+    /**
+     * Краткие данные отчётов без содержимого
+     * @param ids id отчётов
+     * @return данные найденных отчётов в произвольном порядке
+     */
+    @Query("SELECT r.id AS id, r.status AS status, r.reportPeriodStart AS reportPeriodStart, " +
+            "r.reportPeriodEnd AS reportPeriodEnd, r.createdAt AS createdAt, r.completedAt AS completedAt, " +
+            "r.totalExecutionTime AS totalExecutionTime FROM Report r WHERE r.id IN :ids")
+    List<ReportSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Возвращает только статус отчёта, не загружая его содержимое
+     * @param id id отчёта
+     * @return статус отчёта
+     */
+    @Query("SELECT r.status FROM Report r WHERE r.id = :id")
+    Optional<ReportStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Возвращает только метрики питания отчёта, не загружая его содержимое
+     * @param id id отчёта
+     * @return метрики отчёта или пустой Optional, если отчёта нет или метрики ещё не посчитаны
+     */
+    @Query("SELECT r.metrics FROM Report r WHERE r.id = :id")
+    Optional<ReportMetrics> findMetricsById(@Param("id") Long id);
+
+    /**
+     * Возвращает id отчётов в указанном статусе в порядке постановки в очередь
+     * @param status статус отчётов
+     * @param pageable ограничение количества
+     * @return список id отчётов
+     */
+    @Query("SELECT r.id FROM Report r WHERE r.status = :status ORDER BY r.createdAt ASC, r.id ASC")
+    List<Long> findIdsByStatus(@Param("status") ReportStatus status, Pageable pageable);
+
+    /**
+     * Атомарно переводит отчёт из одного статуса в другой.
+     * Используется, чтобы только один узел взял отчёт в работу
+     * @return 1 если переход выполнен, 0 если отчёт уже в другом статусе
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = :to, r.claimedAt = :claimedAt " +
+            "WHERE r.id = :id AND r.status IN :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Collection<ReportStatus> from,
+                         @Param("to") ReportStatus to,
+                         @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Возвращает в очередь отчёты, взятые в работу раньше указанного момента
+     * и так и не завершённые (узел упал или был перезапущен)
+     * @param staleBefore граница, после которой формирование считается брошенным
+     * @return количество возвращённых в очередь отчётов
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = :queued, r.claimedAt = NULL " +
+            "WHERE r.status = :processing AND (r.claimedAt IS NULL OR r.claimedAt < :staleBefore)")
+    int requeueStale(@Param("processing") ReportStatus processing,
+                     @Param("queued") ReportStatus queued,
+                     @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -1,8 +1,9 @@
 package ru.daniil.NauJava.repository;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 import ru.daniil.NauJava.entity.User;
@@ -13,7 +14,7 @@ import java.util.Optional;
 
 @Repository
 @RepositoryRestResource(path = "users")
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByLogin(String login);
@@ -25,4 +26,45 @@ public interface UserRepository extends CrudRepository<User, Long> {
     List<User> findAllByOrderByIdAsc();
 
     Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Страница пользователей с активностью, по убыванию последней активности, затем id.
+     * Последняя активность хранится в tbl_user.last_activity_at (поддерживается триггерами),
+     * следующая страница выбирается по ключу последней строки предыдущей (keyset) через индекс
+     * idx_user_last_activity, без агрегации приёмов пищи и без OFFSET
+     * @param cursorActivity последняя активность последнего пользователя предыдущей страницы
+     * @param cursorId id последнего пользователя предыдущей страницы
+     * @param limit размер страницы
+     * @return строки [id, login, email, profile_id, name, surname, patronymic, current_streak, last_activity]
+     */
+    @Query(value = "SELECT u.id, u.login, u.email, p.id AS profile_id, p.name, p.surname, p.patronymic, " +
+            "p.current_streak, u.last_activity_at " +
+            "FROM tbl_user u " +
+            "LEFT JOIN tbl_user_profile p ON p.user_id = u.id " +
+            "WHERE u.last_activity_at IS NOT NULL " +
+            "  AND (u.last_activity_at, u.id) < (:cursorActivity, :cursorId) " +
+            "ORDER BY u.last_activity_at DESC, u.id DESC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findActiveUsersPage(@Param("cursorActivity") LocalDateTime cursorActivity,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("limit") int limit);
+
+    /**
+     * Страница пользователей без активности по убыванию id, идёт в списке после всех активных
+     * @param cursorId id последнего пользователя предыдущей страницы
+     * @param limit размер страницы
+     * @return строки того же вида, что и в findActiveUsersPage, с пустой последней активностью
+     */
+    @Query(value = "SELECT u.id, u.login, u.email, p.id AS profile_id, p.name, p.surname, p.patronymic, " +
+            "p.current_streak, u.last_activity_at " +
+            "FROM tbl_user u " +
+            "LEFT JOIN tbl_user_profile p ON p.user_id = u.id " +
+            "WHERE u.last_activity_at IS NULL " +
+            "  AND u.id < :cursorId " +
+            "ORDER BY u.id DESC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findInactiveUsersPage(@Param("cursorId") Long cursorId,
+                                         @Param("limit") int limit);
 }
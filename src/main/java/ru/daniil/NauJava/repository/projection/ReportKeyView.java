@@ -0,0 +1,12 @@
+package ru.daniil.NauJava.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ключ отчёта в списке: порядок по времени создания и id
+ */
+public interface ReportKeyView {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
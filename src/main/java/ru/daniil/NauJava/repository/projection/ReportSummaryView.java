@@ -0,0 +1,25 @@
+package ru.daniil.NauJava.repository.projection;
+
+import ru.daniil.NauJava.enums.ReportStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Краткие данные отчёта для списка, без содержимого и показателей
+ */
+public interface ReportSummaryView {
+    Long getId();
+
+    ReportStatus getStatus();
+
+    LocalDate getReportPeriodStart();
+
+    LocalDate getReportPeriodEnd();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getCompletedAt();
+
+    Long getTotalExecutionTime();
+}
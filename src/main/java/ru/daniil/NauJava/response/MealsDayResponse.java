@@ -0,0 +1,37 @@
+package ru.daniil.NauJava.response;
+
+import ru.daniil.NauJava.entity.Meal;
+import ru.daniil.NauJava.entity.MealEntry;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Данные страницы приёмов пищи за день: приёмы пищи вместе с записями,
+ * продуктами и типами, а также суммы питательных ценностей по каждому приёму
+ */
+public class MealsDayResponse {
+    private final List<Meal> meals;
+    private final Map<Long, List<MealEntry>> mealEntries;
+    private final Map<Long, NutritionSumResponse> nutritionSums;
+
+    public MealsDayResponse(List<Meal> meals,
+                            Map<Long, List<MealEntry>> mealEntries,
+                            Map<Long, NutritionSumResponse> nutritionSums) {
+        this.meals = meals;
+        this.mealEntries = mealEntries;
+        this.nutritionSums = nutritionSums;
+    }
+
+    public List<Meal> getMeals() {
+        return meals;
+    }
+
+    public Map<Long, List<MealEntry>> getMealEntries() {
+        return mealEntries;
+    }
+
+    public Map<Long, NutritionSumResponse> getNutritionSums() {
+        return nutritionSums;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.daniil.NauJava.response;
+
+import java.util.List;
+
+/**
+ * Страница списка отчётов для администратора.
+ * Отчёты упорядочены по времени создания (сначала новые),
+ * следующая страница запрашивается по курсору nextCursor
+ */
+public class ReportsPageResponse {
+    private List<ReportResponse> reports;
+    private String nextCursor;
+
+    public ReportsPageResponse(List<ReportResponse> reports, String nextCursor) {
+        this.reports = reports;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReportResponse> getReports() {
+        return reports;
+    }
+
+    public void setReports(List<ReportResponse> reports) {
+        this.reports = reports;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
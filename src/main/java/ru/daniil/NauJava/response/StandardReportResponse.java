@@ -0,0 +1,41 @@
+package ru.daniil.NauJava.response;
+
+/**
+ * Стандартный период отчёта и отчёт за него, если он уже создан.
+ * Отчёты за стандартные периоды формируются заранее по расписанию
+ */
+public class StandardReportResponse {
+    private String period;
+    private String title;
+    private ReportResponse report;
+
+    public StandardReportResponse(String period, String title, ReportResponse report) {
+        this.period = period;
+        this.title = title;
+        this.report = report;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public ReportResponse getReport() {
+        return report;
+    }
+
+    public void setReport(ReportResponse report) {
+        this.report = report;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.daniil.NauJava.response;
+
+import java.util.List;
+
+/**
+ * Страница списка пользователей для администратора.
+ * Пользователи упорядочены по последней активности (сначала самые недавние),
+ * следующая страница запрашивается по курсору nextCursor
+ */
+public class UsersPageResponse {
+    private List<UsersListResponse> users;
+    private String nextCursor;
+
+    public UsersPageResponse(List<UsersListResponse> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UsersListResponse> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UsersListResponse> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
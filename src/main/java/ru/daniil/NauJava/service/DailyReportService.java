@@ -4,6 +4,7 @@ import ru.daniil.NauJava.entity.DailyReport;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.response.CalendarDayResponse;
 import ru.daniil.NauJava.response.DailyReportResponse;
+import ru.daniil.NauJava.response.NutritionSumResponse;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -69,4 +70,20 @@ public interface DailyReportService {
      * @param dailyReport дневной отчёт
      */
     void recalculateDailyReportTotals(DailyReport dailyReport);
+
+    /**
+     * Прибавляет к суммарным показателям дневного отчёта изменение одним UPDATE в БД,
+     * без пересчёта всех приёмов пищи за день
+     * @param dailyReportId id дневного отчёта
+     * @param delta изменение калорий, белков, жиров и углеводов (может быть отрицательным)
+     */
+    void applyNutritionDelta(Long dailyReportId, NutritionSumResponse delta);
+
+    /**
+     * Сверяет суммарные показатели дневных отчётов с записями о съеденных продуктах
+     * и исправляет расхождения
+     * @param since дата, начиная с которой проверяются отчёты
+     * @return количество исправленных отчётов
+     */
+    int reconcileTotalsSince(LocalDate since);
 }
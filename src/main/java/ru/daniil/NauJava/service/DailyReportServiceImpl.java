@@ -41,7 +41,7 @@ public class DailyReportServiceImpl implements DailyReportService {
     @Transactional
     @Override
     public DailyReport getOrCreateDailyReportAuth(LocalDate reportDate) {
-        User user = userService.getAuthUser().orElseThrow();
+        User user = userService.getAuthUserReference().orElseThrow();
         return dailyReportRepository.findByUserIdAndReportDate(user.getId(), reportDate)
                 .orElseGet(() -> createDailyReport(user, reportDate));
     }
@@ -49,8 +49,8 @@ public class DailyReportServiceImpl implements DailyReportService {
     @Transactional
     @Override
     public Optional<DailyReport> getDailyReportAuth(LocalDate reportDate) {
-        User user = userService.getAuthUser().orElseThrow();
-        return dailyReportRepository.findByUserIdAndReportDate(user.getId(), reportDate);
+        Long userId = userService.getAuthUserId().orElseThrow();
+        return dailyReportRepository.findByUserIdAndReportDate(userId, reportDate);
     }
 
     @Transactional
@@ -75,10 +75,36 @@ public class DailyReportServiceImpl implements DailyReportService {
         dailyReportRepository.save(dailyReport);
     }
 
+    @Transactional
+    @Override
+    public void applyNutritionDelta(Long dailyReportId, NutritionSumResponse delta) {
+        if (dailyReportId == null || delta == null) {
+            return;
+        }
+        int updated = dailyReportRepository.applyNutritionDelta(dailyReportId,
+                delta.getTotalCalories(), delta.getTotalProteins(),
+                delta.getTotalFats(), delta.getTotalCarbs());
+        if (updated == 0) {
+            methodLogger.warn("{DailyReportServiceImpl.applyNutritionDelta} |" +
+                    " Дневной отчёт с id:{} не найден, изменение не применено", dailyReportId);
+        }
+    }
+
+    @Transactional
+    @Override
+    public int reconcileTotalsSince(LocalDate since) {
+        int fixed = dailyReportRepository.reconcileTotalsSince(since);
+        if (fixed > 0) {
+            methodLogger.warn("{DailyReportServiceImpl.reconcileTotalsSince} |" +
+                    " Исправлены суммарные показатели у {} дневных отчётов начиная с {}", fixed, since);
+        }
+        return fixed;
+    }
+
     @Transactional
     @Override
     public DailyReport getOrCreateDailyReportById(Long dailyReportId) {
-        User user = userService.getAuthUser().orElseThrow();
+        User user = userService.getAuthUserReference().orElseThrow();
         return dailyReportRepository.findById(dailyReportId)
                 .orElseGet(() -> createDailyReport(user, LocalDate.now()));
     }
@@ -18,7 +18,8 @@ public interface MealEntryService {
     MealEntry createMealEntry(Meal meal, Product product, Integer quantity);
 
     /**
-     * Создает "MealEntry" для каждого продукта
+     * Создает "MealEntry" для каждого продукта. Все продукты находятся одним обращением
+     * к ProductService, а записи сохраняются одной пачкой
      * @param meal приём пищи
      * @param productNames название продукта
      * @param quantities вес съеденных продуктов (в граммах)
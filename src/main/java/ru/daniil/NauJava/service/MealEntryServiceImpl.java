@@ -11,6 +11,7 @@ import ru.daniil.NauJava.response.NutritionSumResponse;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class MealEntryServiceImpl implements MealEntryService {
@@ -30,24 +31,27 @@ public class MealEntryServiceImpl implements MealEntryService {
             throw new IllegalArgumentException("Количество продуктов и весов не совпадает");
         }
 
+        methodLogger.info("{MealEntryServiceImpl.createMealEntries} |" +
+                " Происходит вызов метода productService.resolveProductsByNames для {} продуктов", productNames.size());
+        Map<String, Product> products = productService.resolveProductsByNames(productNames);
+
         List<MealEntry> mealEntries = new ArrayList<>();
 
         for (int i = 0; i < productNames.size(); i++) {
             String productName = productNames.get(i);
             Integer quantity = quantities.get(i);
 
-            methodLogger.info("{MealEntryServiceImpl.createMealEntries} |" +
-                    " Происходит вызов метода productService.findProductByName с productName:{}", productName);
-            Product product = productService.findProductByName(productName);
+            Product product = products.get(productName);
             if (product == null) {
                 throw new IllegalArgumentException("Продукт из списка потреблённых не найден: " + productName);
             }
 
-            MealEntry mealEntry = createMealEntry(meal, product, quantity);
-            mealEntries.add(mealEntry);
+            mealEntries.add(new MealEntry(meal, product, quantity));
         }
 
-        return mealEntries;
+        List<MealEntry> savedEntries = new ArrayList<>();
+        mealEntryRepository.saveAll(mealEntries).forEach(savedEntries::add);
+        return savedEntries;
     }
 
     @Override
@@ -2,6 +2,7 @@ package ru.daniil.NauJava.service;
 
 import ru.daniil.NauJava.entity.Meal;
 import ru.daniil.NauJava.entity.MealEntry;
+import ru.daniil.NauJava.response.MealsDayResponse;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -54,6 +55,13 @@ public interface MealService {
      */
     Optional<Meal> getMealById(Long mealId);
 
+    /**
+     * Получает приём пищи по id вместе с типом, записями и продуктами записей
+     * @param mealId id приёма пищи
+     * @return приём пищи или пустой Optional
+     */
+    Optional<Meal> getMealWithEntriesById(Long mealId);
+
     /**
      * Получает все приемы пищи для пользователя за сегодня
      * @param userEmail электронная почта пользователя
@@ -75,6 +83,15 @@ public interface MealService {
      */
     List<Meal> getMealsForDate(LocalDate date);
 
+    /**
+     * Получает данные для страницы приёмов пищи за дату авторизованного пользователя.
+     * Приёмы пищи, записи и продукты загружаются одним запросом,
+     * суммы по каждому приёму считаются по уже загруженным записям
+     * @param date дата, при null используется сегодняшняя
+     * @return приёмы пищи, их записи и суммы питательных ценностей
+     */
+    MealsDayResponse getMealsDayForDate(LocalDate date);
+
     List<Long> findDistinctUserIdsWithMealsBetween(LocalDateTime start, LocalDateTime end);
     Long countMealsForUsersBetweenDates(List<Long> activeUserIds, LocalDateTime start, LocalDateTime end);
 
@@ -85,8 +102,9 @@ public interface MealService {
     void deleteCurrentMeal(Long mealId);
 
     /**
-     * Подсчитывает и обновляет суммарные питательные ценности всех приёмов пищи
-     * имеющие ссылку на указанный дневной отчёт
+     * Полностью пересчитывает суммарные питательные ценности всех приёмов пищи
+     * имеющие ссылку на указанный дневной отчёт. При создании, изменении и удалении
+     * приёма пищи итоги обновляются инкрементально, этот метод нужен для сверки
      * @param dailyReportId id дневного отчёта
      */
     void updateNutritionSum(Long dailyReportId);
@@ -11,6 +11,7 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 import ru.daniil.NauJava.entity.*;
 import ru.daniil.NauJava.repository.MealRepository;
 import ru.daniil.NauJava.repository.MealTypeRepository;
+import ru.daniil.NauJava.response.MealsDayResponse;
 import ru.daniil.NauJava.response.NutritionSumResponse;
 
 import java.time.LocalDate;
@@ -75,6 +76,7 @@ public class MealServiceImpl implements MealService {
             for (MealEntry mealEntry : mealEntries) {
                 meal.addMealEntry(mealEntry);
             }
+            dailyReportService.applyNutritionDelta(dailyReport.getId(), sumNutrition(mealEntries));
 
             transactionManager.commit(status);
 
@@ -111,13 +113,13 @@ public class MealServiceImpl implements MealService {
     @Transactional
     @Override
     public List<Meal> getTodayMeals(String userEmail) {
-        User user = userService.getAuthUser().orElse(null);
-        if (user == null) {
+        Long userId = userService.getAuthUserId().orElse(null);
+        if (userId == null) {
             return List.of();
         }
 
         LocalDate today = LocalDate.now();
-        return mealRepository.findByDailyReportUserIdAndDailyReportReportDate(user.getId(), today);
+        return mealRepository.findByDailyReportUserIdAndDailyReportReportDate(userId, today);
     }
 
     @Transactional
@@ -126,11 +128,13 @@ public class MealServiceImpl implements MealService {
         return mealRepository.findByDailyReportId(dailyReportId);
     }
 
+    @Transactional
     @Override
     public void deleteCurrentMeal(Long mealId) {
         Meal meal = mealRepository.findById(mealId).orElseThrow();
+        NutritionSumResponse removed = mealEntryService.getNutritionSumByMealId(mealId);
         mealRepository.deleteById(mealId);
-        updateNutritionSum(meal.getDailyReport().getId());
+        dailyReportService.applyNutritionDelta(meal.getDailyReport().getId(), negate(removed));
     }
 
     @Transactional
@@ -156,19 +160,57 @@ public class MealServiceImpl implements MealService {
                 .orElseThrow(() -> new RuntimeException("Meal type not found"));
         meal.setMealType(mealType);
 
+        NutritionSumResponse removed = mealEntryService.getNutritionSumByMealId(mealId);
         mealEntryService.deleteByMealId(mealId);
         meal.getMealEntries().clear();
 
-        mealEntryService.createMealEntries(meal, productNames, quantities);
+        List<MealEntry> mealEntries = mealEntryService.createMealEntries(meal, productNames, quantities);
+        NutritionSumResponse added = sumNutrition(mealEntries);
+        dailyReportService.applyNutritionDelta(meal.getDailyReport().getId(), new NutritionSumResponse(
+                added.getTotalCalories() - removed.getTotalCalories(),
+                added.getTotalProteins() - removed.getTotalProteins(),
+                added.getTotalFats() - removed.getTotalFats(),
+                added.getTotalCarbs() - removed.getTotalCarbs()
+        ));
         return mealRepository.save(meal);
     }
 
+    /**
+     * Суммирует питательные ценности записей о съеденных продуктах
+     * @param mealEntries записи о съеденных продуктах
+     * @return суммарные калории, белки, жиры и углеводы
+     */
+    private NutritionSumResponse sumNutrition(List<MealEntry> mealEntries) {
+        double calories = 0.0;
+        double proteins = 0.0;
+        double fats = 0.0;
+        double carbs = 0.0;
+        for (MealEntry entry : mealEntries) {
+            calories += entry.getCalculatedCalories() != null ? entry.getCalculatedCalories() : 0.0;
+            proteins += entry.getCalculatedProteins() != null ? entry.getCalculatedProteins() : 0.0;
+            fats += entry.getCalculatedFats() != null ? entry.getCalculatedFats() : 0.0;
+            carbs += entry.getCalculatedCarbs() != null ? entry.getCalculatedCarbs() : 0.0;
+        }
+        return new NutritionSumResponse(calories, proteins, fats, carbs);
+    }
+
+    private NutritionSumResponse negate(NutritionSumResponse sum) {
+        return new NutritionSumResponse(-sum.getTotalCalories(), -sum.getTotalProteins(),
+                -sum.getTotalFats(), -sum.getTotalCarbs());
+    }
+
     @Transactional
     @Override
     public Optional<Meal> getMealById(Long mealId){
         return mealRepository.findById(mealId);
     }
 
+    @Transactional
+    @Override
+    public Optional<Meal> getMealWithEntriesById(Long mealId) {
+        return mealRepository.findWithEntriesById(mealId);
+    }
+
     @Override
     public LocalDateTime getLastMealActivityByUserId(Long userId) {
         return mealRepository.findLastMealActivityByUserId(userId);
@@ -194,6 +236,28 @@ public class MealServiceImpl implements MealService {
         }
     }
 
+    @Transactional
+    @Override
+    public MealsDayResponse getMealsDayForDate(LocalDate date) {
+        if (date == null) {
+            date = LocalDate.now();
+        }
+        DailyReport dailyReport = dailyReportService.getDailyReportAuth(date).orElse(null);
+        if (dailyReport == null) {
+            return new MealsDayResponse(new ArrayList<>(), new HashMap<>(), new HashMap<>());
+        }
+
+        List<Meal> meals = mealRepository.findWithEntriesByDailyReportId(dailyReport.getId());
+        Map<Long, List<MealEntry>> mealEntries = new HashMap<>();
+        Map<Long, NutritionSumResponse> nutritionSums = new HashMap<>();
+        for (Meal meal : meals) {
+            List<MealEntry> entries = meal.getMealEntries();
+            mealEntries.put(meal.getId(), entries);
+            nutritionSums.put(meal.getId(), sumNutrition(entries));
+        }
+        return new MealsDayResponse(meals, mealEntries, nutritionSums);
+    }
+
     @Override
     public List<Long> findDistinctUserIdsWithMealsBetween(LocalDateTime start, LocalDateTime end) {
         return mealRepository.findDistinctUserIdsWithMealsBetween(start, end);
@@ -6,13 +6,15 @@ import ru.daniil.NauJava.request.create.CreateProductRequest;
 import ru.daniil.NauJava.request.update.UpdateProductRequest;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
     /**
      * Находит все продукты пользователя и системы
-     * @return список продуктов с этим названием
+     * @return неизменяемый список продуктов: сначала общий каталог, затем продукты пользователя
      */
     List<Product> getAll(Long userId);
 
@@ -24,12 +26,31 @@ public interface ProductService {
     List<Product> findProductsByNames(List<String> productNames);
 
     /**
-     * Находит и возвращает только 1-й продукт с указанным именем (без учета регистра)
+     * Находит продукты сразу для всего списка имён за постоянное число обращений к БД.
+     * Поиск ведётся среди продуктов общего каталога и продуктов авторизованного пользователя,
+     * точное совпадение названия имеет приоритет над частичным
+     * @param productNames названия продуктов
+     * @return соответствие переданного названия найденному продукту (ненайденные отсутствуют)
+     */
+    Map<String, Product> resolveProductsByNames(Collection<String> productNames);
+
+    /**
+     * Находит и возвращает наиболее подходящий продукт с указанным именем (без учета регистра)
+     * среди продуктов общего каталога и продуктов авторизованного пользователя
      * @param productName название продукта
      * @return найденный по названию продукт
      */
     Product findProductByName(String productName);
 
+    /**
+     * Ищет продукты по части названия через индекс названий, не обращаясь к БД за поиском
+     * @param query часть названия продукта
+     * @param userId id пользователя, чьи продукты учитываются вместе с общим каталогом
+     * @param limit максимальное количество результатов
+     * @return список продуктов в порядке релевантности
+     */
+    List<Product> searchByName(String query, Long userId, int limit);
+
     /**
      * Добавляет в БД продукт по его информации
      * @param productInfo информация о продукте
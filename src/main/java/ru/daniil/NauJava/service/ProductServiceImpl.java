@@ -4,7 +4,6 @@ import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.stereotype.Service;
 import ru.daniil.NauJava.entity.Product;
@@ -13,50 +12,86 @@ import ru.daniil.NauJava.repository.MealEntryRepository;
 import ru.daniil.NauJava.repository.ProductRepository;
 import ru.daniil.NauJava.request.create.CreateProductRequest;
 import ru.daniil.NauJava.request.update.UpdateProductRequest;
+import ru.daniil.NauJava.service.catalog.GlobalCatalog;
+import ru.daniil.NauJava.service.catalog.MergedProductList;
+import ru.daniil.NauJava.service.productIndex.ProductNameEntry;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndex;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexSync;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final MealEntryRepository mealEntryRepository;
     private final UserService userService;
+    private final ProductNameIndex productNameIndex;
+    private final ProductNameIndexSync productNameIndexSync;
+    private final GlobalCatalog globalCatalog;
+    private final CacheManager cacheManager;
 
-    @Autowired
-    private CacheManager cacheManager;
+    private static final String USER_PRODUCTS_CACHE = "user-products";
 
     @Autowired
     public ProductServiceImpl(ProductRepository productRepository, UserService userService,
-                              MealEntryRepository mealEntryRepository) {
+                              MealEntryRepository mealEntryRepository,
+                              ProductNameIndex productNameIndex,
+                              ProductNameIndexSync productNameIndexSync,
+                              GlobalCatalog globalCatalog,
+                              CacheManager cacheManager) {
         this.userService = userService;
         this.productRepository = productRepository;
         this.mealEntryRepository = mealEntryRepository;
+        this.productNameIndex = productNameIndex;
+        this.productNameIndexSync = productNameIndexSync;
+        this.globalCatalog = globalCatalog;
+        this.cacheManager = cacheManager;
     }
 
-
-    @Cacheable(value = "user-products",
-            key = "'products:' + #userId")
+    /**
+     * Общий каталог берётся из разделяемого снимка, в кэше пользователя лежат только его продукты.
+     * Списки объединяются без копирования
+     */
     @Override
     public List<Product> getAll(Long userId) {
         if (userId == null){
             return new ArrayList<>();
         }
-        return productRepository.findByCreatedByUserIsNullOrCreatedByUserId(userId);
+        return new MergedProductList(globalCatalog.snapshot().products(), getOwnProducts(userId));
     }
 
     @Transactional
     @Override
     public Product findProductByName(String productName) {
-        return productRepository.findByNameContainingIgnoreCase(productName)
-                .stream()
+        if (!productNameIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCase(productName)
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+        }
+        return searchByName(productName, getAuthUserId(), 1).stream()
                 .findFirst()
                 .orElse(null);
     }
 
+    @Override
+    public List<Product> searchByName(String query, Long userId, int limit) {
+        List<Long> ids = productNameIndex.search(query, userId, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Product> productsById = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> productsById.put(product.getId(), product));
+
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public Product saveProduct(CreateProductRequest productInfo) {
@@ -72,7 +107,7 @@ public class ProductServiceImpl implements ProductService {
                         request.getCarbsPer100g()
                 ))
                 .orElseThrow(() -> new IllegalArgumentException("CreateProductRequest cannot be null"));
-        User currentUser = userService.getAuthUser().orElseThrow(
+        User currentUser = userService.getAuthUserReference().orElseThrow(
                 () -> new AuthenticationCredentialsNotFoundException(
                         "Пользователь должен быть авторизован для создания продукта"
                 ));
@@ -82,7 +117,9 @@ public class ProductServiceImpl implements ProductService {
             return null;
         }
         evictUserProductsCache(currentUser.getId());
-        return productRepository.save(newProduct);
+        Product savedProduct = productRepository.save(newProduct);
+        indexProduct(savedProduct);
+        return savedProduct;
     }
 
     @Transactional
@@ -93,7 +130,10 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Product> findByNameContainingIgnoreCase(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        if (!productNameIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCase(name);
+        }
+        return searchByName(name, getAuthUserId(), Integer.MAX_VALUE);
     }
 
     @Override
@@ -104,7 +144,10 @@ public class ProductServiceImpl implements ProductService {
     @Transactional
     @Override
     public boolean productExists(String productName) {
-        return !productRepository.findByNameContainingIgnoreCase(productName).isEmpty();
+        if (!productNameIndex.isReady()) {
+            return !productRepository.findByNameContainingIgnoreCase(productName).isEmpty();
+        }
+        return !productNameIndex.search(productName, getAuthUserId(), 1).isEmpty();
     }
 
     @Override
@@ -118,21 +161,123 @@ public class ProductServiceImpl implements ProductService {
         if(productNames == null){
             return new ArrayList<>();
         }
+        Map<String, Product> resolved = resolveProductsByNames(productNames);
         return productNames.stream()
-                .map(this::findProductByName)
+                .map(resolved::get)
                 .filter(Objects::nonNull)
                 .toList();
     }
 
+    @Transactional
+    @Override
+    public Map<String, Product> resolveProductsByNames(Collection<String> productNames) {
+        Map<String, Product> resolved = new LinkedHashMap<>();
+        if (productNames == null || productNames.isEmpty()) {
+            return resolved;
+        }
+        Long userId = getAuthUserId();
+
+        if (!productNameIndex.isReady()) {
+            return resolveProductsByNamesFromDb(productNames, userId);
+        }
+
+        Map<String, Long> idByName = new LinkedHashMap<>();
+        for (String productName : productNames) {
+            if (productName != null && !idByName.containsKey(productName)) {
+                productNameIndex.search(productName, userId, 1).stream()
+                        .findFirst()
+                        .ifPresent(id -> idByName.put(productName, id));
+            }
+        }
+        if (idByName.isEmpty()) {
+            return resolved;
+        }
+
+        Map<Long, Product> productsById = new HashMap<>();
+        productRepository.findAllById(new HashSet<>(idByName.values()))
+                .forEach(product -> productsById.put(product.getId(), product));
+
+        idByName.forEach((name, id) -> {
+            Product product = productsById.get(id);
+            if (product != null) {
+                resolved.put(name, product);
+            }
+        });
+        return resolved;
+    }
+
+    /**
+     * Находит продукты по списку имён без индекса: одним запросом по точному совпадению,
+     * а для оставшихся имён - одним запросом по вхождению. Оба запроса ищут только
+     * в общем каталоге и среди продуктов пользователя
+     * @param productNames названия продуктов
+     * @param userId id пользователя или null
+     * @return соответствие переданного названия найденному продукту
+     */
+    private Map<String, Product> resolveProductsByNamesFromDb(Collection<String> productNames, Long userId) {
+        Map<String, Product> resolved = new LinkedHashMap<>();
+        Set<String> lowerNames = productNames.stream()
+                .filter(Objects::nonNull)
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        if (lowerNames.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, Product> byLowerName = new HashMap<>();
+        for (Product product : productRepository.findVisibleByLowerNameIn(lowerNames, userId)) {
+            byLowerName.merge(product.getName().toLowerCase(Locale.ROOT), product, ProductServiceImpl::preferred);
+        }
+
+        Set<String> unmatched = new HashSet<>(lowerNames);
+        unmatched.removeAll(byLowerName.keySet());
+        if (!unmatched.isEmpty()) {
+            List<Product> candidates = productRepository.findVisibleByLowerNameLikeAny(
+                    unmatched.stream().map(name -> "%" + escapeLike(name) + "%").toList(), userId);
+            for (String lowerName : unmatched) {
+                candidates.stream()
+                        .filter(product -> product.getName().toLowerCase(Locale.ROOT).contains(lowerName))
+                        .reduce(ProductServiceImpl::preferred)
+                        .ifPresent(product -> byLowerName.put(lowerName, product));
+            }
+        }
+
+        for (String productName : productNames) {
+            if (productName != null && !resolved.containsKey(productName)) {
+                Product product = byLowerName.get(productName.toLowerCase(Locale.ROOT));
+                if (product != null) {
+                    resolved.put(productName, product);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Из двух подходящих продуктов выбирает продукт пользователя, затем более короткое название
+     */
+    private static Product preferred(Product first, Product second) {
+        boolean firstOwn = first.getCreatedByUser() != null;
+        boolean secondOwn = second.getCreatedByUser() != null;
+        if (firstOwn != secondOwn) {
+            return firstOwn ? first : second;
+        }
+        return second.getName().length() < first.getName().length() ? second : first;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Transactional
     @Override
     public void updateProduct(UpdateProductRequest request) {
         Product product = productRepository.findById(request.getId())
                 .orElseThrow(() -> new RuntimeException("Продукт не найден"));
 
-        User currentUser = userService.getAuthUser().orElseThrow();
+        Long currentUserId = userService.getAuthUserId().orElseThrow();
         if (product.getCreatedByUser() != null &&
-                !product.getCreatedByUser().getId().equals(currentUser.getId())) {
+                !product.getCreatedByUser().getId().equals(currentUserId)) {
             throw new RuntimeException("У пользователя нет прав на редактирование этого продукта");
         }
 
@@ -143,7 +288,8 @@ public class ProductServiceImpl implements ProductService {
         product.setCarbsPer100g(request.getCarbsPer100g());
 
         productRepository.save(product);
-        evictUserProductsCache(currentUser.getId());
+        indexProduct(product);
+        onProductChanged(product);
     }
 
     @Transactional
@@ -152,22 +298,74 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Продукт не найден"));
 
-        User currentUser = userService.getAuthUser().orElseThrow();
+        Long currentUserId = userService.getAuthUserId().orElseThrow();
 
         if (product.getCreatedByUser() != null &&
-                !product.getCreatedByUser().getId().equals(currentUser.getId())) {
+                !product.getCreatedByUser().getId().equals(currentUserId)) {
             throw new RuntimeException("У пользователя нет прав на удаление этого продукта");
         }
 
         mealEntryRepository.disconnectFromProduct(id);
         productRepository.delete(product);
-        evictUserProductsCache(currentUser.getId());
+        productNameIndexSync.productRemoved(id);
+        if (product.getCreatedByUser() == null) {
+            globalCatalog.productRemoved(id);
+        } else {
+            evictUserProductsCache(product.getCreatedByUser().getId());
+        }
+    }
+
+    /**
+     * Добавляет или обновляет продукт в индексе названий всех узлов после коммита
+     * @param product сохранённый продукт
+     */
+    private void indexProduct(Product product) {
+        Long ownerId = product.getCreatedByUser() != null ? product.getCreatedByUser().getId() : null;
+        productNameIndexSync.productSaved(new ProductNameEntry(product.getId(), product.getName(), ownerId));
+    }
+
+    /**
+     * Возвращает id авторизованного пользователя
+     * @return id пользователя или null, если пользователь не авторизован
+     */
+    private Long getAuthUserId() {
+        return userService.getAuthUserId().orElse(null);
+    }
+
+    /**
+     * Возвращает продукты, созданные пользователем, через кэш user-products
+     * @param userId id пользователя
+     * @return продукты пользователя без общего каталога
+     */
+    private List<Product> getOwnProducts(Long userId) {
+        Cache cache = cacheManager.getCache(USER_PRODUCTS_CACHE);
+        if (cache == null) {
+            return productRepository.findByCreatedByUserId(userId);
+        }
+        List<Product> own = cache.get(ownProductsKey(userId), () -> productRepository.findByCreatedByUserId(userId));
+        return own != null ? own : List.of();
+    }
+
+    /**
+     * Обновляет снимок общего каталога или сбрасывает кэш владельца продукта
+     * @param product изменённый продукт
+     */
+    private void onProductChanged(Product product) {
+        if (product.getCreatedByUser() == null) {
+            globalCatalog.productChanged(product);
+        } else {
+            evictUserProductsCache(product.getCreatedByUser().getId());
+        }
+    }
+
+    private static String ownProductsKey(Long userId) {
+        return "own:" + userId;
     }
 
     public void evictUserProductsCache(Long userId) {
-        Cache cache = cacheManager.getCache("user-products");
+        Cache cache = cacheManager.getCache(USER_PRODUCTS_CACHE);
         if (cache != null) {
-            cache.evict("products:" + userId);
+            cache.evict(ownProductsKey(userId));
         }
     }
 }
@@ -1,11 +1,15 @@
 package ru.daniil.NauJava.service;
 
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import ru.daniil.NauJava.entity.Role;
 
 import java.util.Optional;
 
-public interface UserDetailsServiceCustom extends UserDetailsService {
+/**
+ * Загрузка пользователей для входа и пересчёт хэша пароля после смены стоимости хэширования
+ */
+public interface UserDetailsServiceCustom extends UserDetailsService, UserDetailsPasswordService {
 
     void assignRoleToUser(String login, String roleName);
 
@@ -1,9 +1,12 @@
 package ru.daniil.NauJava.service;
 
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
 import ru.daniil.NauJava.entity.Role;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.exception.ValidationException;
@@ -18,6 +21,8 @@ public class UserDetailsServiceImpl implements UserDetailsServiceCustom {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
 
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
     public UserDetailsServiceImpl(UserRepository userRepository, RoleRepository roleRepository) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
@@ -25,13 +30,27 @@ public class UserDetailsServiceImpl implements UserDetailsServiceCustom {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        if (username.contains("@")) {
-            return userRepository.findByEmail(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
-        } else {
-            return userRepository.findByLogin(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
-        }
+        Optional<User> user = username.contains("@")
+                ? userRepository.findByEmail(username)
+                : userRepository.findByLogin(username);
+        return user.map(AuthenticatedUser::forLogin)
+                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
+    }
+
+    /**
+     * Сохраняет хэш пароля, пересчитанный при входе с новой стоимостью хэширования
+     * @param user пользователь, успешно прошедший проверку пароля
+     * @param newPassword новый хэш пароля
+     * @return principal с новым хэшем
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findByLogin(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        methodLogger.info("{UserDetailsServiceImpl.updatePassword} | Хэш пароля пользователя {} обновлён",
+                entity.getId());
+        return AuthenticatedUser.forLogin(userRepository.save(entity));
     }
 
     public void assignRoleToUser(String login, String roleName) {
@@ -46,7 +46,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
     @Override
     public UserProfile getAuthUserProfile() {
-        User user = userService.getAuthUser().orElseThrow();
+        User user = userService.getAuthUserReference().orElseThrow();
         return userProfileRepository.findByUser(user)
                 .orElseThrow(() -> new RuntimeException("Профиль пользователя не найден"));
     }
@@ -59,7 +59,7 @@ public class UserProfileServiceImpl implements UserProfileService {
     }
 
     public void updateUserProfile(UpdateProfileRequest request) {
-        User currentUser = userService.getAuthUser().orElseThrow();
+        User currentUser = userService.getAuthUserReference().orElseThrow();
         UserProfile userProfile = getUserProfileByUser(currentUser);
 
         Double oldWeight = userProfile.getWeight();
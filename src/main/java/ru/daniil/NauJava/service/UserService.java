@@ -1,5 +1,6 @@
 package ru.daniil.NauJava.service;
 
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.request.create.RegistrationRequest;
 import ru.daniil.NauJava.request.update.UpdateAccountRequest;
@@ -32,11 +33,33 @@ public interface UserService {
     User registerUserWithRole(RegistrationRequest request, String roleName);
 
     /**
-     * Получает пользователя из если он авторизован
-     * @return объект сущности пользователя или null
+     * Загружает из БД сущность авторизованного пользователя.
+     * Если нужен только id или ссылка для связи с другой сущностью,
+     * лучше использовать getAuthUserId или getAuthUserReference
+     * @return объект сущности пользователя или пустой Optional
      */
     Optional<User> getAuthUser();
 
+    /**
+     * Возвращает principal авторизованного пользователя из SecurityContext без обращения к БД
+     * @return principal или пустой Optional, если пользователь не авторизован
+     */
+    Optional<AuthenticatedUser> getAuthPrincipal();
+
+    /**
+     * Возвращает id авторизованного пользователя без обращения к БД
+     * @return id пользователя или пустой Optional, если пользователь не авторизован
+     */
+    Optional<Long> getAuthUserId();
+
+    /**
+     * Возвращает ссылку на сущность авторизованного пользователя без обращения к БД.
+     * Подходит для связей новых сущностей с пользователем и для условий запросов;
+     * поля кроме id загружаются при первом обращении внутри транзакции
+     * @return ссылка на пользователя или пустой Optional, если пользователь не авторизован
+     */
+    Optional<User> getAuthUserReference();
+
     /**
      * Возвращает всех пользователей зарегистрированных в БД
      * @return список пользователей
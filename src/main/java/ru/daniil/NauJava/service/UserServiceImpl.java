@@ -3,10 +3,12 @@ package ru.daniil.NauJava.service;
 import com.github.dockerjava.api.exception.NotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
 import ru.daniil.NauJava.entity.Role;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.enums.RoleType;
@@ -83,7 +85,23 @@ public class UserServiceImpl implements UserService {
             currentUser.setPassword(passwordEncoder.encode(request.getPassword()));
         }
 
-        userRepository.save(currentUser);
+        User saved = userRepository.save(currentUser);
+        refreshPrincipal(saved);
+    }
+
+    /**
+     * Заменяет principal в текущем SecurityContext, чтобы изменённый логин
+     * был виден без повторного входа
+     * @param user сохранённый пользователь
+     */
+    private void refreshPrincipal(User user) {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        if (current == null) {
+            return;
+        }
+        AuthenticatedUser principal = AuthenticatedUser.of(user);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken
+                .authenticated(principal, current.getCredentials(), principal.getAuthorities()));
     }
 
     private void validateUserData(String email, String password, String login) {
@@ -103,15 +121,34 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public Optional<User> getAuthUser(){
+        return getAuthPrincipal().flatMap(principal -> principal.getId() != null
+                ? userRepository.findById(principal.getId())
+                : userRepository.findByLogin(principal.getLogin()));
+    }
+
+    @Override
+    public Optional<AuthenticatedUser> getAuthPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated()
-                || "anonymousUser".equals(authentication.getPrincipal())) {
+        if (authentication == null || !authentication.isAuthenticated()) {
             return Optional.empty();
         }
+        return switch (authentication.getPrincipal()) {
+            case AuthenticatedUser principal -> Optional.of(principal);
+            // Сессии, созданные до перехода на AuthenticatedUser, хранят сущность пользователя
+            case User user -> Optional.of(AuthenticatedUser.of(user));
+            case null, default -> Optional.empty();
+        };
+    }
 
-        User userDetails = (User) authentication.getPrincipal();
-        return Optional.ofNullable(userDetails);
+    @Override
+    public Optional<Long> getAuthUserId() {
+        return getAuthPrincipal().map(AuthenticatedUser::getId);
+    }
+
+    @Override
+    public Optional<User> getAuthUserReference() {
+        return getAuthUserId().map(userRepository::getReferenceById);
     }
 
     @Override
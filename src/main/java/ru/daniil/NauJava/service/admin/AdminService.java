@@ -1,17 +1,19 @@
 package ru.daniil.NauJava.service.admin;
 
 import ru.daniil.NauJava.response.UserDetailsResponse;
-import ru.daniil.NauJava.response.UsersListResponse;
+import ru.daniil.NauJava.response.UsersPageResponse;
 import ru.daniil.NauJava.response.UsersStatisticsResponse;
 
-import java.util.List;
-
 public interface AdminService {
     /**
-     * Получение списка пользователей с информацией о последней активности
-     * @return список пользователей с датой их последней активности
+     * Получение страницы пользователей с информацией о последней активности.
+     * Пользователи упорядочены по последней активности, сначала самые недавние
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return пользователи страницы и курсор следующей страницы
+     * @throws IllegalArgumentException если курсор повреждён
      */
-    List<UsersListResponse> getUsersWithLastActivity();
+    UsersPageResponse getUsersPage(String cursor, int limit);
 
     /**
      * Получение детальной информации о пользователе по логину
@@ -8,18 +8,23 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.entity.UserProfile;
+import ru.daniil.NauJava.repository.UserRepository;
 import ru.daniil.NauJava.response.UserDetailsResponse;
 import ru.daniil.NauJava.response.UsersListResponse;
+import ru.daniil.NauJava.response.UsersPageResponse;
 import ru.daniil.NauJava.response.UsersStatisticsResponse;
 import ru.daniil.NauJava.service.MealService;
 import ru.daniil.NauJava.service.UserProfileService;
 import ru.daniil.NauJava.service.UserService;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -28,63 +33,107 @@ public class AdminServiceImpl implements AdminService {
     private final UserService userService;
     private final UserProfileService userProfileService;
     private final MealService mealService;
+    private final UserRepository userRepository;
+
+    /**
+     * Курсор первой страницы: позже любой реальной активности и больше любого id
+     */
+    private static final LocalDateTime FIRST_PAGE_ACTIVITY = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
 
     public AdminServiceImpl(UserService userService,
                             UserProfileService userProfileService,
-                            MealService mealService) {
+                            MealService mealService,
+                            UserRepository userRepository) {
         this.userService = userService;
         this.userProfileService = userProfileService;
         this.mealService = mealService;
+        this.userRepository = userRepository;
     }
 
-    @Cacheable(value = "admin-users-list",
-            key = "'users'")
     @Override
-    public List<UsersListResponse> getUsersWithLastActivity() {
-        methodLogger.info("{AdminServiceImpl.getUsersWithLastActivity} |" +
-                " Данные в кеше отсутствуют. Происходит обращение к БД.");
-        List<User> allUsers = userService.findAllUsers();
-        System.out.println("В БД найдено " + allUsers.size() + " пользователей.");
-        return allUsers.stream()
-                .map(user -> {
-                    System.out.println("Вход в цикл обработки пользователя с ID:" + user.getId() + ". Его имя: " + user.getUserProfile().getName());
-                    UsersListResponse response = new UsersListResponse();
-                    response.setLogin(user.getLogin());
-                    response.setEmail(user.getEmail());
-
-                    try {
-                        methodLogger.info("{AdminServiceImpl.getUsersWithLastActivity} |" +
-                                " Происходит обращение к userProfileService.getUserProfileByUser");
-                        UserProfile profile = userProfileService.getUserProfileByUser(user);
-
-                        methodLogger.info("{AdminServiceImpl.getUsersWithLastActivity} |" +
-                                " Происходит обращение к userProfileService.formatFIO");
-                        String fio = userProfileService.formatFIO(profile);
-                        response.setFio(fio);
-                        response.setStreak(profile.getCurrentStreak());
-                    } catch (EntityNotFoundException e) {
-                        response.setFio("-");
-                        response.setStreak(0);
-                    }
-                    LocalDateTime lastActivity = getLastUserActivity(user.getId());
-                    response.setLastActivity(lastActivity != null ?
-                            lastActivity.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) :
-                            null);
-
-                    return response;
-                })
-                .sorted((a, b) -> {
-                    LocalDateTime aDate = a.getLastActivity() != null ?
-                            LocalDateTime.parse(a.getLastActivity()) :
-                            LocalDateTime.MIN;
-                    LocalDateTime bDate = b.getLastActivity() != null ?
-                            LocalDateTime.parse(b.getLastActivity()) :
-                            LocalDateTime.MIN;
-                    return bDate.compareTo(aDate);
-                })
-                .collect(Collectors.toList());
+    public UsersPageResponse getUsersPage(String cursor, int limit) {
+        UsersCursor after = UsersCursor.decode(cursor);
+
+        // Сначала пользователи с активностью, после них - без активности
+        List<Object[]> rows = new ArrayList<>(limit + 1);
+        if (after == null || after.lastActivity() != null) {
+            rows.addAll(after == null
+                    ? userRepository.findActiveUsersPage(FIRST_PAGE_ACTIVITY, Long.MAX_VALUE, limit + 1)
+                    : userRepository.findActiveUsersPage(after.lastActivity(), after.userId(), limit + 1));
+        }
+        if (rows.size() <= limit) {
+            Long beforeId = after != null && after.lastActivity() == null ? after.userId() : Long.MAX_VALUE;
+            rows.addAll(userRepository.findInactiveUsersPage(beforeId, limit + 1 - rows.size()));
+        }
+        methodLogger.debug("{AdminServiceImpl.getUsersPage} |" +
+                " Получено строк: {}, размер страницы: {}", rows.size(), limit);
+
+        boolean hasMore = rows.size() > limit;
+        List<UsersListResponse> users = new ArrayList<>(Math.min(rows.size(), limit));
+        UsersCursor last = null;
+        for (Object[] row : rows.subList(0, Math.min(rows.size(), limit))) {
+            Long userId = ((Number) row[0]).longValue();
+            LocalDateTime lastActivity = toLocalDateTime(row[8]);
+
+            UsersListResponse response = new UsersListResponse();
+            response.setLogin((String) row[1]);
+            response.setEmail((String) row[2]);
+            if (row[3] != null) {
+                UserProfile profile = new UserProfile((String) row[4], (String) row[5], (String) row[6]);
+                response.setFio(userProfileService.formatFIO(profile));
+                response.setStreak(row[7] != null ? ((Number) row[7]).intValue() : 0);
+            } else {
+                response.setFio("-");
+                response.setStreak(0);
+            }
+            response.setLastActivity(lastActivity != null ?
+                    lastActivity.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) :
+                    null);
+            users.add(response);
+            last = new UsersCursor(lastActivity, userId);
+        }
+
+        return new UsersPageResponse(users, hasMore && last != null ? last.encode() : null);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime;
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return null;
+    }
+
+    /**
+     * Позиция в списке пользователей: последняя активность и id
+     * последнего пользователя уже выданной страницы
+     */
+    private record UsersCursor(LocalDateTime lastActivity, Long userId) {
+
+        String encode() {
+            String raw = (lastActivity != null ? lastActivity.toString() : "") + "|" + userId;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static UsersCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                String activity = raw.substring(0, separator);
+                Long userId = Long.parseLong(raw.substring(separator + 1));
+                return new UsersCursor(activity.isEmpty() ? null : LocalDateTime.parse(activity), userId);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы пользователей", e);
+            }
+        }
     }
 
     /**
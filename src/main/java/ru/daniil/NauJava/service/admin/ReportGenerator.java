@@ -0,0 +1,309 @@
+package ru.daniil.NauJava.service.admin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportMetrics;
+import ru.daniil.NauJava.entity.ReportPartial;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportPartialRepository;
+import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.service.stats.DailyStatsService;
+import ru.daniil.NauJava.service.stats.PeriodAggregate;
+import ru.daniil.NauJava.service.stats.PeriodStats;
+import ru.daniil.NauJava.service.stats.ReportMetricsCollector;
+import ru.daniil.NauJava.service.stats.ReportMetricsService;
+import ru.daniil.NauJava.service.stats.SliceTiming;
+import ru.daniil.NauJava.service.stats.StatsProgressListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Формирует содержимое отчёта, взятого в работу очередью отчётов.
+ * Показатели за период суммируются из дневных сводок в пуле reportQueryExecutor,
+ * итог за закрытые дни сохраняется, чтобы повторное формирование считало только новые дни.
+ * Метрики питания собираются одним проходом по записям о приёмах пищи и сохраняются
+ * в итоге за закрытые дни вместе с показателями.
+ * Ход пересчёта сводок рассылается подписчикам как прогресс отчёта,
+ * время пересчёта каждого интервала сводок сохраняется в отчёте
+ */
+@Component
+public class ReportGenerator {
+    /**
+     * Версия набора показателей отчёта. Увеличивается при изменении того, что считается в отчёте:
+     * отчёты прежних версий за закрытые периоды формируются заново при следующем запросе
+     */
+    public static final int METRICS_VERSION = 2;
+
+    private final ReportRepository reportRepository;
+    private final ReportPartialRepository reportPartialRepository;
+    private final DailyStatsService dailyStatsService;
+    private final ReportMetricsService reportMetricsService;
+    private final ReportProgressService reportProgressService;
+    private final ReportResultCache reportResultCache;
+    private final AsyncTaskExecutor queryExecutor;
+    private final long timeoutSeconds;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public ReportGenerator(ReportRepository reportRepository,
+                           ReportPartialRepository reportPartialRepository,
+                           DailyStatsService dailyStatsService,
+                           ReportMetricsService reportMetricsService,
+                           ReportProgressService reportProgressService,
+                           ReportResultCache reportResultCache,
+                           @Qualifier("reportQueryExecutor") AsyncTaskExecutor queryExecutor,
+                           @Value("${app.reports.job-timeout-seconds:60}") long timeoutSeconds) {
+        this.reportRepository = reportRepository;
+        this.reportPartialRepository = reportPartialRepository;
+        this.dailyStatsService = dailyStatsService;
+        this.reportMetricsService = reportMetricsService;
+        this.reportProgressService = reportProgressService;
+        this.reportResultCache = reportResultCache;
+        this.queryExecutor = queryExecutor;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Формирует отчёт в текущем потоке и сохраняет результат.
+     * Если за время формирования отчёт отменили, результат отбрасывается
+     * @param reportId id отчёта в статусе PROCESSING
+     */
+    public void generate(Long reportId) {
+        Future<PeriodResult> statsFuture = null;
+        try {
+            Report report = reportRepository.findById(reportId)
+                    .orElseThrow(() -> new RuntimeException("Отчёт не найден"));
+
+            LocalDate start = report.getReportPeriodStart();
+            LocalDate end = report.getReportPeriodEnd();
+
+            long totalStartTime = System.currentTimeMillis();
+            List<SliceTiming> slices = Collections.synchronizedList(new ArrayList<>());
+
+            // Статистика собирается из дневных сводок, недостающие дни пересчитываются
+            statsFuture = queryExecutor.submit(() -> collectStats(reportId, start, end, slices));
+            PeriodResult result = statsFuture.get(timeoutSeconds, TimeUnit.SECONDS);
+
+            long totalExecutionTime = System.currentTimeMillis() - totalStartTime;
+
+            updateReportWithResults(reportId, result, totalExecutionTime, slices);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            methodLogger.info("{ReportGenerator.generate} | Формирование отчёта {} прервано", reportId);
+        } catch (TimeoutException e) {
+            handleReportError(reportId, "Произошёл таймаут при формировании отчета.");
+        } catch (ExecutionException e) {
+            handleReportError(reportId, "Ошибка при формировании отчета: " + e.getCause().getMessage());
+        } catch (Exception e) {
+            handleReportError(reportId, "Ошибка при формировании отчета: " + e.getMessage());
+        } finally {
+            if (statsFuture != null) {
+                statsFuture.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Собирает статистику за период отчёта. Итог за закрытые дни берётся из сохранённого
+     * итога отчёта и дополняется только днями, прошедшими с прошлого формирования,
+     * а сегодняшний день считается заново. Если сводки за уже учтённые дни с тех пор
+     * пересчитывались, закрытые дни суммируются заново. Метрики питания дополняются так же
+     */
+    private PeriodResult collectStats(Long reportId, LocalDate start, LocalDate end, List<SliceTiming> slices) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastClosedDay = end.isBefore(today) ? end : today.minusDays(1);
+        LocalDateTime computedAt = LocalDateTime.now();
+
+        PeriodAggregate closed = new PeriodAggregate();
+        ReportMetricsCollector closedMetrics = reportMetricsService.newCollector();
+        if (!start.isAfter(lastClosedDay)) {
+            LocalDate from = start;
+            ReportPartial partial = findUsablePartial(reportId, start, lastClosedDay);
+            if (partial != null) {
+                closed = PeriodAggregate.fromBytes(partial.getAggregate());
+                closedMetrics = ReportMetricsCollector.fromBytes(partial.getMetrics());
+                from = partial.getClosedThrough().plusDays(1);
+            }
+            if (!from.isAfter(lastClosedDay)) {
+                closed.merge(dailyStatsService.aggregate(from, lastClosedDay, progressListener(reportId, 0, 60, slices)));
+                closedMetrics.merge(reportMetricsService.collect(from, lastClosedDay,
+                        progressListener(reportId, 60, 80, slices)));
+            }
+            reportPartialRepository.save(new ReportPartial(reportId, lastClosedDay, closed.toBytes(),
+                    closedMetrics.toBytes(), computedAt));
+        }
+
+        PeriodAggregate total = closed;
+        ReportMetricsCollector totalMetrics = closedMetrics;
+        if (!end.isBefore(today) && !start.isAfter(today)) {
+            total = closed.copy();
+            total.merge(dailyStatsService.aggregate(today, today, progressListener(reportId, 80, 85, slices)));
+            totalMetrics = closedMetrics.copy();
+            totalMetrics.merge(reportMetricsService.collect(today, today, progressListener(reportId, 85, 90, slices)));
+        }
+        return new PeriodResult(total.toPeriodStats(), reportMetricsService.toMetrics(totalMetrics));
+    }
+
+    /**
+     * Возвращает сохранённый итог отчёта, если он покрывает начало периода, содержит метрики питания
+     * и сводки за его дни не пересчитывались после его сохранения
+     */
+    private ReportPartial findUsablePartial(Long reportId, LocalDate start, LocalDate lastClosedDay) {
+        ReportPartial partial = reportPartialRepository.findById(reportId).orElse(null);
+        if (partial == null
+                || partial.getClosedThrough().isBefore(start)
+                || partial.getClosedThrough().isAfter(lastClosedDay)
+                || partial.getMetrics() == null
+                || dailyStatsService.changedSince(start, partial.getClosedThrough(), partial.getComputedAt())) {
+            return null;
+        }
+        try {
+            PeriodAggregate.fromBytes(partial.getAggregate());
+            ReportMetricsCollector.fromBytes(partial.getMetrics());
+            return partial;
+        } catch (IllegalArgumentException e) {
+            methodLogger.warn("{ReportGenerator.findUsablePartial} | Итог отчёта {} не прочитан: {}",
+                    reportId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Переводит ход пересчёта сводок в прогресс отчёта в диапазоне [from, to] процентов
+     * и собирает время пересчёта интервалов
+     */
+    private StatsProgressListener progressListener(Long reportId, int from, int to, List<SliceTiming> slices) {
+        return new StatsProgressListener() {
+            @Override
+            public void onProgress(ReportStage stage, int percent) {
+                reportProgressService.publish(ReportProgressEvent.of(
+                        reportId, ReportStatus.PROCESSING, stage, from + percent * (to - from) / 100));
+            }
+
+            @Override
+            public void onSlice(SliceTiming timing) {
+                slices.add(timing);
+            }
+        };
+    }
+
+    /**
+     * Обновление отчета с результатами, если он всё ещё формируется
+     */
+    private void updateReportWithResults(Long reportId, PeriodResult result, Long totalExecutionTime,
+                                         List<SliceTiming> slices) {
+        Report report = reportRepository.findById(reportId).orElse(null);
+        if (report == null || report.getStatus() != ReportStatus.PROCESSING) {
+            methodLogger.info("{ReportGenerator.updateReportWithResults} |" +
+                    " Отчёт {} отменён или удалён, результат отброшен", reportId);
+            return;
+        }
+        reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.PROCESSING, ReportStage.SAVING, 95));
+        PeriodStats stats = result.stats();
+
+        List<SliceTiming> sortedSlices = new ArrayList<>(slices);
+        sortedSlices.sort(Comparator.comparing(SliceTiming::from));
+        long maxSliceTime = sortedSlices.stream().mapToLong(SliceTiming::millis).max().orElse(0);
+
+        String content = String.format("""
+            Отчет за период с %s по %s
+            
+            Статистика системы:
+            - Зарегистрировано пользователей: %d
+            - Создано продуктов: %d
+            - Создано ежедневных отчетов (DailyReport): %d
+            
+            Статистика активности пользователей:
+            - Активных пользователей: %d%s
+            - Всего приемов пищи у активных пользователей: %d
+            - Среднее количество приемов пищи на активного пользователя: %.2f
+            
+            Время формирования отчета: %d мс
+            Пересчитано интервалов дневных сводок: %d, самый долгий: %d мс
+            
+            Отчет сформирован: %s
+            """,
+                report.getReportPeriodStart(),
+                report.getReportPeriodEnd(),
+                stats.usersRegistered(),
+                stats.productsCreated(),
+                stats.dailyReportsCreated(),
+                stats.activeUsers(),
+                stats.activeUsersEstimated() ? " (оценка)" : "",
+                stats.mealsCount(),
+                stats.averageMealsPerActiveUser(),
+                totalExecutionTime,
+                sortedSlices.size(),
+                maxSliceTime,
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))
+        );
+
+        report.setStatus(ReportStatus.COMPLETED);
+        report.setContent(content);
+        report.setCompletedAt(LocalDateTime.now());
+        report.setTotalExecutionTime(totalExecutionTime);
+        report.setTotalUsersRegistered(stats.usersRegistered());
+        report.setTotalProductsCreated(stats.productsCreated());
+        report.setAverageMealsPerActiveUser(stats.averageMealsPerActiveUser());
+        report.setTotalDailyReportsCreated(stats.dailyReportsCreated());
+        report.setActiveUsersCount(stats.activeUsers());
+        report.setSliceCount(sortedSlices.size());
+        report.setMaxSliceTime(maxSliceTime);
+        report.setSliceTimings(formatSliceTimings(sortedSlices));
+        report.setMetrics(result.metrics());
+        report.setMetricsVersion(METRICS_VERSION);
+
+        reportRepository.save(report);
+        reportResultCache.remember(report);
+        reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.COMPLETED));
+    }
+
+    /**
+     * Время пересчёта интервалов, по строке на интервал
+     */
+    private static String formatSliceTimings(List<SliceTiming> slices) {
+        StringBuilder timings = new StringBuilder();
+        for (SliceTiming slice : slices) {
+            timings.append(slice.from()).append(" - ").append(slice.to())
+                    .append(": ").append(slice.millis()).append(" мс\n");
+        }
+        return timings.toString();
+    }
+
+    /**
+     * Обработка ошибки при формировании отчета
+     */
+    private void handleReportError(Long reportId, String errorMessage) {
+        reportRepository.findById(reportId)
+                .filter(report -> report.getStatus() == ReportStatus.PROCESSING)
+                .ifPresent(report -> {
+                    report.setStatus(ReportStatus.ERROR);
+                    report.setContent("Ошибка: " + errorMessage);
+                    reportRepository.save(report);
+                    reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.ERROR));
+                });
+    }
+
+    /**
+     * Показатели и метрики питания за период отчёта
+     */
+    private record PeriodResult(PeriodStats stats, ReportMetrics metrics) {
+    }
+}
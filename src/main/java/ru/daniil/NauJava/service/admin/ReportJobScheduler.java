@@ -0,0 +1,28 @@
+package ru.daniil.NauJava.service.admin;
+
+public interface ReportJobScheduler {
+    /**
+     * Ставит отчёт в очередь на формирование. Отчёт, который уже ждёт в очереди
+     * или формируется, повторно не ставится
+     * @param reportId id отчёта
+     */
+    void enqueue(Long reportId);
+
+    /**
+     * Отменяет формирование отчёта, ожидающего в очереди или формирующегося на этом узле
+     * @param reportId id отчёта
+     * @return true если отчёт был отменён
+     */
+    boolean cancel(Long reportId);
+
+    /**
+     * Берёт в работу ожидающие отчёты, пока есть свободные обработчики
+     */
+    void dispatch();
+
+    /**
+     * Возвращает количество отчётов, формирующихся на этом узле
+     * @return количество активных задач
+     */
+    int runningCount();
+}
@@ -0,0 +1,168 @@
+package ru.daniil.NauJava.service.admin;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportRepository;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Очередь формирования отчётов поверх таблицы отчётов.
+ * Ожидающие отчёты хранятся в статусе CREATED, узел забирает их условным UPDATE,
+ * поэтому один отчёт формируется только одним узлом. Количество одновременно
+ * формирующихся отчётов ограничено размером пула reportWorkerExecutor.
+ * Отчёты, брошенные упавшим узлом, по истечении таймаута возвращаются в очередь
+ */
+@Service
+public class ReportJobSchedulerImpl implements ReportJobScheduler {
+
+    private static final Set<ReportStatus> ACTIVE = EnumSet.of(ReportStatus.CREATED, ReportStatus.PROCESSING);
+    private static final Set<ReportStatus> FINISHED =
+            EnumSet.of(ReportStatus.COMPLETED, ReportStatus.ERROR, ReportStatus.CANCELLED);
+
+    private final ReportRepository reportRepository;
+    private final ReportGenerator reportGenerator;
+    private final ReportProgressService reportProgressService;
+    private final AsyncTaskExecutor workerExecutor;
+    private final int workers;
+    private final long staleAfterSeconds;
+
+    private final Map<Long, Future<?>> running = new ConcurrentHashMap<>();
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public ReportJobSchedulerImpl(ReportRepository reportRepository,
+                                  ReportGenerator reportGenerator,
+                                  ReportProgressService reportProgressService,
+                                  @Qualifier("reportWorkerExecutor") AsyncTaskExecutor workerExecutor,
+                                  @Value("${app.reports.workers:2}") int workers,
+                                  @Value("${app.reports.job-timeout-seconds:60}") long jobTimeoutSeconds) {
+        this.reportRepository = reportRepository;
+        this.reportGenerator = reportGenerator;
+        this.reportProgressService = reportProgressService;
+        this.workerExecutor = workerExecutor;
+        this.workers = workers;
+        // Формирование дольше таймаута невозможно, значит такой отчёт брошен
+        this.staleAfterSeconds = jobTimeoutSeconds * 2;
+    }
+
+    @Override
+    public void enqueue(Long reportId) {
+        if (!reportRepository.existsById(reportId)) {
+            throw new EntityNotFoundException("Отчёт не найден");
+        }
+        // Отчёт, который уже ждёт в очереди или формируется, не переводится, и событие о нём не нужно
+        if (reportRepository.transitionStatus(reportId, FINISHED, ReportStatus.CREATED, null) > 0) {
+            reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.CREATED));
+        }
+        dispatch();
+    }
+
+    @Override
+    public boolean cancel(Long reportId) {
+        boolean cancelled = reportRepository.transitionStatus(
+                reportId, ACTIVE, ReportStatus.CANCELLED, null) > 0;
+        Future<?> future = running.remove(reportId);
+        if (future != null) {
+            future.cancel(true);
+        }
+        if (cancelled) {
+            reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.CANCELLED));
+            methodLogger.info("{ReportJobSchedulerImpl.cancel} | Формирование отчёта {} отменено", reportId);
+            dispatch();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public synchronized void dispatch() {
+        int free = workers - running.size();
+        if (free <= 0) {
+            return;
+        }
+        List<Long> queued = reportRepository.findIdsByStatus(ReportStatus.CREATED, PageRequest.of(0, free));
+        for (Long reportId : queued) {
+            if (running.size() >= workers) {
+                return;
+            }
+            if (reportRepository.transitionStatus(reportId, Set.of(ReportStatus.CREATED),
+                    ReportStatus.PROCESSING, LocalDateTime.now()) == 0) {
+                // Отчёт забрал другой узел или его отменили
+                continue;
+            }
+            reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.PROCESSING));
+            submit(reportId);
+        }
+    }
+
+    @Override
+    public int runningCount() {
+        return running.size();
+    }
+
+    /**
+     * Страховка на случай, если уведомление о новом отчёте пришло на другой узел
+     * или задача была брошена: возвращает зависшие отчёты в очередь и разбирает её
+     */
+    @Scheduled(fixedDelayString = "${app.reports.poll-ms:5000}")
+    public void poll() {
+        try {
+            int requeued = reportRepository.requeueStale(ReportStatus.PROCESSING, ReportStatus.CREATED,
+                    LocalDateTime.now().minusSeconds(staleAfterSeconds));
+            if (requeued > 0) {
+                methodLogger.warn("{ReportJobSchedulerImpl.poll} |" +
+                        " Возвращено в очередь зависших отчётов: {}", requeued);
+            }
+            dispatch();
+        } catch (Exception e) {
+            methodLogger.error("{ReportJobSchedulerImpl.poll} | Ошибка разбора очереди отчётов: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        poll();
+    }
+
+    private void submit(Long reportId) {
+        // Место занимается до отправки, чтобы быстро завершившаяся задача не оставила запись в running
+        Future<?> placeholder = new CompletableFuture<>();
+        running.put(reportId, placeholder);
+        try {
+            Future<?> future = workerExecutor.submit(() -> {
+                try {
+                    reportGenerator.generate(reportId);
+                } finally {
+                    running.remove(reportId);
+                    dispatch();
+                }
+            });
+            running.replace(reportId, placeholder, future);
+        } catch (TaskRejectedException e) {
+            // Потоки и очередь пула заняты задачами, отменёнными, но ещё не завершившимися:
+            // отчёт вернётся в очередь
+            running.remove(reportId, placeholder);
+            reportRepository.transitionStatus(reportId, Set.of(ReportStatus.PROCESSING), ReportStatus.CREATED, null);
+            reportProgressService.publish(ReportProgressEvent.of(reportId, ReportStatus.CREATED));
+            methodLogger.warn("{ReportJobSchedulerImpl.submit} | Нет свободного обработчика для отчёта {}", reportId);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.daniil.NauJava.service.admin;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.enums.ReportStatus;
+
+/**
+ * Изменение состояния отчёта, которое рассылается подписанным администраторам
+ * @param reportId id отчёта
+ * @param status статус отчёта
+ * @param stage текущий этап формирования или null
+ * @param percent доля выполненной работы от 0 до 100
+ * @param timestamp момент события в миллисекундах
+ */
+public record ReportProgressEvent(Long reportId,
+                                  ReportStatus status,
+                                  ReportStage stage,
+                                  int percent,
+                                  long timestamp) {
+
+    public static ReportProgressEvent of(Long reportId, ReportStatus status, ReportStage stage, int percent) {
+        return new ReportProgressEvent(reportId, status, stage, percent, System.currentTimeMillis());
+    }
+
+    public static ReportProgressEvent of(Long reportId, ReportStatus status) {
+        int percent = status == ReportStatus.COMPLETED ? 100 : 0;
+        ReportStage stage = switch (status) {
+            case CREATED -> ReportStage.QUEUED;
+            case COMPLETED, ERROR, CANCELLED -> ReportStage.FINISHED;
+            default -> null;
+        };
+        return of(reportId, status, stage, percent);
+    }
+
+    @JsonIgnore
+    public boolean isFinal() {
+        return status == ReportStatus.COMPLETED || status == ReportStatus.ERROR || status == ReportStatus.CANCELLED;
+    }
+
+    /**
+     * События без этапа или с этапами очереди и завершения отправляются только при смене статуса,
+     * промежуточные этапы формирования статус не меняют
+     */
+    @JsonIgnore
+    public boolean isStatusChange() {
+        return stage == null || stage == ReportStage.QUEUED || stage == ReportStage.FINISHED;
+    }
+}
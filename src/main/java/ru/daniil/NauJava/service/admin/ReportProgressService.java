@@ -0,0 +1,35 @@
+package ru.daniil.NauJava.service.admin;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.daniil.NauJava.enums.ReportStatus;
+
+import java.util.Optional;
+
+public interface ReportProgressService {
+    /**
+     * Сообщает всем подписанным администраторам на всех узлах о новом состоянии отчёта
+     * @param event состояние отчёта
+     */
+    void publish(ReportProgressEvent event);
+
+    /**
+     * Подписывает клиента на события отчётов
+     * @param reportId id отчёта или null, чтобы получать события всех отчётов
+     * @return поток Server-Sent Events
+     * @throws IllegalStateException если подписчиков уже слишком много
+     */
+    SseEmitter subscribe(Long reportId);
+
+    /**
+     * Обрабатывает событие, полученное от узла через Redis
+     * @param message событие в формате JSON
+     */
+    void handleMessage(String message);
+
+    /**
+     * Возвращает последний известный статус отчёта без обращения к БД
+     * @param reportId id отчёта
+     * @return статус из кэша или пустой Optional, если событий по отчёту ещё не было
+     */
+    Optional<ReportStatus> getCachedStatus(Long reportId);
+}
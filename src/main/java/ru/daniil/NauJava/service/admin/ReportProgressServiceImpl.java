@@ -0,0 +1,200 @@
+package ru.daniil.NauJava.service.admin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.daniil.NauJava.enums.ReportStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Рассылка хода формирования отчётов через Server-Sent Events.
+ * События публикуются в канал Redis, каждый узел получает их оттуда
+ * и передаёт своим подписчикам, поэтому администратор видит прогресс
+ * отчёта, который формируется на любом узле.
+ * Последнее событие по отчёту хранится в Redis и в локальном кэше,
+ * чтобы запрос статуса не читал отчёт из БД.
+ * При смене статуса обновляется запись отчёта в кэше списка отчётов
+ */
+@Service
+public class ReportProgressServiceImpl implements ReportProgressService {
+    public static final String PROGRESS_CHANNEL = "reports:progress";
+    static final String LAST_EVENT_KEY_PREFIX = "reports:progress:last:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReportSummaryCache reportSummaryCache;
+    private final Duration lastEventTtl;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Cache<Long, ReportProgressEvent> lastEvents;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public ReportProgressServiceImpl(StringRedisTemplate redisTemplate,
+                                     ObjectMapper objectMapper,
+                                     ReportSummaryCache reportSummaryCache,
+                                     @Value("${app.reports.progress.ttl-minutes:60}") long ttlMinutes,
+                                     @Value("${app.reports.progress.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                                     @Value("${app.reports.progress.max-subscribers:200}") int maxSubscribers) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.reportSummaryCache = reportSummaryCache;
+        this.lastEventTtl = Duration.ofMinutes(ttlMinutes);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.lastEvents = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(lastEventTtl)
+                .build();
+    }
+
+    @Override
+    public void publish(ReportProgressEvent event) {
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            methodLogger.warn("{ReportProgressServiceImpl.publish} | Не удалось сериализовать событие отчёта {}: {}",
+                    event.reportId(), e.getMessage());
+            return;
+        }
+
+        lastEvents.put(event.reportId(), event);
+        if (event.isStatusChange()) {
+            refreshSummary(event.reportId());
+        }
+        try {
+            redisTemplate.opsForValue().set(LAST_EVENT_KEY_PREFIX + event.reportId(), message, lastEventTtl);
+            redisTemplate.convertAndSend(PROGRESS_CHANNEL, message);
+        } catch (Exception e) {
+            // Без Redis события получат хотя бы подписчики этого узла
+            methodLogger.warn("{ReportProgressServiceImpl.publish} | Redis недоступен, событие отчёта {}" +
+                    " разослано только локально: {}", event.reportId(), e.getMessage());
+            deliver(event, message);
+        }
+    }
+
+    private void refreshSummary(Long reportId) {
+        try {
+            reportSummaryCache.refresh(reportId);
+        } catch (Exception e) {
+            methodLogger.warn("{ReportProgressServiceImpl.refreshSummary} | Не удалось обновить отчёт {}" +
+                    " в кэше списка: {}", reportId, e.getMessage());
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(Long reportId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Слишком много подписчиков на события отчётов");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, reportId);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        if (reportId != null) {
+            ReportProgressEvent last = lastEvents.getIfPresent(reportId);
+            if (last != null) {
+                try {
+                    send(subscriber, objectMapper.writeValueAsString(last));
+                } catch (JsonProcessingException e) {
+                    methodLogger.debug("{ReportProgressServiceImpl.subscribe} | {}", e.getMessage());
+                }
+            }
+        }
+        return emitter;
+    }
+
+    @Override
+    public void handleMessage(String message) {
+        ReportProgressEvent event;
+        try {
+            event = objectMapper.readValue(message, ReportProgressEvent.class);
+        } catch (JsonProcessingException e) {
+            methodLogger.warn("{ReportProgressServiceImpl.handleMessage} | Некорректное событие отчёта: {}", message);
+            return;
+        }
+        lastEvents.put(event.reportId(), event);
+        deliver(event, message);
+    }
+
+    @Override
+    public Optional<ReportStatus> getCachedStatus(Long reportId) {
+        ReportProgressEvent event = lastEvents.getIfPresent(reportId);
+        if (event == null) {
+            try {
+                String message = redisTemplate.opsForValue().get(LAST_EVENT_KEY_PREFIX + reportId);
+                if (message != null) {
+                    event = objectMapper.readValue(message, ReportProgressEvent.class);
+                    lastEvents.put(reportId, event);
+                }
+            } catch (Exception e) {
+                methodLogger.debug("{ReportProgressServiceImpl.getCachedStatus} | Кэш статуса отчёта {} недоступен: {}",
+                        reportId, e.getMessage());
+            }
+        }
+        return Optional.ofNullable(event).map(ReportProgressEvent::status);
+    }
+
+    /**
+     * Поддерживает соединения открытыми через прокси и убирает отключившихся подписчиков
+     */
+    @Scheduled(fixedDelayString = "${app.reports.progress.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter().send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                drop(subscriber);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void deliver(ReportProgressEvent event, String message) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.reportId() == null || subscriber.reportId().equals(event.reportId())) {
+                send(subscriber, message);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, String message) {
+        try {
+            subscriber.emitter().send(SseEmitter.event()
+                    .name("progress")
+                    .data(message, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber);
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.emitter().complete();
+    }
+
+    private record Subscriber(SseEmitter emitter, Long reportId) {}
+}
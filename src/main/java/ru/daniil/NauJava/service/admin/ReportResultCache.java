@@ -0,0 +1,178 @@
+package ru.daniil.NauJava.service.admin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Результаты отчётов по ключу (начало периода, конец периода, версия набора показателей).
+ * Отчёт за закрытый период, сформированный после его окончания текущей версией показателей,
+ * больше не меняется, поэтому его id хранится в кэше без срока жизни.
+ * Одинаковые запросы получают один отчёт: на узле одновременные запросы ждут первый,
+ * а между узлами решение принимается под advisory-блокировкой ключа, поэтому
+ * пока отчёт формируется, все запросы за период получают его id, а не создают новый
+ */
+@Component
+public class ReportResultCache {
+    public static final String CACHE_NAME = "report-results";
+
+    private static final Set<ReportStatus> ACTIVE = EnumSet.of(ReportStatus.CREATED, ReportStatus.PROCESSING);
+
+    private final ReportRepository reportRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<ResultKey, CompletableFuture<Resolution>> inFlight = new ConcurrentHashMap<>();
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public ReportResultCache(ReportRepository reportRepository,
+                             CacheManager cacheManager,
+                             PlatformTransactionManager transactionManager) {
+        this.reportRepository = reportRepository;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Решение фиксируется до постановки отчёта в очередь, даже если вызывающий код в транзакции
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Возвращает id окончательного отчёта за период из кэша
+     * @param start первая дата периода
+     * @param end последняя дата периода включительно
+     * @return id отчёта или пустой Optional, если окончательного отчёта в кэше нет
+     */
+    public Optional<Long> findFinal(LocalDate start, LocalDate end) {
+        Cache.ValueWrapper cached = cache().get(new ResultKey(start, end, ReportGenerator.METRICS_VERSION).cacheKey());
+        return cached != null && cached.get() instanceof Number id ? Optional.of(id.longValue()) : Optional.empty();
+    }
+
+    /**
+     * Находит или создаёт отчёт за период. Окончательный отчёт возвращается как есть,
+     * формирующийся - тоже, иначе отчёт создаётся или переводится в очередь заново
+     * @param start первая дата периода
+     * @param end последняя дата периода включительно
+     * @return id отчёта и признак, что его нужно поставить в очередь
+     */
+    public Resolution resolve(LocalDate start, LocalDate end) {
+        Optional<Long> cached = findFinal(start, end);
+        if (cached.isPresent()) {
+            return new Resolution(cached.get(), false);
+        }
+
+        ResultKey key = new ResultKey(start, end, ReportGenerator.METRICS_VERSION);
+        CompletableFuture<Resolution> own = new CompletableFuture<>();
+        CompletableFuture<Resolution> shared = inFlight.putIfAbsent(key, own);
+        if (shared != null) {
+            try {
+                return shared.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Resolution resolution = Objects.requireNonNull(transactionTemplate.execute(status -> resolveLocked(key)));
+            own.complete(resolution);
+            return resolution;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Запоминает отчёт, если он стал окончательным
+     * @param report только что сформированный отчёт
+     */
+    public void remember(Report report) {
+        if (!isFinal(report, LocalDate.now())) {
+            return;
+        }
+        try {
+            cache().put(new ResultKey(report.getReportPeriodStart(), report.getReportPeriodEnd(),
+                    report.getMetricsVersion()).cacheKey(), report.getId());
+        } catch (RuntimeException e) {
+            // Без записи в кэше отчёт найдётся запросом к БД
+            methodLogger.warn("{ReportResultCache.remember} | Отчёт {} не сохранён в кэше: {}",
+                    report.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Отчёт окончательный, если он сформирован текущей версией показателей
+     * после окончания своего периода
+     */
+    static boolean isFinal(Report report, LocalDate today) {
+        return report.getStatus() == ReportStatus.COMPLETED
+                && report.getReportPeriodEnd().isBefore(today)
+                && Objects.equals(report.getMetricsVersion(), ReportGenerator.METRICS_VERSION)
+                && report.getCompletedAt() != null
+                && !report.getCompletedAt().isBefore(report.getReportPeriodEnd().plusDays(1).atStartOfDay());
+    }
+
+    private Resolution resolveLocked(ResultKey key) {
+        reportRepository.lockForTransaction(key.cacheKey());
+        Optional<Report> latest = reportRepository
+                .findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(key.start(), key.end());
+
+        if (latest.isEmpty()) {
+            Report report = new Report(key.start(), key.end());
+            report.setStatus(ReportStatus.CREATED);
+            report.setContent("Отчет формируется...");
+            return new Resolution(reportRepository.save(report).getId(), true);
+        }
+
+        Report report = latest.get();
+        if (ACTIVE.contains(report.getStatus())) {
+            methodLogger.debug("{ReportResultCache.resolveLocked} |" +
+                    " Отчёт за период {} - {} уже формируется", key.start(), key.end());
+            return new Resolution(report.getId(), false);
+        }
+        if (isFinal(report, LocalDate.now())) {
+            remember(report);
+            return new Resolution(report.getId(), false);
+        }
+
+        // Период ещё идёт, показатели устарели или прошлое формирование не удалось
+        report.setStatus(ReportStatus.CREATED);
+        report.setContent("Отчет обновляется...");
+        report.setCreatedAt(LocalDateTime.now());
+        return new Resolution(reportRepository.save(report).getId(), true);
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+    }
+
+    private record ResultKey(LocalDate start, LocalDate end, Integer version) {
+        private String cacheKey() {
+            return "report:" + start + ":" + end + ":v" + version;
+        }
+    }
+
+    /**
+     * @param reportId id отчёта за период
+     * @param enqueue true если отчёт нужно поставить в очередь формирования
+     */
+    public record Resolution(Long reportId, boolean enqueue) {
+    }
+}
@@ -1,8 +1,11 @@
 package ru.daniil.NauJava.service.admin;
 
 import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportMetrics;
 import ru.daniil.NauJava.enums.ReportStatus;
 import ru.daniil.NauJava.response.ReportResponse;
+import ru.daniil.NauJava.response.ReportsPageResponse;
+import ru.daniil.NauJava.response.StandardReportResponse;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -10,12 +13,21 @@ import java.util.Optional;
 
 public interface ReportService {
     /**
-     * Создает новый отчет за указанный промежуток времени
-     * @param startDate начало промежутка
-     * @param endDate конец промежутка
-     * @return ID созданного отчета
+     * Находит последний созданный отчет за указанный период
+     * @param startDate дата начала периода
+     * @param endDate дата окончания периода
+     * @return отчёт или пустой Optional, если отчёта за период нет
      */
-    Long createReport(LocalDate startDate, LocalDate endDate);
+    Optional<Report> findReportForPeriod(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Возвращает отчёт за период, не формируя его повторно: готовый окончательный
+     * или уже формирующийся отчёт возвращается сразу, иначе отчёт ставится в очередь
+     * @param startDate дата начала периода
+     * @param endDate дата окончания периода
+     * @return id отчёта за период
+     */
+    Long requestReport(LocalDate startDate, LocalDate endDate);
 
     /**
      * Проверяет, существует ли отчет за указанный промежуток времени
@@ -32,6 +44,13 @@ public interface ReportService {
      */
     String getReportContent(Long reportId);
 
+    /**
+     * Получает метрики питания отчёта по ID
+     * @param reportId ID отчета
+     * @return метрики или null если отчет не найден или ещё не сформирован
+     */
+    ReportMetrics getReportMetrics(Long reportId);
+
     /**
      * Получает статус отчета по ID
      * @param reportId ID отчета
@@ -40,18 +59,32 @@ public interface ReportService {
     ReportStatus getReportStatus(Long reportId);
 
     /**
-     * Странично получает отчёты
-     * @param page страница
-     * @param size размер выборки
-     * @return список отчётов обёрнутых в ReportResponse
+     * Получает страницу отчётов, новые сначала, без содержимого отчётов
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return отчёты страницы и курсор следующей страницы
+     * @throws IllegalArgumentException если курсор некорректен
      */
-    List<ReportResponse> getPaginateReports(Integer page, Integer size);
+    ReportsPageResponse getReportsPage(String cursor, int limit);
 
     /**
-     * Получает последний созданный отчет
-     * @return последний созданный отчёт
+     * Получает краткие данные последнего созданного отчета
+     * @return последний созданный отчёт без содержимого
      */
-    Optional<Report> getLatestReport();
+    Optional<ReportResponse> getLatestReport();
+
+    /**
+     * Получает краткие данные отчёта без содержимого
+     * @param reportId id отчёта
+     * @return данные отчёта или пустой Optional, если отчёт не найден
+     */
+    Optional<ReportResponse> getReportSummary(Long reportId);
+
+    /**
+     * Получает стандартные периоды, отчёты за которые формируются заранее, с их отчётами
+     * @return периоды в порядке объявления с краткими данными отчёта или без него
+     */
+    List<StandardReportResponse> getStandardReports();
 
     /**
      * Возвращает отчёт по его id
@@ -67,8 +100,16 @@ public interface ReportService {
     Long countReports();
 
     /**
-     * Асинхронно формирует отчет с использованием нескольких потоков
+     * Ставит отчёт в очередь на формирование. Отчёт формируется в отдельном пуле обработчиков,
+     * уже ожидающий или формирующийся отчёт повторно не ставится
      * @param reportId id отчёта
      */
     void generateReportAsync(Long reportId);
+
+    /**
+     * Отменяет формирование отчёта
+     * @param reportId id отчёта
+     * @return true если отчёт ожидал в очереди или формировался и был отменён
+     */
+    boolean cancelReport(Long reportId);
 }
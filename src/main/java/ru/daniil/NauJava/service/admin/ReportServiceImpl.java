@@ -1,94 +1,70 @@
 package ru.daniil.NauJava.service.admin;
 
-import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportMetrics;
 import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.enums.StandardReportPeriod;
 import ru.daniil.NauJava.repository.*;
+import ru.daniil.NauJava.repository.projection.ReportKeyView;
 import ru.daniil.NauJava.response.ReportResponse;
-import ru.daniil.NauJava.service.DailyReportService;
-import ru.daniil.NauJava.service.MealService;
-import ru.daniil.NauJava.service.ProductService;
-import ru.daniil.NauJava.service.UserService;
+import ru.daniil.NauJava.response.ReportsPageResponse;
+import ru.daniil.NauJava.response.StandardReportResponse;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.*;
 
 @Service
 public class ReportServiceImpl implements ReportService {
 
     private final ReportRepository reportRepository;
-    private final UserService userService;
-    private final ProductService productService;
-    private final MealService mealService;
-    private final DailyReportService dailyReportService;
+    private final ReportJobScheduler reportJobScheduler;
+    private final ReportProgressService reportProgressService;
+    private final ReportSummaryCache reportSummaryCache;
+    private final ReportResultCache reportResultCache;
 
     private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
 
     public ReportServiceImpl(ReportRepository reportRepository,
-                             UserService userService,
-                             ProductService productService,
-                             MealService mealService,
-                             DailyReportService dailyReportService) {
+                             ReportJobScheduler reportJobScheduler,
+                             ReportProgressService reportProgressService,
+                             ReportSummaryCache reportSummaryCache,
+                             ReportResultCache reportResultCache) {
         this.reportRepository = reportRepository;
-        this.userService = userService;
-        this.productService = productService;
-        this.mealService = mealService;
-        this.dailyReportService = dailyReportService;
+        this.reportJobScheduler = reportJobScheduler;
+        this.reportProgressService = reportProgressService;
+        this.reportSummaryCache = reportSummaryCache;
+        this.reportResultCache = reportResultCache;
     }
 
     /**
-     * Проверяет существование отчета за указанный период
+     * Проверяет существование отчета за указанный период.
+     * Окончательные отчёты находятся в кэше без запроса к БД
      */
     public boolean reportExistsForPeriod(LocalDate startDate, LocalDate endDate) {
-        return reportRepository.existsByReportPeriodStartAndReportPeriodEnd(startDate, endDate);
+        return reportResultCache.findFinal(startDate, endDate).isPresent()
+                || reportRepository.existsByReportPeriodStartAndReportPeriodEnd(startDate, endDate);
+    }
+
+    @Override
+    public Long requestReport(LocalDate startDate, LocalDate endDate) {
+        ReportResultCache.Resolution resolution = reportResultCache.resolve(startDate, endDate);
+        if (resolution.enqueue()) {
+            reportJobScheduler.enqueue(resolution.reportId());
+        }
+        return resolution.reportId();
     }
 
     /**
-     * Находит отчет за указанный период
+     * Находит последний созданный отчет за указанный период
      */
     public Optional<Report> findReportForPeriod(LocalDate startDate, LocalDate endDate) {
-        return reportRepository.findByReportPeriodStartAndReportPeriodEnd(startDate, endDate);
-    }
-
-    @Transactional
-    @CacheEvict(value = "admin-reports-page", allEntries = true)
-    public Long createReport(LocalDate startDate, LocalDate endDate) {
-        LocalDate today = LocalDate.now();
-
-        Optional<Report> existingReport = reportRepository
-                .findByReportPeriodStartAndReportPeriodEnd(startDate, endDate);
-
-        if (existingReport.isPresent() && endDate.isEqual(today)) {
-            Report report = existingReport.get();
-            report.setStatus(ReportStatus.CREATED);
-            report.setContent("Отчет обновляется...");
-            report.setCreatedAt(LocalDateTime.now());
-
-            Report savedReport = reportRepository.save(report);
-            return savedReport.getId();
-        }
-
-        Report report = new Report(startDate, endDate);
-        report.setStatus(ReportStatus.CREATED);
-        report.setContent("Отчет формируется...");
-
-        Report savedReport = reportRepository.save(report);
-        return savedReport.getId();
+        return reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(startDate, endDate);
     }
 
     public String getReportContent(Long reportId) {
@@ -97,38 +73,84 @@ public class ReportServiceImpl implements ReportService {
                 .orElse(null);
     }
 
+    /**
+     * Возвращает метрики отчёта одной колонкой, без загрузки содержимого
+     */
+    public ReportMetrics getReportMetrics(Long reportId) {
+        return reportRepository.findMetricsById(reportId).orElse(null);
+    }
+
+    /**
+     * Возвращает статус отчёта из кэша событий прогресса,
+     * а если событий по отчёту не было - одной колонкой из БД
+     */
     public ReportStatus getReportStatus(Long reportId) {
-        return reportRepository.findById(reportId)
-                .map(Report::getStatus)
+        return reportProgressService.getCachedStatus(reportId)
+                .or(() -> reportRepository.findStatusById(reportId))
                 .orElse(null);
     }
 
     /**
-     * Получает все отчеты, отсортированные по дате создания
-     * @return список отчетов
+     * Получает краткие данные всех отчетов, отсортированные по дате создания
+     * @return список отчетов без содержимого
      */
-    public List<Report> getAllReports() {
-        return reportRepository.findAllByOrderByCreatedAtDesc();
+    public List<ReportResponse> getAllReports() {
+        return reportRepository.findAllSummaries().stream()
+                .map(ReportSummaryCache::toResponse)
+                .toList();
     }
 
-    private Page<Report> getReportsPage(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return reportRepository.findAllWithPagination(pageable);
+    /**
+     * Страница берётся по индексу (created_at, id) после курсора, а данные отчётов -
+     * из кэша кратких данных, поэтому содержимое отчётов не читается
+     */
+    @Override
+    public ReportsPageResponse getReportsPage(String cursor, int limit) {
+        ReportsCursor after = ReportsCursor.decode(cursor);
+
+        List<ReportKeyView> keys = after == null
+                ? reportRepository.findPageKeys(PageRequest.of(0, limit + 1))
+                : reportRepository.findPageKeysAfter(after.createdAt(), after.reportId(), PageRequest.of(0, limit + 1));
+        methodLogger.debug("{ReportServiceImpl.getReportsPage} |" +
+                " Получено ключей: {}, размер страницы: {}", keys.size(), limit);
+
+        boolean hasMore = keys.size() > limit;
+        List<ReportKeyView> pageKeys = keys.subList(0, Math.min(keys.size(), limit));
+        List<ReportResponse> reports = reportSummaryCache.getAll(
+                pageKeys.stream().map(ReportKeyView::getId).toList());
+
+        ReportKeyView last = pageKeys.isEmpty() ? null : pageKeys.get(pageKeys.size() - 1);
+        return new ReportsPageResponse(reports,
+                hasMore && last != null ? new ReportsCursor(last.getCreatedAt(), last.getId()).encode() : null);
     }
 
-    @Cacheable(value = "admin-reports-page",
-            key = "'reports:' + #page + '-' + #size")
     @Override
-    public List<ReportResponse> getPaginateReports(Integer page, Integer size) {
-        Page<Report> reportPage = getReportsPage(page, size);
+    public Optional<ReportResponse> getLatestReport() {
+        List<ReportKeyView> keys = reportRepository.findPageKeys(PageRequest.of(0, 1));
+        if (keys.isEmpty()) {
+            return Optional.empty();
+        }
+        return reportSummaryCache.get(keys.get(0).getId());
+    }
 
-        return reportPage.stream()
-                .map(this::convertToResponse)
-                .toList();
+    @Override
+    public Optional<ReportResponse> getReportSummary(Long reportId) {
+        return reportSummaryCache.get(reportId);
     }
 
-    public Optional<Report> getLatestReport() {
-        return reportRepository.findTopByOrderByCreatedAtDesc();
+    @Override
+    public List<StandardReportResponse> getStandardReports() {
+        LocalDate today = LocalDate.now();
+        List<StandardReportResponse> reports = new ArrayList<>();
+        for (StandardReportPeriod period : StandardReportPeriod.values()) {
+            ReportResponse report = reportRepository
+                    .findFirstByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(
+                            period.start(today), period.end(today))
+                    .flatMap(key -> reportSummaryCache.get(key.getId()))
+                    .orElse(null);
+            reports.add(new StandardReportResponse(period.name(), period.getDisplayName(), report));
+        }
+        return reports;
     }
 
     @Override
@@ -143,189 +165,38 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public void generateReportAsync(Long reportId) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                Report report = reportRepository.findById(reportId)
-                        .orElseThrow(() -> new RuntimeException("Отчёт не найден"));
-
-                report.setStatus(ReportStatus.PROCESSING);
-                reportRepository.save(report);
-
-                LocalDateTime startPeriod = report.getReportPeriodStart().atStartOfDay();
-                LocalDateTime endPeriod = report.getReportPeriodEnd().atTime(23, 59, 59);
-
-                long totalStartTime = System.currentTimeMillis();
-
-                CompletableFuture<Long> usersFuture = CompletableFuture.supplyAsync(() ->
-                        countUsersRegistered(startPeriod, endPeriod)
-                );
-
-                CompletableFuture<Long> productsFuture = CompletableFuture.supplyAsync(() ->
-                        countProductsCreated(startPeriod, endPeriod)
-                );
-
-                CompletableFuture<MealStats> mealStatsFuture = CompletableFuture.supplyAsync(() ->
-                        calculateMealStats(startPeriod, endPeriod)
-                );
-
-                CompletableFuture<Long> dailyReportsFuture = CompletableFuture.supplyAsync(() ->
-                        countDailyReportsCreated(startPeriod, endPeriod)
-                );
-
-                CompletableFuture.allOf(usersFuture, productsFuture, mealStatsFuture, dailyReportsFuture)
-                        .get(60, TimeUnit.SECONDS);
-
-                Long totalUsers = usersFuture.get();
-                Long totalProducts = productsFuture.get();
-                MealStats mealStats = mealStatsFuture.get();
-                Long totalDailyReports = dailyReportsFuture.get();
-
-                long totalExecutionTime = System.currentTimeMillis() - totalStartTime;
-
-                updateReportWithResults(report, totalUsers, totalProducts, mealStats,
-                        totalDailyReports, totalExecutionTime);
-
-            } catch (TimeoutException e) {
-                handleReportError(reportId, "Произошёл таймаут при формировании отчета.");
-            } catch (Exception e) {
-                handleReportError(reportId, "Ошибка при формировании отчета: " + e.getMessage());
-            }
-        });
-    }
-
-    /**
-     * Подсчет зарегистрированных пользователей за период
-     * @param start начало периода
-     * @param end конец периода
-     * @return число пользователей
-     */
-    private Long countUsersRegistered(LocalDateTime start, LocalDateTime end) {
-        return userService.countByCreatedAtBetween(start, end);
-    }
-
-    /**
-     * Подсчет созданных продуктов за период
-     * @param start начало периода
-     * @param end конец периода
-     * @return число продуктов
-     */
-    private Long countProductsCreated(LocalDateTime start, LocalDateTime end) {
-        return productService.countByCreatedAtBetween(start, end);
+        reportJobScheduler.enqueue(reportId);
     }
 
-    /**
-     * Подсчет созданных daily reports за период
-     * @param start начало периода
-     * @param end конец периода
-     * @return число дневных отчётов
-     */
-    private Long countDailyReportsCreated(LocalDateTime start, LocalDateTime end) {
-        return dailyReportService.countByCreatedAtBetween(start, end);
+    @Override
+    public boolean cancelReport(Long reportId) {
+        return reportJobScheduler.cancel(reportId);
     }
 
     /**
-     * Расчет статистики по приемам пищи в диапазоне дат
-     * @param start начало диапазона дат
-     * @param end конец диапазона дат
-     * @return статистика по потреблению пользователя
+     * Позиция в списке отчётов: время создания и id последнего отчёта страницы
      */
-    private MealStats calculateMealStats(LocalDateTime start, LocalDateTime end) {
-        List<Long> activeUserIds = mealService.findDistinctUserIdsWithMealsBetween(start, end);
+    private record ReportsCursor(LocalDateTime createdAt, Long reportId) {
 
-        if (activeUserIds.isEmpty()) {
-            return new MealStats(0L, 0.0, 0L);
+        String encode() {
+            String raw = createdAt + "|" + reportId;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
 
-        Long totalMeals = mealService.countMealsForUsersBetweenDates(activeUserIds, start, end);
-
-        Double averageMeals = totalMeals.doubleValue() / activeUserIds.size();
-
-        return new MealStats((long) activeUserIds.size(), averageMeals, totalMeals);
-    }
-
-    /**
-     * Обновление отчета с результатами
-     */
-    private void updateReportWithResults(Report report, Long totalUsers, Long totalProducts,
-                                         MealStats mealStats, Long totalDailyReports,
-                                         Long totalExecutionTime) {
-
-        String content = String.format("""
-            Отчет за период с %s по %s
-            
-            Статистика системы:
-            - Зарегистрировано пользователей: %d
-            - Создано продуктов: %d
-            - Создано ежедневных отчетов (DailyReport): %d
-            
-            Статистика активности пользователей:
-            - Активных пользователей: %d
-            - Всего приемов пищи у активных пользователей: %d
-            - Среднее количество приемов пищи на активного пользователя: %.2f
-            
-            Время формирования отчета: %d мс
-            
-            Отчет сформирован: %s
-            """,
-                report.getReportPeriodStart(),
-                report.getReportPeriodEnd(),
-                totalUsers,
-                totalProducts,
-                totalDailyReports,
-                mealStats.activeUsersCount(),
-                mealStats.totalMeals(),
-                mealStats.averageMealsPerUser(),
-                totalExecutionTime,
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))
-        );
-
-        report.setStatus(ReportStatus.COMPLETED);
-        report.setContent(content);
-        report.setCompletedAt(LocalDateTime.now());
-        report.setTotalExecutionTime(totalExecutionTime);
-        report.setTotalUsersRegistered(totalUsers);
-        report.setTotalProductsCreated(totalProducts);
-        report.setAverageMealsPerActiveUser(mealStats.averageMealsPerUser());
-        report.setTotalDailyReportsCreated(totalDailyReports);
-        report.setActiveUsersCount(mealStats.activeUsersCount());
-
-        reportRepository.save(report);
-    }
-
-    /**
-     * Обработка ошибки при формировании отчета
-     */
-    private void handleReportError(Long reportId, String errorMessage) {
-        reportRepository.findById(reportId).ifPresent(report -> {
-            report.setStatus(ReportStatus.ERROR);
-            report.setContent("Ошибка: " + errorMessage);
-            reportRepository.save(report);
-        });
-    }
-
-    private ReportResponse convertToResponse(Report report) {
-        ReportResponse response = new ReportResponse();
-        response.setId(report.getId());
-        response.setStatus(report.getStatus().toString());
-        if (report.getReportPeriodStart() != null) {
-            response.setPeriodStart(report.getReportPeriodStart()
-                    .format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
-        }
-        if (report.getReportPeriodEnd() != null) {
-            response.setPeriodEnd(report.getReportPeriodEnd()
-                    .format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
-        }
-        if (report.getCreatedAt() != null) {
-            response.setCreatedAt(report.getCreatedAt()
-                    .format(DateTimeFormatter.ofPattern("yyyy.MM.dd HH:mm:ss")));
-        }
-        if (report.getCompletedAt() != null) {
-            response.setCompletedAt(report.getCompletedAt()
-                    .format(DateTimeFormatter.ofPattern("yyyy.MM.dd HH:mm:ss")));
+        static ReportsCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, separator));
+                Long reportId = Long.parseLong(raw.substring(separator + 1));
+                return new ReportsCursor(createdAt, reportId);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы отчётов", e);
+            }
         }
-        response.setTotalExecutionTime(report.getTotalExecutionTime());
-        return response;
     }
-
-    private record MealStats(Long activeUsersCount, Double averageMealsPerUser, Long totalMeals) {}
-}
\ No newline at end of file
+}
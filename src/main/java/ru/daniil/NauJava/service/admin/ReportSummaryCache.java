@@ -0,0 +1,119 @@
+package ru.daniil.NauJava.service.admin;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.repository.projection.ReportSummaryView;
+import ru.daniil.NauJava.response.ReportResponse;
+
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Кэш кратких данных отчётов для списка. Каждый отчёт хранится отдельной записью,
+ * поэтому при смене статуса отчёта обновляется только его запись, а страницы
+ * собираются из записей по id, полученным из индекса
+ */
+@Component
+public class ReportSummaryCache {
+    public static final String CACHE_NAME = "admin-reports-page";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd HH:mm:ss");
+
+    private final ReportRepository reportRepository;
+    private final CacheManager cacheManager;
+
+    public ReportSummaryCache(ReportRepository reportRepository, CacheManager cacheManager) {
+        this.reportRepository = reportRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Возвращает краткие данные отчётов, недостающие в кэше загружаются одним запросом
+     * @param ids id отчётов
+     * @return данные отчётов в порядке ids, удалённые отчёты пропускаются
+     */
+    public List<ReportResponse> getAll(List<Long> ids) {
+        Cache cache = cache();
+        Map<Long, ReportResponse> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ReportResponse cached = cache.get(key(id), ReportResponse.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (ReportSummaryView view : reportRepository.findSummariesByIdIn(missing)) {
+                ReportResponse response = toResponse(view);
+                cache.put(key(view.getId()), response);
+                found.put(view.getId(), response);
+            }
+        }
+
+        List<ReportResponse> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ReportResponse response = found.get(id);
+            if (response != null) {
+                result.add(response);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id id отчёта
+     * @return краткие данные отчёта
+     */
+    public Optional<ReportResponse> get(Long id) {
+        List<ReportResponse> result = getAll(List.of(id));
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
+    }
+
+    /**
+     * Перечитывает запись отчёта после смены его статуса
+     * @param id id отчёта
+     */
+    public void refresh(Long id) {
+        Cache cache = cache();
+        List<ReportSummaryView> views = reportRepository.findSummariesByIdIn(List.of(id));
+        if (views.isEmpty()) {
+            cache.evict(key(id));
+        } else {
+            cache.put(key(id), toResponse(views.get(0)));
+        }
+    }
+
+    static ReportResponse toResponse(ReportSummaryView view) {
+        ReportResponse response = new ReportResponse();
+        response.setId(view.getId());
+        response.setStatus(view.getStatus().toString());
+        if (view.getReportPeriodStart() != null) {
+            response.setPeriodStart(view.getReportPeriodStart().format(DATE_FORMAT));
+        }
+        if (view.getReportPeriodEnd() != null) {
+            response.setPeriodEnd(view.getReportPeriodEnd().format(DATE_FORMAT));
+        }
+        if (view.getCreatedAt() != null) {
+            response.setCreatedAt(view.getCreatedAt().format(DATE_TIME_FORMAT));
+        }
+        if (view.getCompletedAt() != null) {
+            response.setCompletedAt(view.getCompletedAt().format(DATE_TIME_FORMAT));
+        }
+        response.setTotalExecutionTime(view.getTotalExecutionTime());
+        return response;
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+    }
+
+    private static String key(Long id) {
+        return "report:" + id;
+    }
+}
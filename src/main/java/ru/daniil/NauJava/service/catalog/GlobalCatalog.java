@@ -0,0 +1,35 @@
+package ru.daniil.NauJava.service.catalog;
+
+import ru.daniil.NauJava.entity.Product;
+
+public interface GlobalCatalog {
+    /**
+     * Возвращает текущий снимок общего каталога, при первом обращении загружает его из БД
+     * @return неизменяемый снимок каталога
+     */
+    GlobalCatalogSnapshot snapshot();
+
+    /**
+     * Сообщает об изменении или добавлении продукта общего каталога.
+     * Снимок обновляется точечно после коммита транзакции, другие узлы получают уведомление
+     * @param product сохранённый продукт общего каталога
+     */
+    void productChanged(Product product);
+
+    /**
+     * Сообщает об удалении продукта общего каталога
+     * @param productId id удалённого продукта
+     */
+    void productRemoved(Long productId);
+
+    /**
+     * Обрабатывает уведомление другого узла об изменении каталога
+     * @param message сообщение вида "узел|версия|операция|id продукта"
+     */
+    void handleChange(String message);
+
+    /**
+     * Полностью перечитывает каталог из БД
+     */
+    void reload();
+}
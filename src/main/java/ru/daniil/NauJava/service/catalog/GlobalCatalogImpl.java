@@ -0,0 +1,198 @@
+package ru.daniil.NauJava.service.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.daniil.NauJava.entity.Product;
+import ru.daniil.NauJava.repository.ProductRepository;
+
+import java.util.UUID;
+
+/**
+ * Общий каталог продуктов, который хранится на узле в одном экземпляре.
+ * Версия каталога ведётся счётчиком в Redis и общая для всех узлов.
+ * Изменения применяются к снимку точечно и рассылаются остальным узлам;
+ * при пропуске версии (потерянное сообщение, одновременные изменения)
+ * каталог перечитывается из БД целиком.
+ */
+@Service
+public class GlobalCatalogImpl implements GlobalCatalog {
+    public static final String CHANGES_CHANNEL = "catalog:global:changes";
+    static final String VERSION_KEY = "catalog:global:version";
+
+    private static final char SEPARATOR = '|';
+    private static final String OP_UPSERT = "U";
+    private static final String OP_REMOVE = "D";
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile GlobalCatalogSnapshot current;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public GlobalCatalogImpl(ProductRepository productRepository, StringRedisTemplate redisTemplate) {
+        this.productRepository = productRepository;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public GlobalCatalogSnapshot snapshot() {
+        GlobalCatalogSnapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (current == null) {
+                    reload();
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void productChanged(Product product) {
+        afterCommit(() -> applyLocalChange(OP_UPSERT, product.getId(), product));
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        afterCommit(() -> applyLocalChange(OP_REMOVE, productId, null));
+    }
+
+    @Override
+    public synchronized void handleChange(String message) {
+        String[] parts = message.split("\\" + SEPARATOR);
+        if (parts.length != 4 || parts[0].equals(nodeId)) {
+            return;
+        }
+        GlobalCatalogSnapshot snapshot = current;
+        if (snapshot == null) {
+            return;
+        }
+        long version;
+        Long productId;
+        try {
+            version = Long.parseLong(parts[1]);
+            productId = Long.valueOf(parts[3]);
+        } catch (NumberFormatException e) {
+            methodLogger.warn("{GlobalCatalogImpl.handleChange} | Некорректное сообщение: {}", message);
+            return;
+        }
+
+        if (version <= snapshot.version()) {
+            return;
+        }
+        if (version != snapshot.version() + 1) {
+            methodLogger.info("{GlobalCatalogImpl.handleChange} |" +
+                    " Пропущены версии каталога {} -> {}, каталог перечитывается", snapshot.version(), version);
+            reload();
+            return;
+        }
+
+        if (OP_UPSERT.equals(parts[2])) {
+            current = productRepository.findById(productId)
+                    .filter(product -> product.getCreatedByUser() == null)
+                    .map(product -> snapshot.withProduct(product, version))
+                    .orElseGet(() -> snapshot.withoutProduct(productId, version));
+        } else {
+            current = snapshot.withoutProduct(productId, version);
+        }
+    }
+
+    @Override
+    public synchronized void reload() {
+        // Версия читается до продуктов: всё, что закоммичено до неё, попадёт в выборку
+        long version = readSharedVersion();
+        if (version < 0) {
+            version = current != null ? current.version() : 0;
+        }
+        current = GlobalCatalogSnapshot.of(version, productRepository.findByCreatedByUserIsNull());
+        methodLogger.info("{GlobalCatalogImpl.reload} |" +
+                " Общий каталог загружен, версия {}, продуктов: {}", version, current.products().size());
+    }
+
+    /**
+     * Страховка от потерянных уведомлений: сверяет локальную версию с общей
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.global.version-check-ms:30000}")
+    public void checkVersion() {
+        GlobalCatalogSnapshot snapshot = current;
+        if (snapshot == null) {
+            return;
+        }
+        long sharedVersion = readSharedVersion();
+        if (sharedVersion > snapshot.version()) {
+            methodLogger.debug("{GlobalCatalogImpl.checkVersion} |" +
+                    " Локальная версия {} отстаёт от общей {}", snapshot.version(), sharedVersion);
+            reload();
+        }
+    }
+
+    private synchronized void applyLocalChange(String operation, Long productId, Product product) {
+        GlobalCatalogSnapshot snapshot = snapshot();
+        long version = nextSharedVersion(snapshot.version());
+        if (version != snapshot.version() + 1) {
+            // Другой узел изменил каталог одновременно с нами или мы пропустили его изменение
+            reload();
+        } else if (OP_UPSERT.equals(operation)) {
+            current = snapshot.withProduct(product, version);
+        } else {
+            current = snapshot.withoutProduct(productId, version);
+        }
+        publish(version, operation, productId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * @return общая версия каталога, 0 если её ещё нет, или -1 если Redis недоступен
+     */
+    private long readSharedVersion() {
+        try {
+            String value = redisTemplate.opsForValue().get(VERSION_KEY);
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (Exception e) {
+            methodLogger.warn("{GlobalCatalogImpl.readSharedVersion} |" +
+                    " Не удалось прочитать версию каталога - {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private long nextSharedVersion(long localVersion) {
+        try {
+            Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            return version != null ? version : localVersion + 1;
+        } catch (Exception e) {
+            methodLogger.warn("{GlobalCatalogImpl.nextSharedVersion} |" +
+                    " Redis недоступен, версия каталога увеличена только локально - {}", e.getMessage());
+            return localVersion + 1;
+        }
+    }
+
+    private void publish(long version, String operation, Long productId) {
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL,
+                    nodeId + SEPARATOR + version + SEPARATOR + operation + SEPARATOR + productId);
+        } catch (Exception e) {
+            methodLogger.warn("{GlobalCatalogImpl.publish} |" +
+                    " Не удалось разослать изменение каталога {} - {}", version, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.daniil.NauJava.service.catalog;
+
+import ru.daniil.NauJava.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Неизменяемый снимок общего каталога продуктов (продукты без создателя).
+ * Один снимок разделяется всеми запросами узла, изменения каталога
+ * порождают новый снимок со следующей версией, старый при этом не меняется.
+ * Продукты снимка упорядочены по id и не должны изменяться вызывающим кодом.
+ * @param version версия каталога, общая для всех узлов
+ * @param products продукты общего каталога
+ */
+public record GlobalCatalogSnapshot(long version, List<Product> products) {
+
+    public static final GlobalCatalogSnapshot EMPTY = new GlobalCatalogSnapshot(0, List.of());
+
+    public GlobalCatalogSnapshot {
+        products = List.copyOf(products);
+    }
+
+    /**
+     * Создаёт снимок по продуктам из БД
+     * @param version версия каталога
+     * @param products продукты общего каталога в любом порядке
+     * @return снимок с продуктами, упорядоченными по id
+     */
+    public static GlobalCatalogSnapshot of(long version, List<Product> products) {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(Product::getId));
+        return new GlobalCatalogSnapshot(version, sorted);
+    }
+
+    /**
+     * Возвращает новый снимок, в котором продукт добавлен или заменён
+     * @param product добавленный или изменённый продукт общего каталога
+     * @param newVersion версия нового снимка
+     * @return новый снимок
+     */
+    public GlobalCatalogSnapshot withProduct(Product product, long newVersion) {
+        List<Product> updated = new ArrayList<>(products.size() + 1);
+        for (Product current : products) {
+            if (!Objects.equals(current.getId(), product.getId())) {
+                updated.add(current);
+            }
+        }
+        updated.add(product);
+        updated.sort(Comparator.comparing(Product::getId));
+        return new GlobalCatalogSnapshot(newVersion, updated);
+    }
+
+    /**
+     * Возвращает новый снимок без указанного продукта
+     * @param productId id удалённого продукта
+     * @param newVersion версия нового снимка
+     * @return новый снимок
+     */
+    public GlobalCatalogSnapshot withoutProduct(Long productId, long newVersion) {
+        List<Product> updated = products.stream()
+                .filter(product -> !Objects.equals(product.getId(), productId))
+                .toList();
+        return new GlobalCatalogSnapshot(newVersion, updated);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.daniil.NauJava.service.catalog;
+
+import ru.daniil.NauJava.entity.Product;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемое представление общего каталога и продуктов пользователя одним списком.
+ * Элементы не копируются: обращение по индексу уходит в один из исходных списков
+ */
+public final class MergedProductList extends AbstractList<Product> implements RandomAccess {
+    private final List<Product> catalog;
+    private final List<Product> own;
+
+    public MergedProductList(List<Product> catalog, List<Product> own) {
+        this.catalog = catalog;
+        this.own = own;
+    }
+
+    @Override
+    public Product get(int index) {
+        int catalogSize = catalog.size();
+        return index < catalogSize ? catalog.get(index) : own.get(index - catalogSize);
+    }
+
+    @Override
+    public int size() {
+        return catalog.size() + own.size();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.daniil.NauJava.service.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Одна строка выгрузки: продукт в приёме пищи пользователя
+ */
+public record MealExportRow(Long mealId,
+                            Long entryId,
+                            Long userId,
+                            String userLogin,
+                            LocalDateTime eatenAt,
+                            String mealType,
+                            String product,
+                            Integer grams,
+                            Double calories,
+                            Double proteins,
+                            Double fats,
+                            Double carbs) {
+}
@@ -0,0 +1,34 @@
+package ru.daniil.NauJava.service.export;
+
+import ru.daniil.NauJava.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface MealExportService {
+    /**
+     * Пытается занять место для новой выгрузки.
+     * Количество одновременных выгрузок ограничено, каждое занятое место
+     * должно быть освобождено через {@link #releaseSlot()}
+     * @return true если выгрузку можно начинать
+     */
+    boolean tryAcquireSlot();
+
+    /**
+     * Освобождает место, занятое {@link #tryAcquireSlot()}
+     */
+    void releaseSlot();
+
+    /**
+     * Выгружает все продукты из приёмов пищи за период в поток, сжатый gzip.
+     * Строки читаются из БД пачками и сразу пишутся в поток, память не зависит от размера выгрузки
+     * @param from дата начала периода (включительно)
+     * @param to дата окончания периода (включительно)
+     * @param format формат строк выгрузки
+     * @param out поток ответа
+     * @return количество выгруженных строк
+     * @throws IOException если запись в поток не удалась, например клиент разорвал соединение
+     */
+    long export(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,182 @@
+package ru.daniil.NauJava.service.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.daniil.NauJava.enums.ExportFormat;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковая выгрузка приёмов пищи.
+ * Приёмы пищи читаются пачками по ключу (eaten_at, id), каждая пачка - в отдельной короткой
+ * транзакции только для чтения через курсор с фиксированным fetch size.
+ * Пачка пишется в ответ уже после завершения транзакции, поэтому медленный клиент
+ * не держит соединение с БД, а блокирующая запись в поток притормаживает чтение следующей пачки.
+ */
+@Service
+public class MealExportServiceImpl implements MealExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String BATCH_SQL = """
+            WITH page AS (
+                SELECT m.id, m.eaten_at, m.user_id, m.meal_type_id
+                FROM tbl_meals m
+                WHERE (m.eaten_at, m.id) > (?, ?)
+                  AND m.eaten_at < ?
+                ORDER BY m.eaten_at, m.id
+                LIMIT ?
+            )
+            SELECT p.id AS meal_id, p.eaten_at, p.user_id, u.login, mt.name AS meal_type,
+                   me.id AS entry_id, pr.name AS product, me.quantity_grams,
+                   me.calculated_calories, me.calculated_proteins, me.calculated_fats, me.calculated_carbs
+            FROM page p
+            LEFT JOIN tbl_meal_entries me ON me.meal_id = p.id
+            LEFT JOIN tbl_user u ON u.id = p.user_id
+            LEFT JOIN tbl_meal_type mt ON mt.id = p.meal_type_id
+            LEFT JOIN tbl_product pr ON pr.id = me.product_id
+            ORDER BY p.eaten_at, p.id, me.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore slots;
+    private final int mealsPerBatch;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public MealExportServiceImpl(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${app.export.meals-per-batch:5000}") int mealsPerBatch,
+                                 @Value("${app.export.max-concurrent:2}") int maxConcurrent) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+        this.mealsPerBatch = Math.max(1, mealsPerBatch);
+    }
+
+    @Override
+    public boolean tryAcquireSlot() {
+        return slots.tryAcquire();
+    }
+
+    @Override
+    public void releaseSlot() {
+        slots.release();
+    }
+
+    @Override
+    public long export(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        Cursor cursor = new Cursor(from.atStartOfDay(), 0L);
+        long rows = 0;
+
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE, true);
+        BufferedWriter buffered = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        MealExportWriter writer = MealExportWriter.create(format, buffered);
+        writer.writeHeader();
+
+        while (cursor != null) {
+            Batch batch = readBatch(cursor, end);
+            for (MealExportRow row : batch.rows()) {
+                writer.writeRow(row);
+            }
+            rows += batch.rows().size();
+            writer.flush();
+            cursor = batch.next();
+        }
+
+        buffered.flush();
+        gzip.finish();
+
+        methodLogger.info("{MealExportServiceImpl.export} |" +
+                        " Выгрузка приёмов пищи за {} - {} ({}) завершена: строк {}, {} мс",
+                from, to, format, rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    /**
+     * Читает очередную пачку приёмов пищи с продуктами в отдельной транзакции
+     * @param cursor ключ последнего выгруженного приёма пищи
+     * @param end граница периода (не включительно)
+     * @return строки пачки и ключ для следующей пачки или null, если данных больше нет
+     */
+    Batch readBatch(Cursor cursor, LocalDateTime end) {
+        return transactionTemplate.execute(status -> {
+            List<MealExportRow> rows = new ArrayList<>();
+            Cursor[] last = new Cursor[1];
+            int[] meals = new int[1];
+
+            jdbcTemplate.query(BATCH_SQL, (RowCallbackHandler) rs -> {
+                Long mealId = rs.getLong("meal_id");
+                LocalDateTime eatenAt = toLocalDateTime(rs.getTimestamp("eaten_at"));
+                if (last[0] == null || !last[0].mealId().equals(mealId)) {
+                    last[0] = new Cursor(eatenAt, mealId);
+                    meals[0]++;
+                }
+                Long entryId = getLong(rs, "entry_id");
+                if (entryId != null) {
+                    rows.add(mapRow(rs, mealId, entryId, eatenAt));
+                }
+            }, Timestamp.valueOf(cursor.eatenAt()), cursor.mealId(), Timestamp.valueOf(end), mealsPerBatch);
+
+            Cursor next = meals[0] < mealsPerBatch ? null : last[0];
+            return new Batch(rows, next);
+        });
+    }
+
+    private static MealExportRow mapRow(ResultSet rs, Long mealId, Long entryId, LocalDateTime eatenAt)
+            throws SQLException {
+        return new MealExportRow(
+                mealId,
+                entryId,
+                getLong(rs, "user_id"),
+                rs.getString("login"),
+                eatenAt,
+                rs.getString("meal_type"),
+                rs.getString("product"),
+                rs.getObject("quantity_grams", Integer.class),
+                rs.getObject("calculated_calories", Double.class),
+                rs.getObject("calculated_proteins", Double.class),
+                rs.getObject("calculated_fats", Double.class),
+                rs.getObject("calculated_carbs", Double.class)
+        );
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Long.class);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    record Cursor(LocalDateTime eatenAt, Long mealId) {}
+
+    record Batch(List<MealExportRow> rows, Cursor next) {}
+}
@@ -0,0 +1,146 @@
+package ru.daniil.NauJava.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import ru.daniil.NauJava.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Построчная запись выгрузки приёмов пищи в CSV или NDJSON.
+ * Ничего не накапливает: каждая строка сразу уходит в переданный Writer
+ */
+abstract class MealExportWriter {
+    protected static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    protected final Writer writer;
+
+    protected MealExportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    static MealExportWriter create(ExportFormat format, Writer writer) throws IOException {
+        return format == ExportFormat.NDJSON ? new Ndjson(writer) : new Csv(writer);
+    }
+
+    abstract void writeHeader() throws IOException;
+
+    abstract void writeRow(MealExportRow row) throws IOException;
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static final class Csv extends MealExportWriter {
+        private Csv(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.write("meal_id,entry_id,user_id,user_login,eaten_at,meal_type,product,grams," +
+                    "calories,proteins,fats,carbs\n");
+        }
+
+        @Override
+        void writeRow(MealExportRow row) throws IOException {
+            writer.write(String.valueOf(row.mealId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.entryId()));
+            writer.write(',');
+            writeNullable(row.userId());
+            writer.write(',');
+            writeText(row.userLogin());
+            writer.write(',');
+            writeNullable(row.eatenAt() != null ? row.eatenAt().format(DATE_TIME) : null);
+            writer.write(',');
+            writeText(row.mealType());
+            writer.write(',');
+            writeText(row.product());
+            writer.write(',');
+            writeNullable(row.grams());
+            writer.write(',');
+            writeNullable(row.calories());
+            writer.write(',');
+            writeNullable(row.proteins());
+            writer.write(',');
+            writeNullable(row.fats());
+            writer.write(',');
+            writeNullable(row.carbs());
+            writer.write('\n');
+        }
+
+        private void writeNullable(Object value) throws IOException {
+            if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class Ndjson extends MealExportWriter {
+        private final JsonGenerator generator;
+
+        private Ndjson(Writer writer) throws IOException {
+            super(writer);
+            this.generator = new JsonFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void writeHeader() {
+        }
+
+        @Override
+        void writeRow(MealExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("mealId", row.mealId());
+            generator.writeNumberField("entryId", row.entryId());
+            writeNumber("userId", row.userId());
+            generator.writeStringField("userLogin", row.userLogin());
+            generator.writeStringField("eatenAt", row.eatenAt() != null ? row.eatenAt().format(DATE_TIME) : null);
+            generator.writeStringField("mealType", row.mealType());
+            generator.writeStringField("product", row.product());
+            writeNumber("grams", row.grams());
+            writeNumber("calories", row.calories());
+            writeNumber("proteins", row.proteins());
+            writeNumber("fats", row.fats());
+            writeNumber("carbs", row.carbs());
+            generator.writeEndObject();
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+            super.flush();
+        }
+
+        private void writeNumber(String name, Number value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else if (value instanceof Double number) {
+                generator.writeNumberField(name, number);
+            } else {
+                generator.writeNumberField(name, value.longValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.daniil.NauJava.service.productIndex;
+
+/**
+ * Облегчённое представление продукта для индекса названий.
+ * Хранит только то, что нужно для поиска и проверки видимости.
+ * @param id id продукта
+ * @param name название продукта
+ * @param ownerId id пользователя-создателя или null для общего каталога
+ */
+public record ProductNameEntry(Long id, String name, Long ownerId) {
+}
@@ -0,0 +1,47 @@
+package ru.daniil.NauJava.service.productIndex;
+
+import java.util.List;
+
+public interface ProductNameIndex {
+    /**
+     * Полностью перестраивает индекс по переданному набору продуктов
+     * @param entries все продукты, что должны попасть в индекс
+     */
+    void rebuild(Iterable<ProductNameEntry> entries);
+
+    /**
+     * Добавляет продукт в индекс или заменяет уже проиндексированный с тем же id
+     * @param entry данные продукта
+     */
+    void put(ProductNameEntry entry);
+
+    /**
+     * Удаляет продукт из индекса
+     * @param productId id продукта
+     */
+    void remove(Long productId);
+
+    /**
+     * Ищет продукты, в названии которых есть указанная строка (без учета регистра).
+     * Учитываются только продукты общего каталога и продукты указанного пользователя.
+     * Результаты упорядочены: точное совпадение, совпадение с начала названия,
+     * совпадение с начала слова, вхождение в середину слова.
+     * @param query часть названия продукта
+     * @param userId id пользователя или null, если доступен только общий каталог
+     * @param limit максимальное количество результатов
+     * @return id найденных продуктов в порядке релевантности
+     */
+    List<Long> search(String query, Long userId, int limit);
+
+    /**
+     * Проверяет, загружен ли индекс и можно ли ему доверять
+     * @return true если индекс построен
+     */
+    boolean isReady();
+
+    /**
+     * Возвращает количество проиндексированных продуктов
+     * @return количество продуктов в индексе
+     */
+    int size();
+}
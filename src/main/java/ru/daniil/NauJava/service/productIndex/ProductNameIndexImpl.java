@@ -0,0 +1,219 @@
+package ru.daniil.NauJava.service.productIndex;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Триграммный индекс названий продуктов в памяти приложения.
+ * Продукты разбиты на области видимости: общий каталог и продукты каждого пользователя,
+ * поэтому поиск затрагивает только те продукты, что пользователь может увидеть.
+ * Чтение не блокируется, изменения индекса выполняются последовательно.
+ */
+@Service
+public class ProductNameIndexImpl implements ProductNameIndex {
+    private static final Long GLOBAL_SCOPE = 0L;
+    private static final int GRAM_SIZE = 3;
+
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_PREFIX = 1;
+    private static final int RANK_WORD_START = 2;
+    private static final int RANK_SUBSTRING = 3;
+
+    private final Map<Long, Scope> scopes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> scopeByProductId = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    @Override
+    public synchronized void rebuild(Iterable<ProductNameEntry> entries) {
+        scopes.clear();
+        scopeByProductId.clear();
+        for (ProductNameEntry entry : entries) {
+            putInternal(entry);
+        }
+        ready = true;
+        methodLogger.info("{ProductNameIndexImpl.rebuild} |" +
+                " Индекс названий продуктов построен, продуктов: {}", scopeByProductId.size());
+    }
+
+    @Override
+    public synchronized void put(ProductNameEntry entry) {
+        if (entry == null || entry.id() == null || entry.name() == null) {
+            return;
+        }
+        removeInternal(entry.id());
+        putInternal(entry);
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        if (productId != null) {
+            removeInternal(productId);
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, Long userId, int limit) {
+        if (query == null || limit <= 0) {
+            return List.of();
+        }
+        String normalized = normalize(query).trim();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        collectMatches(scopes.get(GLOBAL_SCOPE), normalized, matches);
+        if (userId != null) {
+            collectMatches(scopes.get(userId), normalized, matches);
+        }
+
+        matches.sort(Comparator.comparingInt(Match::rank)
+                .thenComparingInt(match -> match.name().length())
+                .thenComparing(Match::name)
+                .thenComparing(Match::id));
+
+        return matches.stream()
+                .limit(limit)
+                .map(Match::id)
+                .toList();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public int size() {
+        return scopeByProductId.size();
+    }
+
+    private void putInternal(ProductNameEntry entry) {
+        Long scopeKey = entry.ownerId() != null ? entry.ownerId() : GLOBAL_SCOPE;
+        String name = normalize(entry.name());
+
+        Scope scope = scopes.computeIfAbsent(scopeKey, key -> new Scope());
+        scope.names.put(entry.id(), name);
+        for (String gram : gramsOf(pad(name))) {
+            scope.postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+        scopeByProductId.put(entry.id(), scopeKey);
+    }
+
+    private void removeInternal(Long productId) {
+        Long scopeKey = scopeByProductId.remove(productId);
+        if (scopeKey == null) {
+            return;
+        }
+        Scope scope = scopes.get(scopeKey);
+        if (scope == null) {
+            return;
+        }
+        String name = scope.names.remove(productId);
+        if (name == null) {
+            return;
+        }
+        for (String gram : gramsOf(pad(name))) {
+            Set<Long> ids = scope.postings.get(gram);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    scope.postings.remove(gram, ids);
+                }
+            }
+        }
+        if (scope.names.isEmpty()) {
+            scopes.remove(scopeKey, scope);
+        }
+    }
+
+    /**
+     * Находит в области видимости все продукты, название которых содержит запрос.
+     * Для запросов короче триграммы область просматривается целиком,
+     * иначе кандидаты берутся из пересечения списков по триграммам запроса.
+     */
+    private void collectMatches(Scope scope, String query, List<Match> matches) {
+        if (scope == null) {
+            return;
+        }
+
+        if (query.length() < GRAM_SIZE) {
+            scope.names.forEach((id, name) -> addIfMatches(id, name, query, matches));
+            return;
+        }
+
+        List<Set<Long>> postingLists = new ArrayList<>();
+        for (String gram : gramsOf(query)) {
+            Set<Long> ids = scope.postings.get(gram);
+            if (ids == null) {
+                return;
+            }
+            postingLists.add(ids);
+        }
+        postingLists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> smallest = postingLists.get(0);
+        List<Set<Long>> rest = postingLists.subList(1, postingLists.size());
+        for (Long id : smallest) {
+            boolean inAll = true;
+            for (Set<Long> ids : rest) {
+                if (!ids.contains(id)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                addIfMatches(id, scope.names.get(id), query, matches);
+            }
+        }
+    }
+
+    private void addIfMatches(Long id, String name, String query, List<Match> matches) {
+        if (name == null) {
+            return;
+        }
+        int rank;
+        if (name.equals(query)) {
+            rank = RANK_EXACT;
+        } else if (name.startsWith(query)) {
+            rank = RANK_PREFIX;
+        } else if (name.contains(" " + query)) {
+            rank = RANK_WORD_START;
+        } else if (name.contains(query)) {
+            rank = RANK_SUBSTRING;
+        } else {
+            return;
+        }
+        matches.add(new Match(id, name, rank));
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String pad(String name) {
+        return "  " + name + " ";
+    }
+
+    private static Set<String> gramsOf(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static final class Scope {
+        private final Map<Long, String> names = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    }
+
+    private record Match(Long id, String name, int rank) {}
+}
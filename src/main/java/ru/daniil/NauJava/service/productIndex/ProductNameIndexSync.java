@@ -0,0 +1,22 @@
+package ru.daniil.NauJava.service.productIndex;
+
+public interface ProductNameIndexSync {
+    /**
+     * Сообщает о добавлении или изменении продукта.
+     * Индекс узла обновляется после коммита транзакции, другие узлы получают уведомление
+     * @param entry данные сохранённого продукта
+     */
+    void productSaved(ProductNameEntry entry);
+
+    /**
+     * Сообщает об удалении продукта
+     * @param productId id удалённого продукта
+     */
+    void productRemoved(Long productId);
+
+    /**
+     * Обрабатывает уведомление другого узла об изменении индекса
+     * @param message сообщение вида "узел|операция|id продукта|id владельца|название"
+     */
+    void handleChange(String message);
+}
@@ -0,0 +1,97 @@
+package ru.daniil.NauJava.service.productIndex;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Синхронизация индексов названий продуктов между узлами.
+ * Изменение попадает в индекс только после коммита транзакции, поэтому откат
+ * не оставляет в индексе несуществующих продуктов. Затем изменение рассылается
+ * через Redis, и остальные узлы применяют его к своим индексам без обращения к БД
+ */
+@Service
+public class ProductNameIndexSyncImpl implements ProductNameIndexSync {
+    public static final String CHANGES_CHANNEL = "products:index:changes";
+
+    private static final char SEPARATOR = '|';
+    private static final String OP_UPSERT = "U";
+    private static final String OP_REMOVE = "D";
+
+    private final ProductNameIndex productNameIndex;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public ProductNameIndexSyncImpl(ProductNameIndex productNameIndex, StringRedisTemplate redisTemplate) {
+        this.productNameIndex = productNameIndex;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void productSaved(ProductNameEntry entry) {
+        afterCommit(() -> {
+            productNameIndex.put(entry);
+            publish(OP_UPSERT + SEPARATOR + entry.id() + SEPARATOR
+                    + (entry.ownerId() != null ? entry.ownerId() : "") + SEPARATOR + entry.name());
+        });
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        afterCommit(() -> {
+            productNameIndex.remove(productId);
+            publish(OP_REMOVE + SEPARATOR + productId);
+        });
+    }
+
+    @Override
+    public void handleChange(String message) {
+        // Название идёт последним и может содержать разделитель
+        String[] parts = message.split("\\" + SEPARATOR, 5);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            Long productId = Long.valueOf(parts[2]);
+            if (OP_REMOVE.equals(parts[1])) {
+                productNameIndex.remove(productId);
+            } else if (OP_UPSERT.equals(parts[1]) && parts.length == 5) {
+                Long ownerId = parts[3].isEmpty() ? null : Long.valueOf(parts[3]);
+                productNameIndex.put(new ProductNameEntry(productId, parts[4], ownerId));
+            } else {
+                methodLogger.warn("{ProductNameIndexSyncImpl.handleChange} | Некорректное сообщение: {}", message);
+            }
+        } catch (NumberFormatException e) {
+            methodLogger.warn("{ProductNameIndexSyncImpl.handleChange} | Некорректное сообщение: {}", message);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void publish(String change) {
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, nodeId + SEPARATOR + change);
+        } catch (Exception e) {
+            methodLogger.warn("{ProductNameIndexSyncImpl.publish} |" +
+                    " Не удалось разослать изменение индекса названий - {}", e.getMessage());
+        }
+    }
+}
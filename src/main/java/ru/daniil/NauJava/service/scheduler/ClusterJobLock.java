@@ -0,0 +1,68 @@
+package ru.daniil.NauJava.service.scheduler;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+/**
+ * Блокировка фоновых задач между узлами на транзакционной advisory-блокировке PostgreSQL.
+ * Задача выполняется в транзакции, взявшей блокировку по имени задачи, остальные узлы
+ * в это время её пропускают. Блокировка снимается вместе с транзакцией, в том числе
+ * при падении узла, поэтому зависнуть не может.
+ * Задачи по расписанию, которые должны выполниться один раз за слот (например, раз в сутки),
+ * отмечаются в tbl_scheduled_job_run: блокировка на время транзакции этого не гарантирует,
+ * ведь узел, у которого расписание сработало чуть позже, найдёт её уже свободной
+ */
+@Component
+public class ClusterJobLock {
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?))";
+    private static final String CLAIM_SLOT_SQL = "INSERT INTO tbl_scheduled_job_run (job_name, slot_date, started_at) " +
+            "VALUES (?, ?, now()) ON CONFLICT (job_name, slot_date) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ClusterJobLock(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Выполняет задачу, если её не выполняет другой узел
+     * @param jobName имя задачи, по которому берётся блокировка
+     * @param job задача, выполняемая в транзакции с блокировкой
+     * @return true если задача выполнена, false если блокировку держит другой узел
+     */
+    public boolean runExclusively(String jobName, Runnable job) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, jobName))) {
+                return false;
+            }
+            job.run();
+            return true;
+        }));
+    }
+
+    /**
+     * Выполняет задачу один раз за слот расписания на всём кластере.
+     * Отметка о запуске вставляется в той же транзакции, что и задача: пока она не завершена,
+     * другие узлы ждут на вставке, а если задача упала, отметка откатывается и слот можно повторить
+     * @param jobName имя задачи
+     * @param slotDate слот расписания, за который выполняется задача
+     * @param job задача, выполняемая в транзакции с отметкой
+     * @return true если задача выполнена, false если за этот слот её уже выполнил другой узел
+     */
+    public boolean runOncePerSlot(String jobName, LocalDate slotDate, Runnable job) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(CLAIM_SLOT_SQL, jobName, slotDate) == 0) {
+                return false;
+            }
+            job.run();
+            return true;
+        }));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.daniil.NauJava.service.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.service.DailyReportService;
+
+import java.time.LocalDate;
+
+/**
+ * Периодически сверяет итоги дневных отчётов с суммой записей о приёмах пищи.
+ * Итоги обновляются инкрементально, поэтому сверка нужна только как страховка
+ * от расхождений (ручные правки в БД, прерванные транзакции и т.п.).
+ * Сверку выполняет только узел, взявший её блокировку
+ */
+@Component
+public class DailyReportReconciliationScheduler {
+    static final String JOB_NAME = "daily-report-reconcile";
+
+    private final DailyReportService dailyReportService;
+    private final ClusterJobLock clusterJobLock;
+    private final int lookbackDays;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public DailyReportReconciliationScheduler(DailyReportService dailyReportService,
+                                              ClusterJobLock clusterJobLock,
+                                              @Value("${app.daily-report.reconcile.lookback-days:1}")
+                                              int lookbackDays) {
+        this.dailyReportService = dailyReportService;
+        this.clusterJobLock = clusterJobLock;
+        this.lookbackDays = lookbackDays;
+    }
+
+    @Scheduled(cron = "${app.daily-report.reconcile.cron:0 */15 * * * *}")
+    public void reconcile() {
+        LocalDate since = LocalDate.now().minusDays(lookbackDays);
+        try {
+            boolean locked = clusterJobLock.runExclusively(JOB_NAME, () -> {
+                int fixed = dailyReportService.reconcileTotalsSince(since);
+                methodLogger.debug("{DailyReportReconciliationScheduler.reconcile} |" +
+                        " Сверка итогов с {} завершена, исправлено отчётов: {}", since, fixed);
+            });
+            if (!locked) {
+                methodLogger.debug("{DailyReportReconciliationScheduler.reconcile} |" +
+                        " Сверку итогов выполняет другой узел");
+            }
+        } catch (Exception e) {
+            methodLogger.error("{DailyReportReconciliationScheduler.reconcile} |" +
+                    " Ошибка при сверке итогов дневных отчётов: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.daniil.NauJava.service.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.service.stats.DailyStatsService;
+
+import java.time.LocalDate;
+
+/**
+ * Поддерживает дневные сводки для админских отчётов актуальными:
+ * ночью закрывает прошедшие дни, в течение дня пересчитывает сводку за сегодня.
+ * Ночной пересчёт выполняется один раз за сутки на всём кластере, пересчёт за сегодня -
+ * только узлом, взявшим его блокировку
+ */
+@Component
+public class DailyStatsRollupScheduler {
+    static final String PAST_DAYS_JOB_NAME = "daily-stats-rollup-past-days";
+    static final String TODAY_JOB_NAME = "daily-stats-rollup-today";
+
+    private final DailyStatsService dailyStatsService;
+    private final ClusterJobLock clusterJobLock;
+    private final int lookbackDays;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public DailyStatsRollupScheduler(DailyStatsService dailyStatsService,
+                                     ClusterJobLock clusterJobLock,
+                                     @Value("${app.stats.rollup.lookback-days:2}") int lookbackDays) {
+        this.dailyStatsService = dailyStatsService;
+        this.clusterJobLock = clusterJobLock;
+        this.lookbackDays = lookbackDays;
+    }
+
+    @Scheduled(cron = "${app.stats.rollup.nightly-cron:0 10 0 * * *}")
+    public void rollupPastDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            boolean ran = clusterJobLock.runOncePerSlot(PAST_DAYS_JOB_NAME, yesterday, () -> {
+                int days = dailyStatsService.rebuild(yesterday.minusDays(lookbackDays - 1L), yesterday);
+                methodLogger.info("{DailyStatsRollupScheduler.rollupPastDays} |" +
+                        " Дневные сводки пересчитаны по {}, дней: {}", yesterday, days);
+            });
+            if (!ran) {
+                methodLogger.info("{DailyStatsRollupScheduler.rollupPastDays} |" +
+                        " Дневные сводки по {} уже пересчитаны другим узлом", yesterday);
+            }
+        } catch (Exception e) {
+            methodLogger.error("{DailyStatsRollupScheduler.rollupPastDays} |" +
+                    " Ошибка при пересчёте дневных сводок: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.stats.rollup.today-cron:0 */5 * * * *}")
+    public void rollupToday() {
+        LocalDate today = LocalDate.now();
+        try {
+            clusterJobLock.runExclusively(TODAY_JOB_NAME, () -> dailyStatsService.rebuild(today, today));
+        } catch (Exception e) {
+            methodLogger.error("{DailyStatsRollupScheduler.rollupToday} |" +
+                    " Ошибка при пересчёте сводки за сегодня: {}", e.getMessage());
+        }
+    }
+}
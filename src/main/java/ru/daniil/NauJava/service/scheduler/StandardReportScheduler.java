@@ -0,0 +1,54 @@
+package ru.daniil.NauJava.service.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.daniil.NauJava.enums.StandardReportPeriod;
+import ru.daniil.NauJava.service.admin.ReportService;
+
+import java.time.LocalDate;
+
+/**
+ * Заранее формирует отчёты за стандартные периоды (вчера, последние 7 дней, прошлый месяц)
+ * в часы низкой нагрузки, чтобы администратор открывал готовый отчёт.
+ * Задача выполняется один раз за сутки на всём кластере: первый узел отмечает запуск
+ * за текущую дату, остальные его пропускают. Отчёты запрашиваются так же,
+ * как администратором: окончательные отчёты не пересоздаются, а отчёты, завершившиеся
+ * ошибкой или сформированные, пока период ещё шёл, ставятся в очередь повторно
+ */
+@Component
+public class StandardReportScheduler {
+    static final String JOB_NAME = "standard-reports-precompute";
+
+    private final ReportService reportService;
+    private final ClusterJobLock clusterJobLock;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public StandardReportScheduler(ReportService reportService, ClusterJobLock clusterJobLock) {
+        this.reportService = reportService;
+        this.clusterJobLock = clusterJobLock;
+    }
+
+    @Scheduled(cron = "${app.reports.precompute.cron:0 30 3 * * *}")
+    public void precompute() {
+        LocalDate today = LocalDate.now();
+        try {
+            boolean ran = clusterJobLock.runOncePerSlot(JOB_NAME, today, () -> {
+                for (StandardReportPeriod period : StandardReportPeriod.values()) {
+                    Long reportId = reportService.requestReport(period.start(today), period.end(today));
+                    methodLogger.debug("{StandardReportScheduler.precompute} | Отчёт за период {}: {}",
+                            period, reportId);
+                }
+            });
+            if (!ran) {
+                methodLogger.info("{StandardReportScheduler.precompute} |" +
+                        " Отчёты за стандартные периоды за {} уже запрошены другим узлом", today);
+            }
+        } catch (Exception e) {
+            methodLogger.error("{StandardReportScheduler.precompute} |" +
+                    " Ошибка при подготовке отчётов за стандартные периоды: {}", e.getMessage());
+        }
+    }
+}
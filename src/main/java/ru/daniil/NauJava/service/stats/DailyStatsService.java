@@ -0,0 +1,50 @@
+package ru.daniil.NauJava.service.stats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface DailyStatsService {
+    /**
+     * Пересчитывает дневные сводки за диапазон дат из исходных таблиц
+     * @param from первая дата
+     * @param to последняя дата включительно
+     * @return количество пересчитанных дней
+     */
+    int rebuild(LocalDate from, LocalDate to);
+
+    /**
+     * Собирает статистику за период суммированием дневных сводок.
+     * Недостающие сводки и сводка за сегодня пересчитываются перед суммированием
+     * @param start первая дата периода
+     * @param end последняя дата периода включительно
+     * @return статистика за период
+     */
+    PeriodStats getPeriodStats(LocalDate start, LocalDate end);
+
+    /**
+     * Собирает статистику за период, сообщая о ходе пересчёта недостающих сводок
+     * @param start первая дата периода
+     * @param end последняя дата периода включительно
+     * @param listener получатель хода пересчёта
+     * @return статистика за период
+     */
+    PeriodStats getPeriodStats(LocalDate start, LocalDate end, StatsProgressListener listener);
+
+    /**
+     * Собирает итог за период, который можно сохранить и дополнить итогами следующих дней
+     * @param start первая дата периода
+     * @param end последняя дата периода включительно
+     * @param listener получатель хода пересчёта
+     * @return итог за период
+     */
+    PeriodAggregate aggregate(LocalDate start, LocalDate end, StatsProgressListener listener);
+
+    /**
+     * Проверяет, пересчитывались ли сводки за диапазон после указанного момента
+     * @param start первая дата
+     * @param end последняя дата включительно
+     * @param since момент, с которого ищутся изменения
+     * @return true если хотя бы одна сводка изменилась
+     */
+    boolean changedSince(LocalDate start, LocalDate end, LocalDateTime since);
+}
@@ -0,0 +1,269 @@
+package ru.daniil.NauJava.service.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.daniil.NauJava.entity.DailyStats;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.repository.DailyStatsRepository;
+import ru.daniil.NauJava.utils.HyperLogLog;
+import ru.daniil.NauJava.utils.UserIdBitmap;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Дневные сводки для админских отчётов. Недостающие сводки пересчитываются интервалами
+ * по sliceDays дней: интервалы выполняются параллельно в пуле reportSliceExecutor,
+ * каждый в своей транзакции, поэтому время пересчёта длинного периода определяется
+ * размером пула и пула соединений, а не длиной периода.
+ * Одновременно читающих БД интервалов не больше, чем позволяет бюджет ReportQueryBudget
+ */
+@Service
+public class DailyStatsServiceImpl implements DailyStatsService {
+
+    private final DailyStatsRepository dailyStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor sliceExecutor;
+    private final ReportQueryBudget queryBudget;
+    /**
+     * Сколько дней пересчитывается одним интервалом, чтобы не держать в памяти
+     * строки пользователь-день за весь длинный диапазон сразу
+     */
+    private final int sliceDays;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public DailyStatsServiceImpl(DailyStatsRepository dailyStatsRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("reportSliceExecutor") AsyncTaskExecutor sliceExecutor,
+                                 ReportQueryBudget queryBudget,
+                                 @Value("${app.reports.slice-days:31}") int sliceDays) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sliceExecutor = sliceExecutor;
+        this.queryBudget = queryBudget;
+        this.sliceDays = Math.max(1, sliceDays);
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        List<LocalDate[]> range = new ArrayList<>();
+        range.add(new LocalDate[]{from, to});
+        int rebuilt = rebuildSlices(range, StatsProgressListener.NONE).size();
+        methodLogger.debug("{DailyStatsServiceImpl.rebuild} | Пересчитаны сводки с {} по {}: {} дней",
+                from, to, rebuilt);
+        return rebuilt;
+    }
+
+    @Override
+    public PeriodStats getPeriodStats(LocalDate start, LocalDate end) {
+        return aggregate(start, end, StatsProgressListener.NONE).toPeriodStats();
+    }
+
+    @Override
+    public PeriodStats getPeriodStats(LocalDate start, LocalDate end, StatsProgressListener listener) {
+        return aggregate(start, end, listener).toPeriodStats();
+    }
+
+    @Override
+    public PeriodAggregate aggregate(LocalDate start, LocalDate end, StatsProgressListener listener) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastKnownDay = end.isAfter(today) ? today : end;
+
+        Map<LocalDate, DailyStats> days = new TreeMap<>();
+        if (!start.isAfter(lastKnownDay)) {
+            for (DailyStats stats : dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(start, lastKnownDay)) {
+                days.put(stats.getStatDate(), stats);
+            }
+            // Сводка за сегодня ещё меняется, поэтому пересчитывается всегда
+            days.remove(today);
+            for (DailyStats stats : rebuildSlices(findGaps(days.keySet(), start, lastKnownDay), listener)) {
+                days.put(stats.getStatDate(), stats);
+            }
+        }
+
+        PeriodAggregate aggregate = new PeriodAggregate();
+        days.values().forEach(aggregate::add);
+        return aggregate;
+    }
+
+    @Override
+    public boolean changedSince(LocalDate start, LocalDate end, LocalDateTime since) {
+        return dailyStatsRepository.existsByStatDateBetweenAndUpdatedAtAfter(start, end, since);
+    }
+
+    /**
+     * Делит диапазоны на интервалы и пересчитывает их параллельно.
+     * При ошибке или прерывании ещё не завершённые интервалы отменяются
+     */
+    private List<DailyStats> rebuildSlices(List<LocalDate[]> ranges, StatsProgressListener listener) {
+        List<LocalDate[]> slices = new ArrayList<>();
+        for (LocalDate[] range : ranges) {
+            LocalDate sliceStart = range[0];
+            while (!sliceStart.isAfter(range[1])) {
+                LocalDate sliceEnd = sliceStart.plusDays(sliceDays - 1L);
+                if (sliceEnd.isAfter(range[1])) {
+                    sliceEnd = range[1];
+                }
+                slices.add(new LocalDate[]{sliceStart, sliceEnd});
+                sliceStart = sliceEnd.plusDays(1);
+            }
+        }
+        Progress progress = new Progress(listener, slices.stream()
+                .mapToLong(slice -> ChronoUnit.DAYS.between(slice[0], slice[1]) + 1)
+                .sum());
+
+        List<Future<List<DailyStats>>> futures = new ArrayList<>(slices.size());
+        try {
+            for (LocalDate[] slice : slices) {
+                futures.add(sliceExecutor.submit(() -> rebuildSlice(slice[0], slice[1], progress, listener)));
+            }
+            List<DailyStats> result = new ArrayList<>();
+            for (Future<List<DailyStats>> future : futures) {
+                result.addAll(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Пересчёт дневных сводок прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ошибка пересчёта дневных сводок", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private List<DailyStats> rebuildSlice(LocalDate from, LocalDate to,
+                                          Progress progress, StatsProgressListener listener) {
+        long startTime = System.currentTimeMillis();
+        List<DailyStats> rebuilt = queryBudget.call(() ->
+                transactionTemplate.execute(status -> rebuildChunk(from, to, progress)));
+        long elapsed = System.currentTimeMillis() - startTime;
+        methodLogger.debug("{DailyStatsServiceImpl.rebuildSlice} | Интервал {} - {} пересчитан за {} мс",
+                from, to, elapsed);
+        listener.onSlice(new SliceTiming(from, to, elapsed));
+        return rebuilt;
+    }
+
+    /**
+     * Пересчитывает сводки за диапазон несколькими сгруппированными по дням запросами
+     * и сохраняет их, заменяя прежние
+     */
+    private List<DailyStats> rebuildChunk(LocalDate from, LocalDate to, Progress progress) {
+        long chunkDays = ChronoUnit.DAYS.between(from, to) + 1;
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+
+        Map<LocalDate, DailyStats> byDate = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            byDate.put(day, new DailyStats(day));
+        }
+
+        for (Object[] row : dailyStatsRepository.countUsersByDay(fromTime, toTime)) {
+            statsFor(byDate, row[0]).setUsersRegistered(toLong(row[1]));
+        }
+        progress.stageDone(ReportStage.USERS, chunkDays);
+        for (Object[] row : dailyStatsRepository.countProductsByDay(fromTime, toTime)) {
+            statsFor(byDate, row[0]).setProductsCreated(toLong(row[1]));
+        }
+        progress.stageDone(ReportStage.PRODUCTS, chunkDays);
+        for (Object[] row : dailyStatsRepository.countDailyReportsByDay(fromTime, toTime)) {
+            statsFor(byDate, row[0]).setDailyReportsCreated(toLong(row[1]));
+        }
+        progress.stageDone(ReportStage.DAILY_REPORTS, chunkDays);
+
+        Map<LocalDate, HyperLogLog> sketches = new HashMap<>();
+        Map<LocalDate, UserIdBitmap> userIds = new HashMap<>();
+        for (Object[] row : dailyStatsRepository.countMealsByDayAndUser(fromTime, toTime)) {
+            DailyStats stats = statsFor(byDate, row[0]);
+            stats.setMealsCount(stats.getMealsCount() + toLong(row[2]));
+            stats.setActiveUsers(stats.getActiveUsers() + 1);
+            sketches.computeIfAbsent(stats.getStatDate(), day -> new HyperLogLog()).add(toLong(row[1]));
+            userIds.computeIfAbsent(stats.getStatDate(), day -> new UserIdBitmap()).add(toLong(row[1]));
+        }
+        progress.stageDone(ReportStage.MEALS, chunkDays);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (DailyStats stats : byDate.values()) {
+            HyperLogLog sketch = sketches.get(stats.getStatDate());
+            UserIdBitmap ids = userIds.get(stats.getStatDate());
+            stats.setActiveUsersSketch(sketch != null ? sketch.toBytes() : null);
+            stats.setActiveUserIds(ids != null ? ids.toBytes() : null);
+            stats.setUpdatedAt(now);
+        }
+
+        List<DailyStats> rebuilt = new ArrayList<>(byDate.values());
+        dailyStatsRepository.upsertAll(rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * Находит непрерывные диапазоны дат, для которых нет сводки
+     * @return список пар [начало, конец] включительно
+     */
+    private static List<LocalDate[]> findGaps(Set<LocalDate> present, LocalDate start, LocalDate end) {
+        List<LocalDate[]> gaps = new ArrayList<>();
+        LocalDate gapStart = null;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            if (!present.contains(day)) {
+                if (gapStart == null) {
+                    gapStart = day;
+                }
+            } else if (gapStart != null) {
+                gaps.add(new LocalDate[]{gapStart, day.minusDays(1)});
+                gapStart = null;
+            }
+        }
+        if (gapStart != null) {
+            gaps.add(new LocalDate[]{gapStart, end});
+        }
+        return gaps;
+    }
+
+    private static DailyStats statsFor(Map<LocalDate, DailyStats> byDate, Object date) {
+        LocalDate day = date instanceof Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) date;
+        return byDate.computeIfAbsent(day, DailyStats::new);
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    /**
+     * Считает долю пересчитанных данных: каждый день проходит через четыре этапа.
+     * Интервалы сообщают о ходе из разных потоков
+     */
+    private static final class Progress {
+        private static final int STAGES = 4;
+
+        private final StatsProgressListener listener;
+        private final long totalSteps;
+        private long doneSteps;
+
+        private Progress(StatsProgressListener listener, long totalDays) {
+            this.listener = listener;
+            this.totalSteps = totalDays * STAGES;
+        }
+
+        private synchronized void stageDone(ReportStage stage, long days) {
+            doneSteps += days;
+            if (totalSteps > 0) {
+                listener.onProgress(stage, (int) Math.min(100, doneSteps * 100 / totalSteps));
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.daniil.NauJava.service.stats;
+
+import ru.daniil.NauJava.entity.DailyStats;
+import ru.daniil.NauJava.utils.HyperLogLog;
+import ru.daniil.NauJava.utils.UserIdBitmap;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Накопитель дневных сводок за период. Накопители соседних периодов объединяются,
+ * поэтому итог за закрытые дни можно сохранить и потом только добавлять к нему новые дни.
+ * Активные пользователи считаются точно по объединению множеств id, пока у всех дней
+ * с активностью множества есть, иначе - оценкой по объединению скетчей
+ */
+public final class PeriodAggregate {
+    private static final byte FORMAT_VERSION = 2;
+
+    private long usersRegistered;
+    private long productsCreated;
+    private long dailyReportsCreated;
+    private long mealsCount;
+    private int daysWithActivity;
+    private long exactActiveUsers;
+    private HyperLogLog activeUsers;
+    private UserIdBitmap activeUserIds;
+    private boolean activeUserIdsComplete;
+
+    public PeriodAggregate() {
+        this.activeUsers = new HyperLogLog();
+        this.activeUserIds = new UserIdBitmap();
+        this.activeUserIdsComplete = true;
+    }
+
+    /**
+     * Добавляет к итогу сводку за день
+     * @param day дневная сводка
+     */
+    public void add(DailyStats day) {
+        usersRegistered += day.getUsersRegistered();
+        productsCreated += day.getProductsCreated();
+        dailyReportsCreated += day.getDailyReportsCreated();
+        mealsCount += day.getMealsCount();
+        if (day.getActiveUsers() > 0 && day.getActiveUsersSketch() != null) {
+            activeUsers.merge(HyperLogLog.fromBytes(day.getActiveUsersSketch()));
+            if (day.getActiveUserIds() != null) {
+                activeUserIds.merge(UserIdBitmap.fromBytes(day.getActiveUserIds()));
+            } else {
+                activeUserIdsComplete = false;
+            }
+            exactActiveUsers = day.getActiveUsers();
+            daysWithActivity++;
+        }
+    }
+
+    /**
+     * Добавляет к итогу итог другого, не пересекающегося периода
+     * @param other итог другого периода
+     */
+    public void merge(PeriodAggregate other) {
+        usersRegistered += other.usersRegistered;
+        productsCreated += other.productsCreated;
+        dailyReportsCreated += other.dailyReportsCreated;
+        mealsCount += other.mealsCount;
+        if (other.daysWithActivity > 0) {
+            activeUsers.merge(other.activeUsers);
+            activeUserIds.merge(other.activeUserIds);
+            activeUserIdsComplete &= other.activeUserIdsComplete;
+            exactActiveUsers = other.exactActiveUsers;
+            daysWithActivity += other.daysWithActivity;
+        }
+    }
+
+    /**
+     * @return копия накопителя, изменения которой не затрагивают исходный
+     */
+    public PeriodAggregate copy() {
+        return fromBytes(toBytes());
+    }
+
+    /**
+     * Для одного дня с активностью берётся точное число активных пользователей,
+     * для нескольких - мощность объединения множеств id или, если множеств нет, оценка по скетчам
+     * @return статистика за период
+     */
+    public PeriodStats toPeriodStats() {
+        if (daysWithActivity <= 1) {
+            return new PeriodStats(usersRegistered, productsCreated, dailyReportsCreated, mealsCount,
+                    exactActiveUsers, false);
+        }
+        if (activeUserIdsComplete) {
+            return new PeriodStats(usersRegistered, productsCreated, dailyReportsCreated, mealsCount,
+                    activeUserIds.cardinality(), false);
+        }
+        return new PeriodStats(usersRegistered, productsCreated, dailyReportsCreated, mealsCount,
+                activeUsers.estimate(), true);
+    }
+
+    public byte[] toBytes() {
+        byte[] sketch = activeUsers.toBytes();
+        byte[] ids = activeUserIds.toBytes();
+        return ByteBuffer.allocate(1 + Long.BYTES * 5 + Integer.BYTES * 3 + 1 + sketch.length + ids.length)
+                .put(FORMAT_VERSION)
+                .putLong(usersRegistered)
+                .putLong(productsCreated)
+                .putLong(dailyReportsCreated)
+                .putLong(mealsCount)
+                .putInt(daysWithActivity)
+                .putLong(exactActiveUsers)
+                .putInt(sketch.length)
+                .put(sketch)
+                .put((byte) (activeUserIdsComplete ? 1 : 0))
+                .putInt(ids.length)
+                .put(ids)
+                .array();
+    }
+
+    /**
+     * Восстанавливает накопитель из байтов, полученных через toBytes
+     * @param bytes сохранённый накопитель
+     * @return накопитель
+     * @throws IllegalArgumentException если формат не распознан
+     */
+    public static PeriodAggregate fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неизвестная версия формата итога за период");
+            }
+            PeriodAggregate aggregate = new PeriodAggregate();
+            aggregate.usersRegistered = buffer.getLong();
+            aggregate.productsCreated = buffer.getLong();
+            aggregate.dailyReportsCreated = buffer.getLong();
+            aggregate.mealsCount = buffer.getLong();
+            aggregate.daysWithActivity = buffer.getInt();
+            aggregate.exactActiveUsers = buffer.getLong();
+            byte[] sketch = new byte[buffer.getInt()];
+            buffer.get(sketch);
+            aggregate.activeUsers = HyperLogLog.fromBytes(sketch);
+            aggregate.activeUserIdsComplete = buffer.get() == 1;
+            byte[] ids = new byte[buffer.getInt()];
+            buffer.get(ids);
+            aggregate.activeUserIds = UserIdBitmap.fromBytes(ids);
+            return aggregate;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Повреждённый итог за период", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.daniil.NauJava.service.stats;
+
+/**
+ * Статистика системы за период, собранная из дневных сводок
+ * @param usersRegistered зарегистрировано пользователей
+ * @param productsCreated создано продуктов
+ * @param dailyReportsCreated создано дневных отчётов
+ * @param mealsCount приёмов пищи
+ * @param activeUsers уникальных пользователей с приёмами пищи
+ * @param activeUsersEstimated true если activeUsers - оценка HyperLogLog, а не точное число
+ */
+public record PeriodStats(long usersRegistered,
+                          long productsCreated,
+                          long dailyReportsCreated,
+                          long mealsCount,
+                          long activeUsers,
+                          boolean activeUsersEstimated) {
+
+    /**
+     * @return среднее количество приёмов пищи на активного пользователя
+     */
+    public double averageMealsPerActiveUser() {
+        return activeUsers == 0 ? 0.0 : (double) mealsCount / activeUsers;
+    }
+}
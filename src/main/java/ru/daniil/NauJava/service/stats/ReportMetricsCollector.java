@@ -0,0 +1,275 @@
+package ru.daniil.NauJava.service.stats;
+
+import ru.daniil.NauJava.entity.ReportMetrics;
+import ru.daniil.NauJava.utils.QuantileSketch;
+import ru.daniil.NauJava.utils.TopKCounter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Накопитель метрик питания за один проход по записям о приёмах пищи.
+ * Записи должны приходить упорядоченными по пользователю и времени приёма пищи:
+ * суммы за день пользователя копятся, пока не сменится пользователь или день,
+ * и затем попадают в скетчи квантилей. Память ограничена размером скетчей,
+ * счётчика частых продуктов и числом типов приёмов пищи.
+ * Накопители интервалов, разбитых по границам дней, объединяются через merge
+ */
+public final class ReportMetricsCollector {
+    /**
+     * Допустимое отклонение калорийности дня от цели, при котором цель считается достигнутой
+     */
+    static final double GOAL_TOLERANCE = 0.1;
+    private static final long NO_MEAL_TYPE = 0L;
+    private static final byte FORMAT_VERSION = 1;
+
+    private QuantileSketch calories = new QuantileSketch();
+    private QuantileSketch proteins = new QuantileSketch();
+    private QuantileSketch fats = new QuantileSketch();
+    private QuantileSketch carbs = new QuantileSketch();
+    private TopKCounter products;
+    private final Map<Long, MealTypeTotals> mealTypes = new HashMap<>();
+    private long userDays;
+    private long userDaysWithGoal;
+    private long userDaysGoalAchieved;
+
+    private Long currentUserId;
+    private LocalDate currentDay;
+    private Long currentMealId;
+    private Integer currentGoal;
+    private double dayCalories;
+    private double dayProteins;
+    private double dayFats;
+    private double dayCarbs;
+
+    /**
+     * @param productsCapacity сколько продуктов отслеживает счётчик частых продуктов
+     */
+    public ReportMetricsCollector(int productsCapacity) {
+        this.products = new TopKCounter(productsCapacity);
+    }
+
+    /**
+     * Учитывает одну запись о продукте в приёме пищи
+     * @param row запись, упорядоченная по пользователю и времени относительно предыдущих
+     */
+    public void accept(MealEntryRow row) {
+        if (!row.userId().equals(currentUserId) || !row.day().equals(currentDay)) {
+            flushDay();
+            currentUserId = row.userId();
+            currentDay = row.day();
+            currentGoal = row.calorieGoal();
+        }
+
+        MealTypeTotals totals = mealTypes.computeIfAbsent(
+                row.mealTypeId() != null ? row.mealTypeId() : NO_MEAL_TYPE, id -> new MealTypeTotals());
+        if (!row.mealId().equals(currentMealId)) {
+            currentMealId = row.mealId();
+            totals.meals++;
+        }
+        if (row.productId() == null) {
+            return;
+        }
+        totals.entries++;
+        totals.calories += row.calories();
+        products.add(row.productId());
+
+        dayCalories += row.calories();
+        dayProteins += row.proteins();
+        dayFats += row.fats();
+        dayCarbs += row.carbs();
+    }
+
+    /**
+     * Завершает день последнего пользователя. Вызывается после последней записи интервала
+     */
+    public void finish() {
+        flushDay();
+        currentUserId = null;
+        currentDay = null;
+        currentMealId = null;
+    }
+
+    /**
+     * Добавляет метрики другого интервала, не пересекающегося по дням
+     * @param other завершённый накопитель другого интервала
+     */
+    public void merge(ReportMetricsCollector other) {
+        calories.merge(other.calories);
+        proteins.merge(other.proteins);
+        fats.merge(other.fats);
+        carbs.merge(other.carbs);
+        products.merge(other.products);
+        other.mealTypes.forEach((id, totals) -> mealTypes.computeIfAbsent(id, key -> new MealTypeTotals()).add(totals));
+        userDays += other.userDays;
+        userDaysWithGoal += other.userDaysWithGoal;
+        userDaysGoalAchieved += other.userDaysGoalAchieved;
+    }
+
+    /**
+     * @return копия накопителя, изменения которой не затрагивают исходный
+     */
+    public ReportMetricsCollector copy() {
+        return fromBytes(toBytes());
+    }
+
+    /**
+     * @return id самых частых продуктов, по убыванию частоты
+     */
+    public List<Long> topProductIds(int limit) {
+        return products.top(limit).stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * @return id встретившихся типов приёмов пищи
+     */
+    public Set<Long> mealTypeIds() {
+        Set<Long> ids = new HashSet<>(mealTypes.keySet());
+        ids.remove(NO_MEAL_TYPE);
+        return ids;
+    }
+
+    /**
+     * Формирует метрики отчёта
+     * @param topProducts сколько самых частых продуктов включить
+     * @param productNames названия продуктов по id
+     * @param mealTypeNames названия типов приёмов пищи по id
+     * @return метрики питания за период
+     */
+    public ReportMetrics toMetrics(int topProducts, Map<Long, String> productNames, Map<Long, String> mealTypeNames) {
+        List<ReportMetrics.ProductCount> productCounts = products.top(topProducts).stream()
+                .map(entry -> new ReportMetrics.ProductCount(entry.getKey(),
+                        productNames.get(entry.getKey()), entry.getValue()))
+                .toList();
+        List<ReportMetrics.MealTypeBreakdown> breakdown = mealTypes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new ReportMetrics.MealTypeBreakdown(
+                        entry.getKey() == NO_MEAL_TYPE ? "Без типа" : mealTypeNames.get(entry.getKey()),
+                        entry.getValue().meals, entry.getValue().entries, round(entry.getValue().calories)))
+                .toList();
+        Double goalRate = userDaysWithGoal > 0 ? (double) userDaysGoalAchieved / userDaysWithGoal : null;
+
+        return new ReportMetrics(userDays,
+                distribution(calories), distribution(proteins), distribution(fats), distribution(carbs),
+                userDaysWithGoal, userDaysGoalAchieved, goalRate, productCounts, breakdown);
+    }
+
+    public byte[] toBytes() {
+        byte[][] parts = {calories.toBytes(), proteins.toBytes(), fats.toBytes(), carbs.toBytes(), products.toBytes()};
+        int size = 1 + Long.BYTES * 3 + Integer.BYTES
+                + mealTypes.size() * (Long.BYTES * 3 + Double.BYTES);
+        for (byte[] part : parts) {
+            size += part.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .put(FORMAT_VERSION)
+                .putLong(userDays)
+                .putLong(userDaysWithGoal)
+                .putLong(userDaysGoalAchieved);
+        for (byte[] part : parts) {
+            buffer.put(part);
+        }
+        buffer.putInt(mealTypes.size());
+        mealTypes.forEach((id, totals) -> buffer.putLong(id).putLong(totals.meals)
+                .putLong(totals.entries).putDouble(totals.calories));
+        return buffer.array();
+    }
+
+    /**
+     * Восстанавливает завершённый накопитель из байтов, полученных через toBytes
+     * @param bytes сохранённый накопитель
+     * @return накопитель
+     * @throws IllegalArgumentException если формат не распознан
+     */
+    public static ReportMetricsCollector fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неизвестная версия формата метрик отчёта");
+            }
+            ReportMetricsCollector collector = new ReportMetricsCollector(1);
+            collector.userDays = buffer.getLong();
+            collector.userDaysWithGoal = buffer.getLong();
+            collector.userDaysGoalAchieved = buffer.getLong();
+            collector.calories = QuantileSketch.read(buffer);
+            collector.proteins = QuantileSketch.read(buffer);
+            collector.fats = QuantileSketch.read(buffer);
+            collector.carbs = QuantileSketch.read(buffer);
+            collector.products = TopKCounter.read(buffer);
+            int mealTypesCount = buffer.getInt();
+            for (int i = 0; i < mealTypesCount; i++) {
+                MealTypeTotals totals = new MealTypeTotals();
+                long id = buffer.getLong();
+                totals.meals = buffer.getLong();
+                totals.entries = buffer.getLong();
+                totals.calories = buffer.getDouble();
+                collector.mealTypes.put(id, totals);
+            }
+            return collector;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Повреждённые метрики отчёта", e);
+        }
+    }
+
+    private void flushDay() {
+        if (currentUserId == null) {
+            return;
+        }
+        userDays++;
+        calories.add(dayCalories);
+        proteins.add(dayProteins);
+        fats.add(dayFats);
+        carbs.add(dayCarbs);
+        if (currentGoal != null && currentGoal > 0) {
+            userDaysWithGoal++;
+            if (Math.abs(dayCalories - currentGoal) <= currentGoal * GOAL_TOLERANCE) {
+                userDaysGoalAchieved++;
+            }
+        }
+        dayCalories = 0;
+        dayProteins = 0;
+        dayFats = 0;
+        dayCarbs = 0;
+    }
+
+    private static ReportMetrics.Distribution distribution(QuantileSketch sketch) {
+        return new ReportMetrics.Distribution(round(sketch.quantile(0.5)),
+                round(sketch.quantile(0.9)), round(sketch.quantile(0.99)));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static final class MealTypeTotals {
+        private long meals;
+        private long entries;
+        private double calories;
+
+        private void add(MealTypeTotals other) {
+            meals += other.meals;
+            entries += other.entries;
+            calories += other.calories;
+        }
+    }
+
+    /**
+     * Запись о продукте в приёме пищи с данными, нужными для метрик
+     * @param userId id пользователя
+     * @param day день приёма пищи
+     * @param mealId id приёма пищи
+     * @param mealTypeId id типа приёма пищи или null
+     * @param productId id продукта или null, если в приёме пищи нет записей
+     * @param calories калории записи
+     * @param proteins белки записи, г
+     * @param fats жиры записи, г
+     * @param carbs углеводы записи, г
+     * @param calorieGoal цель пользователя по калориям за день или null
+     */
+    public record MealEntryRow(Long userId, LocalDate day, Long mealId, Long mealTypeId, Long productId,
+                               double calories, double proteins, double fats, double carbs,
+                               Integer calorieGoal) {
+    }
+}
@@ -0,0 +1,28 @@
+package ru.daniil.NauJava.service.stats;
+
+import ru.daniil.NauJava.entity.ReportMetrics;
+
+import java.time.LocalDate;
+
+public interface ReportMetricsService {
+    /**
+     * Собирает метрики питания за диапазон дат одним проходом по записям о приёмах пищи
+     * @param from первая дата
+     * @param to последняя дата включительно
+     * @param listener получатель хода сбора
+     * @return накопитель, который можно сохранить и дополнить метриками следующих дней
+     */
+    ReportMetricsCollector collect(LocalDate from, LocalDate to, StatsProgressListener listener);
+
+    /**
+     * Формирует метрики отчёта, подставляя названия продуктов и типов приёмов пищи
+     * @param collector завершённый накопитель за период
+     * @return метрики питания за период
+     */
+    ReportMetrics toMetrics(ReportMetricsCollector collector);
+
+    /**
+     * @return пустой накопитель с настроенной ёмкостью счётчика продуктов
+     */
+    ReportMetricsCollector newCollector();
+}
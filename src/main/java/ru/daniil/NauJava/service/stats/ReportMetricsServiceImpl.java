@@ -0,0 +1,200 @@
+package ru.daniil.NauJava.service.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.daniil.NauJava.entity.MealType;
+import ru.daniil.NauJava.entity.Product;
+import ru.daniil.NauJava.entity.ReportMetrics;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.repository.MealTypeRepository;
+import ru.daniil.NauJava.repository.ProductRepository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Метрики питания для админских отчётов.
+ * Записи о приёмах пищи читаются курсором с фиксированным fetch size, упорядоченными
+ * по пользователю и времени, и сразу попадают в накопитель: в памяти остаются только
+ * суммы текущего дня пользователя, скетчи квантилей и счётчики.
+ * Период делится на интервалы по sliceDays дней, которые читаются параллельно
+ * в пуле reportSliceExecutor в пределах бюджета ReportQueryBudget, а их накопители объединяются
+ */
+@Service
+public class ReportMetricsServiceImpl implements ReportMetricsService {
+
+    private static final String ENTRIES_SQL = """
+            SELECT m.user_id, CAST(m.eaten_at AS DATE) AS eaten_day, m.id AS meal_id, m.meal_type_id,
+                   e.product_id, e.calculated_calories, e.calculated_proteins,
+                   e.calculated_fats, e.calculated_carbs, g.daily_calorie_goal
+            FROM tbl_meals m
+            LEFT JOIN tbl_meal_entries e ON e.meal_id = m.id
+            LEFT JOIN tbl_user_profile up ON up.user_id = m.user_id
+            LEFT JOIN tbl_nutrition_goal g ON g.user_profile_id = up.id
+            WHERE m.eaten_at >= ? AND m.eaten_at < ?
+              AND m.user_id IS NOT NULL
+            ORDER BY m.user_id, m.eaten_at, m.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor sliceExecutor;
+    private final ReportQueryBudget queryBudget;
+    private final ProductRepository productRepository;
+    private final MealTypeRepository mealTypeRepository;
+    private final int sliceDays;
+    private final int topProducts;
+
+    private static final Logger methodLogger = LoggerFactory.getLogger("METHOD-LOGGER");
+
+    public ReportMetricsServiceImpl(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("reportSliceExecutor") AsyncTaskExecutor sliceExecutor,
+                                    ReportQueryBudget queryBudget,
+                                    ProductRepository productRepository,
+                                    MealTypeRepository mealTypeRepository,
+                                    @Value("${app.reports.slice-days:31}") int sliceDays,
+                                    @Value("${app.reports.metrics.fetch-size:1000}") int fetchSize,
+                                    @Value("${app.reports.metrics.top-products:10}") int topProducts) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.sliceExecutor = sliceExecutor;
+        this.queryBudget = queryBudget;
+        this.productRepository = productRepository;
+        this.mealTypeRepository = mealTypeRepository;
+        this.sliceDays = Math.max(1, sliceDays);
+        this.topProducts = Math.max(1, topProducts);
+    }
+
+    @Override
+    public ReportMetricsCollector newCollector() {
+        // Запас ёмкости, чтобы заниженные оценки частоты не меняли состав верхних продуктов
+        return new ReportMetricsCollector(topProducts * 10);
+    }
+
+    @Override
+    public ReportMetricsCollector collect(LocalDate from, LocalDate to, StatsProgressListener listener) {
+        long startTime = System.currentTimeMillis();
+        List<LocalDate[]> slices = new ArrayList<>();
+        LocalDate sliceStart = from;
+        while (!sliceStart.isAfter(to)) {
+            LocalDate sliceEnd = sliceStart.plusDays(sliceDays - 1L);
+            if (sliceEnd.isAfter(to)) {
+                sliceEnd = to;
+            }
+            slices.add(new LocalDate[]{sliceStart, sliceEnd});
+            sliceStart = sliceEnd.plusDays(1);
+        }
+        Progress progress = new Progress(listener, ChronoUnit.DAYS.between(from, to) + 1);
+
+        ReportMetricsCollector result = newCollector();
+        List<Future<ReportMetricsCollector>> futures = new ArrayList<>(slices.size());
+        try {
+            for (LocalDate[] slice : slices) {
+                futures.add(sliceExecutor.submit(() -> collectSlice(slice[0], slice[1], progress)));
+            }
+            for (Future<ReportMetricsCollector> future : futures) {
+                result.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Сбор метрик питания прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ошибка сбора метрик питания", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        methodLogger.debug("{ReportMetricsServiceImpl.collect} | Метрики питания с {} по {} собраны за {} мс",
+                from, to, System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    @Override
+    public ReportMetrics toMetrics(ReportMetricsCollector collector) {
+        Map<Long, String> productNames = new HashMap<>();
+        for (Product product : productRepository.findAllById(collector.topProductIds(topProducts))) {
+            productNames.put(product.getId(), product.getName());
+        }
+        Map<Long, String> mealTypeNames = new HashMap<>();
+        if (!collector.mealTypeIds().isEmpty()) {
+            for (MealType mealType : mealTypeRepository.findAll()) {
+                mealTypeNames.put(mealType.getId(), mealType.getName());
+            }
+        }
+        return collector.toMetrics(topProducts, productNames, mealTypeNames);
+    }
+
+    /**
+     * Читает записи о приёмах пищи за интервал в отдельной транзакции только для чтения
+     */
+    private ReportMetricsCollector collectSlice(LocalDate from, LocalDate to, Progress progress) {
+        ReportMetricsCollector collector = newCollector();
+        queryBudget.call(() -> transactionTemplate.execute(status -> {
+            jdbcTemplate.query(ENTRIES_SQL, (RowCallbackHandler) rs -> collector.accept(toRow(rs)),
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            return null;
+        }));
+        collector.finish();
+        progress.daysDone(ChronoUnit.DAYS.between(from, to) + 1);
+        return collector;
+    }
+
+    private static ReportMetricsCollector.MealEntryRow toRow(ResultSet rs) throws SQLException {
+        return new ReportMetricsCollector.MealEntryRow(
+                rs.getLong("user_id"),
+                rs.getDate("eaten_day").toLocalDate(),
+                rs.getLong("meal_id"),
+                rs.getObject("meal_type_id", Long.class),
+                rs.getObject("product_id", Long.class),
+                rs.getDouble("calculated_calories"),
+                rs.getDouble("calculated_proteins"),
+                rs.getDouble("calculated_fats"),
+                rs.getDouble("calculated_carbs"),
+                rs.getObject("daily_calorie_goal", Integer.class));
+    }
+
+    /**
+     * Считает долю обработанных дней. Интервалы сообщают о ходе из разных потоков
+     */
+    private static final class Progress {
+        private final StatsProgressListener listener;
+        private final long totalDays;
+        private long doneDays;
+
+        private Progress(StatsProgressListener listener, long totalDays) {
+            this.listener = listener;
+            this.totalDays = totalDays;
+        }
+
+        private synchronized void daysDone(long days) {
+            doneDays += days;
+            if (totalDays > 0) {
+                listener.onProgress(ReportStage.METRICS, (int) Math.min(100, doneDays * 100 / totalDays));
+            }
+        }
+    }
+}
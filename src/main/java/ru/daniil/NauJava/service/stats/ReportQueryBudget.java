@@ -0,0 +1,42 @@
+package ru.daniil.NauJava.service.stats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Бюджет нагрузки отчётов на БД: сколько тяжёлых запросов по интервалам периода
+ * (пересчёт дневных сводок, чтение записей для метрик) выполняется на узле одновременно.
+ * Пулы отчётов задают параллелизм вычислений, а бюджет - сколько из них одновременно
+ * читают БД, поэтому его можно уменьшить, не перенастраивая пулы
+ */
+@Component
+public class ReportQueryBudget {
+    private final Semaphore permits;
+
+    public ReportQueryBudget(@Value("${app.reports.db-budget.max-concurrent-queries:4}") int maxConcurrentQueries) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrentQueries), true);
+    }
+
+    /**
+     * Выполняет запрос, дождавшись свободного места в бюджете
+     * @param query запрос к БД
+     * @return результат запроса
+     * @throws IllegalStateException если ожидание прервано
+     */
+    public <T> T call(Supplier<T> query) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание бюджета запросов к БД прервано", e);
+        }
+        try {
+            return query.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
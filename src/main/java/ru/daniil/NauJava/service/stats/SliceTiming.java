@@ -0,0 +1,12 @@
+package ru.daniil.NauJava.service.stats;
+
+import java.time.LocalDate;
+
+/**
+ * Время пересчёта одного интервала дневных сводок
+ * @param from первая дата интервала
+ * @param to последняя дата интервала включительно
+ * @param millis длительность пересчёта в миллисекундах
+ */
+public record SliceTiming(LocalDate from, LocalDate to, long millis) {
+}
@@ -0,0 +1,25 @@
+package ru.daniil.NauJava.service.stats;
+
+import ru.daniil.NauJava.enums.ReportStage;
+
+/**
+ * Получает уведомления о ходе пересчёта дневных сводок
+ */
+@FunctionalInterface
+public interface StatsProgressListener {
+    StatsProgressListener NONE = (stage, percent) -> {};
+
+    /**
+     * @param stage завершённый этап пересчёта
+     * @param percent доля пересчитанных данных от 0 до 100
+     */
+    void onProgress(ReportStage stage, int percent);
+
+    /**
+     * Вызывается после пересчёта каждого интервала, интервалы пересчитываются параллельно,
+     * поэтому метод может вызываться из разных потоков
+     * @param timing интервал и время его пересчёта
+     */
+    default void onSlice(SliceTiming timing) {
+    }
+}
@@ -8,7 +8,8 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.UUID;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Утилитарный класс для работы с логгерами
@@ -24,39 +25,51 @@ public class Loggers {
     }
 
     /**
-     * Инициализирует MDC для трассировки запроса
+     * Инициализирует MDC для трассировки запроса.
+     * Id запроса берётся из ThreadLocalRandom: уникальность нужна только для связывания строк лога,
+     * криптостойкий генератор UUID здесь лишний
      */
     public static String initRequestContext(HttpServletRequest request) {
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
+        String requestId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt());
+        restoreRequestContext(requestId, request);
+        return requestId;
+    }
 
+    /**
+     * Восстанавливает MDC запроса в другом потоке, например при завершении асинхронной обработки
+     */
+    public static void restoreRequestContext(String requestId, HttpServletRequest request) {
         MDC.put("requestId", requestId);
         MDC.put("method", request.getMethod());
         MDC.put("uri", request.getRequestURI());
         MDC.put("userAgent", request.getHeader("User-Agent"));
-
-        APP.info("Начало обработки запроса {} {}", request.getMethod(), request.getRequestURI());
-
-        return requestId;
     }
 
     /**
-     * Для завершения контекста запроса
+     * Для завершения контекста запроса. Пишет в лог только ответы 5xx и запросы медленнее порога,
+     * время остальных запросов видно в метриках
      */
-    public static void finishRequestContext(int statusCode, long durationMs) {
-        MDC.put("status", String.valueOf(statusCode));
-        MDC.put("duration", String.valueOf(durationMs));
-
-        String level = statusCode >= 400 ? "ERROR" : "INFO";
-
-        if ("ERROR".equals(level)) {
-            APP.error("Завершение запроса с кодом {} за {} мс", statusCode, durationMs);
-        } else {
-            APP.info("Завершение запроса с кодом {} за {} мс", statusCode, durationMs);
+    public static void finishRequestContext(int statusCode, long durationMs, long slowThresholdMs) {
+        if (statusCode >= 500 || durationMs >= slowThresholdMs) {
+            MDC.put("status", String.valueOf(statusCode));
+            MDC.put("duration", String.valueOf(durationMs));
+            if (statusCode >= 500) {
+                APP.error("Завершение запроса с кодом {} за {} мс", statusCode, durationMs);
+            } else {
+                APP.warn("Медленный запрос: код {} за {} мс", statusCode, durationMs);
+            }
         }
 
         MDC.clear();
     }
 
+    /**
+     * Очищает MDC текущего потока без записи в лог
+     */
+    public static void clearRequestContext() {
+        MDC.clear();
+    }
+
     /**
      * Логирует обычное событие
      */
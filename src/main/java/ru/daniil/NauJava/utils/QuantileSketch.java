@@ -0,0 +1,156 @@
+package ru.daniil.NauJava.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Скетч квантилей с относительной погрешностью (по схеме DDSketch).
+ * Значения попадают в корзины с логарифмическими границами, поэтому квантиль
+ * возвращается с относительной ошибкой не больше заданной. Скетчи объединяются
+ * сложением корзин, число корзин ограничено: при переполнении сливаются
+ * самые маленькие, и память не зависит от количества значений
+ */
+public final class QuantileSketch {
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    public static final int DEFAULT_MAX_BINS = 2048;
+
+    /**
+     * Значения меньше этого считаются нулём
+     */
+    private static final double MIN_INDEXABLE_VALUE = 1e-3;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBins;
+    private final TreeMap<Integer, Long> bins = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BINS);
+    }
+
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Относительная точность скетча должна быть от 0 до 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBins = Math.max(16, maxBins);
+    }
+
+    /**
+     * @param value неотрицательное значение, отрицательные считаются нулём
+     */
+    public void add(double value) {
+        count++;
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+            return;
+        }
+        bins.merge((int) Math.ceil(Math.log(value) / logGamma), 1L, Long::sum);
+        collapseIfNeeded();
+    }
+
+    /**
+     * Объединяет со скетчем той же точности
+     * @param other скетч другого интервала
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Нельзя объединить скетчи разной точности");
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+        other.bins.forEach((index, binCount) -> bins.merge(index, binCount, Long::sum));
+        collapseIfNeeded();
+    }
+
+    /**
+     * @param quantile квантиль от 0 до 1
+     * @return значение квантиля или 0, если значений нет
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) (Math.min(1, Math.max(0, quantile)) * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Long> bin : bins.entrySet()) {
+            seen += bin.getValue();
+            if (rank < seen) {
+                return 2 * Math.pow(gamma, bin.getKey()) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, bins.lastKey()) / (gamma + 1);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Double.BYTES + Integer.BYTES * 2 + Long.BYTES * 2
+                + bins.size() * (Integer.BYTES + Long.BYTES));
+        buffer.put(FORMAT_VERSION)
+                .putDouble(relativeAccuracy)
+                .putInt(maxBins)
+                .putLong(zeroCount)
+                .putLong(count)
+                .putInt(bins.size());
+        bins.forEach((index, binCount) -> buffer.putInt(index).putLong(binCount));
+        return buffer.array();
+    }
+
+    /**
+     * Восстанавливает скетч из байтов, полученных через toBytes
+     * @param bytes сохранённый скетч
+     * @return скетч
+     * @throws IllegalArgumentException если формат не распознан
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Читает скетч с текущей позиции буфера
+     * @param buffer буфер с сохранённым скетчем
+     * @return скетч
+     * @throws IllegalArgumentException если формат не распознан
+     */
+    public static QuantileSketch read(ByteBuffer buffer) {
+        try {
+            if (buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неизвестная версия формата скетча квантилей");
+            }
+            QuantileSketch sketch = new QuantileSketch(buffer.getDouble(), buffer.getInt());
+            sketch.zeroCount = buffer.getLong();
+            sketch.count = buffer.getLong();
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                sketch.bins.put(buffer.getInt(), buffer.getLong());
+            }
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Повреждённый скетч квантилей", e);
+        }
+    }
+
+    /**
+     * Сливает самые маленькие корзины: страдает точность только нижних квантилей
+     */
+    private void collapseIfNeeded() {
+        while (bins.size() > maxBins) {
+            Map.Entry<Integer, Long> lowest = bins.pollFirstEntry();
+            bins.merge(bins.firstKey(), lowest.getValue(), Long::sum);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.daniil.NauJava.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Счётчик самых частых id по алгоритму Misra-Gries.
+ * Хранит не больше capacity счётчиков, поэтому память не зависит от числа разных id.
+ * Частота каждого id занижена не больше чем на n / (capacity + 1), где n - число учтённых значений,
+ * поэтому для верхних N id достаточно capacity в несколько раз больше N.
+ * Счётчики разных интервалов объединяются с той же гарантией
+ */
+public final class TopKCounter {
+    private final int capacity;
+    private final Map<Long, Long> counters;
+
+    public TopKCounter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ёмкость счётчика должна быть положительной");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Учитывает одно появление id
+     * @param key id
+     */
+    public void add(long key) {
+        Long current = counters.get(key);
+        if (current != null) {
+            counters.put(key, current + 1);
+        } else if (counters.size() < capacity) {
+            counters.put(key, 1L);
+        } else {
+            // Новый id и все счётчики уменьшаются на единицу, обнулившиеся освобождают место
+            counters.replaceAll((id, value) -> value - 1);
+            counters.values().removeIf(value -> value == 0);
+        }
+    }
+
+    /**
+     * Объединяет со счётчиком другого интервала
+     * @param other счётчик другого интервала той же ёмкости
+     */
+    public void merge(TopKCounter other) {
+        other.counters.forEach((key, value) -> counters.merge(key, value, Long::sum));
+        if (counters.size() > capacity) {
+            List<Long> values = new ArrayList<>(counters.values());
+            values.sort(Comparator.reverseOrder());
+            long threshold = values.get(capacity);
+            counters.replaceAll((id, value) -> value - threshold);
+            counters.values().removeIf(value -> value <= 0);
+        }
+    }
+
+    /**
+     * @param limit сколько id вернуть
+     * @return самые частые id с оценкой частоты, по убыванию частоты
+     */
+    public List<Map.Entry<Long, Long>> top(int limit) {
+        return counters.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + counters.size() * Long.BYTES * 2);
+        buffer.putInt(capacity).putInt(counters.size());
+        counters.forEach((key, value) -> buffer.putLong(key).putLong(value));
+        return buffer.array();
+    }
+
+    /**
+     * Читает счётчик с текущей позиции буфера
+     * @param buffer буфер с сохранённым счётчиком
+     * @return счётчик
+     * @throws IllegalArgumentException если байты повреждены
+     */
+    public static TopKCounter read(ByteBuffer buffer) {
+        try {
+            TopKCounter counter = new TopKCounter(buffer.getInt());
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                counter.counters.put(buffer.getLong(), buffer.getLong());
+            }
+            return counter;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Повреждённый счётчик частых id", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.daniil.NauJava.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.BitSet;
+
+/**
+ * Точное множество id пользователей в виде битовой карты.
+ * Карты разных дней объединяются побитовым ИЛИ, поэтому число уникальных
+ * пользователей за период считается без повторного чтения исходных строк.
+ * В сохранённом виде хранятся разности соседних id в varint:
+ * для плотных id это 1-2 байта на пользователя
+ */
+public final class UserIdBitmap {
+    private final BitSet ids;
+
+    public UserIdBitmap() {
+        this.ids = new BitSet();
+    }
+
+    private UserIdBitmap(BitSet ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Восстанавливает множество из байтов, полученных через toBytes
+     * @param bytes разности id в varint
+     * @return множество id
+     * @throws IllegalArgumentException если байты повреждены
+     */
+    public static UserIdBitmap fromBytes(byte[] bytes) {
+        BitSet ids = new BitSet();
+        long previous = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            long delta = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (position >= bytes.length || shift > 35) {
+                    throw new IllegalArgumentException("Повреждённое множество id пользователей");
+                }
+                current = bytes[position++];
+                delta |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            previous += delta;
+            ids.set(toIndex(previous));
+        }
+        return new UserIdBitmap(ids);
+    }
+
+    /**
+     * @param userId id пользователя
+     * @throws IllegalArgumentException если id не помещается в битовую карту
+     */
+    public void add(long userId) {
+        ids.set(toIndex(userId));
+    }
+
+    /**
+     * Объединяет с множеством другого периода
+     * @param other множество другого периода
+     */
+    public void merge(UserIdBitmap other) {
+        ids.or(other.ids);
+    }
+
+    /**
+     * @return количество уникальных id
+     */
+    public long cardinality() {
+        return ids.cardinality();
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.cardinality() * 2);
+        int previous = 0;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            int delta = id - previous;
+            while ((delta & ~0x7F) != 0) {
+                out.write((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.write(delta);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    private static int toIndex(long userId) {
+        if (userId < 0 || userId >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("id пользователя вне диапазона битовой карты: " + userId);
+        }
+        return (int) userId;
+    }
+}
@@ -0,0 +1,7 @@
+-- Метрики питания отчёта: квантили калорий и макронутриентов за день пользователя,
+-- достижение цели по калориям, частые продукты и разбивка по типам приёмов пищи
+ALTER TABLE tbl_reports ADD COLUMN IF NOT EXISTS metrics JSONB;
+
+-- Накопитель метрик за закрытые дни рядом с итогом отчёта.
+-- Для итогов, сохранённых до этой миграции, колонка пуста и закрытые дни считаются заново
+ALTER TABLE tbl_report_partial ADD COLUMN IF NOT EXISTS metrics_data BYTEA;
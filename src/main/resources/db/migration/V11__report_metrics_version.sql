@@ -0,0 +1,10 @@
+-- Версия набора показателей отчёта: отчёт за закрытый период переиспользуется,
+-- только если сформирован текущей версией. Версия 1 - отчёты без метрик питания
+ALTER TABLE tbl_reports ADD COLUMN IF NOT EXISTS metrics_version INTEGER;
+
+UPDATE tbl_reports
+SET metrics_version = CASE WHEN metrics IS NULL THEN 1 ELSE 2 END
+WHERE status = 'COMPLETED'
+  AND metrics_version IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_reports_period ON tbl_reports (report_period_start, report_period_end, created_at);
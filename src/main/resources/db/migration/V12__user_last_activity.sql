@@ -0,0 +1,57 @@
+-- Последняя активность пользователя хранится в tbl_user и поддерживается триггерами,
+-- чтобы список пользователей в админке листался по индексу, а не агрегировал tbl_meals на каждой странице.
+-- Активность - наибольшее из времени приёма пищи и обновления профиля; удаление приёма пищи её не уменьшает.
+
+ALTER TABLE tbl_user ADD COLUMN IF NOT EXISTS last_activity_at TIMESTAMP(6);
+
+UPDATE tbl_user u
+SET last_activity_at = a.last_activity
+FROM (SELECT u2.id, GREATEST(m.last_meal, p.updated_at) AS last_activity
+      FROM tbl_user u2
+      LEFT JOIN tbl_user_profile p ON p.user_id = u2.id
+      LEFT JOIN (SELECT user_id, MAX(eaten_at) AS last_meal FROM tbl_meals GROUP BY user_id) m
+             ON m.user_id = u2.id) a
+WHERE a.id = u.id
+  AND a.last_activity IS NOT NULL;
+
+-- Страницы пользователей с активностью: ключ (last_activity_at, id) по убыванию
+CREATE INDEX IF NOT EXISTS idx_user_last_activity ON tbl_user (last_activity_at, id)
+    WHERE last_activity_at IS NOT NULL;
+-- Хвост списка: пользователи без активности по убыванию id
+CREATE INDEX IF NOT EXISTS idx_user_without_activity ON tbl_user (id)
+    WHERE last_activity_at IS NULL;
+
+CREATE OR REPLACE FUNCTION touch_user_activity(p_user_id BIGINT, p_at TIMESTAMP) RETURNS void AS $$
+BEGIN
+    IF p_user_id IS NOT NULL AND p_at IS NOT NULL THEN
+        UPDATE tbl_user
+        SET last_activity_at = p_at
+        WHERE id = p_user_id
+          AND (last_activity_at IS NULL OR last_activity_at < p_at);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_meals_touch_user_activity() RETURNS trigger AS $$
+BEGIN
+    PERFORM touch_user_activity(NEW.user_id, NEW.eaten_at);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_profile_touch_user_activity() RETURNS trigger AS $$
+BEGIN
+    PERFORM touch_user_activity(NEW.user_id, NEW.updated_at);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS meals_touch_user_activity ON tbl_meals;
+CREATE TRIGGER meals_touch_user_activity
+    AFTER INSERT OR UPDATE OF eaten_at, user_id ON tbl_meals
+    FOR EACH ROW EXECUTE FUNCTION trg_meals_touch_user_activity();
+
+DROP TRIGGER IF EXISTS profile_touch_user_activity ON tbl_user_profile;
+CREATE TRIGGER profile_touch_user_activity
+    AFTER INSERT OR UPDATE OF updated_at ON tbl_user_profile
+    FOR EACH ROW EXECUTE FUNCTION trg_profile_touch_user_activity();
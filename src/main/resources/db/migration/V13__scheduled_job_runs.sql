@@ -0,0 +1,10 @@
+-- Отметки о запусках плановых задач по слотам расписания (например, по дням).
+-- Узел, первым вставивший строку за слот, выполняет задачу; остальные узлы, у которых
+-- расписание сработало позже, видят отметку и задачу не повторяют.
+
+CREATE TABLE IF NOT EXISTS tbl_scheduled_job_run (
+    job_name   VARCHAR(100) NOT NULL,
+    slot_date  DATE         NOT NULL,
+    started_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (job_name, slot_date)
+);
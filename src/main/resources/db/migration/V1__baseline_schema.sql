@@ -0,0 +1,120 @@
+-- Базовая схема в том виде, в каком её создавал hibernate ddl-auto=update.
+-- На уже существующих базах эта миграция пропускается (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS tbl_roles (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_user (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    login      VARCHAR(255) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL REFERENCES tbl_user (id),
+    role_id BIGINT NOT NULL REFERENCES tbl_roles (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_activity_level (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    level_name  VARCHAR(255)     NOT NULL UNIQUE,
+    description VARCHAR(255),
+    multiplier  DOUBLE PRECISION NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS tbl_user_profile (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT NOT NULL UNIQUE REFERENCES tbl_user (id),
+    name              VARCHAR(255),
+    surname           VARCHAR(255),
+    patronymic        VARCHAR(255),
+    date_of_birth     DATE,
+    gender            VARCHAR(1),
+    height            INTEGER,
+    weight            DOUBLE PRECISION,
+    target_weight     DOUBLE PRECISION,
+    current_streak    INTEGER,
+    activity_level_id BIGINT REFERENCES tbl_activity_level (id),
+    updated_at        TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_nutrition_goal (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_profile_id    BIGINT NOT NULL UNIQUE REFERENCES tbl_user_profile (id),
+    daily_calorie_goal INTEGER,
+    daily_protein_goal DOUBLE PRECISION,
+    daily_fat_goal     DOUBLE PRECISION,
+    daily_carbs_goal   DOUBLE PRECISION,
+    created_at         TIMESTAMP(6),
+    updated_at         TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_meal_type (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_product (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name               VARCHAR(255)     NOT NULL,
+    calories_per_100g  DOUBLE PRECISION NOT NULL,
+    proteins_per_100g  DOUBLE PRECISION NOT NULL,
+    fats_per_100g      DOUBLE PRECISION NOT NULL,
+    carbs_per_100g     DOUBLE PRECISION NOT NULL,
+    created_by_user_id BIGINT REFERENCES tbl_user (id),
+    created_at         TIMESTAMP(6),
+    CONSTRAINT unique_product_name_user UNIQUE (name, created_by_user_id)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_daily_report (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id                 BIGINT NOT NULL REFERENCES tbl_user (id),
+    report_date             DATE   NOT NULL,
+    total_calories_consumed DOUBLE PRECISION,
+    total_proteins_consumed DOUBLE PRECISION,
+    total_fats_consumed     DOUBLE PRECISION,
+    total_carbs_consumed    DOUBLE PRECISION,
+    is_goal_achieved        BOOLEAN,
+    created_at              TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_meals (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    daily_report_id BIGINT REFERENCES tbl_daily_report (id),
+    meal_type_id    BIGINT REFERENCES tbl_meal_type (id),
+    eaten_at        TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS tbl_meal_entries (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    meal_id             BIGINT REFERENCES tbl_meals (id),
+    product_id          BIGINT REFERENCES tbl_product (id),
+    quantity_grams      INTEGER,
+    calculated_calories DOUBLE PRECISION,
+    calculated_proteins DOUBLE PRECISION,
+    calculated_fats     DOUBLE PRECISION,
+    calculated_carbs    DOUBLE PRECISION
+);
+
+CREATE TABLE IF NOT EXISTS tbl_reports (
+    id                            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status                        VARCHAR(255) NOT NULL,
+    content                       TEXT,
+    report_period_start           DATE         NOT NULL,
+    report_period_end             DATE         NOT NULL,
+    created_at                    TIMESTAMP(6) NOT NULL,
+    completed_at                  TIMESTAMP(6),
+    total_execution_time          BIGINT,
+    total_users_registered        BIGINT,
+    total_products_created        BIGINT,
+    average_meals_per_active_user DOUBLE PRECISION,
+    total_daily_reports_created   BIGINT,
+    active_users_count            BIGINT
+);
@@ -0,0 +1,17 @@
+-- Последовательности с шагом 50 для пакетной вставки и версия дневного отчёта.
+-- Оптимизатор pooled в Hibernate считает прочитанное значение верхней границей блока из 50 id,
+-- поэтому последовательность ставится на MAX(id) + 50: первый блок начнётся сразу за существующими строками.
+
+CREATE SEQUENCE IF NOT EXISTS tbl_product_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tbl_meals_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tbl_meal_entries_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tbl_daily_report_seq INCREMENT BY 50;
+
+SELECT setval('tbl_product_seq', (SELECT COALESCE(MAX(id), 0) FROM tbl_product) + 50, false);
+SELECT setval('tbl_meals_seq', (SELECT COALESCE(MAX(id), 0) FROM tbl_meals) + 50, false);
+SELECT setval('tbl_meal_entries_seq', (SELECT COALESCE(MAX(id), 0) FROM tbl_meal_entries) + 50, false);
+SELECT setval('tbl_daily_report_seq', (SELECT COALESCE(MAX(id), 0) FROM tbl_daily_report) + 50, false);
+
+ALTER TABLE tbl_daily_report ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+UPDATE tbl_daily_report SET version = 0 WHERE version IS NULL;
+ALTER TABLE tbl_daily_report ALTER COLUMN version SET NOT NULL;
@@ -0,0 +1,30 @@
+-- Денормализация пользователя и даты приёма пищи в tbl_meals и индексы под запросы
+-- активности и админских отчётов, чтобы они не соединяли tbl_meals -> tbl_daily_report -> tbl_user.
+
+ALTER TABLE tbl_meals ADD COLUMN IF NOT EXISTS user_id BIGINT REFERENCES tbl_user (id);
+ALTER TABLE tbl_meals ADD COLUMN IF NOT EXISTS eaten_date DATE;
+
+UPDATE tbl_meals m
+SET user_id    = dr.user_id,
+    eaten_date = COALESCE(CAST(m.eaten_at AS DATE), dr.report_date)
+FROM tbl_daily_report dr
+WHERE m.daily_report_id = dr.id
+  AND (m.user_id IS NULL OR m.eaten_date IS NULL);
+
+-- Дневной отчёт пользователя за дату и календарь по диапазону дат
+CREATE INDEX IF NOT EXISTS idx_daily_report_user_date ON tbl_daily_report (user_id, report_date);
+CREATE INDEX IF NOT EXISTS idx_daily_report_created_at ON tbl_daily_report (created_at);
+
+-- Последняя активность пользователя и приёмы пищи пользователя за период
+CREATE INDEX IF NOT EXISTS idx_meals_user_eaten_at ON tbl_meals (user_id, eaten_at);
+-- Активные пользователи за период: покрывающий индекс, чтобы обойтись без чтения таблицы
+CREATE INDEX IF NOT EXISTS idx_meals_eaten_at_user ON tbl_meals (eaten_at, user_id);
+CREATE INDEX IF NOT EXISTS idx_meals_daily_report ON tbl_meals (daily_report_id);
+
+CREATE INDEX IF NOT EXISTS idx_meal_entries_meal ON tbl_meal_entries (meal_id);
+
+CREATE INDEX IF NOT EXISTS idx_user_created_at ON tbl_user (created_at);
+CREATE INDEX IF NOT EXISTS idx_product_created_at ON tbl_product (created_at);
+CREATE INDEX IF NOT EXISTS idx_product_owner_lower_name ON tbl_product (created_by_user_id, lower(name));
+
+CREATE INDEX IF NOT EXISTS idx_reports_created_at ON tbl_reports (created_at);
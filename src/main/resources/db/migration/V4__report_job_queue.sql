@@ -0,0 +1,25 @@
+-- Очередь формирования отчётов хранится в самой таблице отчётов:
+-- CREATED - ожидает, PROCESSING - взят узлом в работу в момент claimed_at.
+
+ALTER TABLE tbl_reports ADD COLUMN IF NOT EXISTS claimed_at TIMESTAMP(6);
+
+-- Зависшие с прошлого запуска отчёты возвращаются в очередь
+UPDATE tbl_reports SET status = 'CREATED' WHERE status = 'PROCESSING';
+
+-- Из одинаковых ожидающих отчётов остаётся самый новый
+UPDATE tbl_reports r SET status = 'CANCELLED'
+WHERE r.status = 'CREATED'
+  AND EXISTS (SELECT 1 FROM tbl_reports o
+              WHERE o.report_period_start = r.report_period_start
+                AND o.report_period_end = r.report_period_end
+                AND o.status = 'CREATED'
+                AND o.id > r.id);
+
+-- Выборка следующих задач из очереди
+CREATE INDEX IF NOT EXISTS idx_reports_queue
+    ON tbl_reports (created_at, id) WHERE status = 'CREATED';
+
+-- Не больше одного активного формирования на один и тот же период
+CREATE UNIQUE INDEX IF NOT EXISTS uq_reports_active_period
+    ON tbl_reports (report_period_start, report_period_end)
+    WHERE status IN ('CREATED', 'PROCESSING');
@@ -0,0 +1,14 @@
+-- Дневная сводка для админских отчётов: отчёт за период суммирует строки этой таблицы.
+-- active_users_sketch - регистры HyperLogLog по id пользователей с приёмами пищи за день,
+-- объединение скетчей даёт число уникальных активных пользователей за любой период.
+
+CREATE TABLE IF NOT EXISTS tbl_daily_stats (
+    stat_date             DATE PRIMARY KEY,
+    users_registered      BIGINT       NOT NULL DEFAULT 0,
+    products_created      BIGINT       NOT NULL DEFAULT 0,
+    daily_reports_created BIGINT       NOT NULL DEFAULT 0,
+    meals_count           BIGINT       NOT NULL DEFAULT 0,
+    active_users          BIGINT       NOT NULL DEFAULT 0,
+    active_users_sketch   BYTEA,
+    updated_at            TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Потоковая выгрузка приёмов пищи читает tbl_meals пачками по ключу (eaten_at, id)
+CREATE INDEX IF NOT EXISTS idx_meals_eaten_at_id ON tbl_meals (eaten_at, id);
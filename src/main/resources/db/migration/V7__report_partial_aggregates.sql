@@ -0,0 +1,10 @@
+-- Итог отчёта за закрытые дни периода. Отчёт за период, заканчивающийся сегодня,
+-- при обновлении досчитывает только дни после closed_through.
+-- aggregate_data - суммы дневных сводок и объединённый скетч активных пользователей.
+
+CREATE TABLE IF NOT EXISTS tbl_report_partial (
+    report_id      BIGINT PRIMARY KEY REFERENCES tbl_reports (id) ON DELETE CASCADE,
+    closed_through DATE         NOT NULL,
+    aggregate_data BYTEA        NOT NULL,
+    computed_at    TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Список отчётов листается по ключу (created_at, id), новые сначала
+CREATE INDEX IF NOT EXISTS idx_reports_created_at_id ON tbl_reports (created_at, id);
+DROP INDEX IF EXISTS idx_reports_created_at;
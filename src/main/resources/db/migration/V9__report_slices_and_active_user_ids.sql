@@ -0,0 +1,10 @@
+-- Точное число активных пользователей за период: id пользователей с приёмами пищи за день
+-- хранятся как разности соседних id в varint, множества дней объединяются битовой картой.
+-- Для сводок, пересчитанных до этой миграции, колонка пуста и используется оценка по скетчу.
+
+ALTER TABLE tbl_daily_stats ADD COLUMN IF NOT EXISTS active_user_ids BYTEA;
+
+-- Время пересчёта интервалов периода, на которые делится формирование отчёта
+ALTER TABLE tbl_reports ADD COLUMN IF NOT EXISTS slice_count    INTEGER;
+ALTER TABLE tbl_reports ADD COLUMN IF NOT EXISTS max_slice_time BIGINT;
+ALTER TABLE tbl_reports ADD COLUMN IF NOT EXISTS slice_timings  TEXT;
@@ -1,6 +1,9 @@
-let allUsers = [];
+let pageUsers = [];
+let pageCursors = [null];
+let nextCursor = null;
 let currentPage = 1;
 let pageSize = 16;
+let totalUsers = 0;
 let currentSort = {
     column: 'lastActivity',
     direction: 'desc'
@@ -17,6 +20,7 @@ const API = {
 document.addEventListener('DOMContentLoaded', function() {
     initializePageSizeSelector();
     initializePagination();
+    loadUsersStats();
     loadUsersData();
     initializeUserTableEvents();
     updateLastUpdateTime();
@@ -27,9 +31,8 @@ function initializePageSizeSelector() {
 
     pageSizeSelect.addEventListener('change', function(e) {
         pageSize = parseInt(e.target.value);
-        currentPage = 1;
-        applyPagination();
-        updatePaginationControls();
+        resetPaging();
+        loadUsersData();
     });
 }
 
@@ -38,23 +41,29 @@ function initializePagination() {
     const nextPageBtn = document.getElementById('nextPage');
 
     prevPageBtn.addEventListener('click', function() {
-        if (currentPage > 1) {
+        if (currentPage > 1 && !isLoading) {
             currentPage--;
-            applyPagination();
-            updatePaginationControls();
+            loadUsersData();
         }
     });
 
     nextPageBtn.addEventListener('click', function() {
-        const totalPages = Math.ceil(allUsers.length / pageSize);
-        if (currentPage < totalPages) {
+        if (nextCursor && !isLoading) {
+            pageCursors[currentPage] = nextCursor;
             currentPage++;
-            applyPagination();
-            updatePaginationControls();
+            loadUsersData();
         }
     });
 }
 
+// Страницы запрашиваются у сервера по курсору, курсоры пройденных страниц
+// запоминаются, чтобы можно было вернуться назад
+function resetPaging() {
+    pageCursors = [null];
+    nextCursor = null;
+    currentPage = 1;
+}
+
 function initializeUserTableEvents() {
     const table = document.querySelector('.users-table');
     const headers = table.querySelectorAll('th.sortable');
@@ -73,7 +82,13 @@ function loadUsersData() {
     isLoading = true;
     showLoadingState();
 
-    fetch(API.users, {
+    const params = new URLSearchParams({ limit: pageSize });
+    const cursor = pageCursors[currentPage - 1];
+    if (cursor) {
+        params.set('cursor', cursor);
+    }
+
+    fetch(`${API.users}?${params}`, {
         headers: {
             'X-CSRF-TOKEN': getCsrfToken()
         }
@@ -85,13 +100,13 @@ function loadUsersData() {
         return response.json();
     })
     .then(data => {
-        allUsers = data;
+        pageUsers = data.users || [];
+        nextCursor = data.nextCursor || null;
         lastUpdateTime = new Date();
         updateLastUpdateTime();
         applySorting();
         applyPagination();
         updatePaginationControls();
-        updateStats();
         checkPaginationNeeded();
         hideNoDataMessage();
     })
@@ -105,6 +120,28 @@ function loadUsersData() {
     });
 }
 
+function loadUsersStats() {
+    fetch(API.usersStats, {
+        headers: {
+            'X-CSRF-TOKEN': getCsrfToken()
+        }
+    })
+    .then(response => {
+        if (!response.ok) {
+            throw new Error(`HTTP ${response.status}`);
+        }
+        return response.json();
+    })
+    .then(stats => {
+        totalUsers = stats.totalUsers || 0;
+        updateStats(stats);
+        updatePaginationInfo();
+    })
+    .catch(error => {
+        console.error('Error loading users stats:', error);
+    });
+}
+
 function showLoadingState() {
     const tbody = document.getElementById('usersTableBody');
     tbody.innerHTML = `
@@ -118,12 +155,23 @@ function showLoadingState() {
 }
 
 function hideLoadingState() {
-    if (allUsers.length === 0) {
+    if (pageUsers.length === 0) {
         return;
     }
 }
 
+// Сортировка по последней активности выполняется сервером и задаёт порядок страниц,
+// остальные колонки сортируют только текущую страницу
 function sortUsers(column) {
+    if (column === 'lastActivity') {
+        currentSort.column = column;
+        currentSort.direction = 'desc';
+        resetPaging();
+        loadUsersData();
+        updateSortIndicators(column);
+        return;
+    }
+
     if (currentSort.column === column) {
         currentSort.direction = currentSort.direction === 'asc' ? 'desc' : 'asc';
     } else {
@@ -137,7 +185,11 @@ function sortUsers(column) {
 }
 
 function applySorting() {
-    allUsers.sort((a, b) => {
+    if (currentSort.column === 'lastActivity') {
+        return;
+    }
+
+    pageUsers.sort((a, b) => {
         const aValue = getUserValue(a, currentSort.column);
         const bValue = getUserValue(b, currentSort.column);
 
@@ -147,12 +199,6 @@ function applySorting() {
             return currentSort.direction === 'asc' ? aNum - bNum : bNum - aNum;
         }
 
-        if (currentSort.column === 'lastActivity') {
-            const aDate = aValue ? new Date(aValue) : new Date(0);
-            const bDate = bValue ? new Date(bValue) : new Date(0);
-            return currentSort.direction === 'asc' ? aDate - bDate : bDate - aDate;
-        }
-
         if (currentSort.direction === 'asc') {
             return aValue.localeCompare(bValue);
         } else {
@@ -187,11 +233,7 @@ function updateSortIndicators(activeColumn) {
 }
 
 function applyPagination() {
-    const startIndex = (currentPage - 1) * pageSize;
-    const endIndex = startIndex + pageSize;
-    const paginatedUsers = allUsers.slice(startIndex, endIndex);
-
-    updateTableDisplay(paginatedUsers);
+    updateTableDisplay(pageUsers);
     updatePaginationInfo();
 }
 
@@ -302,47 +344,39 @@ function closeUserDetailsModal() {
 function updatePaginationInfo() {
     const shownCount = document.getElementById('shownCount');
     const totalCount = document.getElementById('totalCount');
-    const startIndex = (currentPage - 1) * pageSize + 1;
-    const endIndex = Math.min(currentPage * pageSize, allUsers.length);
+    const startIndex = pageUsers.length > 0 ? (currentPage - 1) * pageSize + 1 : 0;
+    const endIndex = (currentPage - 1) * pageSize + pageUsers.length;
 
     shownCount.textContent = `${startIndex}-${endIndex}`;
-    totalCount.textContent = allUsers.length;
+    totalCount.textContent = Math.max(totalUsers, endIndex);
 }
 
 function updatePaginationControls() {
-    const totalPages = Math.ceil(allUsers.length / pageSize);
     const paginationPages = document.getElementById('paginationPages');
     const prevPageBtn = document.getElementById('prevPage');
     const nextPageBtn = document.getElementById('nextPage');
 
-    prevPageBtn.disabled = currentPage === 1 || totalPages === 0;
-    nextPageBtn.disabled = currentPage === totalPages || totalPages === 0;
+    prevPageBtn.disabled = currentPage === 1;
+    nextPageBtn.disabled = !nextCursor;
 
+    // Общее число страниц при выдаче по курсору неизвестно,
+    // поэтому показываются только уже пройденные страницы и текущая
     paginationPages.innerHTML = '';
 
-    if (totalPages <= 7) {
-        for (let i = 1; i <= totalPages; i++) {
+    if (currentPage <= 5) {
+        for (let i = 1; i <= currentPage; i++) {
             addPageButton(i, paginationPages);
         }
     } else {
         addPageButton(1, paginationPages);
-
-        if (currentPage > 3) {
-            addEllipsis(paginationPages);
-        }
-
-        const startPage = Math.max(2, currentPage - 1);
-        const endPage = Math.min(totalPages - 1, currentPage + 1);
-
-        for (let i = startPage; i <= endPage; i++) {
+        addEllipsis(paginationPages);
+        for (let i = currentPage - 2; i <= currentPage; i++) {
             addPageButton(i, paginationPages);
         }
+    }
 
-        if (currentPage < totalPages - 2) {
-            addEllipsis(paginationPages);
-        }
-
-        addPageButton(totalPages, paginationPages);
+    if (nextCursor) {
+        addEllipsis(paginationPages);
     }
 }
 
@@ -351,9 +385,9 @@ function addPageButton(pageNumber, container) {
     pageBtn.className = `pagination-page ${pageNumber === currentPage ? 'active' : ''}`;
     pageBtn.textContent = pageNumber;
     pageBtn.addEventListener('click', () => {
+        if (pageNumber === currentPage || isLoading) return;
         currentPage = pageNumber;
-        applyPagination();
-        updatePaginationControls();
+        loadUsersData();
     });
     container.appendChild(pageBtn);
 }
@@ -368,7 +402,7 @@ function addEllipsis(container) {
 function checkPaginationNeeded() {
     const paginationContainer = document.getElementById('paginationContainer');
 
-    if (allUsers.length > pageSize) {
+    if (currentPage > 1 || nextCursor) {
         paginationContainer.style.display = 'flex';
         updatePaginationControls();
     } else {
@@ -376,34 +410,21 @@ function checkPaginationNeeded() {
     }
 }
 
-function updateStats() {
+function updateStats(stats) {
     const totalCountElement = document.getElementById('totalUsersCount');
     const activeTodayElement = document.getElementById('activeTodayCount');
     const avgStreakElement = document.getElementById('avgStreakCount');
 
     if (totalCountElement) {
-        totalCountElement.textContent = allUsers.length;
+        totalCountElement.textContent = stats.totalUsers || 0;
     }
 
-    const today = new Date();
-    today.setHours(0, 0, 0, 0);
-
-    const activeToday = allUsers.filter(user => {
-        if (!user.lastActivity) return false;
-        const lastActivity = new Date(user.lastActivity);
-        lastActivity.setHours(0, 0, 0, 0);
-        return lastActivity.getTime() === today.getTime();
-    }).length;
-
-    const totalStreak = allUsers.reduce((sum, user) => sum + (user.streak || 0), 0);
-    const avgStreak = allUsers.length > 0 ? Math.round(totalStreak / allUsers.length) : 0;
-
     if (activeTodayElement) {
-        activeTodayElement.textContent = activeToday;
+        activeTodayElement.textContent = stats.activeToday || 0;
     }
 
     if (avgStreakElement) {
-        avgStreakElement.textContent = avgStreak;
+        avgStreakElement.textContent = stats.averageStreak || 0;
     }
 }
 
@@ -421,7 +442,7 @@ function showNoDataMessage() {
 
 function hideNoDataMessage() {
     const noDataMessage = document.getElementById('noDataMessage');
-    if (allUsers.length > 0) {
+    if (pageUsers.length > 0) {
         noDataMessage.style.display = 'none';
     }
 }
@@ -486,5 +507,6 @@ function getCsrfToken() {
 
 // Автообновление данных каждые 10 минут
 setInterval(() => {
+    loadUsersStats();
     loadUsersData();
 }, 10 * 60 * 1000);
\ No newline at end of file
@@ -1,6 +1,8 @@
 class ReportsManager {
     constructor() {
         this.currentPage = 0;
+        this.pageCursors = [null];
+        this.nextCursor = null;
         this.pageSize = 8;
         this.totalElements = 0;
         this.totalPages = 0;
@@ -12,6 +14,8 @@ class ReportsManager {
         this.isLoading = false;
         this.autoRefreshInterval = null;
         this.hasProcessingReports = false;
+        this.eventSource = null;
+        this.standardReports = {};
         
         this.init();
     }
@@ -21,9 +25,33 @@ class ReportsManager {
         this.setupEventListeners();
         this.setupCalendar();
         this.loadReports();
+        this.loadStandardReports();
         this.setupAutoRefresh();
     }
 
+    async loadStandardReports() {
+        try {
+            const response = await fetch('/admin/api/reports/standard');
+            if (response.ok) {
+                const periods = await response.json();
+                this.standardReports = {};
+                periods.forEach(period => this.standardReports[period.period] = period.report);
+            }
+        } catch (error) {
+            console.error('Error loading standard reports:', error);
+        }
+    }
+
+    // Открывает заранее сформированный отчёт за стандартный период, если он готов
+    openStandardReport(period) {
+        const report = this.standardReports[period];
+        if (report && report.status === 'COMPLETED') {
+            this.viewReport(report.id);
+            return true;
+        }
+        return false;
+    }
+
     setupEventListeners() {
         document.getElementById('startDate').addEventListener('change', () => this.checkExistingReport());
         document.getElementById('endDate').addEventListener('change', () => this.checkExistingReport());
@@ -67,13 +95,75 @@ class ReportsManager {
     }
 
     setupAutoRefresh() {
+        this.connectProgressEvents();
+
+        // Опрос списка нужен, только если поток событий недоступен
         this.autoRefreshInterval = setInterval(() => {
-            if (this.hasProcessingReports) {
+            if (this.hasProcessingReports && !this.isEventStreamOpen()) {
                 this.loadReports(false);
             }
         }, 10000);
     }
 
+    connectProgressEvents() {
+        if (!window.EventSource) {
+            return;
+        }
+
+        this.eventSource = new EventSource('/admin/api/reports/events');
+        this.eventSource.addEventListener('progress', (e) => {
+            try {
+                this.handleProgressEvent(JSON.parse(e.data));
+            } catch (error) {
+                console.error('Ошибка обработки события отчёта:', error);
+            }
+        });
+    }
+
+    isEventStreamOpen() {
+        return this.eventSource !== null && this.eventSource.readyState === EventSource.OPEN;
+    }
+
+    handleProgressEvent(event) {
+        const isFinal = ['COMPLETED', 'ERROR', 'CANCELLED'].includes(event.status);
+        const row = document.querySelector(`.report-row[data-report-id="${event.reportId}"]`);
+
+        if (!row) {
+            if (event.status === 'CREATED') {
+                this.loadReports(false);
+            }
+            return;
+        }
+
+        const statusChanged = row.dataset.reportStatus !== event.status;
+        row.dataset.reportStatus = event.status;
+
+        const badge = row.querySelector('.status-badge');
+        badge.className = `status-badge ${this.getStatusClass(event.status)}`;
+        badge.textContent = this.getProgressText(event);
+
+        if (statusChanged) {
+            row.querySelector('.actions-cell').innerHTML =
+                this.createActionButtons({ id: event.reportId, status: event.status });
+            this.updateStats();
+        }
+
+        if (isFinal) {
+            this.loadReports(false);
+            if (this.currentReportId === event.reportId) {
+                this.openReportModal(event.reportId);
+            }
+        }
+    }
+
+    getProgressText(event) {
+        const statusText = this.getStatusText(event.status);
+        if (event.status === 'PROCESSING' && event.stage) {
+            return `${statusText}: ${this.getStageText(event.stage)} ${event.percent}%`;
+        }
+        return statusText;
+    }
+
     async loadReports(showLoading = true) {
         if (this.isLoading) return;
         
@@ -84,17 +174,25 @@ class ReportsManager {
         }
 
         try {
-            const url = `/admin/api/reports/page?page=${this.currentPage}&size=${this.pageSize}`;
-            const response = await fetch(url);
+            const params = new URLSearchParams({ size: this.pageSize });
+            const cursor = this.pageCursors[this.currentPage];
+            if (cursor) {
+                params.set('cursor', cursor);
+            }
+            const response = await fetch(`/admin/api/reports/page?${params}`);
             
             if (!response.ok) {
                 throw new Error(`HTTP ${response.status}: ${response.statusText}`);
             }
 
-            const reports = await response.json();
+            const data = await response.json();
+            this.nextCursor = data.nextCursor || null;
+            if (this.nextCursor) {
+                this.pageCursors[this.currentPage + 1] = this.nextCursor;
+            }
             await this.updateReportsCount();
             
-            this.renderReports(reports);
+            this.renderReports(data.reports);
             this.updatePagination();
             this.updateStats();
             
@@ -227,7 +325,18 @@ class ReportsManager {
             </button>
         ` : '';
 
-        const retryBtn = (report.status === 'ERROR' || report.status === 'CREATED') ? `
+        const cancelBtn = (report.status === 'CREATED' || report.status === 'PROCESSING') ? `
+            <button class="btn-icon" onclick="reportsManager.cancelReport(${report.id})"
+                    title="Отменить формирование">
+                <svg width="16" height="16" viewBox="0 0 24 24" stroke="currentColor" stroke-width="2"
+                     stroke-linecap="round" stroke-linejoin="round">
+                    <line x1="18" y1="6" x2="6" y2="18"></line>
+                    <line x1="6" y1="6" x2="18" y2="18"></line>
+                </svg>
+            </button>
+        ` : '';
+
+        const retryBtn = (report.status === 'ERROR' || report.status === 'CANCELLED') ? `
             <button class="btn-icon" onclick="reportsManager.retryReport(${report.id})"
                     title="Повторить формирование">
                 <svg width="16" height="16" viewBox="0 0 24 24" stroke="currentColor" stroke-width="2"
@@ -243,6 +352,7 @@ class ReportsManager {
             <div class="action-buttons">
                 ${viewBtn}
                 ${downloadBtn}
+                ${cancelBtn}
                 ${retryBtn}
             </div>
         `;
@@ -259,18 +369,20 @@ class ReportsManager {
         document.getElementById('pageInfo').textContent = `${this.currentPage + 1}/${this.totalPages}`;
 
         prevBtn.disabled = this.currentPage === 0;
-        nextBtn.disabled = this.currentPage >= this.totalPages - 1;
+        nextBtn.disabled = !this.nextCursor;
 
+        // Переход возможен только на страницы, курсор которых уже известен
+        const knownPages = this.pageCursors.length;
         let pagesHTML = '';
         const maxVisiblePages = 5;
 
-        if (this.totalPages <= maxVisiblePages) {
-            for (let i = 0; i < this.totalPages; i++) {
+        if (knownPages <= maxVisiblePages) {
+            for (let i = 0; i < knownPages; i++) {
                 pagesHTML += this.createPageButton(i);
             }
         } else {
             let startPage = Math.max(0, this.currentPage - Math.floor(maxVisiblePages / 2));
-            let endPage = Math.min(this.totalPages - 1, startPage + maxVisiblePages - 1);
+            let endPage = Math.min(knownPages - 1, startPage + maxVisiblePages - 1);
 
             if (endPage - startPage + 1 < maxVisiblePages) {
                 startPage = Math.max(0, endPage - maxVisiblePages + 1);
@@ -287,11 +399,11 @@ class ReportsManager {
                 pagesHTML += this.createPageButton(i);
             }
 
-            if (endPage < this.totalPages - 1) {
-                if (endPage < this.totalPages - 2) {
+            if (endPage < knownPages - 1) {
+                if (endPage < knownPages - 2) {
                     pagesHTML += '<span class="pagination-ellipsis">...</span>';
                 }
-                pagesHTML += this.createPageButton(this.totalPages - 1);
+                pagesHTML += this.createPageButton(knownPages - 1);
             }
         }
 
@@ -309,7 +421,7 @@ class ReportsManager {
     }
 
     goToPage(page) {
-        if (page >= 0 && page < this.totalPages && page !== this.currentPage) {
+        if (page >= 0 && page < this.pageCursors.length && page !== this.currentPage) {
             this.currentPage = page;
             this.loadReports();
 
@@ -327,7 +439,7 @@ class ReportsManager {
     }
 
     goToNextPage() {
-        if (this.currentPage < this.totalPages - 1) {
+        if (this.nextCursor) {
             this.goToPage(this.currentPage + 1);
         }
     }
@@ -337,6 +449,8 @@ class ReportsManager {
         if (newSize !== this.pageSize) {
             this.pageSize = newSize;
             this.currentPage = 0;
+            this.pageCursors = [null];
+            this.nextCursor = null;
             document.getElementById('pageSizeInfo').textContent = newSize;
             this.loadReports();
         }
@@ -383,11 +497,17 @@ class ReportsManager {
             const result = await response.json();
 
             if (response.ok && result.status === 'success') {
-                this.showNotification('Формирование отчёта начато', 'success');
+                this.showNotification(result.message || 'Формирование отчёта начато', 'success');
 
-                setTimeout(() => {
-                    this.loadReports();
-                }, 2000);
+                const status = await this.fetchReportStatus(result.reportId);
+                if (status === 'COMPLETED') {
+                    // Готовый отчёт за период открывается сразу
+                    this.viewReport(result.reportId);
+                } else {
+                    setTimeout(() => {
+                        this.loadReports();
+                    }, 2000);
+                }
 
                 document.getElementById('startDate').value = today;
                 document.getElementById('endDate').value = today;
@@ -404,6 +524,16 @@ class ReportsManager {
         }
     }
 
+    async fetchReportStatus(reportId) {
+        try {
+            const response = await fetch(`/admin/api/reports/${reportId}/status`);
+            return response.ok ? await response.text() : null;
+        } catch (error) {
+            console.error('Error loading report status:', error);
+            return null;
+        }
+    }
+
     async viewReport(reportId) {
         this.currentReportId = reportId;
         await this.openReportModal(reportId);
@@ -512,6 +642,7 @@ class ReportsManager {
 
     refreshReports() {
         this.loadReports();
+        this.loadStandardReports();
         this.showNotification('Список отчётов обновлён', 'info');
     }
 
@@ -643,6 +774,9 @@ class ReportsManager {
     }
 
     showWeekReport() {
+        if (this.openStandardReport('LAST_7_DAYS')) {
+            return;
+        }
         const endDate = new Date();
         const startDate = new Date();
         startDate.setDate(endDate.getDate() - 6);
@@ -655,6 +789,9 @@ class ReportsManager {
     }
 
     showMonthReport() {
+        if (this.openStandardReport('LAST_MONTH')) {
+            return;
+        }
         const endDate = new Date();
         const startDate = new Date(endDate.getFullYear(), endDate.getMonth(), 1);
 
@@ -708,6 +845,31 @@ class ReportsManager {
         }
     }
 
+    async cancelReport(reportId) {
+        if (confirm('Отменить формирование этого отчёта?')) {
+            try {
+                const response = await fetch(`/admin/api/reports/${reportId}/cancel`, {
+                    method: 'POST',
+                    headers: {
+                        'X-CSRF-TOKEN': this.getCsrfToken()
+                    }
+                });
+
+                if (response.ok) {
+                    this.showNotification('Формирование отчёта отменено', 'success');
+                    this.loadReports();
+                } else if (response.status === 409) {
+                    this.showNotification('Отчёт уже сформирован', 'error');
+                    this.loadReports();
+                } else {
+                    this.showNotification('Ошибка при отмене формирования отчёта', 'error');
+                }
+            } catch (error) {
+                this.showNotification('Ошибка: ' + error.message, 'error');
+            }
+        }
+    }
+
     closeReportModal() {
         document.getElementById('reportViewModal').classList.remove('active');
         this.currentReportId = null;
@@ -829,16 +991,31 @@ class ReportsManager {
             case 'PROCESSING': return 'Формируется';
             case 'ERROR': return 'Ошибка';
             case 'CREATED': return 'Создан';
+            case 'CANCELLED': return 'Отменён';
             default: return status;
         }
     }
 
+    getStageText(stage) {
+        switch (stage) {
+            case 'QUEUED': return 'в очереди';
+            case 'USERS': return 'пользователи';
+            case 'PRODUCTS': return 'продукты';
+            case 'DAILY_REPORTS': return 'дневные отчёты';
+            case 'MEALS': return 'приёмы пищи';
+            case 'METRICS': return 'метрики питания';
+            case 'SAVING': return 'сохранение';
+            default: return '';
+        }
+    }
+
     getStatusClass(status) {
         switch (status) {
             case 'COMPLETED': return 'status-completed';
             case 'PROCESSING': return 'status-processing';
             case 'ERROR': return 'status-error';
             case 'CREATED': return 'status-created';
+            case 'CANCELLED': return 'status-cancelled';
             default: return '';
         }
     }
@@ -0,0 +1,106 @@
+package ru.daniil.NauJava.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.daniil.NauJava.config.redis.codec.CompactCacheSerializer;
+import ru.daniil.NauJava.config.redis.codec.ProductListCodec;
+import ru.daniil.NauJava.config.redis.listSerializators.ProductListSerializer;
+import ru.daniil.NauJava.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-сравнение сериализации списка продуктов для кэша user-products:
+ * прежний JSON (ProductListSerializer) против бинарного поколоночного формата
+ * без сжатия и со сжатием. Размер значений выводится при запуске.
+ * Запускается отдельно через метод main после mvn test-compile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheCodecBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int products;
+
+    private ProductListSerializer jsonSerializer;
+    private CompactCacheSerializer<List<Product>> binarySerializer;
+    private CompactCacheSerializer<List<Product>> compressedSerializer;
+
+    private List<Product> value;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+    private byte[] compressedBytes;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new ProductListSerializer();
+        binarySerializer = new CompactCacheSerializer<>(new ProductListCodec(), List.class, jsonSerializer,
+                Integer.MAX_VALUE);
+        compressedSerializer = new CompactCacheSerializer<>(new ProductListCodec(), List.class, jsonSerializer, 0);
+
+        Random random = new Random(42);
+        value = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product("Продукт номер " + i + (i % 3 == 0 ? " обезжиренный" : ""),
+                    Math.round(random.nextDouble() * 9000) / 10.0,
+                    Math.round(random.nextDouble() * 500) / 10.0,
+                    Math.round(random.nextDouble() * 500) / 10.0,
+                    Math.round(random.nextDouble() * 1000) / 10.0);
+            product.setId(1000L + i * 3L);
+            value.add(product);
+        }
+
+        jsonBytes = jsonSerializer.serialize(value);
+        binaryBytes = binarySerializer.serialize(value);
+        compressedBytes = compressedSerializer.serialize(value);
+        System.out.printf("%n[%d продуктов] JSON: %d байт, бинарный: %d байт, бинарный со сжатием: %d байт%n",
+                products, jsonBytes.length, binaryBytes.length, compressedBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return jsonSerializer.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        return binarySerializer.deserialize(binaryBytes);
+    }
+
+    @Benchmark
+    public byte[] compressedSerialize() {
+        return compressedSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object compressedDeserialize() {
+        return compressedSerializer.deserialize(compressedBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
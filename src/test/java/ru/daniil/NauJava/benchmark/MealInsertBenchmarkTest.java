@@ -0,0 +1,173 @@
+package ru.daniil.NauJava.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.daniil.NauJava.entity.*;
+import ru.daniil.NauJava.repository.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Замер скорости записи приёмов пищи с 1, 10 и 50 продуктами на чистой БД в контейнере.
+ * Сравнивает прежнюю схему с id от IDENTITY (каждая строка - отдельный INSERT ... RETURNING id,
+ * как их выполнял Hibernate) и пакетную запись (id из последовательности с шагом 50, saveAll
+ * и одна пакетная отправка при коммите). Прежняя схема выполняется через JDBC, поскольку
+ * сущности теперь отображены на последовательности; накладные расходы Hibernate в ней не учитываются.
+ * Запускается отдельно: mvn test -DskipTests=false -Dgroups=benchmark
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("benchmark")
+class MealInsertBenchmarkTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    private static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    // Id от IDENTITY уводятся далеко от последовательностей, чтобы обе схемы писали в одни таблицы
+    private static final long IDENTITY_START = 1_000_000_000L;
+
+    private static final int WARMUP_MEALS = 20;
+    private static final int MEASURED_MEALS = 200;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private MealEntryRepository mealEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DailyReportRepository dailyReportRepository;
+
+    @Autowired
+    private MealTypeRepository mealTypeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("SPRING_REDIS_HOST", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    private DailyReport dailyReport;
+    private MealType mealType;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.findByLogin("benchmarkUser").orElseGet(() ->
+                userRepository.save(new User("benchmark@example.com", "benchmarkUser", "password123")));
+        dailyReport = dailyReportRepository.findByUserIdAndReportDate(user.getId(), LocalDate.now())
+                .orElseGet(() -> dailyReportRepository.save(new DailyReport(user, LocalDate.now())));
+        mealType = mealTypeRepository.findByName("Benchmark")
+                .orElseGet(() -> mealTypeRepository.save(new MealType("Benchmark", "Замер записи")));
+        product = productRepository.findByNameIgnoreCaseAndCreatedByUserIsNull("Benchmark product")
+                .orElseGet(() -> productRepository.save(new Product("Benchmark product", 100.0, 10.0, 5.0, 12.0)));
+        jdbcTemplate.execute("ALTER TABLE tbl_meals ALTER COLUMN id RESTART WITH " + IDENTITY_START);
+        jdbcTemplate.execute("ALTER TABLE tbl_meal_entries ALTER COLUMN id RESTART WITH " + IDENTITY_START);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM tbl_meal_entries WHERE meal_id IN " +
+                "(SELECT id FROM tbl_meals WHERE daily_report_id = ?)", dailyReport.getId());
+        jdbcTemplate.update("DELETE FROM tbl_meals WHERE daily_report_id = ?", dailyReport.getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void insertRate_PerEntryVersusBatched(int entriesPerMeal) {
+        runMeals(WARMUP_MEALS, entriesPerMeal, false);
+        runMeals(WARMUP_MEALS, entriesPerMeal, true);
+
+        double identityRate = runMeals(MEASURED_MEALS, entriesPerMeal, false);
+        double batchedRate = runMeals(MEASURED_MEALS, entriesPerMeal, true);
+
+        System.out.printf("Продуктов в приёме: %d | IDENTITY по одной записи: %.1f приёмов/с | пакетно: %.1f приёмов/с%n",
+                entriesPerMeal, identityRate, batchedRate);
+
+        assertThat(batchedRate).isPositive();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tbl_meals WHERE id >= ?",
+                Long.class, IDENTITY_START)).isEqualTo(WARMUP_MEALS + MEASURED_MEALS);
+    }
+
+    /**
+     * Записывает указанное количество приёмов пищи, каждый в своей транзакции
+     * @return количество записанных приёмов пищи в секунду
+     */
+    private double runMeals(int meals, int entriesPerMeal, boolean batched) {
+        long start = System.nanoTime();
+        for (int i = 0; i < meals; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (batched) {
+                    Meal meal = mealRepository.save(new Meal(dailyReport, mealType));
+                    List<MealEntry> entries = new ArrayList<>();
+                    for (int j = 0; j < entriesPerMeal; j++) {
+                        entries.add(new MealEntry(meal, product, 100 + j));
+                    }
+                    mealEntryRepository.saveAll(entries);
+                } else {
+                    insertWithIdentity(entriesPerMeal);
+                }
+            });
+        }
+        long elapsed = System.nanoTime() - start;
+        return meals / (elapsed / 1_000_000_000.0);
+    }
+
+    /**
+     * Прежняя схема: id выдаёт IDENTITY, поэтому каждая строка вставляется сразу
+     * отдельным запросом с возвратом id, без пакетов
+     */
+    private void insertWithIdentity(int entriesPerMeal) {
+        LocalDateTime eatenAt = LocalDateTime.now();
+        Long mealId = jdbcTemplate.queryForObject(
+                "INSERT INTO tbl_meals (daily_report_id, meal_type_id, eaten_at, user_id, eaten_date) " +
+                        "VALUES (?, ?, ?, ?, ?) RETURNING id",
+                Long.class, dailyReport.getId(), mealType.getId(), eatenAt,
+                dailyReport.getUser().getId(), eatenAt.toLocalDate());
+        for (int j = 0; j < entriesPerMeal; j++) {
+            MealEntry entry = new MealEntry(null, product, 100 + j);
+            jdbcTemplate.queryForObject(
+                    "INSERT INTO tbl_meal_entries (meal_id, product_id, quantity_grams, calculated_calories, " +
+                            "calculated_proteins, calculated_fats, calculated_carbs) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id",
+                    Long.class, mealId, product.getId(), entry.getQuantityGrams(), entry.getCalculatedCalories(),
+                    entry.getCalculatedProteins(), entry.getCalculatedFats(), entry.getCalculatedCarbs());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.daniil.NauJava.benchmark;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест сессий, хранимых в Redis, на нескольких экземплярах приложения за nginx.
+ * Каждый виртуальный пользователь один раз входит через форму, а затем запрашивает /api/products
+ * со своей сессией. Балансировщик раздаёт запросы по кругу, поэтому запрос, попавший на узел,
+ * который не видит сессию, получил бы редирект на /login - такие запросы считаются потерянными.
+ * Выводит пропускную способность, p50/p99 и число узлов, ответивших на запросы.
+ * Для проверки масштабирования тест запускается при 1, 2 и 4 экземплярах:
+ * docker compose -f docker-compose.yml -f docker-compose.scale.yml up -d --scale app=N
+ * mvn test -DskipTests=false -Dgroups=benchmark -Dtest=SessionScalingLoadTest -Dloadtest.instances=N
+ * Параметры: loadtest.baseUrl (http://localhost:8088), loadtest.users (64), loadtest.seconds (30),
+ * loadtest.login и loadtest.password (пользователь, создаваемый при первом запуске)
+ */
+@Tag("benchmark")
+class SessionScalingLoadTest {
+
+    private final String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8088");
+    private final int users = Integer.getInteger("loadtest.users", 64);
+    private final int seconds = Integer.getInteger("loadtest.seconds", 30);
+    private final int instances = Integer.getInteger("loadtest.instances", 1);
+    private final String login = System.getProperty("loadtest.login", "firstUser");
+    private final String password = System.getProperty("loadtest.password", "Password123!");
+
+    @Test
+    void authenticatedRequests_ShouldScaleAcrossInstancesWithoutLosingSessions() throws Exception {
+        List<HttpClient> clients = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            clients.add(login());
+        }
+
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong lostSessions = new AtomicLong();
+        Set<String> nodes = ConcurrentHashMap.newKeySet();
+        Map<Integer, long[]> latencies = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(users)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                int user = i;
+                HttpClient client = clients.get(i);
+                workers.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(URI.create(baseUrl + "/api/products")).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        recorder.add(System.nanoTime() - begin);
+                        response.headers().firstValue("X-Upstream-Node").ifPresent(nodes::add);
+                        if (response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            lostSessions.incrementAndGet();
+                        }
+                    }
+                    latencies.put(user, recorder.toArray());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        long[] all = latencies.values().stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("Экземпляров: %d, узлов ответило: %d, пользователей: %d%n", instances, nodes.size(), users);
+        System.out.printf("Успешных запросов: %d (%.1f в секунду), потеряно сессий: %d%n",
+                succeeded.get(), succeeded.get() / (double) seconds, lostSessions.get());
+        System.out.printf("Задержка p50: %.2f мс, p99: %.2f мс%n", percentile(all, 0.5), percentile(all, 0.99));
+
+        assertThat(lostSessions.get()).isZero();
+        assertThat(succeeded.get()).isPositive();
+    }
+
+    /**
+     * Входит через форму: получает CSRF-токен со страницы входа и отправляет логин и пароль
+     * @return клиент с cookie сессии
+     */
+    private HttpClient login() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpResponse<String> loginPage = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String csrfToken = Jsoup.parse(loginPage.body()).select("input[name=_csrf]").attr("value");
+
+        String form = "username=" + encode(login) + "&password=" + encode(password) + "&_csrf=" + encode(csrfToken);
+        HttpResponse<Void> loginResponse = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertThat(loginResponse.statusCode()).isEqualTo(302);
+        assertThat(loginResponse.headers().firstValue("Location")).hasValueSatisfying(
+                location -> assertThat(location).doesNotContain("error"));
+        return client;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(quantile * sorted.length))] / 1_000_000.0;
+    }
+
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
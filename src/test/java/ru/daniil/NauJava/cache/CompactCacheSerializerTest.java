@@ -0,0 +1,102 @@
+package ru.daniil.NauJava.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.daniil.NauJava.config.redis.codec.CompactCacheSerializer;
+import ru.daniil.NauJava.config.redis.codec.MealTypeListCodec;
+import ru.daniil.NauJava.config.redis.codec.ProductListCodec;
+import ru.daniil.NauJava.config.redis.listSerializators.ProductListSerializer;
+import ru.daniil.NauJava.entity.MealType;
+import ru.daniil.NauJava.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheSerializerTest {
+
+    private final ProductListSerializer jsonSerializer = new ProductListSerializer();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void productList_ShouldRoundTripIncludingNulls() {
+        CompactCacheSerializer<List<Product>> serializer =
+                new CompactCacheSerializer<>(new ProductListCodec(), List.class, jsonSerializer, 4096);
+        Product apple = new Product("Яблоко", 52.0, 0.3, 0.2, 14.0);
+        apple.setId(10L);
+        Product unsaved = new Product("Банан", 89.0, null, 0.3, 23.0);
+        Product older = new Product(null, 1.0, 2.0, 3.0, 4.0);
+        older.setId(3L);
+
+        List<Product> result = (List<Product>) serializer.deserialize(
+                serializer.serialize(List.of(apple, unsaved, older)));
+
+        assertEquals(3, result.size());
+        assertEquals(10L, result.get(0).getId());
+        assertEquals("Яблоко", result.get(0).getName());
+        assertEquals(14.0, result.get(0).getCarbsPer100g());
+        assertNull(result.get(1).getId());
+        assertNull(result.get(1).getProteinsPer100g());
+        assertEquals(89.0, result.get(1).getCaloriesPer100g());
+        assertEquals(3L, result.get(2).getId());
+        assertNull(result.get(2).getName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void largeList_ShouldBeCompressedAndSmallerThanJson() {
+        CompactCacheSerializer<List<Product>> serializer =
+                new CompactCacheSerializer<>(new ProductListCodec(), List.class, jsonSerializer, 1024);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Product product = new Product("Продукт " + i, 100.0, 10.0, 5.0, 20.0);
+            product.setId((long) i);
+            products.add(product);
+        }
+
+        byte[] bytes = serializer.serialize(products);
+        List<Product> result = (List<Product>) serializer.deserialize(bytes);
+
+        assertTrue(bytes.length < jsonSerializer.serialize(products).length / 4);
+        assertEquals(1000, result.size());
+        assertEquals("Продукт 999", result.get(999).getName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void legacyJsonEntry_ShouldStillBeReadable() {
+        CompactCacheSerializer<List<Product>> serializer =
+                new CompactCacheSerializer<>(new ProductListCodec(), List.class, jsonSerializer, 4096);
+        Product apple = new Product("Яблоко", 52.0, 0.3, 0.2, 14.0);
+        apple.setId(10L);
+
+        List<Product> result = (List<Product>) serializer.deserialize(jsonSerializer.serialize(List.of(apple)));
+
+        assertEquals("Яблоко", result.get(0).getName());
+    }
+
+    @Test
+    void entryOfOtherVersion_ShouldBeTreatedAsMiss() {
+        CompactCacheSerializer<List<MealType>> serializer =
+                new CompactCacheSerializer<>(new MealTypeListCodec(), List.class, null, 4096);
+        byte[] bytes = serializer.serialize(List.of(new MealType("Завтрак", "Первый прием пищи")));
+        bytes[1] = 99;
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mealTypes_ShouldRoundTrip() {
+        CompactCacheSerializer<List<MealType>> serializer =
+                new CompactCacheSerializer<>(new MealTypeListCodec(), List.class, null, 4096);
+        MealType breakfast = new MealType("Завтрак", null);
+        breakfast.setId(1L);
+
+        List<MealType> result = (List<MealType>) serializer.deserialize(serializer.serialize(List.of(breakfast)));
+
+        assertEquals(1L, result.get(0).getId());
+        assertEquals("Завтрак", result.get(0).getName());
+        assertNull(result.get(0).getDescription());
+    }
+}
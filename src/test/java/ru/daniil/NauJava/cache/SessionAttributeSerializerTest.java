@@ -0,0 +1,86 @@
+package ru.daniil.NauJava.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import ru.daniil.NauJava.config.redis.codec.SessionAttributeSerializer;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionAttributeSerializerTest {
+
+    private final SessionAttributeSerializer serializer =
+            new SessionAttributeSerializer(getClass().getClassLoader());
+
+    @Test
+    void sessionMetadata_ShouldRoundTripKeepingTypes() {
+        Object creationTime = serializer.deserialize(serializer.serialize(1_760_000_000_000L));
+        Object maxInactiveInterval = serializer.deserialize(serializer.serialize(1800));
+
+        assertEquals(1_760_000_000_000L, creationTime);
+        assertEquals(1800, maxInactiveInterval);
+        assertTrue(serializer.serialize(1_760_000_000_000L).length <= 8);
+    }
+
+    @Test
+    void securityContext_ShouldRoundTripPrincipalAndAuthorities() {
+        SecurityContext context = context(new AuthenticatedUser(7L, "testUser",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        SecurityContext result = (SecurityContext) serializer.deserialize(serializer.serialize(context));
+
+        AuthenticatedUser principal = (AuthenticatedUser) result.getAuthentication().getPrincipal();
+        assertTrue(result.getAuthentication().isAuthenticated());
+        assertEquals(7L, principal.getId());
+        assertEquals("testUser", principal.getLogin());
+        assertTrue(principal.hasRole("ADMIN"));
+        assertEquals(2, result.getAuthentication().getAuthorities().size());
+    }
+
+    @Test
+    void securityContext_ShouldBeMuchSmallerThanJavaSerialization() {
+        SecurityContext context = context(new AuthenticatedUser(7L, "testUser",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        int compact = serializer.serialize(context).length;
+        int java = new JdkSerializationRedisSerializer().serialize(context).length;
+
+        assertTrue(compact * 10 < java, "compact=" + compact + ", java=" + java);
+    }
+
+    @Test
+    void securityContext_WhenPrincipalHasNoId_ShouldKeepNull() {
+        SecurityContext context = context(new AuthenticatedUser(null, "legacy", List.of()));
+
+        SecurityContext result = (SecurityContext) serializer.deserialize(serializer.serialize(context));
+
+        assertNull(((AuthenticatedUser) result.getAuthentication().getPrincipal()).getId());
+    }
+
+    @Test
+    void otherAttributes_ShouldUseJavaSerialization() {
+        DefaultCsrfToken token = new DefaultCsrfToken("X-XSRF-TOKEN", "_csrf", "token-value");
+
+        DefaultCsrfToken result = (DefaultCsrfToken) serializer.deserialize(serializer.serialize(token));
+
+        assertEquals("token-value", result.getToken());
+    }
+
+    @Test
+    void emptyValue_ShouldDeserializeToNull() {
+        assertNull(serializer.deserialize(new byte[0]));
+        assertNull(serializer.deserialize(null));
+    }
+
+    private static SecurityContext context(AuthenticatedUser principal) {
+        return new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+}
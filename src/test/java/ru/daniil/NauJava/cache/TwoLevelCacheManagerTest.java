@@ -0,0 +1,148 @@
+package ru.daniil.NauJava.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.daniil.NauJava.config.cache.NearCacheSpec;
+import ru.daniil.NauJava.config.cache.TwoLevelCacheManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("user-products");
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager,
+                Map.of("user-products", new NearCacheSpec(100, Duration.ofMinutes(5))),
+                new NearCacheSpec(10, Duration.ofMinutes(1)),
+                redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void get_WhenOnlyInRedis_ShouldLoadIntoLocalLevel() {
+        remoteCacheManager.getCache("user-products").put("products:1", "value");
+        Cache cache = cacheManager.getCache("user-products");
+
+        assertEquals("value", cache.get("products:1").get());
+        remoteCacheManager.getCache("user-products").evict("products:1");
+        assertEquals("value", cache.get("products:1").get());
+
+        assertEquals(1.0, counter("l2", "hit"));
+        assertEquals(1.0, counter("l1", "hit"));
+    }
+
+    @Test
+    void get_WhenMissingEverywhere_ShouldReturnNullAndCountMisses() {
+        Cache cache = cacheManager.getCache("user-products");
+
+        assertNull(cache.get("products:1"));
+        assertEquals(1.0, counter("l1", "miss"));
+        assertEquals(1.0, counter("l2", "miss"));
+    }
+
+    @Test
+    void getWithLoader_ShouldLoadEachKeyOnceWithoutBlockingOtherKeys() throws Exception {
+        Cache cache = cacheManager.getCache("user-products");
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowLoad = new CountDownLatch(1);
+        AtomicInteger slowLoads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Callable<String> slowLoader = () -> {
+                slowLoads.incrementAndGet();
+                slowLoadStarted.countDown();
+                assertTrue(releaseSlowLoad.await(5, TimeUnit.SECONDS));
+                return "slow";
+            };
+            Future<String> first = executor.submit(() -> cache.get("products:1", slowLoader));
+            assertTrue(slowLoadStarted.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get("products:1", slowLoader));
+
+            Future<String> other = executor.submit(() -> cache.get("products:2", () -> "fast"));
+            assertEquals("fast", other.get(5, TimeUnit.SECONDS));
+
+            releaseSlowLoad.countDown();
+            assertEquals("slow", first.get(5, TimeUnit.SECONDS));
+            assertEquals("slow", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, slowLoads.get());
+            assertEquals("slow", remoteCacheManager.getCache("user-products").get("products:1").get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void evict_ShouldRemoveBothLevelsAndNotifyOtherNodes() {
+        Cache cache = cacheManager.getCache("user-products");
+        cache.put("products:1", "value");
+
+        cache.evict("products:1");
+
+        assertNull(cache.get("products:1"));
+        assertNull(remoteCacheManager.getCache("user-products").get("products:1"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith("|user-products|products:1"));
+    }
+
+    @Test
+    void handleInvalidation_FromOtherNode_ShouldDropOnlyLocalCopy() {
+        Cache cache = cacheManager.getCache("user-products");
+        cache.put("products:1", "value");
+        remoteCacheManager.getCache("user-products").put("products:1", "fresh");
+
+        cacheManager.handleInvalidation("other-node|user-products|products:1");
+
+        assertEquals("fresh", cache.get("products:1").get());
+    }
+
+    @Test
+    void handleInvalidation_OwnMessage_ShouldBeIgnored() {
+        Cache cache = cacheManager.getCache("user-products");
+        cache.put("products:1", "value");
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(anyString(), message.capture());
+        remoteCacheManager.getCache("user-products").put("products:1", "fresh");
+
+        cacheManager.handleInvalidation(message.getValue());
+
+        assertEquals("value", cache.get("products:1").get());
+    }
+
+    private double counter(String level, String result) {
+        return meterRegistry.get("cache.level.gets")
+                .tags("cache", "user-products", "level", level, "result", result)
+                .functionCounter()
+                .count();
+    }
+}
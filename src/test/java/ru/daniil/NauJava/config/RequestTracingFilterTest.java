@@ -0,0 +1,85 @@
+package ru.daniil.NauJava.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestTracingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestTracingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestTracingFilter(meterRegistry);
+        ReflectionTestUtils.setField(filter, "excludedPrefixes", List.of("/css/", "/js/"));
+        ReflectionTestUtils.setField(filter, "slowRequestMs", 1000L);
+    }
+
+    @Test
+    void doFilter_ShouldPassOriginalResponseAndRecordEndpointTimer() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            assertThat(res).isSameAs(response);
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/{id}");
+            ((MockHttpServletResponse) res).setStatus(201);
+        };
+
+        filter.doFilter(request, response, chain);
+
+        Timer timer = meterRegistry.get("app.http.requests")
+                .tags("method", "GET", "uri", "/api/products/{id}", "status", "201")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WhenStaticAsset_ShouldSkipTracing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/css/style.css");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(meterRegistry.find("app.http.requests").timers()).isEmpty();
+    }
+
+    @Test
+    void doFilter_WhenChainThrows_ShouldRecordServerError() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/meals");
+
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("app.http.requests").tags("uri", "UNKNOWN", "status", "500")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WhenAsyncStarted_ShouldRecordOnCompletion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/export/meals");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        assertThat(meterRegistry.find("app.http.requests").timers()).isEmpty();
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(meterRegistry.get("app.http.requests").tags("status", "200").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.daniil.NauJava.config.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
+import ru.daniil.NauJava.entity.Role;
+import ru.daniil.NauJava.entity.User;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenProvider = new JwtTokenProvider(meterRegistry);
+        ReflectionTestUtils.setField(jwtTokenProvider, "base64Secret",
+                Base64.getEncoder().encodeToString(new byte[64]));
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxTtl", Duration.ofMinutes(5));
+        jwtTokenProvider.init();
+
+        user = new User("admin@mail.ru", "admin", "password");
+        user.setId(1L);
+        user.addRole(new Role("ADMIN", "Администратор"));
+    }
+
+    @Test
+    void authenticate_WhenTokenValid_ShouldReturnPrincipalWithAuthorities() {
+        String token = jwtTokenProvider.generateTokenFromUser(user);
+
+        Optional<Authentication> authentication = jwtTokenProvider.authenticate(token);
+
+        assertThat(authentication).isPresent();
+        assertThat(authentication.get().getName()).isEqualTo("admin");
+        assertThat(authentication.get().getPrincipal())
+                .isInstanceOfSatisfying(AuthenticatedUser.class, principal -> {
+                    assertThat(principal.getId()).isEqualTo(1L);
+                    assertThat(principal.hasRole("ADMIN")).isTrue();
+                });
+        assertThat(authentication.get().getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void authenticate_WhenSameTokenRepeated_ShouldVerifySignatureOnce() {
+        String token = jwtTokenProvider.generateTokenFromUser(user);
+
+        Authentication first = jwtTokenProvider.authenticate(token).orElseThrow();
+        Authentication second = jwtTokenProvider.authenticate(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("jwt.verification").tag("result", "valid").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void authenticate_WhenSignatureForged_ShouldReturnEmpty() {
+        String token = jwtTokenProvider.generateTokenFromUser(user);
+        String forged = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        assertThat(jwtTokenProvider.authenticate(forged)).isEmpty();
+        assertThat(meterRegistry.get("jwt.verification").tag("result", "invalid").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void authenticate_WhenTokenMalformed_ShouldReturnEmpty() {
+        assertThat(jwtTokenProvider.authenticate("not-a-token")).isEmpty();
+    }
+
+    @Test
+    void parseClaims_WhenTokenValid_ShouldReturnSubjectAndExpiration() {
+        String token = jwtTokenProvider.generateTokenFromUser(user);
+
+        assertThat(jwtTokenProvider.parseClaims(token)).hasValueSatisfying(claims -> {
+            assertThat(claims.getSubject()).isEqualTo("admin");
+            assertThat(claims.getExpiration()).isInTheFuture();
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package ru.daniil.NauJava.controller.product;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.ModelAndView;
+import ru.daniil.NauJava.entity.Product;
+import ru.daniil.NauJava.service.ProductService;
+import ru.daniil.NauJava.service.UserService;
+import ru.daniil.NauJava.service.catalog.MergedProductList;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductViewControllerTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private ProductViewController productViewController;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void productListView_WhenGlobalAndOwnProducts_ShouldRenderSortedList() {
+        List<Product> catalog = List.of(product(5L, "Рис"), product(1L, "Яблоко"));
+        List<Product> own = List.of(product(3L, "Мой салат"));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(1L));
+        when(productService.getAll(1L)).thenReturn(new MergedProductList(catalog, own));
+
+        ModelAndView result = productViewController.productListView();
+
+        assertThat(result.getViewName()).isEqualTo("products");
+        assertThat((List<Product>) result.getModel().get("products"))
+                .extracting(Product::getId)
+                .containsExactly(1L, 3L, 5L);
+        assertThat(result.getModel().get("totalCount")).isEqualTo(3L);
+    }
+
+    private Product product(Long id, String name) {
+        Product product = new Product(name, 100.0, 10.0, 5.0, 12.0);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.daniil.NauJava.migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.daniil.NauJava.entity.*;
+import ru.daniil.NauJava.repository.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет переход на Flyway для базы, созданной ещё через ddl-auto и уже заполненной данными:
+ * V1 пропускается (baseline-on-migrate), остальные миграции применяются поверх существующих строк,
+ * после чего новые записи через JPA получают id из последовательностей без конфликтов с прежними
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class BaselinedSchemaMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    private static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    // Строк в каждой таблице больше, чем шаг последовательностей, чтобы первый блок id пересекался с ними
+    private static final int EXISTING_ROWS = 120;
+
+    private static boolean populated;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DailyReportRepository dailyReportRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private MealEntryRepository mealEntryRepository;
+
+    @Autowired
+    private MealTypeRepository mealTypeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        // Схема V1 с данными создаётся до того, как Flyway в контексте приложения увидит базу
+        registry.add("spring.datasource.url", () -> {
+            populateLegacySchema();
+            return postgres.getJdbcUrl();
+        });
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("SPRING_REDIS_HOST", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Test
+    void insertThroughJpa_AfterBaseline_ShouldNotReuseExistingIds() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByLogin("legacyUser").orElseThrow();
+            MealType mealType = mealTypeRepository.findByName("Legacy").orElseThrow();
+
+            Product product = productRepository.save(new Product("New product", 100.0, 10.0, 5.0, 12.0));
+            DailyReport dailyReport = dailyReportRepository.save(new DailyReport(user, LocalDate.of(2030, 1, 1)));
+            Meal meal = mealRepository.save(new Meal(dailyReport, mealType));
+            MealEntry entry = mealEntryRepository.save(new MealEntry(meal, product, 150));
+
+            assertThat(product.getId()).isGreaterThan(EXISTING_ROWS);
+            assertThat(dailyReport.getId()).isGreaterThan(EXISTING_ROWS);
+            assertThat(meal.getId()).isGreaterThan(EXISTING_ROWS);
+            assertThat(entry.getId()).isGreaterThan(EXISTING_ROWS);
+        });
+
+        assertThat(productRepository.count()).isEqualTo(EXISTING_ROWS + 1);
+        assertThat(mealEntryRepository.count()).isEqualTo(EXISTING_ROWS + 1);
+    }
+
+    /**
+     * Воспроизводит базу до Flyway: схема V1 без истории миграций
+     * и по {@link #EXISTING_ROWS} строк с id от IDENTITY в таблицах, перешедших на последовательности
+     */
+    private static synchronized void populateLegacySchema() {
+        if (populated) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(new ClassPathResource("db/migration/V1__baseline_schema.sql")
+                    .getContentAsString(StandardCharsets.UTF_8));
+            statement.execute("INSERT INTO tbl_user (email, login, password) " +
+                    "VALUES ('legacy@example.com', 'legacyUser', 'x')");
+            statement.execute("INSERT INTO tbl_meal_type (name, description) VALUES ('Legacy', 'До Flyway')");
+            statement.execute("INSERT INTO tbl_product (name, calories_per_100g, proteins_per_100g, " +
+                    "fats_per_100g, carbs_per_100g) " +
+                    "SELECT 'Product ' || g, 100, 10, 5, 12 FROM generate_series(1, " + EXISTING_ROWS + ") g");
+            statement.execute("INSERT INTO tbl_daily_report (user_id, report_date) " +
+                    "SELECT u.id, DATE '2020-01-01' + g FROM tbl_user u, generate_series(1, " + EXISTING_ROWS + ") g");
+            statement.execute("INSERT INTO tbl_meals (daily_report_id, meal_type_id, eaten_at) " +
+                    "SELECT d.id, t.id, d.report_date + TIME '12:00' FROM tbl_daily_report d, tbl_meal_type t");
+            statement.execute("INSERT INTO tbl_meal_entries (meal_id, product_id, quantity_grams) " +
+                    "SELECT m.id, m.id, 100 FROM tbl_meals m");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось подготовить базу до Flyway", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        populated = true;
+    }
+}
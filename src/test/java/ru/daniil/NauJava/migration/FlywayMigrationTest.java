@@ -0,0 +1,156 @@
+package ru.daniil.NauJava.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.daniil.NauJava.service.scheduler.ClusterJobLock;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Прогоняет миграции Flyway на чистом Postgres в контейнере
+ * и проверяет, что схема и индексы созданы так, как ожидают запросы приложения
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class FlywayMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void migrate_ShouldCreateActivityIndexes() throws SQLException {
+        List<String> indexes = queryStrings(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = 'public'");
+
+        assertThat(indexes).contains(
+                "idx_daily_report_user_date",
+                "idx_meals_user_eaten_at",
+                "idx_meals_eaten_at_user",
+                "idx_user_created_at",
+                "idx_product_created_at",
+                "idx_product_owner_lower_name");
+    }
+
+    @Test
+    void migrate_ShouldAddDenormalizedColumnsToMeals() throws SQLException {
+        List<String> columns = queryStrings(
+                "SELECT column_name FROM information_schema.columns WHERE table_name = 'tbl_meals'");
+
+        assertThat(columns).contains("user_id", "eaten_date");
+    }
+
+    @Test
+    void migrate_ShouldCreatePooledSequences() throws SQLException {
+        List<String> increments = queryStrings(
+                "SELECT CAST(increment_by AS VARCHAR) FROM pg_sequences WHERE sequencename LIKE 'tbl_%_seq'");
+
+        assertThat(increments).hasSize(4).containsOnly("50");
+    }
+
+    @Test
+    void activeUsersQuery_ShouldUseMealsIndex() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("EXPLAIN SELECT COUNT(DISTINCT user_id) " +
+                    "FROM tbl_meals WHERE eaten_at >= now() - interval '1 day'")) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            }
+
+            assertThat(String.join("\n", plan)).contains("idx_meals_eaten_at_user");
+        }
+    }
+
+    @Test
+    void mealInsert_ShouldMoveUserLastActivityForwardOnly() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO tbl_user (id, email, login, password) " +
+                    "VALUES (900, 'activity@example.com', 'activityUser', 'x')");
+            statement.execute("INSERT INTO tbl_meals (user_id, eaten_at) VALUES (900, '2025-03-02 10:00')");
+            statement.execute("INSERT INTO tbl_meals (user_id, eaten_at) VALUES (900, '2025-03-01 10:00')");
+        }
+
+        assertThat(queryStrings("SELECT CAST(last_activity_at AS VARCHAR) FROM tbl_user WHERE id = 900"))
+                .containsExactly("2025-03-02 10:00:00");
+    }
+
+    @Test
+    void activeUsersPageQuery_ShouldUseLastActivityIndex() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("EXPLAIN SELECT id FROM tbl_user " +
+                    "WHERE last_activity_at IS NOT NULL " +
+                    "AND (last_activity_at, id) < (TIMESTAMP '2025-03-01 00:00', 100) " +
+                    "ORDER BY last_activity_at DESC, id DESC LIMIT 20")) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            }
+
+            assertThat(String.join("\n", plan)).contains("idx_user_last_activity");
+        }
+    }
+
+    @Test
+    void runOncePerSlot_ShouldRunJobOncePerSlotAndRetryAfterFailure() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        ClusterJobLock clusterJobLock = new ClusterJobLock(dataSource, new DataSourceTransactionManager(dataSource));
+        LocalDate slot = LocalDate.of(2025, 3, 1);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> clusterJobLock.runOncePerSlot("test-job", slot, () -> {
+            throw new IllegalStateException("сбой задачи");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(clusterJobLock.runOncePerSlot("test-job", slot, runs::incrementAndGet)).isTrue();
+        assertThat(clusterJobLock.runOncePerSlot("test-job", slot, runs::incrementAndGet)).isFalse();
+        assertThat(clusterJobLock.runOncePerSlot("test-job", slot.plusDays(1), runs::incrementAndGet)).isTrue();
+        assertThat(runs).hasValue(2);
+    }
+
+    private List<String> queryStrings(String sql) throws SQLException {
+        List<String> result = new ArrayList<>();
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                result.add(rs.getString(1));
+            }
+        }
+        return result;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -74,6 +74,26 @@ class MealRepositoryTest {
         assertThat(meals).isEmpty();
     }
 
+    @Test
+    void save_ShouldFillDenormalizedUserAndDate() {
+        assertThat(testMeal.getUserId()).isEqualTo(testUser.getId());
+        assertThat(testMeal.getEatenDate()).isEqualTo(testMeal.getEatenAt().toLocalDate());
+    }
+
+    @Test
+    void findWithEntriesByDailyReportId_ShouldReturnMealsWithLoadedAssociations() {
+        List<Meal> meals = mealRepository.findWithEntriesByDailyReportId(dailyReport.getId());
+
+        assertThat(meals).hasSize(1);
+        assertThat(meals.get(0).getMealType()).isEqualTo("Breakfast");
+        assertThat(meals.get(0).getMealEntries()).isEmpty();
+    }
+
+    @Test
+    void findWithEntriesById_WhenNotExists_ShouldReturnEmpty() {
+        assertThat(mealRepository.findWithEntriesById(999L)).isEmpty();
+    }
+
     @Test
     void findByDailyReportUserIdAndDailyReportReportDate_WhenExists_ShouldReturnList() {
         List<Meal> meals = mealRepository.findByDailyReportUserIdAndDailyReportReportDate(
@@ -11,6 +11,8 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.daniil.NauJava.entity.Report;
 import ru.daniil.NauJava.enums.ReportStatus;
 import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.repository.projection.ReportKeyView;
+import ru.daniil.NauJava.repository.projection.ReportSummaryView;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -104,8 +106,8 @@ class ReportRepositoryTest {
     }
 
     @Test
-    void findByReportPeriodStartAndReportPeriodEnd_WhenExists_ShouldReturnReport() {
-        Optional<Report> report = reportRepository.findByReportPeriodStartAndReportPeriodEnd(
+    void findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc_WhenExists_ShouldReturnReport() {
+        Optional<Report> report = reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(
                 LocalDate.now().minusDays(7),
                 LocalDate.now()
         );
@@ -116,8 +118,8 @@ class ReportRepositoryTest {
     }
 
     @Test
-    void findByReportPeriodStartAndReportPeriodEnd_WhenNotExists_ShouldReturnEmpty() {
-        Optional<Report> report = reportRepository.findByReportPeriodStartAndReportPeriodEnd(
+    void findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc_WhenNotExists_ShouldReturnEmpty() {
+        Optional<Report> report = reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(
                 LocalDate.now().minusDays(30),
                 LocalDate.now().minusDays(20)
         );
@@ -150,6 +152,29 @@ class ReportRepositoryTest {
         assertThat(page.getTotalPages()).isEqualTo(1);
     }
 
+    @Test
+    void findPageKeysAfter_ShouldContinueFromLastKey() {
+        List<ReportKeyView> first = reportRepository.findPageKeys(PageRequest.of(0, 1));
+        ReportKeyView last = first.get(0);
+
+        List<ReportKeyView> next = reportRepository.findPageKeysAfter(
+                last.getCreatedAt(), last.getId(), PageRequest.of(0, 10));
+
+        assertThat(first).hasSize(1);
+        assertThat(next).hasSize(1);
+        assertThat(next.get(0).getId()).isNotEqualTo(last.getId());
+    }
+
+    @Test
+    void findSummariesByIdIn_ShouldReturnReportsWithoutContent() {
+        List<ReportSummaryView> summaries = reportRepository.findSummariesByIdIn(
+                List.of(todayReport.getId(), yesterdayReport.getId()));
+
+        assertThat(summaries).hasSize(2);
+        assertThat(summaries).extracting(ReportSummaryView::getStatus)
+                .containsExactlyInAnyOrder(ReportStatus.COMPLETED, ReportStatus.ERROR);
+    }
+
     @Test
     void saveReport_WithNullPeriodStart_ShouldThrowException() {
         Report report = new Report();
@@ -0,0 +1,104 @@
+package ru.daniil.NauJava.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.daniil.NauJava.enums.ExportFormat;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MealExportServiceTest {
+
+    private static final LocalDateTime BREAKFAST = LocalDateTime.of(2025, 3, 1, 8, 30);
+    private static final LocalDateTime LUNCH = LocalDateTime.of(2025, 3, 1, 13, 0);
+
+    private MealExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = spy(new MealExportServiceImpl(mock(DataSource.class),
+                mock(PlatformTransactionManager.class), 100, 2, 1));
+    }
+
+    @Test
+    void export_Csv_ShouldWriteAllBatchesAndEscapeValues() throws IOException {
+        MealExportServiceImpl.Cursor second = new MealExportServiceImpl.Cursor(LUNCH, 2L);
+        doReturn(new MealExportServiceImpl.Batch(List.of(
+                new MealExportRow(1L, 10L, 5L, "user", BREAKFAST, "Завтрак", "Каша, овсяная",
+                        200, 176.0, 6.0, 3.2, 30.0)), second))
+                .when(exportService).readBatch(any(), any());
+        doReturn(new MealExportServiceImpl.Batch(List.of(
+                new MealExportRow(3L, 11L, null, null, LUNCH, null, "Сок \"Яблочный\"",
+                        null, null, null, null, null)), null))
+                .when(exportService).readBatch(eq(second), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 1),
+                ExportFormat.CSV, out);
+
+        String[] lines = gunzip(out).split("\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("meal_id,entry_id,user_id"));
+        assertEquals("1,10,5,user,2025-03-01T08:30:00,Завтрак,\"Каша, овсяная\",200,176.0,6.0,3.2,30.0", lines[1]);
+        assertEquals("3,11,,,2025-03-01T13:00:00,,\"Сок \"\"Яблочный\"\"\",,,,,", lines[2]);
+        verify(exportService, times(2)).readBatch(any(), eq(LocalDateTime.of(2025, 3, 2, 0, 0)));
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneObjectPerLine() throws IOException {
+        doReturn(new MealExportServiceImpl.Batch(List.of(
+                new MealExportRow(1L, 10L, 5L, "user", BREAKFAST, "Завтрак", "Каша",
+                        200, 176.0, 6.0, 3.2, 30.0),
+                new MealExportRow(1L, 12L, 5L, "user", BREAKFAST, "Завтрак", "Чай",
+                        null, null, null, null, null)), null))
+                .when(exportService).readBatch(any(), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 1),
+                ExportFormat.NDJSON, out);
+
+        String[] lines = gunzip(out).split("\n");
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        JsonNode second = mapper.readTree(lines[1]);
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertEquals("Каша", first.get("product").asText());
+        assertEquals(200, first.get("grams").asInt());
+        assertEquals("2025-03-01T08:30:00", first.get("eatenAt").asText());
+        assertEquals(12L, second.get("entryId").asLong());
+        assertTrue(second.get("grams").isNull());
+    }
+
+    @Test
+    void slots_ShouldLimitConcurrentExports() {
+        assertTrue(exportService.tryAcquireSlot());
+        assertFalse(exportService.tryAcquireSlot());
+
+        exportService.releaseSlot();
+
+        assertTrue(exportService.tryAcquireSlot());
+    }
+
+    private static String gunzip(ByteArrayOutputStream out) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -11,24 +11,27 @@ import ru.daniil.NauJava.entity.ActivityLevel;
 import ru.daniil.NauJava.entity.NutritionGoal;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.entity.UserProfile;
+import ru.daniil.NauJava.repository.UserRepository;
 import ru.daniil.NauJava.response.UserDetailsResponse;
 import ru.daniil.NauJava.response.UsersListResponse;
+import ru.daniil.NauJava.response.UsersPageResponse;
 import ru.daniil.NauJava.response.UsersStatisticsResponse;
 import ru.daniil.NauJava.service.MealService;
 import ru.daniil.NauJava.service.UserProfileService;
 import ru.daniil.NauJava.service.UserService;
 import ru.daniil.NauJava.service.admin.AdminServiceImpl;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +46,9 @@ class AdminServiceTest {
     @Mock
     private MealService mealService;
 
+    @Mock
+    private UserRepository userRepository;
+
     @InjectMocks
     private AdminServiceImpl adminService;
 
@@ -101,65 +107,96 @@ class AdminServiceTest {
     }
 
     @Test
-    void getUsersWithLastActivity_Success() {
-        List<User> users = Arrays.asList(user1, user2);
-        when(userService.findAllUsers()).thenReturn(users);
-        when(userProfileService.getUserProfileByUser(user1)).thenReturn(profile1);
-        when(userProfileService.getUserProfileByUser(user2)).thenReturn(profile2);
-        when(userProfileService.formatFIO(profile1)).thenReturn("Иванов Иван Иванович");
-        when(userProfileService.formatFIO(profile2)).thenReturn("Петров Петр");
-
+    void getUsersPage_FirstPage_ShouldMapRowsAndReturnCursor() {
         LocalDateTime lastActivity1 = LocalDateTime.now().minusHours(2);
         LocalDateTime lastActivity2 = LocalDateTime.now().minusHours(1);
-        when(mealService.getLastMealActivityByUserId(1L)).thenReturn(lastActivity1);
-        when(mealService.getLastMealActivityByUserId(2L)).thenReturn(lastActivity2);
-        when(userProfileService.getLastProfileUpdate(1L)).thenReturn(lastActivity1.minusDays(1));
-        when(userProfileService.getLastProfileUpdate(2L)).thenReturn(lastActivity2.minusDays(1));
-
-        List<UsersListResponse> result = adminService.getUsersWithLastActivity();
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{2L, "user2", "user2@test.com", 2L, "Петр", "Петров", null, 3, Timestamp.valueOf(lastActivity2)},
+                new Object[]{1L, "user1", "user1@test.com", 1L, "Иван", "Иванов", "Иванович", 5, Timestamp.valueOf(lastActivity1)},
+                new Object[]{4L, "user4", "user4@test.com", null, null, null, null, null, Timestamp.valueOf(lastActivity1)}
+        );
+        when(userRepository.findActiveUsersPage(any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(rows);
+        when(userProfileService.formatFIO(any(UserProfile.class))).thenReturn("Петров П.", "Иванов И.И.");
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
+        UsersPageResponse result = adminService.getUsersPage(null, 2);
 
-        UsersListResponse response1 = result.get(0);
+        assertEquals(2, result.getUsers().size());
+        UsersListResponse response1 = result.getUsers().get(0);
         assertEquals("user2", response1.getLogin());
         assertEquals("user2@test.com", response1.getEmail());
-        assertEquals("Петров Петр", response1.getFio());
+        assertEquals("Петров П.", response1.getFio());
         assertEquals(3, response1.getStreak());
-        assertNotNull(response1.getLastActivity());
-
-        UsersListResponse response2 = result.get(1);
-        assertEquals("user1", response2.getLogin());
-        assertEquals("user1@test.com", response2.getEmail());
-        assertEquals("Иванов Иван Иванович", response2.getFio());
-        assertEquals(5, response2.getStreak());
-        assertNotNull(response2.getLastActivity());
-
-        verify(userService, times(1)).findAllUsers();
-        verify(userProfileService, times(2)).getUserProfileByUser(any(User.class));
+        assertEquals(lastActivity2, LocalDateTime.parse(response1.getLastActivity(), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        assertEquals("user1", result.getUsers().get(1).getLogin());
+        assertTrue(result.isHasMore());
+        assertNotNull(result.getNextCursor());
+
+        verify(userRepository, never()).findInactiveUsersPage(anyLong(), anyInt());
+        verify(userService, never()).findAllUsers();
+        verify(mealService, never()).getLastMealActivityByUserId(anyLong());
     }
 
     @Test
-    void getUsersWithLastActivity_OrderByLastActivityDesc() {
-        List<User> users = Arrays.asList(user1, user2);
-        when(userService.findAllUsers()).thenReturn(users);
-        when(userProfileService.getUserProfileByUser(user1)).thenReturn(profile1);
-        when(userProfileService.getUserProfileByUser(user2)).thenReturn(profile2);
-
-        LocalDateTime recentActivity = LocalDateTime.now().minusHours(1);
-        LocalDateTime olderActivity = LocalDateTime.now().minusDays(2);
-        when(mealService.getLastMealActivityByUserId(1L)).thenReturn(recentActivity);
-        when(mealService.getLastMealActivityByUserId(2L)).thenReturn(olderActivity);
-        when(userProfileService.getLastProfileUpdate(anyLong())).thenReturn(null);
+    void getUsersPage_NextPage_ShouldPassCursorOfLastRow() {
+        LocalDateTime lastActivity = LocalDateTime.of(2025, 3, 1, 12, 30, 15);
+        when(userRepository.findActiveUsersPage(any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(2)))
+                .thenReturn(Arrays.asList(
+                        new Object[]{7L, "user7", "user7@test.com", 7L, "Иван", "Иванов", null, 1, lastActivity},
+                        new Object[]{5L, "user5", "user5@test.com", 5L, "Петр", "Петров", null, 0, lastActivity}
+                ));
+        when(userRepository.findActiveUsersPage(lastActivity, 7L, 2))
+                .thenReturn(Collections.emptyList());
+        when(userProfileService.formatFIO(any(UserProfile.class))).thenReturn("Иванов И.");
+
+        String cursor = adminService.getUsersPage(null, 1).getNextCursor();
+        adminService.getUsersPage(cursor, 1);
+
+        verify(userRepository).findActiveUsersPage(lastActivity, 7L, 2);
+        verify(userRepository).findInactiveUsersPage(Long.MAX_VALUE, 2);
+    }
 
-        List<UsersListResponse> result = adminService.getUsersWithLastActivity();
+    @Test
+    void getUsersPage_WhenActiveUsersRunOut_ShouldContinueWithInactiveUsers() {
+        LocalDateTime lastActivity = LocalDateTime.of(2025, 3, 1, 12, 30, 15);
+        when(userRepository.findActiveUsersPage(any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(Collections.singletonList(
+                        new Object[]{7L, "user7", "user7@test.com", null, null, null, null, null, lastActivity}));
+        when(userRepository.findInactiveUsersPage(Long.MAX_VALUE, 2))
+                .thenReturn(Arrays.asList(
+                        new Object[]{6L, "user6", "user6@test.com", null, null, null, null, null, null},
+                        new Object[]{3L, "user3", "user3@test.com", null, null, null, null, null, null}));
+        when(userRepository.findInactiveUsersPage(6L, 3)).thenReturn(Collections.emptyList());
+
+        UsersPageResponse first = adminService.getUsersPage(null, 2);
+        UsersPageResponse second = adminService.getUsersPage(first.getNextCursor(), 2);
+
+        assertEquals(List.of("user7", "user6"), first.getUsers().stream().map(UsersListResponse::getLogin).toList());
+        assertTrue(first.isHasMore());
+        assertTrue(second.getUsers().isEmpty());
+        verify(userRepository, times(1)).findActiveUsersPage(any(LocalDateTime.class), anyLong(), anyInt());
+    }
 
-        assertEquals(2, result.size());
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-        LocalDateTime firstActivity = LocalDateTime.parse(result.get(0).getLastActivity(), formatter);
-        LocalDateTime secondActivity = LocalDateTime.parse(result.get(1).getLastActivity(), formatter);
+    @Test
+    void getUsersPage_UserWithoutProfile_ShouldUseDefaults() {
+        List<Object[]> rows = Collections.singletonList(
+                new Object[]{3L, "user3", "user3@test.com", null, null, null, null, null, null});
+        when(userRepository.findInactiveUsersPage(anyLong(), anyInt())).thenReturn(rows);
+
+        UsersPageResponse result = adminService.getUsersPage(null, 10);
+
+        assertEquals(1, result.getUsers().size());
+        assertEquals("-", result.getUsers().get(0).getFio());
+        assertEquals(0, result.getUsers().get(0).getStreak());
+        assertNull(result.getUsers().get(0).getLastActivity());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+    }
 
-        assertTrue(firstActivity.isAfter(secondActivity));
+    @Test
+    void getUsersPage_BrokenCursor_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> adminService.getUsersPage("не-курсор", 10));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -367,12 +404,6 @@ class AdminServiceTest {
         }
     }
 
-    @Test
-    void getUsersWithLastActivity_CacheAnnotationPresent() throws NoSuchMethodException {
-        java.lang.reflect.Method method = AdminServiceImpl.class.getMethod("getUsersWithLastActivity");
-        assertNotNull(method.getAnnotation(org.springframework.cache.annotation.Cacheable.class));
-    }
-
     @Test
     void getUsersStatistics_CacheAnnotationPresent() throws NoSuchMethodException {
         java.lang.reflect.Method method = AdminServiceImpl.class.getMethod("getUsersStatistics");
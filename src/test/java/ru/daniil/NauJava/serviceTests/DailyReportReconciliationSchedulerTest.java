@@ -0,0 +1,59 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.daniil.NauJava.service.DailyReportService;
+import ru.daniil.NauJava.service.scheduler.ClusterJobLock;
+import ru.daniil.NauJava.service.scheduler.DailyReportReconciliationScheduler;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyReportReconciliationSchedulerTest {
+
+    @Mock
+    private DailyReportService dailyReportService;
+
+    @Mock
+    private ClusterJobLock clusterJobLock;
+
+    private DailyReportReconciliationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new DailyReportReconciliationScheduler(dailyReportService, clusterJobLock, 1);
+    }
+
+    @Test
+    void reconcile_ShouldReconcileLookbackWindowUnderLock() {
+        holdLock(true);
+
+        scheduler.reconcile();
+
+        verify(dailyReportService).reconcileTotalsSince(LocalDate.now().minusDays(1));
+    }
+
+    @Test
+    void reconcile_WhenOtherNodeHoldsLock_ShouldDoNothing() {
+        holdLock(false);
+
+        scheduler.reconcile();
+
+        verify(dailyReportService, never()).reconcileTotalsSince(any());
+    }
+
+    private void holdLock(boolean acquired) {
+        when(clusterJobLock.runExclusively(anyString(), any())).thenAnswer(invocation -> {
+            if (acquired) {
+                invocation.<Runnable>getArgument(1).run();
+            }
+            return acquired;
+        });
+    }
+}
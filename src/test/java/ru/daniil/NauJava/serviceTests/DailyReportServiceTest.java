@@ -57,7 +57,7 @@ class DailyReportServiceTest {
 
     @Test
     void getOrCreateDailyReportAuth_WhenReportExists_ShouldReturnExisting() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(dailyReportRepository.findByUserIdAndReportDate(1L, LocalDate.now()))
                 .thenReturn(Optional.of(testDailyReport));
 
@@ -70,7 +70,7 @@ class DailyReportServiceTest {
 
     @Test
     void getOrCreateDailyReportAuth_WhenReportNotExists_ShouldCreateNew() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(dailyReportRepository.findByUserIdAndReportDate(1L, LocalDate.now()))
                 .thenReturn(Optional.empty());
         when(dailyReportRepository.save(any(DailyReport.class))).thenReturn(testDailyReport);
@@ -83,7 +83,7 @@ class DailyReportServiceTest {
 
     @Test
     void getOrCreateDailyReportAuth_WhenUserNotAuthenticated_ShouldThrowException() {
-        when(userService.getAuthUser()).thenReturn(Optional.empty());
+        when(userService.getAuthUserReference()).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> {
             dailyReportService.getOrCreateDailyReportAuth(LocalDate.now());
@@ -92,7 +92,7 @@ class DailyReportServiceTest {
 
     @Test
     void getDailyReportAuth_WhenReportExists_ShouldReturnOptional() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
         when(dailyReportRepository.findByUserIdAndReportDate(1L, LocalDate.now()))
                 .thenReturn(Optional.of(testDailyReport));
 
@@ -104,7 +104,7 @@ class DailyReportServiceTest {
 
     @Test
     void getDailyReportAuth_WhenReportNotExists_ShouldReturnEmpty() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
         when(dailyReportRepository.findByUserIdAndReportDate(1L, LocalDate.now()))
                 .thenReturn(Optional.empty());
 
@@ -170,9 +170,37 @@ class DailyReportServiceTest {
         assertEquals(0.0, testDailyReport.getTotalCarbsConsumed());
     }
 
+    @Test
+    void applyNutritionDelta_ShouldPassDeltaToRepository() {
+        when(dailyReportRepository.applyNutritionDelta(1L, 250.0, 10.0, -5.0, 30.0)).thenReturn(1);
+
+        dailyReportService.applyNutritionDelta(1L, new NutritionSumResponse(250.0, 10.0, -5.0, 30.0));
+
+        verify(dailyReportRepository).applyNutritionDelta(1L, 250.0, 10.0, -5.0, 30.0);
+        verify(dailyReportRepository, never()).save(any(DailyReport.class));
+    }
+
+    @Test
+    void applyNutritionDelta_WhenReportIdIsNull_ShouldDoNothing() {
+        dailyReportService.applyNutritionDelta(null, new NutritionSumResponse(250.0, 10.0, 5.0, 30.0));
+
+        verify(dailyReportRepository, never()).applyNutritionDelta(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void reconcileTotalsSince_ShouldReturnFixedCount() {
+        LocalDate since = LocalDate.now().minusDays(1);
+        when(dailyReportRepository.reconcileTotalsSince(since)).thenReturn(2);
+
+        int result = dailyReportService.reconcileTotalsSince(since);
+
+        assertEquals(2, result);
+        verify(dailyReportRepository).reconcileTotalsSince(since);
+    }
+
     @Test
     void getOrCreateDailyReportById_WhenExists_ShouldReturnReport() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(dailyReportRepository.findById(1L))
                 .thenReturn(Optional.of(testDailyReport));
 
@@ -185,7 +213,7 @@ class DailyReportServiceTest {
 
     @Test
     void getOrCreateDailyReportById_WhenNotExists_ShouldCreateNew() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(dailyReportRepository.findById(1L))
                 .thenReturn(Optional.empty());
         when(dailyReportRepository.save(any(DailyReport.class))).thenReturn(testDailyReport);
@@ -281,7 +309,7 @@ class DailyReportServiceTest {
         DailyReport yesterdayReport = new DailyReport(testUser, yesterday);
         yesterdayReport.setId(2L);
 
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(dailyReportRepository.findByUserIdAndReportDate(1L, yesterday))
                 .thenReturn(Optional.of(yesterdayReport));
         when(dailyReportRepository.findByUserIdAndReportDate(1L, tomorrow))
@@ -0,0 +1,65 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.daniil.NauJava.service.scheduler.ClusterJobLock;
+import ru.daniil.NauJava.service.scheduler.DailyStatsRollupScheduler;
+import ru.daniil.NauJava.service.stats.DailyStatsService;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyStatsRollupSchedulerTest {
+
+    @Mock
+    private DailyStatsService dailyStatsService;
+
+    @Mock
+    private ClusterJobLock clusterJobLock;
+
+    private DailyStatsRollupScheduler scheduler;
+
+    private LocalDate yesterday;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new DailyStatsRollupScheduler(dailyStatsService, clusterJobLock, 2);
+        yesterday = LocalDate.now().minusDays(1);
+    }
+
+    @Test
+    void rollupPastDays_ShouldRebuildLookbackWindowOncePerDay() {
+        when(clusterJobLock.runOncePerSlot(anyString(), eq(yesterday), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return true;
+        });
+
+        scheduler.rollupPastDays();
+
+        verify(dailyStatsService).rebuild(yesterday.minusDays(1), yesterday);
+    }
+
+    @Test
+    void rollupPastDays_WhenOtherNodeAlreadyRan_ShouldDoNothing() {
+        when(clusterJobLock.runOncePerSlot(anyString(), eq(yesterday), any())).thenReturn(false);
+
+        scheduler.rollupPastDays();
+
+        verify(dailyStatsService, never()).rebuild(any(), any());
+    }
+
+    @Test
+    void rollupToday_WhenOtherNodeHoldsLock_ShouldDoNothing() {
+        when(clusterJobLock.runExclusively(anyString(), any())).thenReturn(false);
+
+        scheduler.rollupToday();
+
+        verify(dailyStatsService, never()).rebuild(any(), any());
+    }
+}
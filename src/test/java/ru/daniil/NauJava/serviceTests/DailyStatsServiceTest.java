@@ -0,0 +1,186 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.daniil.NauJava.entity.DailyStats;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.repository.DailyStatsRepository;
+import ru.daniil.NauJava.service.stats.DailyStatsServiceImpl;
+import ru.daniil.NauJava.service.stats.PeriodStats;
+import ru.daniil.NauJava.service.stats.ReportQueryBudget;
+import ru.daniil.NauJava.service.stats.SliceTiming;
+import ru.daniil.NauJava.service.stats.StatsProgressListener;
+import ru.daniil.NauJava.utils.HyperLogLog;
+import ru.daniil.NauJava.utils.UserIdBitmap;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyStatsServiceTest {
+
+    @Mock
+    private DailyStatsRepository dailyStatsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DailyStatsServiceImpl dailyStatsService;
+
+    private final LocalDate day1 = LocalDate.of(2024, 3, 1);
+    private final LocalDate day2 = day1.plusDays(1);
+    private final LocalDate day3 = day1.plusDays(2);
+
+    @BeforeEach
+    void setUp() {
+        dailyStatsService = new DailyStatsServiceImpl(dailyStatsRepository, transactionManager,
+                new TaskExecutorAdapter(Runnable::run), new ReportQueryBudget(1), 31);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ShouldCreateRowForEveryDayAndCountActiveUsers() {
+        when(dailyStatsRepository.countUsersByDay(any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{Date.valueOf(day1), 2L}));
+        when(dailyStatsRepository.countMealsByDayAndUser(any(), any())).thenReturn(List.of(
+                new Object[]{Date.valueOf(day2), 7L, 3L},
+                new Object[]{Date.valueOf(day2), 8L, 1L}));
+
+        int rebuilt = dailyStatsService.rebuild(day1, day3);
+
+        ArgumentCaptor<Collection<DailyStats>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(dailyStatsRepository).upsertAll(captor.capture());
+        List<DailyStats> saved = new ArrayList<>(captor.getValue());
+        assertThat(rebuilt).isEqualTo(3);
+        assertThat(saved).extracting(DailyStats::getStatDate).containsExactly(day1, day2, day3);
+        assertThat(saved.get(0).getUsersRegistered()).isEqualTo(2);
+        assertThat(saved.get(1).getMealsCount()).isEqualTo(4);
+        assertThat(saved.get(1).getActiveUsers()).isEqualTo(2);
+        assertThat(saved.get(1).getActiveUsersSketch()).isNotNull();
+        assertThat(UserIdBitmap.fromBytes(saved.get(1).getActiveUserIds()).cardinality()).isEqualTo(2);
+        assertThat(saved.get(2).getActiveUsersSketch()).isNull();
+    }
+
+    @Test
+    void getPeriodStats_WhenGapLongerThanSlice_ShouldRebuildEverySliceSeparately() {
+        dailyStatsService = new DailyStatsServiceImpl(dailyStatsRepository, transactionManager,
+                new TaskExecutorAdapter(Runnable::run), new ReportQueryBudget(1), 2);
+        when(dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(day1, day3)).thenReturn(List.of());
+        List<SliceTiming> slices = new ArrayList<>();
+
+        dailyStatsService.getPeriodStats(day1, day3, new StatsProgressListener() {
+            @Override
+            public void onProgress(ReportStage stage, int percent) {
+            }
+
+            @Override
+            public void onSlice(SliceTiming timing) {
+                slices.add(timing);
+            }
+        });
+
+        verify(dailyStatsRepository).countUsersByDay(day1.atStartOfDay(), day3.atStartOfDay());
+        verify(dailyStatsRepository).countUsersByDay(day3.atStartOfDay(), day3.plusDays(1).atStartOfDay());
+        verify(dailyStatsRepository, times(2)).upsertAll(anyCollection());
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(slices).extracting(SliceTiming::from).containsExactly(day1, day3);
+    }
+
+    @Test
+    void getPeriodStats_WhenDaysHaveUserIds_ShouldCountActiveUsersExactly() {
+        when(dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(day1, day2)).thenReturn(List.of(
+                withUserIds(stats(day1, 0, 2, 1L, 2L), 1L, 2L),
+                withUserIds(stats(day2, 0, 2, 2L, 3L), 2L, 3L)));
+
+        PeriodStats result = dailyStatsService.getPeriodStats(day1, day2);
+
+        assertThat(result.activeUsers()).isEqualTo(3);
+        assertThat(result.activeUsersEstimated()).isFalse();
+    }
+
+    @Test
+    void getPeriodStats_WhenAllDaysPresent_ShouldSumRowsWithoutQueries() {
+        when(dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(day1, day2)).thenReturn(List.of(
+                stats(day1, 3, 5, 1L, 2L),
+                stats(day2, 1, 2, 2L, 3L)));
+
+        PeriodStats result = dailyStatsService.getPeriodStats(day1, day2);
+
+        assertThat(result.usersRegistered()).isEqualTo(4);
+        assertThat(result.mealsCount()).isEqualTo(7);
+        assertThat(result.activeUsers()).isEqualTo(3);
+        assertThat(result.activeUsersEstimated()).isTrue();
+        verify(dailyStatsRepository, never()).countUsersByDay(any(), any());
+    }
+
+    @Test
+    void getPeriodStats_ForSingleDay_ShouldUseExactActiveUsers() {
+        when(dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(day1, day1))
+                .thenReturn(List.of(stats(day1, 0, 4, 10L, 20L)));
+
+        PeriodStats result = dailyStatsService.getPeriodStats(day1, day1);
+
+        assertThat(result.activeUsers()).isEqualTo(2);
+        assertThat(result.activeUsersEstimated()).isFalse();
+        assertThat(result.averageMealsPerActiveUser()).isEqualTo(2.0);
+    }
+
+    @Test
+    void getPeriodStats_WhenDayMissing_ShouldRebuildOnlyTheGap() {
+        when(dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(day1, day3)).thenReturn(List.of(
+                stats(day1, 0, 0),
+                stats(day3, 0, 0)));
+
+        dailyStatsService.getPeriodStats(day1, day3);
+
+        verify(dailyStatsRepository).countUsersByDay(day2.atStartOfDay(), day3.atStartOfDay());
+        verify(dailyStatsRepository, times(1)).upsertAll(anyCollection());
+    }
+
+    @Test
+    void getPeriodStats_WhenGapRebuilt_ShouldReportEveryStage() {
+        when(dailyStatsRepository.findByStatDateBetweenOrderByStatDateAsc(day1, day2)).thenReturn(List.of());
+        List<String> progress = new ArrayList<>();
+
+        dailyStatsService.getPeriodStats(day1, day2, (stage, percent) -> progress.add(stage + ":" + percent));
+
+        assertThat(progress).containsExactly("USERS:25", "PRODUCTS:50", "DAILY_REPORTS:75", "MEALS:100");
+    }
+
+    private static DailyStats withUserIds(DailyStats stats, Long... userIds) {
+        UserIdBitmap ids = new UserIdBitmap();
+        for (Long id : userIds) {
+            ids.add(id);
+        }
+        stats.setActiveUserIds(ids.toBytes());
+        return stats;
+    }
+
+    private static DailyStats stats(LocalDate day, long users, long meals, Long... activeUserIds) {
+        DailyStats stats = new DailyStats(day);
+        stats.setUsersRegistered(users);
+        stats.setMealsCount(meals);
+        if (activeUserIds.length > 0) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (Long id : activeUserIds) {
+                sketch.add(id);
+            }
+            stats.setActiveUsers(activeUserIds.length);
+            stats.setActiveUsersSketch(sketch.toBytes());
+        }
+        return stats;
+    }
+}
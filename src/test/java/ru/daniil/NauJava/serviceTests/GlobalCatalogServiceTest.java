@@ -0,0 +1,117 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import ru.daniil.NauJava.entity.Product;
+import ru.daniil.NauJava.repository.ProductRepository;
+import ru.daniil.NauJava.service.catalog.GlobalCatalogImpl;
+import ru.daniil.NauJava.service.catalog.GlobalCatalogSnapshot;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GlobalCatalogServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private GlobalCatalogImpl globalCatalog;
+
+    private Product apple;
+    private Product bread;
+
+    @BeforeEach
+    void setUp() {
+        globalCatalog = new GlobalCatalogImpl(productRepository, redisTemplate);
+
+        apple = new Product("Яблоко", 52.0, 0.3, 0.2, 14.0);
+        apple.setId(1L);
+        bread = new Product("Хлеб", 265.0, 9.0, 3.2, 49.0);
+        bread.setId(2L);
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:global:version")).thenReturn("4");
+        when(productRepository.findByCreatedByUserIsNull()).thenReturn(List.of(bread, apple));
+    }
+
+    @Test
+    void snapshot_ShouldLoadCatalogOnceSortedById() {
+        GlobalCatalogSnapshot first = globalCatalog.snapshot();
+        GlobalCatalogSnapshot second = globalCatalog.snapshot();
+
+        assertSame(first, second);
+        assertEquals(4, first.version());
+        assertEquals(List.of(apple, bread), first.products());
+        verify(productRepository, times(1)).findByCreatedByUserIsNull();
+    }
+
+    @Test
+    void productChanged_ShouldApplyChangeToNewSnapshotAndPublish() {
+        GlobalCatalogSnapshot before = globalCatalog.snapshot();
+        Product rice = new Product("Рис", 130.0, 2.7, 0.3, 28.0);
+        rice.setId(3L);
+        when(valueOperations.increment("catalog:global:version")).thenReturn(5L);
+
+        globalCatalog.productChanged(rice);
+
+        GlobalCatalogSnapshot after = globalCatalog.snapshot();
+        assertEquals(5, after.version());
+        assertEquals(List.of(apple, bread, rice), after.products());
+        assertEquals(2, before.products().size());
+        verify(redisTemplate).convertAndSend(eq(GlobalCatalogImpl.CHANGES_CHANNEL), endsWith("|5|U|3"));
+        verify(productRepository, times(1)).findByCreatedByUserIsNull();
+    }
+
+    @Test
+    void productChanged_WhenOtherNodeChangedConcurrently_ShouldReload() {
+        globalCatalog.snapshot();
+        when(valueOperations.increment("catalog:global:version")).thenReturn(7L);
+
+        globalCatalog.productRemoved(2L);
+
+        verify(productRepository, times(2)).findByCreatedByUserIsNull();
+    }
+
+    @Test
+    void handleChange_WithNextVersion_ShouldUpdateOnlyChangedProduct() {
+        globalCatalog.snapshot();
+        Product renamed = new Product("Яблоко зелёное", 47.0, 0.4, 0.4, 9.8);
+        renamed.setId(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(renamed));
+
+        globalCatalog.handleChange("other-node|5|U|1");
+
+        GlobalCatalogSnapshot snapshot = globalCatalog.snapshot();
+        assertEquals(5, snapshot.version());
+        assertEquals("Яблоко зелёное", snapshot.products().get(0).getName());
+        verify(productRepository, times(1)).findByCreatedByUserIsNull();
+    }
+
+    @Test
+    void handleChange_WithMissedVersion_ShouldReloadCatalog() {
+        globalCatalog.snapshot();
+        when(valueOperations.get("catalog:global:version")).thenReturn("8");
+
+        globalCatalog.handleChange("other-node|8|D|2");
+
+        assertEquals(8, globalCatalog.snapshot().version());
+        verify(productRepository, times(2)).findByCreatedByUserIsNull();
+        verify(productRepository, never()).findById(anyLong());
+    }
+}
@@ -17,6 +17,7 @@ import ru.daniil.NauJava.service.ProductService;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -63,18 +64,19 @@ class MealEntryServiceTest {
         List<String> productNames = Arrays.asList("Яблоко", "Банан");
         List<Integer> quantities = Arrays.asList(100, 150);
 
-        when(productService.findProductByName("Яблоко")).thenReturn(testProduct1);
-        when(productService.findProductByName("Банан")).thenReturn(testProduct2);
-        when(mealEntryRepository.save(any(MealEntry.class)))
-                .thenReturn(testMealEntry1)
-                .thenReturn(testMealEntry2);
+        when(productService.resolveProductsByNames(productNames))
+                .thenReturn(Map.of("Яблоко", testProduct1, "Банан", testProduct2));
+        when(mealEntryRepository.saveAll(anyList()))
+                .thenReturn(Arrays.asList(testMealEntry1, testMealEntry2));
 
         List<MealEntry> mealEntries = mealEntryService.createMealEntries(testMeal, productNames, quantities);
 
         assertNotNull(mealEntries);
         assertEquals(2, mealEntries.size());
-        verify(productService, times(2)).findProductByName(anyString());
-        verify(mealEntryRepository, times(2)).save(any(MealEntry.class));
+        verify(productService, times(1)).resolveProductsByNames(productNames);
+        verify(productService, never()).findProductByName(anyString());
+        verify(mealEntryRepository, times(1)).saveAll(anyList());
+        verify(mealEntryRepository, never()).save(any(MealEntry.class));
     }
 
     @Test
@@ -92,7 +94,7 @@ class MealEntryServiceTest {
         List<String> productNames = List.of("Несуществующий");
         List<Integer> quantities = List.of(100);
 
-        when(productService.findProductByName("Несуществующий")).thenReturn(null);
+        when(productService.resolveProductsByNames(productNames)).thenReturn(Map.of());
 
         assertThrows(IllegalArgumentException.class, () -> {
             mealEntryService.createMealEntries(testMeal, productNames, quantities);
@@ -254,17 +256,16 @@ class MealEntryServiceTest {
         List<String> productNames = Arrays.asList("Яблоко", "Яблоко");
         List<Integer> quantities = Arrays.asList(100, 50);
 
-        when(productService.findProductByName("Яблоко"))
-                .thenReturn(testProduct1)
-                .thenReturn(testProduct1);
-        when(mealEntryRepository.save(any(MealEntry.class)))
-                .thenReturn(testMealEntry1)
-                .thenReturn(testMealEntry2);
+        when(productService.resolveProductsByNames(productNames))
+                .thenReturn(Map.of("Яблоко", testProduct1));
+        when(mealEntryRepository.saveAll(anyList()))
+                .thenReturn(Arrays.asList(testMealEntry1, testMealEntry2));
 
         List<MealEntry> mealEntries = mealEntryService.createMealEntries(testMeal, productNames, quantities);
 
         assertEquals(2, mealEntries.size());
-        verify(productService, times(2)).findProductByName("Яблоко");
-        verify(mealEntryRepository, times(2)).save(any(MealEntry.class));
+        verify(productService, times(1)).resolveProductsByNames(productNames);
+        verify(productService, never()).findProductByName(anyString());
+        verify(mealEntryRepository, times(1)).saveAll(argThat(entries -> ((List<?>) entries).size() == 2));
     }
 }
@@ -3,6 +3,7 @@ package ru.daniil.NauJava.serviceTests;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,6 +14,7 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 import ru.daniil.NauJava.entity.*;
 import ru.daniil.NauJava.repository.MealRepository;
 import ru.daniil.NauJava.repository.MealTypeRepository;
+import ru.daniil.NauJava.response.MealsDayResponse;
 import ru.daniil.NauJava.response.NutritionSumResponse;
 import ru.daniil.NauJava.service.DailyReportService;
 import ru.daniil.NauJava.service.MealEntryService;
@@ -105,6 +107,7 @@ class MealServiceTest {
         assertEquals(testMealType.getName(), result.getMealType());
         verify(transactionManager).commit(transactionStatus);
         verify(mealEntryService).createMealEntries(any(Meal.class), eq(productNames), eq(quantities));
+        verify(dailyReportService).applyNutritionDelta(eq(testDailyReport.getId()), any(NutritionSumResponse.class));
     }
 
     @Test
@@ -148,7 +151,7 @@ class MealServiceTest {
 
     @Test
     void getTodayMeals_WhenUserAuthenticated_ShouldReturnMeals() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
         when(mealRepository.findByDailyReportUserIdAndDailyReportReportDate(1L, LocalDate.now()))
                 .thenReturn(Collections.singletonList(testMeal));
 
@@ -160,7 +163,7 @@ class MealServiceTest {
 
     @Test
     void getTodayMeals_WhenUserNotAuthenticated_ShouldReturnEmptyList() {
-        when(userService.getAuthUser()).thenReturn(Optional.empty());
+        when(userService.getAuthUserId()).thenReturn(Optional.empty());
 
         List<Meal> meals = mealService.getTodayMeals("test@example.com");
 
@@ -180,16 +183,22 @@ class MealServiceTest {
     }
 
     @Test
-    void deleteCurrentMeal_WhenExists_ShouldDeleteAndUpdateNutrition() {
+    void deleteCurrentMeal_WhenExists_ShouldDeleteAndSubtractNutrition() {
         when(mealRepository.findById(1L)).thenReturn(Optional.of(testMeal));
-        when(dailyReportService.getOrCreateDailyReportById(testDailyReport.getId())).thenReturn(testDailyReport);
+        when(mealEntryService.getNutritionSumByMealId(1L))
+                .thenReturn(new NutritionSumResponse(500.0, 25.0, 15.0, 60.0));
         doNothing().when(mealRepository).deleteById(1L);
 
         mealService.deleteCurrentMeal(1L);
 
-
+        ArgumentCaptor<NutritionSumResponse> captor = ArgumentCaptor.forClass(NutritionSumResponse.class);
         verify(mealRepository).deleteById(1L);
-        verify(dailyReportService).recalculateDailyReportTotals(testDailyReport);
+        verify(dailyReportService).applyNutritionDelta(eq(testDailyReport.getId()), captor.capture());
+        verify(dailyReportService, never()).recalculateDailyReportTotals(any());
+        assertEquals(-500.0, captor.getValue().getTotalCalories());
+        assertEquals(-25.0, captor.getValue().getTotalProteins());
+        assertEquals(-15.0, captor.getValue().getTotalFats());
+        assertEquals(-60.0, captor.getValue().getTotalCarbs());
     }
 
     @Test
@@ -225,6 +234,8 @@ class MealServiceTest {
         when(mealRepository.findById(1L)).thenReturn(Optional.of(testMeal));
         when(mealTypeRepository.findByName("Обед"))
                 .thenReturn(Optional.of(new MealType("Обед", "Второй прием пищи")));
+        when(mealEntryService.getNutritionSumByMealId(1L))
+                .thenReturn(new NutritionSumResponse(100.0, 10.0, 5.0, 20.0));
         doNothing().when(mealEntryService).deleteByMealId(1L);
         when(mealEntryService.createMealEntries(any(Meal.class), anyList(), anyList()))
                 .thenReturn(new ArrayList<>());
@@ -232,9 +243,13 @@ class MealServiceTest {
 
         Meal result = mealService.updateMealWithProducts(1L, "Обед", productNames, quantities);
 
+        ArgumentCaptor<NutritionSumResponse> captor = ArgumentCaptor.forClass(NutritionSumResponse.class);
         assertNotNull(result);
         verify(mealEntryService).deleteByMealId(1L);
         verify(mealEntryService).createMealEntries(any(Meal.class), eq(productNames), eq(quantities));
+        verify(dailyReportService).applyNutritionDelta(eq(testDailyReport.getId()), captor.capture());
+        assertEquals(-100.0, captor.getValue().getTotalCalories());
+        assertEquals(-20.0, captor.getValue().getTotalCarbs());
     }
 
     @Test
@@ -325,4 +340,43 @@ class MealServiceTest {
 
         assertEquals(1, meals.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getMealsDayForDate_WhenReportExists_ShouldSumEntriesInMemory() {
+        LocalDate date = LocalDate.now();
+        Product product = new Product("Яблоко", 50.0, 1.0, 2.0, 10.0);
+        MealEntry first = new MealEntry(testMeal, product, 100);
+        MealEntry second = new MealEntry(testMeal, product, 200);
+        testMeal.addMealEntry(first);
+        testMeal.addMealEntry(second);
+
+        when(dailyReportService.getDailyReportAuth(date))
+                .thenReturn(Optional.of(testDailyReport));
+        when(mealRepository.findWithEntriesByDailyReportId(1L))
+                .thenReturn(Collections.singletonList(testMeal));
+
+        MealsDayResponse result = mealService.getMealsDayForDate(date);
+
+        assertEquals(1, result.getMeals().size());
+        assertEquals(2, result.getMealEntries().get(1L).size());
+        NutritionSumResponse sum = result.getNutritionSums().get(1L);
+        assertEquals(first.getCalculatedCalories() + second.getCalculatedCalories(), sum.getTotalCalories());
+        assertEquals(first.getCalculatedCarbs() + second.getCalculatedCarbs(), sum.getTotalCarbs());
+        verify(mealEntryService, never()).getAllByMealId(anyLong());
+        verify(mealEntryService, never()).getNutritionSumByMealId(anyLong());
+    }
+
+    @Test
+    void getMealsDayForDate_WhenReportNotExists_ShouldReturnEmptyPage() {
+        LocalDate date = LocalDate.now();
+
+        when(dailyReportService.getDailyReportAuth(date))
+                .thenReturn(Optional.empty());
+
+        MealsDayResponse result = mealService.getMealsDayForDate(date);
+
+        assertTrue(result.getMeals().isEmpty());
+        assertTrue(result.getNutritionSums().isEmpty());
+        verify(mealRepository, never()).findWithEntriesByDailyReportId(anyLong());
+    }
+}
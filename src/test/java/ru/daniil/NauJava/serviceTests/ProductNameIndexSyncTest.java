@@ -0,0 +1,104 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.daniil.NauJava.service.productIndex.ProductNameEntry;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexImpl;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexSyncImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductNameIndexSyncTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ProductNameIndexImpl productNameIndex;
+    private ProductNameIndexSyncImpl productNameIndexSync;
+
+    @BeforeEach
+    void setUp() {
+        productNameIndex = new ProductNameIndexImpl();
+        productNameIndex.rebuild(List.of(new ProductNameEntry(1L, "Яблоко", null)));
+        productNameIndexSync = new ProductNameIndexSyncImpl(productNameIndex, redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void productSaved_ShouldUpdateIndexOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productNameIndexSync.productSaved(new ProductNameEntry(2L, "Банан", 10L));
+
+        assertTrue(productNameIndex.search("банан", 10L, 5).isEmpty());
+        verifyNoInteractions(redisTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of(2L), productNameIndex.search("банан", 10L, 5));
+        verify(redisTemplate).convertAndSend(eq(ProductNameIndexSyncImpl.CHANGES_CHANNEL), anyString());
+    }
+
+    @Test
+    void productRemoved_WhenRolledBack_ShouldKeepIndexUnchanged() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productNameIndexSync.productRemoved(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(List.of(1L), productNameIndex.search("яблоко", null, 5));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void handleChange_ShouldApplyChangesFromOtherNodes() {
+        ProductNameIndexImpl otherIndex = new ProductNameIndexImpl();
+        otherIndex.rebuild(List.of());
+        ProductNameIndexSyncImpl otherNode = new ProductNameIndexSyncImpl(otherIndex, redisTemplate);
+
+        productNameIndexSync.productSaved(new ProductNameEntry(3L, "Сыр | твёрдый", 10L));
+        productNameIndexSync.productSaved(new ProductNameEntry(4L, "Хлеб", null));
+        productNameIndexSync.productRemoved(4L);
+
+        ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(3)).convertAndSend(eq(ProductNameIndexSyncImpl.CHANGES_CHANNEL), messages.capture());
+        messages.getAllValues().forEach(otherNode::handleChange);
+
+        assertEquals(List.of(3L), otherIndex.search("твёрдый", 10L, 5));
+        assertTrue(otherIndex.search("сыр", 20L, 5).isEmpty());
+        assertTrue(otherIndex.search("хлеб", null, 5).isEmpty());
+    }
+
+    @Test
+    void handleChange_ShouldIgnoreOwnMessages() {
+        productNameIndexSync.productRemoved(1L);
+        productNameIndex.put(new ProductNameEntry(1L, "Яблоко", null));
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(ProductNameIndexSyncImpl.CHANGES_CHANNEL), message.capture());
+        productNameIndexSync.handleChange(message.getValue());
+
+        assertEquals(List.of(1L), productNameIndex.search("яблоко", null, 5));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.daniil.NauJava.service.productIndex.ProductNameEntry;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductNameIndexTest {
+
+    private ProductNameIndexImpl productNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        productNameIndex = new ProductNameIndexImpl();
+        productNameIndex.rebuild(List.of(
+                new ProductNameEntry(1L, "Яблоко", null),
+                new ProductNameEntry(2L, "Сок яблочный", null),
+                new ProductNameEntry(3L, "Пирог с яблоком", 10L),
+                new ProductNameEntry(4L, "Яблоко печёное", 20L),
+                new ProductNameEntry(5L, "Банан", null)
+        ));
+    }
+
+    @Test
+    void rebuild_ShouldMarkIndexReady() {
+        assertTrue(productNameIndex.isReady());
+        assertEquals(5, productNameIndex.size());
+    }
+
+    @Test
+    void search_ShouldRankExactThenPrefixThenWordStartThenSubstring() {
+        List<Long> result = productNameIndex.search("ЯБЛ", 10L, 10);
+
+        assertEquals(List.of(1L, 2L, 3L), result);
+    }
+
+    @Test
+    void search_ShouldReturnExactMatchFirst() {
+        List<Long> result = productNameIndex.search("яблоко", null, 10);
+
+        assertEquals(1L, result.get(0));
+    }
+
+    @Test
+    void search_ShouldNotReturnOtherUsersProducts() {
+        List<Long> result = productNameIndex.search("яблоко", 10L, 10);
+
+        assertFalse(result.contains(4L));
+        assertTrue(result.contains(3L));
+    }
+
+    @Test
+    void search_WhenQueryShorterThanTrigram_ShouldMatchSubstrings() {
+        List<Long> result = productNameIndex.search("ан", null, 10);
+
+        assertEquals(List.of(5L), result);
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        List<Long> result = productNameIndex.search("ябл", 10L, 1);
+
+        assertEquals(List.of(1L), result);
+    }
+
+    @Test
+    void put_WhenProductRenamed_ShouldReplaceOldName() {
+        productNameIndex.put(new ProductNameEntry(5L, "Груша", null));
+
+        assertTrue(productNameIndex.search("банан", null, 10).isEmpty());
+        assertEquals(List.of(5L), productNameIndex.search("груша", null, 10));
+    }
+
+    @Test
+    void remove_ShouldExcludeProductFromSearch() {
+        productNameIndex.remove(1L);
+
+        assertFalse(productNameIndex.search("яблоко", null, 10).contains(1L));
+        assertEquals(4, productNameIndex.size());
+    }
+}
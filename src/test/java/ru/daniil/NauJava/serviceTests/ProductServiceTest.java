@@ -6,6 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import ru.daniil.NauJava.entity.Product;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.repository.MealEntryRepository;
@@ -14,6 +16,11 @@ import ru.daniil.NauJava.request.create.CreateProductRequest;
 import ru.daniil.NauJava.request.update.UpdateProductRequest;
 import ru.daniil.NauJava.service.ProductServiceImpl;
 import ru.daniil.NauJava.service.UserService;
+import ru.daniil.NauJava.service.catalog.GlobalCatalog;
+import ru.daniil.NauJava.service.catalog.GlobalCatalogSnapshot;
+import ru.daniil.NauJava.service.productIndex.ProductNameEntry;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndex;
+import ru.daniil.NauJava.service.productIndex.ProductNameIndexSync;
 
 import java.util.*;
 
@@ -33,6 +40,18 @@ class ProductServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductNameIndexSync productNameIndexSync;
+
+    @Mock
+    private GlobalCatalog globalCatalog;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -50,11 +69,14 @@ class ProductServiceTest {
                 0.2, 14.0);
         testProduct.setId(1L);
         testProduct.setCreatedByUser(testUser);
+
+        lenient().when(globalCatalog.snapshot()).thenReturn(GlobalCatalogSnapshot.EMPTY);
     }
 
     @Test
     void getAll_WhenUserExists_ShouldReturnProducts() {
-        when(productRepository.findByCreatedByUserIsNullOrCreatedByUserId(1L))
+        when(globalCatalog.snapshot()).thenReturn(GlobalCatalogSnapshot.EMPTY);
+        when(productRepository.findByCreatedByUserId(1L))
                 .thenReturn(Collections.singletonList(testProduct));
 
         List<Product> products = productService.getAll(1L);
@@ -62,7 +84,26 @@ class ProductServiceTest {
         assertNotNull(products);
         assertEquals(1, products.size());
         assertEquals("Яблоко", products.get(0).getName());
-        verify(productRepository).findByCreatedByUserIsNullOrCreatedByUserId(1L);
+        verify(productRepository).findByCreatedByUserId(1L);
+    }
+
+    @Test
+    void getAll_ShouldMergeCatalogSnapshotWithCachedOwnProducts() {
+        Product bread = new Product("Хлеб", 265.0, 9.0, 3.2, 49.0);
+        bread.setId(5L);
+        ConcurrentMapCache cache = new ConcurrentMapCache("user-products");
+        when(globalCatalog.snapshot()).thenReturn(GlobalCatalogSnapshot.of(3, List.of(bread)));
+        when(cacheManager.getCache("user-products")).thenReturn(cache);
+        when(productRepository.findByCreatedByUserId(1L)).thenReturn(List.of(testProduct));
+
+        List<Product> first = productService.getAll(1L);
+        List<Product> second = productService.getAll(1L);
+
+        assertEquals(List.of(bread, testProduct), first);
+        assertEquals(first, second);
+        assertNotNull(cache.get("own:1"));
+        verify(productRepository, times(1)).findByCreatedByUserId(1L);
+        verify(productRepository, never()).findByCreatedByUserIsNullOrCreatedByUserId(anyLong());
     }
 
     @Test
@@ -96,6 +137,35 @@ class ProductServiceTest {
         assertNull(result);
     }
 
+    @Test
+    void findProductByName_WhenIndexReady_ShouldUseIndexScopedToUser() {
+        when(productNameIndex.isReady()).thenReturn(true);
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(productNameIndex.search("яблоко", 1L, 1)).thenReturn(List.of(1L));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        Product result = productService.findProductByName("яблоко");
+
+        assertNotNull(result);
+        assertEquals("Яблоко", result.getName());
+        verify(productRepository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void searchByName_ShouldKeepIndexOrder() {
+        Product banana = new Product("Банан", 89.0, 1.1, 0.3, 22.8);
+        banana.setId(2L);
+
+        when(productNameIndex.search("а", 1L, 10)).thenReturn(List.of(2L, 1L));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testProduct, banana));
+
+        List<Product> products = productService.searchByName("а", 1L, 10);
+
+        assertEquals(2, products.size());
+        assertEquals("Банан", products.get(0).getName());
+        assertEquals("Яблоко", products.get(1).getName());
+    }
+
     @Test
     void saveProduct_WhenValidRequestAndUniqueName_ShouldSaveProduct() {
         CreateProductRequest request = new CreateProductRequest();
@@ -111,8 +181,10 @@ class ProductServiceTest {
                 0.3, 22.8);
         newProduct.setCreatedByUser(testUser);
 
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
-        when(productRepository.existsByNameIgnoreCase("Банан")).thenReturn(false);
+        newProduct.setId(7L);
+
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
+        when(productRepository.findByNameIgnoreCaseAndCreatedByUserId("Банан", 1L)).thenReturn(Optional.empty());
         when(productRepository.save(any(Product.class))).thenReturn(newProduct);
 
         Product result = productService.saveProduct(request);
@@ -120,8 +192,9 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals("Банан", result.getName());
         assertEquals(89, result.getCaloriesPer100g());
-        verify(productRepository).existsByNameIgnoreCase("Банан");
         verify(productRepository).save(any(Product.class));
+        verify(productNameIndexSync).productSaved(new ProductNameEntry(7L, "Банан", 1L));
+        verify(productNameIndex, never()).put(any());
     }
 
     @Test
@@ -129,13 +202,15 @@ class ProductServiceTest {
         CreateProductRequest request = new CreateProductRequest();
         request.setName("Яблоко");
 
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
-        when(productRepository.existsByNameIgnoreCase("Яблоко")).thenReturn(true);
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
+        when(productRepository.findByNameIgnoreCaseAndCreatedByUserId("Яблоко", 1L))
+                .thenReturn(Optional.of(testProduct));
 
         Product result = productService.saveProduct(request);
 
         assertNull(result);
         verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(productNameIndexSync);
     }
 
     @Test
@@ -214,10 +289,8 @@ class ProductServiceTest {
                 89.0, 1.1,
                 0.3, 22.8);
 
-        when(productRepository.findByNameContainingIgnoreCase("Яблоко"))
-                .thenReturn(Collections.singletonList(testProduct));
-        when(productRepository.findByNameContainingIgnoreCase("Банан"))
-                .thenReturn(List.of(banana));
+        when(productRepository.findVisibleByLowerNameIn(anyCollection(), isNull()))
+                .thenReturn(List.of(testProduct, banana));
 
         List<Product> products = productService.findProductsByNames(names);
 
@@ -226,6 +299,59 @@ class ProductServiceTest {
         assertTrue(products.stream().anyMatch(p -> p.getName().equals("Банан")));
     }
 
+    @Test
+    void resolveProductsByNames_WhenIndexReady_ShouldLoadAllProductsInOneQuery() {
+        Product banana = new Product("Банан", 89.0, 1.1, 0.3, 22.8);
+        banana.setId(2L);
+
+        when(productNameIndex.isReady()).thenReturn(true);
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(productNameIndex.search("Яблоко", 1L, 1)).thenReturn(List.of(1L));
+        when(productNameIndex.search("Банан", 1L, 1)).thenReturn(List.of(2L));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProduct, banana));
+
+        Map<String, Product> result = productService.resolveProductsByNames(
+                List.of("Яблоко", "Банан", "Яблоко"));
+
+        assertEquals(2, result.size());
+        assertEquals(testProduct, result.get("Яблоко"));
+        assertEquals(banana, result.get("Банан"));
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(productRepository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void resolveProductsByNames_WhenIndexNotReady_ShouldPreferExactMatch() {
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(productRepository.findVisibleByLowerNameIn(anyCollection(), eq(1L)))
+                .thenReturn(List.of(testProduct));
+
+        Map<String, Product> result = productService.resolveProductsByNames(List.of("яблоко"));
+
+        assertEquals(testProduct, result.get("яблоко"));
+        verify(productRepository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void resolveProductsByNames_WhenIndexNotReady_ShouldResolveSubstringsInOneVisibleQuery() {
+        Product banana = new Product("Банан спелый", 89.0, 1.1, 0.3, 22.8);
+        banana.setId(2L);
+
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(productRepository.findVisibleByLowerNameIn(anyCollection(), eq(1L))).thenReturn(List.of());
+        when(productRepository.findVisibleByLowerNameLikeAny(anyCollection(), eq(1L)))
+                .thenReturn(List.of(testProduct, banana));
+
+        Map<String, Product> result = productService.resolveProductsByNames(List.of("ябл", "банан", "ябл"));
+
+        assertEquals(2, result.size());
+        assertEquals(testProduct, result.get("ябл"));
+        assertEquals(banana, result.get("банан"));
+        verify(productRepository, times(1)).findVisibleByLowerNameLikeAny(
+                argThat(patterns -> patterns.containsAll(List.of("%ябл%", "%банан%"))), eq(1L));
+        verify(productRepository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
     @Test
     void findProductsByNames_WhenNullList_ShouldReturnEmptyList() {
         List<Product> products = productService.findProductsByNames(null);
@@ -253,7 +379,7 @@ class ProductServiceTest {
         request.setCarbsPer100g(15.0);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         productService.updateProduct(request);
@@ -262,6 +388,36 @@ class ProductServiceTest {
         verify(productRepository).findById(1L);
     }
 
+    @Test
+    void updateProduct_WhenGlobalProduct_ShouldRefreshCatalogInsteadOfUserCache() {
+        Product globalProduct = new Product("Рис", 130.0, 2.7, 0.3, 28.0);
+        globalProduct.setId(7L);
+        UpdateProductRequest request = new UpdateProductRequest();
+        request.setId(7L);
+        request.setName("Рис варёный");
+        request.setCaloriesPer100g(116.0);
+
+        when(productRepository.findById(7L)).thenReturn(Optional.of(globalProduct));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
+
+        productService.updateProduct(request);
+
+        verify(globalCatalog).productChanged(globalProduct);
+        verify(cacheManager, never()).getCache(anyString());
+    }
+
+    @Test
+    void deleteProduct_WhenGlobalProduct_ShouldRemoveFromCatalog() {
+        Product globalProduct = new Product("Рис", 130.0, 2.7, 0.3, 28.0);
+        globalProduct.setId(7L);
+        when(productRepository.findById(7L)).thenReturn(Optional.of(globalProduct));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
+
+        productService.deleteProduct(7L);
+
+        verify(globalCatalog).productRemoved(7L);
+    }
+
     @Test
     void updateProduct_WhenProductNotFound_ShouldThrowException() {
         UpdateProductRequest request = new UpdateProductRequest();
@@ -283,7 +439,7 @@ class ProductServiceTest {
         request.setId(1L);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(userService.getAuthUser()).thenReturn(Optional.of(otherUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(otherUser.getId()));
 
         assertThrows(RuntimeException.class, () -> {
             productService.updateProduct(request);
@@ -293,7 +449,7 @@ class ProductServiceTest {
     @Test
     void deleteProduct_WhenValidAndOwner_ShouldDelete() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(testUser.getId()));
         doNothing().when(mealEntryRepository).disconnectFromProduct(1L);
         doNothing().when(productRepository).delete(testProduct);
 
@@ -301,6 +457,7 @@ class ProductServiceTest {
 
         verify(mealEntryRepository).disconnectFromProduct(1L);
         verify(productRepository).delete(testProduct);
+        verify(productNameIndexSync).productRemoved(1L);
     }
 
     @Test
@@ -309,7 +466,7 @@ class ProductServiceTest {
         otherUser.setId(2L);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(userService.getAuthUser()).thenReturn(Optional.of(otherUser));
+        when(userService.getAuthUserId()).thenReturn(Optional.of(otherUser.getId()));
 
         assertThrows(RuntimeException.class, () -> {
             productService.deleteProduct(1L);
@@ -0,0 +1,282 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import ru.daniil.NauJava.entity.DailyStats;
+import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportPartial;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportPartialRepository;
+import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.service.admin.ReportGenerator;
+import ru.daniil.NauJava.service.admin.ReportProgressEvent;
+import ru.daniil.NauJava.service.admin.ReportProgressService;
+import ru.daniil.NauJava.service.admin.ReportResultCache;
+import ru.daniil.NauJava.service.stats.DailyStatsService;
+import ru.daniil.NauJava.service.stats.PeriodAggregate;
+import ru.daniil.NauJava.service.stats.ReportMetricsCollector;
+import ru.daniil.NauJava.service.stats.ReportMetricsService;
+import ru.daniil.NauJava.service.stats.SliceTiming;
+import ru.daniil.NauJava.service.stats.StatsProgressListener;
+import ru.daniil.NauJava.utils.HyperLogLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportGeneratorTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ReportPartialRepository reportPartialRepository;
+
+    @Mock
+    private DailyStatsService dailyStatsService;
+
+    @Mock
+    private ReportMetricsService reportMetricsService;
+
+    @Mock
+    private ReportProgressService reportProgressService;
+
+    @Mock
+    private ReportResultCache reportResultCache;
+
+    private ReportGenerator reportGenerator;
+
+    private Report report;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @BeforeEach
+    void setUp() {
+        reportGenerator = new ReportGenerator(reportRepository, reportPartialRepository, dailyStatsService,
+                reportMetricsService, reportProgressService, reportResultCache,
+                new TaskExecutorAdapter(Runnable::run), 60);
+        lenient().when(reportMetricsService.newCollector()).thenAnswer(invocation -> new ReportMetricsCollector(10));
+        lenient().when(reportMetricsService.collect(any(), any(), any()))
+                .thenAnswer(invocation -> new ReportMetricsCollector(10));
+        lenient().when(reportMetricsService.toMetrics(any())).thenAnswer(invocation ->
+                invocation.<ReportMetricsCollector>getArgument(0).toMetrics(10, Map.of(), Map.of()));
+
+        startDate = LocalDate.of(2024, 1, 1);
+        endDate = LocalDate.of(2024, 1, 31);
+        report = new Report(startDate, endDate);
+        report.setId(1L);
+        report.setStatus(ReportStatus.PROCESSING);
+    }
+
+    @Test
+    void generate_ShouldSaveCompletedReportFromPeriodStats() {
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        PeriodAggregate aggregate = aggregateOf(day(startDate, 5, 20, 7L), day(endDate, 0, 0, 8L));
+        when(dailyStatsService.aggregate(eq(startDate), eq(endDate), any())).thenReturn(aggregate);
+
+        reportGenerator.generate(1L);
+
+        assertThat(report.getStatus()).isEqualTo(ReportStatus.COMPLETED);
+        assertThat(report.getTotalUsersRegistered()).isEqualTo(5L);
+        assertThat(report.getActiveUsersCount()).isEqualTo(2L);
+        assertThat(report.getAverageMealsPerActiveUser()).isEqualTo(10.0);
+        assertThat(report.getContent()).contains("Активных пользователей: 2 (оценка)");
+        assertThat(report.getMetricsVersion()).isEqualTo(ReportGenerator.METRICS_VERSION);
+        verify(reportRepository).save(report);
+        verify(reportResultCache).remember(report);
+        verify(reportPartialRepository).save(argThat(partial -> partial.getClosedThrough().equals(endDate)));
+        verify(reportProgressService).publish(argThat(event ->
+                event.reportId().equals(1L) && event.status() == ReportStatus.COMPLETED && event.percent() == 100));
+    }
+
+    @Test
+    void generate_ShouldPublishStatsProgressAsProcessing() {
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        when(dailyStatsService.aggregate(eq(startDate), eq(endDate), any())).thenAnswer(invocation -> {
+            StatsProgressListener listener = invocation.getArgument(2);
+            listener.onProgress(ReportStage.USERS, 50);
+            return new PeriodAggregate();
+        });
+
+        reportGenerator.generate(1L);
+
+        verify(reportProgressService).publish(argThat(event -> event.status() == ReportStatus.PROCESSING
+                && event.stage() == ReportStage.USERS && event.percent() == 30));
+    }
+
+    @Test
+    void generate_ShouldRecordSliceTimingsOnReport() {
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        when(dailyStatsService.aggregate(eq(startDate), eq(endDate), any())).thenAnswer(invocation -> {
+            StatsProgressListener listener = invocation.getArgument(2);
+            listener.onSlice(new SliceTiming(startDate.plusDays(15), endDate, 30));
+            listener.onSlice(new SliceTiming(startDate, startDate.plusDays(14), 45));
+            return new PeriodAggregate();
+        });
+
+        reportGenerator.generate(1L);
+
+        assertThat(report.getSliceCount()).isEqualTo(2);
+        assertThat(report.getMaxSliceTime()).isEqualTo(45L);
+        assertThat(report.getSliceTimings()).startsWith(startDate + " - " + startDate.plusDays(14) + ": 45 мс");
+    }
+
+    @Test
+    void generate_WhenPeriodEndsToday_ShouldAddOnlyTodayToSavedPartial() {
+        LocalDate today = LocalDate.now();
+        Report rolling = rollingReport(today.minusDays(365), today);
+        ReportPartial partial = new ReportPartial(1L, today.minusDays(1),
+                aggregateOf(day(today.minusDays(10), 3, 4, 1L)).toBytes(), new ReportMetricsCollector(10).toBytes(),
+                LocalDateTime.now().minusHours(1));
+        when(reportPartialRepository.findById(1L)).thenReturn(Optional.of(partial));
+        when(dailyStatsService.changedSince(rolling.getReportPeriodStart(), today.minusDays(1),
+                partial.getComputedAt())).thenReturn(false);
+        when(dailyStatsService.aggregate(eq(today), eq(today), any()))
+                .thenReturn(aggregateOf(day(today, 1, 2, 1L)));
+
+        reportGenerator.generate(1L);
+
+        verify(dailyStatsService, times(1)).aggregate(any(), any(), any());
+        verify(reportMetricsService, times(1)).collect(any(), any(), any());
+        assertThat(rolling.getStatus()).isEqualTo(ReportStatus.COMPLETED);
+        assertThat(rolling.getTotalUsersRegistered()).isEqualTo(4L);
+        assertThat(rolling.getActiveUsersCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void generate_WhenPartialIsFromEarlierDay_ShouldAddOnlyNewClosedDays() {
+        LocalDate today = LocalDate.now();
+        Report rolling = rollingReport(today.minusDays(30), today);
+        ReportPartial partial = new ReportPartial(1L, today.minusDays(3),
+                new PeriodAggregate().toBytes(), new ReportMetricsCollector(10).toBytes(),
+                LocalDateTime.now().minusDays(2));
+        when(reportPartialRepository.findById(1L)).thenReturn(Optional.of(partial));
+        when(dailyStatsService.aggregate(any(), any(), any())).thenReturn(new PeriodAggregate());
+
+        reportGenerator.generate(1L);
+
+        verify(dailyStatsService).aggregate(eq(today.minusDays(2)), eq(today.minusDays(1)), any());
+        verify(dailyStatsService).aggregate(eq(today), eq(today), any());
+        verify(reportMetricsService).collect(eq(today.minusDays(2)), eq(today.minusDays(1)), any());
+        verify(reportPartialRepository).save(argThat(saved -> saved.getClosedThrough().equals(today.minusDays(1))
+                && saved.getMetrics() != null));
+        assertThat(rolling.getStatus()).isEqualTo(ReportStatus.COMPLETED);
+    }
+
+    @Test
+    void generate_WhenClosedDaysRebuiltSincePartial_ShouldSumWholePeriod() {
+        LocalDate today = LocalDate.now();
+        Report rolling = rollingReport(today.minusDays(30), today);
+        ReportPartial partial = new ReportPartial(1L, today.minusDays(1),
+                new PeriodAggregate().toBytes(), new ReportMetricsCollector(10).toBytes(),
+                LocalDateTime.now().minusHours(1));
+        when(reportPartialRepository.findById(1L)).thenReturn(Optional.of(partial));
+        when(dailyStatsService.changedSince(any(), any(), any())).thenReturn(true);
+        when(dailyStatsService.aggregate(any(), any(), any())).thenReturn(new PeriodAggregate());
+
+        reportGenerator.generate(1L);
+
+        verify(dailyStatsService).aggregate(eq(rolling.getReportPeriodStart()), eq(today.minusDays(1)), any());
+        verify(dailyStatsService).aggregate(eq(today), eq(today), any());
+    }
+
+    @Test
+    void generate_WhenPartialHasNoMetrics_ShouldSumWholePeriod() {
+        LocalDate today = LocalDate.now();
+        Report rolling = rollingReport(today.minusDays(30), today);
+        ReportPartial partial = new ReportPartial(1L, today.minusDays(1),
+                new PeriodAggregate().toBytes(), null, LocalDateTime.now().minusHours(1));
+        when(reportPartialRepository.findById(1L)).thenReturn(Optional.of(partial));
+        when(dailyStatsService.aggregate(any(), any(), any())).thenReturn(new PeriodAggregate());
+
+        reportGenerator.generate(1L);
+
+        verify(dailyStatsService).aggregate(eq(rolling.getReportPeriodStart()), eq(today.minusDays(1)), any());
+        verify(reportMetricsService).collect(eq(rolling.getReportPeriodStart()), eq(today.minusDays(1)), any());
+    }
+
+    @Test
+    void generate_ShouldStoreMetricsOnReport() {
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        when(dailyStatsService.aggregate(eq(startDate), eq(endDate), any())).thenReturn(new PeriodAggregate());
+        ReportMetricsCollector collected = new ReportMetricsCollector(10);
+        collected.accept(new ReportMetricsCollector.MealEntryRow(7L, startDate, 1L, null, 3L,
+                2000, 100, 70, 250, 2100));
+        collected.finish();
+        when(reportMetricsService.collect(eq(startDate), eq(endDate), any())).thenReturn(collected);
+
+        reportGenerator.generate(1L);
+
+        assertThat(report.getMetrics()).isNotNull();
+        assertThat(report.getMetrics().userDays()).isEqualTo(1L);
+        assertThat(report.getMetrics().userDaysGoalAchieved()).isEqualTo(1L);
+        assertThat(report.getMetrics().topProducts()).extracting(product -> product.productId()).containsExactly(3L);
+    }
+
+    @Test
+    void generate_WhenCancelledMeanwhile_ShouldDropResult() {
+        Report cancelled = new Report(startDate, endDate);
+        cancelled.setId(1L);
+        cancelled.setStatus(ReportStatus.CANCELLED);
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report), Optional.of(cancelled));
+        when(dailyStatsService.aggregate(eq(startDate), eq(endDate), any())).thenReturn(new PeriodAggregate());
+
+        reportGenerator.generate(1L);
+
+        verify(reportRepository, never()).save(any(Report.class));
+        verify(reportProgressService, never()).publish(argThat(ReportProgressEvent::isFinal));
+    }
+
+    @Test
+    void generate_WhenStatsFail_ShouldMarkError() {
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        when(dailyStatsService.aggregate(eq(startDate), eq(endDate), any()))
+                .thenThrow(new RuntimeException("БД недоступна"));
+
+        reportGenerator.generate(1L);
+
+        assertThat(report.getStatus()).isEqualTo(ReportStatus.ERROR);
+        assertThat(report.getContent()).contains("БД недоступна");
+        verify(reportRepository).save(report);
+    }
+
+    private Report rollingReport(LocalDate start, LocalDate end) {
+        Report rolling = new Report(start, end);
+        rolling.setId(1L);
+        rolling.setStatus(ReportStatus.PROCESSING);
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(rolling));
+        return rolling;
+    }
+
+    private static DailyStats day(LocalDate date, long users, long meals, Long... activeUserIds) {
+        DailyStats stats = new DailyStats(date);
+        stats.setUsersRegistered(users);
+        stats.setMealsCount(meals);
+        HyperLogLog sketch = new HyperLogLog();
+        for (Long id : activeUserIds) {
+            sketch.add(id);
+        }
+        stats.setActiveUsers(activeUserIds.length);
+        stats.setActiveUsersSketch(sketch.toBytes());
+        return stats;
+    }
+
+    private static PeriodAggregate aggregateOf(DailyStats... days) {
+        PeriodAggregate aggregate = new PeriodAggregate();
+        for (DailyStats day : days) {
+            aggregate.add(day);
+        }
+        return aggregate;
+    }
+}
@@ -0,0 +1,169 @@
+package ru.daniil.NauJava.serviceTests;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.daniil.NauJava.config.ReportExecutorConfig;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.service.admin.ReportGenerator;
+import ru.daniil.NauJava.service.admin.ReportJobSchedulerImpl;
+import ru.daniil.NauJava.service.admin.ReportProgressService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobSchedulerTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ReportGenerator reportGenerator;
+
+    @Mock
+    private ReportProgressService reportProgressService;
+
+    private ReportJobSchedulerImpl schedulerWithImmediateExecutor(int workers) {
+        return new ReportJobSchedulerImpl(reportRepository, reportGenerator, reportProgressService,
+                new TaskExecutorAdapter(Runnable::run), workers, 60);
+    }
+
+    @Test
+    void dispatch_ShouldClaimQueuedReportsAndGenerateThem() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.findIdsByStatus(eq(ReportStatus.CREATED), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of());
+        when(reportRepository.transitionStatus(anyLong(), anyCollection(), eq(ReportStatus.PROCESSING), any()))
+                .thenReturn(1);
+
+        scheduler.dispatch();
+
+        verify(reportGenerator).generate(1L);
+        verify(reportGenerator).generate(2L);
+        assertThat(scheduler.runningCount()).isZero();
+    }
+
+    @Test
+    void dispatch_WhenReportClaimedByOtherNode_ShouldSkipIt() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.findIdsByStatus(eq(ReportStatus.CREATED), any())).thenReturn(List.of(1L));
+        when(reportRepository.transitionStatus(eq(1L), anyCollection(), eq(ReportStatus.PROCESSING), any()))
+                .thenReturn(0);
+
+        scheduler.dispatch();
+
+        verify(reportGenerator, never()).generate(anyLong());
+    }
+
+    @Test
+    void dispatch_ShouldNotTakeMoreReportsThanWorkers() {
+        List<Runnable> submitted = new ArrayList<>();
+        ReportJobSchedulerImpl scheduler = new ReportJobSchedulerImpl(reportRepository, reportGenerator,
+                reportProgressService, new TaskExecutorAdapter(submitted::add), 1, 60);
+        when(reportRepository.findIdsByStatus(ReportStatus.CREATED, PageRequest.of(0, 1))).thenReturn(List.of(1L));
+        when(reportRepository.transitionStatus(eq(1L), anyCollection(), eq(ReportStatus.PROCESSING), any()))
+                .thenReturn(1);
+
+        scheduler.dispatch();
+        scheduler.dispatch();
+
+        assertThat(scheduler.runningCount()).isEqualTo(1);
+        assertThat(submitted).hasSize(1);
+        verify(reportRepository, times(1)).findIdsByStatus(any(), any());
+    }
+
+    @Test
+    void dispatch_WhenWorkerFinishes_ShouldChainNextReportWithoutRequeue() {
+        ReportExecutorConfig config = new ReportExecutorConfig();
+        ReflectionTestUtils.setField(config, "workers", 1);
+        ThreadPoolTaskExecutor executor = config.reportWorkerExecutor();
+        try {
+            ReportJobSchedulerImpl scheduler = new ReportJobSchedulerImpl(reportRepository, reportGenerator,
+                    reportProgressService, executor, 1, 60);
+            when(reportRepository.findIdsByStatus(eq(ReportStatus.CREATED), any()))
+                    .thenReturn(List.of(1L))
+                    .thenReturn(List.of(2L))
+                    .thenReturn(List.of());
+            when(reportRepository.transitionStatus(anyLong(), anyCollection(), eq(ReportStatus.PROCESSING), any()))
+                    .thenReturn(1);
+
+            scheduler.dispatch();
+
+            verify(reportGenerator, timeout(5000)).generate(1L);
+            verify(reportGenerator, timeout(5000)).generate(2L);
+            verify(reportRepository, never())
+                    .transitionStatus(anyLong(), anyCollection(), eq(ReportStatus.CREATED), any());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void enqueue_WhenReportNotExists_ShouldThrowException() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> scheduler.enqueue(99L)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void enqueue_WhenReportFinished_ShouldRequeueAndPublishCreated() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.existsById(1L)).thenReturn(true);
+        when(reportRepository.transitionStatus(eq(1L), anyCollection(), eq(ReportStatus.CREATED), isNull()))
+                .thenReturn(1);
+
+        scheduler.enqueue(1L);
+
+        verify(reportProgressService).publish(argThat(event ->
+                event.reportId().equals(1L) && event.status() == ReportStatus.CREATED));
+    }
+
+    @Test
+    void enqueue_WhenReportAlreadyQueuedOrProcessing_ShouldNotPublishCreated() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.existsById(1L)).thenReturn(true);
+        when(reportRepository.transitionStatus(eq(1L), anyCollection(), eq(ReportStatus.CREATED), isNull()))
+                .thenReturn(0);
+
+        scheduler.enqueue(1L);
+
+        verify(reportProgressService, never()).publish(any());
+    }
+
+    @Test
+    void cancel_WhenReportQueued_ShouldMarkCancelled() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.transitionStatus(eq(1L), anyCollection(), eq(ReportStatus.CANCELLED), isNull()))
+                .thenReturn(1);
+
+        assertThat(scheduler.cancel(1L)).isTrue();
+        verify(reportProgressService).publish(argThat(event ->
+                event.reportId().equals(1L) && event.status() == ReportStatus.CANCELLED));
+    }
+
+    @Test
+    void poll_ShouldRequeueStaleReports() {
+        ReportJobSchedulerImpl scheduler = schedulerWithImmediateExecutor(2);
+        when(reportRepository.requeueStale(eq(ReportStatus.PROCESSING), eq(ReportStatus.CREATED), any()))
+                .thenReturn(1);
+
+        scheduler.poll();
+
+        verify(reportRepository).requeueStale(eq(ReportStatus.PROCESSING), eq(ReportStatus.CREATED), any());
+        verify(reportRepository).findIdsByStatus(eq(ReportStatus.CREATED), any());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.Test;
+import ru.daniil.NauJava.entity.ReportMetrics;
+import ru.daniil.NauJava.service.stats.ReportMetricsCollector;
+import ru.daniil.NauJava.service.stats.ReportMetricsCollector.MealEntryRow;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReportMetricsCollectorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void toMetrics_ShouldSumEntriesPerUserDay() {
+        ReportMetricsCollector collector = new ReportMetricsCollector(10);
+        collector.accept(row(1L, DAY, 10L, 1L, 100L, 600, 2000));
+        collector.accept(row(1L, DAY, 11L, 2L, 101L, 900, 2000));
+        collector.accept(row(1L, DAY.plusDays(1), 12L, 1L, 100L, 1200, 2000));
+        collector.accept(row(2L, DAY, 13L, null, 100L, 2500, null));
+        collector.finish();
+
+        ReportMetrics metrics = collector.toMetrics(5, Map.of(100L, "Овсянка"), Map.of(1L, "Завтрак", 2L, "Обед"));
+
+        assertThat(metrics.userDays()).isEqualTo(3);
+        assertThat(metrics.calories().p50()).isCloseTo(1500, withinPercentage(2));
+        assertThat(metrics.calories().p99()).isCloseTo(1500, withinPercentage(2));
+        assertThat(metrics.userDaysWithGoal()).isEqualTo(2);
+        assertThat(metrics.userDaysGoalAchieved()).isZero();
+        assertThat(metrics.goalAchievementRate()).isZero();
+        assertThat(metrics.topProducts().get(0)).isEqualTo(new ReportMetrics.ProductCount(100L, "Овсянка", 3));
+        assertThat(metrics.mealTypes()).extracting(ReportMetrics.MealTypeBreakdown::name)
+                .containsExactly("Без типа", "Завтрак", "Обед");
+        assertThat(metrics.mealTypes().get(1).meals()).isEqualTo(2);
+    }
+
+    @Test
+    void toMetrics_ShouldCountDayWithinTenPercentOfGoalAsAchieved() {
+        ReportMetricsCollector collector = new ReportMetricsCollector(10);
+        collector.accept(row(1L, DAY, 10L, 1L, 100L, 1850, 2000));
+        collector.accept(row(2L, DAY, 11L, 1L, 100L, 1700, 2000));
+        collector.finish();
+
+        ReportMetrics metrics = collector.toMetrics(5, Map.of(), Map.of());
+
+        assertThat(metrics.userDaysGoalAchieved()).isEqualTo(1);
+        assertThat(metrics.goalAchievementRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void merge_ShouldMatchSinglePassOverAllDays() {
+        ReportMetricsCollector single = new ReportMetricsCollector(10);
+        ReportMetricsCollector first = new ReportMetricsCollector(10);
+        ReportMetricsCollector second = new ReportMetricsCollector(10);
+        for (long user = 1; user <= 20; user++) {
+            MealEntryRow firstDay = row(user, DAY, user * 2, 1L, user % 3, 1000 + user * 50, 2000);
+            MealEntryRow secondDay = row(user, DAY.plusDays(1), user * 2 + 1, 2L, 7L, 1500 + user * 20, 2000);
+            single.accept(firstDay);
+            single.accept(secondDay);
+            first.accept(firstDay);
+            second.accept(secondDay);
+        }
+        single.finish();
+        first.finish();
+        second.finish();
+
+        first.merge(ReportMetricsCollector.fromBytes(second.toBytes()));
+
+        assertThat(first.toMetrics(3, Map.of(), Map.of())).isEqualTo(single.toMetrics(3, Map.of(), Map.of()));
+    }
+
+    @Test
+    void accept_WhenMealHasNoEntries_ShouldCountMealOnly() {
+        ReportMetricsCollector collector = new ReportMetricsCollector(10);
+        collector.accept(row(1L, DAY, 10L, 1L, null, 0, null));
+        collector.finish();
+
+        ReportMetrics metrics = collector.toMetrics(5, Map.of(), Map.of(1L, "Завтрак"));
+
+        assertThat(metrics.userDays()).isEqualTo(1);
+        assertThat(metrics.topProducts()).isEmpty();
+        assertThat(metrics.mealTypes().get(0).meals()).isEqualTo(1);
+        assertThat(metrics.mealTypes().get(0).entries()).isZero();
+    }
+
+    @Test
+    void fromBytes_WhenTruncated_ShouldThrowException() {
+        assertThatThrownBy(() -> ReportMetricsCollector.fromBytes(new byte[]{1, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MealEntryRow row(Long userId, LocalDate day, Long mealId, Long mealTypeId, Long productId,
+                                    double calories, Integer goal) {
+        return new MealEntryRow(userId, day, mealId, mealTypeId, productId,
+                calories, calories / 20, calories / 30, calories / 8, goal);
+    }
+}
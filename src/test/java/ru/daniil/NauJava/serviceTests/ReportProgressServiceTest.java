@@ -0,0 +1,94 @@
+package ru.daniil.NauJava.serviceTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import ru.daniil.NauJava.enums.ReportStage;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.service.admin.ReportProgressEvent;
+import ru.daniil.NauJava.service.admin.ReportProgressServiceImpl;
+import ru.daniil.NauJava.service.admin.ReportSummaryCache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportProgressServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ReportSummaryCache reportSummaryCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReportProgressServiceImpl progressService;
+
+    @BeforeEach
+    void setUp() {
+        progressService = new ReportProgressServiceImpl(redisTemplate, objectMapper, reportSummaryCache, 60, 60000, 1);
+    }
+
+    @Test
+    void publish_ShouldStoreLastEventAndSendToChannel() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        ReportProgressEvent event = ReportProgressEvent.of(1L, ReportStatus.PROCESSING, ReportStage.MEALS, 40);
+
+        progressService.publish(event);
+
+        String message = objectMapper.writeValueAsString(event);
+        verify(valueOperations).set(endsWith("1"), eq(message), eq(Duration.ofMinutes(60)));
+        verify(redisTemplate).convertAndSend(ReportProgressServiceImpl.PROGRESS_CHANNEL, message);
+        assertThat(progressService.getCachedStatus(1L)).contains(ReportStatus.PROCESSING);
+        verifyNoInteractions(reportSummaryCache);
+    }
+
+    @Test
+    void publish_WhenStatusChanged_ShouldRefreshReportSummary() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        progressService.publish(ReportProgressEvent.of(4L, ReportStatus.COMPLETED));
+
+        verify(reportSummaryCache).refresh(4L);
+    }
+
+    @Test
+    void handleMessage_ShouldCacheStatusFromOtherNode() throws Exception {
+        String message = objectMapper.writeValueAsString(ReportProgressEvent.of(2L, ReportStatus.COMPLETED));
+
+        progressService.handleMessage(message);
+
+        assertThat(progressService.getCachedStatus(2L)).contains(ReportStatus.COMPLETED);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void getCachedStatus_WhenNoEvents_ShouldFallBackToRedis() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        Optional<ReportStatus> status = progressService.getCachedStatus(3L);
+
+        assertThat(status).isEmpty();
+    }
+
+    @Test
+    void subscribe_WhenLimitReached_ShouldThrowException() {
+        progressService.subscribe(null);
+
+        assertThatThrownBy(() -> progressService.subscribe(1L)).isInstanceOf(IllegalStateException.class);
+    }
+}
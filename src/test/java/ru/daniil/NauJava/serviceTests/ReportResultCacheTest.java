@@ -0,0 +1,133 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.service.admin.ReportGenerator;
+import ru.daniil.NauJava.service.admin.ReportResultCache;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportResultCacheTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportResultCache reportResultCache;
+
+    private LocalDate start;
+    private LocalDate end;
+
+    @BeforeEach
+    void setUp() {
+        reportResultCache = new ReportResultCache(reportRepository,
+                new ConcurrentMapCacheManager(ReportResultCache.CACHE_NAME), transactionManager);
+        start = LocalDate.of(2024, 1, 1);
+        end = LocalDate.of(2024, 1, 31);
+    }
+
+    @Test
+    void resolve_WhenNoReport_ShouldCreateAndEnqueue() {
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(start, end))
+                .thenReturn(Optional.empty());
+        when(reportRepository.save(any(Report.class))).thenAnswer(invocation -> {
+            Report saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        ReportResultCache.Resolution resolution = reportResultCache.resolve(start, end);
+
+        assertThat(resolution).isEqualTo(new ReportResultCache.Resolution(1L, true));
+        verify(reportRepository).lockForTransaction(anyString());
+    }
+
+    @Test
+    void resolve_WhenReportInFlight_ShouldReturnItWithoutEnqueue() {
+        Report processing = report(2L, ReportStatus.PROCESSING, null, null);
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(start, end))
+                .thenReturn(Optional.of(processing));
+
+        assertThat(reportResultCache.resolve(start, end)).isEqualTo(new ReportResultCache.Resolution(2L, false));
+        verify(reportRepository, never()).save(any());
+    }
+
+    @Test
+    void resolve_WhenFinalReport_ShouldServeNextRequestsFromCache() {
+        Report completed = report(3L, ReportStatus.COMPLETED, end.plusDays(1).atTime(3, 30),
+                ReportGenerator.METRICS_VERSION);
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(start, end))
+                .thenReturn(Optional.of(completed));
+
+        ReportResultCache.Resolution first = reportResultCache.resolve(start, end);
+        ReportResultCache.Resolution second = reportResultCache.resolve(start, end);
+
+        assertThat(first).isEqualTo(new ReportResultCache.Resolution(3L, false));
+        assertThat(second).isEqualTo(first);
+        assertThat(reportResultCache.findFinal(start, end)).contains(3L);
+        verify(reportRepository, times(1))
+                .findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(start, end);
+    }
+
+    @Test
+    void resolve_WhenReportFromOlderMetricsVersion_ShouldRequeueSameReport() {
+        Report outdated = report(4L, ReportStatus.COMPLETED, end.plusDays(1).atTime(3, 30), 1);
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(start, end))
+                .thenReturn(Optional.of(outdated));
+        when(reportRepository.save(outdated)).thenReturn(outdated);
+
+        assertThat(reportResultCache.resolve(start, end)).isEqualTo(new ReportResultCache.Resolution(4L, true));
+        assertThat(outdated.getStatus()).isEqualTo(ReportStatus.CREATED);
+        assertThat(reportResultCache.findFinal(start, end)).isEmpty();
+    }
+
+    @Test
+    void resolve_WhenCompletedBeforePeriodEnded_ShouldRequeueSameReport() {
+        Report partial = report(5L, ReportStatus.COMPLETED, end.atTime(18, 0), ReportGenerator.METRICS_VERSION);
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(start, end))
+                .thenReturn(Optional.of(partial));
+        when(reportRepository.save(partial)).thenReturn(partial);
+
+        assertThat(reportResultCache.resolve(start, end).enqueue()).isTrue();
+    }
+
+    @Test
+    void remember_WhenPeriodStillRunning_ShouldNotCache() {
+        LocalDate today = LocalDate.now();
+        Report rolling = new Report(today.minusDays(7), today);
+        rolling.setId(6L);
+        rolling.setStatus(ReportStatus.COMPLETED);
+        rolling.setCompletedAt(LocalDateTime.now());
+        rolling.setMetricsVersion(ReportGenerator.METRICS_VERSION);
+
+        reportResultCache.remember(rolling);
+
+        assertThat(reportResultCache.findFinal(today.minusDays(7), today)).isEmpty();
+    }
+
+    private Report report(Long id, ReportStatus status, LocalDateTime completedAt, Integer metricsVersion) {
+        Report report = new Report(start, end);
+        report.setId(id);
+        report.setStatus(status);
+        report.setCompletedAt(completedAt);
+        report.setMetricsVersion(metricsVersion);
+        return report;
+    }
+}
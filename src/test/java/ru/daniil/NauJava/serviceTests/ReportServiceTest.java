@@ -6,18 +6,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.daniil.NauJava.entity.Report;
+import ru.daniil.NauJava.entity.ReportMetrics;
 import ru.daniil.NauJava.enums.ReportStatus;
 import ru.daniil.NauJava.repository.*;
-import ru.daniil.NauJava.service.DailyReportService;
-import ru.daniil.NauJava.service.MealService;
-import ru.daniil.NauJava.service.ProductService;
-import ru.daniil.NauJava.service.UserService;
+import ru.daniil.NauJava.repository.projection.ReportKeyView;
+import ru.daniil.NauJava.repository.projection.ReportSummaryView;
+import ru.daniil.NauJava.response.ReportResponse;
+import ru.daniil.NauJava.response.ReportsPageResponse;
+import ru.daniil.NauJava.response.StandardReportResponse;
+import ru.daniil.NauJava.service.admin.ReportJobScheduler;
+import ru.daniil.NauJava.service.admin.ReportProgressService;
+import ru.daniil.NauJava.service.admin.ReportResultCache;
 import ru.daniil.NauJava.service.admin.ReportServiceImpl;
+import ru.daniil.NauJava.service.admin.ReportSummaryCache;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -36,16 +39,16 @@ class ReportServiceTest {
     private ReportRepository reportRepository;
 
     @Mock
-    private UserService userService;
+    private ReportJobScheduler reportJobScheduler;
 
     @Mock
-    private ProductService productService;
+    private ReportProgressService reportProgressService;
 
     @Mock
-    private MealService mealService;
+    private ReportSummaryCache reportSummaryCache;
 
     @Mock
-    private DailyReportService dailyReportService;
+    private ReportResultCache reportResultCache;
 
     @InjectMocks
     private ReportServiceImpl reportService;
@@ -106,7 +109,7 @@ class ReportServiceTest {
 
     @Test
     void findReportForPeriod_WhenReportExists_ShouldReturnReport() {
-        when(reportRepository.findByReportPeriodStartAndReportPeriodEnd(startDate, endDate))
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(startDate, endDate))
                 .thenReturn(Optional.of(report));
 
         Optional<Report> result = reportService.findReportForPeriod(startDate, endDate);
@@ -115,53 +118,19 @@ class ReportServiceTest {
         assertThat(result.get().getId()).isEqualTo(1L);
         assertThat(result.get().getStatus()).isEqualTo(ReportStatus.CREATED);
         verify(reportRepository, times(1))
-                .findByReportPeriodStartAndReportPeriodEnd(startDate, endDate);
+                .findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(startDate, endDate);
     }
 
     @Test
     void findReportForPeriod_WhenReportNotExists_ShouldReturnEmpty() {
-        when(reportRepository.findByReportPeriodStartAndReportPeriodEnd(startDate, endDate))
+        when(reportRepository.findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(startDate, endDate))
                 .thenReturn(Optional.empty());
 
         Optional<Report> result = reportService.findReportForPeriod(startDate, endDate);
 
         assertThat(result).isEmpty();
         verify(reportRepository, times(1))
-                .findByReportPeriodStartAndReportPeriodEnd(startDate, endDate);
-    }
-
-    @Test
-    void createReport_WhenNewReport_ShouldCreateAndReturnId() {
-        LocalDate today = LocalDate.now();
-        when(reportRepository.findByReportPeriodStartAndReportPeriodEnd(startDate, today))
-                .thenReturn(Optional.empty());
-        when(reportRepository.save(any(Report.class))).thenAnswer(invocation -> {
-            Report savedReport = invocation.getArgument(0);
-            savedReport.setId(3L);
-            return savedReport;
-        });
-
-        Long reportId = reportService.createReport(startDate, today);
-
-        assertThat(reportId).isNotNull();
-        verify(reportRepository, times(1)).save(any(Report.class));
-    }
-
-    @Test
-    void createReport_WhenExistingReportForToday_ShouldUpdateAndReturnId() {
-        LocalDate today = LocalDate.now();
-        Report existingReport = new Report(startDate, today);
-        existingReport.setId(1L);
-        existingReport.setStatus(ReportStatus.COMPLETED);
-
-        when(reportRepository.findByReportPeriodStartAndReportPeriodEnd(startDate, today))
-                .thenReturn(Optional.of(existingReport));
-        when(reportRepository.save(any(Report.class))).thenReturn(existingReport);
-
-        Long reportId = reportService.createReport(startDate, today);
-
-        assertThat(reportId).isEqualTo(1L);
-        verify(reportRepository, times(1)).save(existingReport);
+                .findTopByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(startDate, endDate);
     }
 
     @Test
@@ -184,37 +153,67 @@ class ReportServiceTest {
         verify(reportRepository, times(1)).findById(999L);
     }
 
+    @Test
+    void getReportMetrics_ShouldReadMetricsWithoutLoadingReport() {
+        ReportMetrics metrics = new ReportMetrics(3, null, null, null, null, 0, 0, null, List.of(), List.of());
+        when(reportRepository.findMetricsById(1L)).thenReturn(Optional.of(metrics));
+
+        assertThat(reportService.getReportMetrics(1L)).isEqualTo(metrics);
+        verify(reportRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getReportMetrics_WhenReportNotExists_ShouldReturnNull() {
+        when(reportRepository.findMetricsById(999L)).thenReturn(Optional.empty());
+
+        assertThat(reportService.getReportMetrics(999L)).isNull();
+    }
+
     @Test
     void getReportStatus_WhenReportExists_ShouldReturnStatus() {
-        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        when(reportProgressService.getCachedStatus(1L)).thenReturn(Optional.empty());
+        when(reportRepository.findStatusById(1L)).thenReturn(Optional.of(ReportStatus.CREATED));
 
         ReportStatus status = reportService.getReportStatus(1L);
 
         assertThat(status).isEqualTo(ReportStatus.CREATED);
-        verify(reportRepository, times(1)).findById(1L);
+        verify(reportRepository, times(1)).findStatusById(1L);
+        verify(reportRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getReportStatus_WhenStatusCached_ShouldNotQueryDatabase() {
+        when(reportProgressService.getCachedStatus(1L)).thenReturn(Optional.of(ReportStatus.PROCESSING));
+
+        ReportStatus status = reportService.getReportStatus(1L);
+
+        assertThat(status).isEqualTo(ReportStatus.PROCESSING);
+        verifyNoInteractions(reportRepository);
     }
 
     @Test
     void getReportStatus_WhenReportNotExists_ShouldReturnNull() {
-        when(reportRepository.findById(999L)).thenReturn(Optional.empty());
+        when(reportProgressService.getCachedStatus(999L)).thenReturn(Optional.empty());
+        when(reportRepository.findStatusById(999L)).thenReturn(Optional.empty());
 
         ReportStatus status = reportService.getReportStatus(999L);
 
         assertThat(status).isNull();
-        verify(reportRepository, times(1)).findById(999L);
+        verify(reportRepository, times(1)).findStatusById(999L);
     }
 
     @Test
     void getAllReports_ShouldReturnAllReportsSorted() {
-        List<Report> reports = Arrays.asList(completedReport, report);
-        when(reportRepository.findAllByOrderByCreatedAtDesc()).thenReturn(reports);
+        List<ReportSummaryView> reports = Arrays.asList(summaryOf(completedReport), summaryOf(report));
+        when(reportRepository.findAllSummaries()).thenReturn(reports);
 
-        List<Report> result = reportService.getAllReports();
+        List<ReportResponse> result = reportService.getAllReports();
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getId()).isEqualTo(2L); // completedReport должен быть первым
         assertThat(result.get(1).getId()).isEqualTo(1L); // report должен быть вторым
-        verify(reportRepository, times(1)).findAllByOrderByCreatedAtDesc();
+        assertThat(result.get(0).getPeriodStart()).isEqualTo("2024.01.01");
+        verify(reportRepository, times(1)).findAllSummaries();
     }
 
     @Test
@@ -250,91 +249,153 @@ class ReportServiceTest {
     }
 
     @Test
-    void getPaginateReports_ShouldReturnPaginatedReports() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Report> page = new PageImpl<>(List.of(report, completedReport), pageable, 2);
-        when(reportRepository.findAllWithPagination(any(Pageable.class))).thenReturn(page);
+    void getReportsPage_WhenMoreReportsExist_ShouldReturnNextCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 2, 1, 12, 0);
+        when(reportRepository.findPageKeys(any(Pageable.class))).thenReturn(List.of(
+                keyOf(3L, createdAt), keyOf(2L, createdAt), keyOf(1L, createdAt.minusDays(1))));
+        when(reportSummaryCache.getAll(List.of(3L, 2L))).thenReturn(List.of(responseOf(3L), responseOf(2L)));
 
-        List<ru.daniil.NauJava.response.ReportResponse> result = reportService.getPaginateReports(0, 10);
+        ReportsPageResponse page = reportService.getReportsPage(null, 2);
 
-        assertThat(result).hasSize(2);
-        verify(reportRepository, times(1)).findAllWithPagination(any(Pageable.class));
+        assertThat(page.getReports()).extracting(ReportResponse::getId).containsExactly(3L, 2L);
+        assertThat(page.isHasMore()).isTrue();
+
+        when(reportRepository.findPageKeysAfter(eq(createdAt), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(keyOf(1L, createdAt.minusDays(1))));
+        when(reportSummaryCache.getAll(List.of(1L))).thenReturn(List.of(responseOf(1L)));
+
+        ReportsPageResponse next = reportService.getReportsPage(page.getNextCursor(), 2);
+
+        assertThat(next.getReports()).extracting(ReportResponse::getId).containsExactly(1L);
+        assertThat(next.isHasMore()).isFalse();
+        verify(reportRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getReportsPage_WhenCursorIsInvalid_ShouldThrowException() {
+        assertThatThrownBy(() -> reportService.getReportsPage("not-a-cursor", 8))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
     void getLatestReport_ShouldReturnMostRecentReport() {
-        when(reportRepository.findTopByOrderByCreatedAtDesc()).thenReturn(Optional.of(completedReport));
+        when(reportRepository.findPageKeys(any(Pageable.class)))
+                .thenReturn(List.of(keyOf(2L, completedReport.getCreatedAt())));
+        when(reportSummaryCache.get(2L)).thenReturn(Optional.of(responseOf(2L)));
 
-        Optional<Report> result = reportService.getLatestReport();
+        Optional<ReportResponse> result = reportService.getLatestReport();
 
         assertThat(result).isPresent();
         assertThat(result.get().getId()).isEqualTo(2L);
-        verify(reportRepository, times(1)).findTopByOrderByCreatedAtDesc();
     }
 
     @Test
-    void generateReportAsync_WhenReportExists_ShouldStartProcessing() {
-        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
-        when(reportRepository.save(any(Report.class))).thenReturn(report);
-
-        when(userService.countByCreatedAtBetween(any(), any())).thenReturn(5L);
-        when(productService.countByCreatedAtBetween(any(), any())).thenReturn(10L);
-        when(dailyReportService.countByCreatedAtBetween(any(), any())).thenReturn(15L);
-        when(mealService.findDistinctUserIdsWithMealsBetween(any(), any())).thenReturn(List.of(1L, 2L, 3L));
-        when(mealService.countMealsForUsersBetweenDates(anyList(), any(), any())).thenReturn(20L);
+    void requestReport_WhenNewReportNeeded_ShouldEnqueueIt() {
+        when(reportResultCache.resolve(startDate, endDate)).thenReturn(new ReportResultCache.Resolution(1L, true));
 
-        reportService.generateReportAsync(1L);
+        assertThat(reportService.requestReport(startDate, endDate)).isEqualTo(1L);
+        verify(reportJobScheduler).enqueue(1L);
+    }
 
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    @Test
+    void requestReport_WhenReportIsFinalOrInFlight_ShouldReturnItWithoutEnqueue() {
+        when(reportResultCache.resolve(startDate, endDate)).thenReturn(new ReportResultCache.Resolution(2L, false));
 
-        verify(reportRepository, atLeastOnce()).save(any(Report.class));
+        assertThat(reportService.requestReport(startDate, endDate)).isEqualTo(2L);
+        verifyNoInteractions(reportJobScheduler);
     }
 
     @Test
-    void countUsersRegistered_ShouldReturnCorrectCount() {
-        LocalDateTime start = LocalDateTime.now().minusDays(7);
-        LocalDateTime end = LocalDateTime.now();
+    void reportExistsForPeriod_WhenFinalReportCached_ShouldNotQueryDatabase() {
+        when(reportResultCache.findFinal(startDate, endDate)).thenReturn(Optional.of(2L));
 
-        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
-        when(reportRepository.save(any(Report.class))).thenReturn(report);
-        when(userService.countByCreatedAtBetween(start, end)).thenReturn(3L);
-        when(productService.countByCreatedAtBetween(any(), any())).thenReturn(0L);
-        when(dailyReportService.countByCreatedAtBetween(any(), any())).thenReturn(0L);
-        when(mealService.findDistinctUserIdsWithMealsBetween(any(), any())).thenReturn(List.of());
-        when(mealService.countMealsForUsersBetweenDates(anyList(), any(), any())).thenReturn(0L);
+        assertThat(reportService.reportExistsForPeriod(startDate, endDate)).isTrue();
+        verifyNoInteractions(reportRepository);
+    }
 
+    @Test
+    void generateReportAsync_ShouldEnqueueReport() {
         reportService.generateReportAsync(1L);
 
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        verify(reportJobScheduler).enqueue(1L);
+    }
+
+    @Test
+    void cancelReport_ShouldDelegateToScheduler() {
+        when(reportJobScheduler.cancel(1L)).thenReturn(true);
 
-        verify(userService, atLeastOnce()).countByCreatedAtBetween(any(), any());
+        assertThat(reportService.cancelReport(1L)).isTrue();
     }
 
     @Test
     void getAllReports_WhenEmpty_ShouldReturnEmptyList() {
-        when(reportRepository.findAllByOrderByCreatedAtDesc()).thenReturn(List.of());
+        when(reportRepository.findAllSummaries()).thenReturn(List.of());
 
-        List<Report> result = reportService.getAllReports();
+        List<ReportResponse> result = reportService.getAllReports();
 
         assertThat(result).isEmpty();
-        verify(reportRepository, times(1)).findAllByOrderByCreatedAtDesc();
+        verify(reportRepository, times(1)).findAllSummaries();
     }
 
     @Test
     void getLatestReport_WhenNoReports_ShouldReturnEmpty() {
-        when(reportRepository.findTopByOrderByCreatedAtDesc()).thenReturn(Optional.empty());
+        when(reportRepository.findPageKeys(any(Pageable.class))).thenReturn(List.of());
 
-        Optional<Report> result = reportService.getLatestReport();
+        Optional<ReportResponse> result = reportService.getLatestReport();
 
         assertThat(result).isEmpty();
-        verify(reportRepository, times(1)).findTopByOrderByCreatedAtDesc();
+        verifyNoInteractions(reportSummaryCache);
+    }
+
+    @Test
+    void getStandardReports_ShouldReturnEveryPeriodWithExistingReports() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        ReportKeyView yesterdayKey = keyOf(2L, completedReport.getCreatedAt());
+        when(reportRepository.findFirstByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(reportRepository.findFirstByReportPeriodStartAndReportPeriodEndOrderByCreatedAtDesc(yesterday, yesterday))
+                .thenReturn(Optional.of(yesterdayKey));
+        when(reportSummaryCache.get(2L)).thenReturn(Optional.of(responseOf(2L)));
+
+        List<StandardReportResponse> result = reportService.getStandardReports();
+
+        assertThat(result).extracting(StandardReportResponse::getPeriod)
+                .containsExactly("YESTERDAY", "LAST_7_DAYS", "LAST_MONTH");
+        assertThat(result.get(0).getReport().getId()).isEqualTo(2L);
+        assertThat(result.get(1).getReport()).isNull();
+    }
+
+    private static ReportKeyView keyOf(Long id, LocalDateTime createdAt) {
+        return new ReportKey(id, createdAt);
+    }
+
+    private static ReportResponse responseOf(Long id) {
+        ReportResponse response = new ReportResponse();
+        response.setId(id);
+        return response;
+    }
+
+    private static ReportSummaryView summaryOf(Report report) {
+        ReportSummaryView view = mock(ReportSummaryView.class);
+        when(view.getId()).thenReturn(report.getId());
+        when(view.getStatus()).thenReturn(report.getStatus());
+        when(view.getReportPeriodStart()).thenReturn(report.getReportPeriodStart());
+        when(view.getReportPeriodEnd()).thenReturn(report.getReportPeriodEnd());
+        when(view.getCreatedAt()).thenReturn(report.getCreatedAt());
+        when(view.getCompletedAt()).thenReturn(report.getCompletedAt());
+        when(view.getTotalExecutionTime()).thenReturn(report.getTotalExecutionTime());
+        return view;
+    }
+
+    private record ReportKey(Long id, LocalDateTime createdAt) implements ReportKeyView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
     }
 }
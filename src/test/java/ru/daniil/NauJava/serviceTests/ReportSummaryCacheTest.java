@@ -0,0 +1,76 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.daniil.NauJava.enums.ReportStatus;
+import ru.daniil.NauJava.repository.ReportRepository;
+import ru.daniil.NauJava.repository.projection.ReportSummaryView;
+import ru.daniil.NauJava.response.ReportResponse;
+import ru.daniil.NauJava.service.admin.ReportSummaryCache;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportSummaryCacheTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    private ReportSummaryCache reportSummaryCache;
+
+    @BeforeEach
+    void setUp() {
+        reportSummaryCache = new ReportSummaryCache(reportRepository,
+                new ConcurrentMapCacheManager(ReportSummaryCache.CACHE_NAME));
+    }
+
+    @Test
+    void getAll_ShouldKeepOrderAndLoadOnlyMissingReports() {
+        ReportSummaryView first = summary(1L, ReportStatus.COMPLETED);
+        ReportSummaryView second = summary(2L, ReportStatus.PROCESSING);
+        when(reportRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+        List<ReportResponse> loaded = reportSummaryCache.getAll(List.of(2L, 1L));
+        List<ReportResponse> cached = reportSummaryCache.getAll(List.of(2L, 1L));
+
+        assertThat(loaded).extracting(ReportResponse::getId).containsExactly(2L, 1L);
+        assertThat(cached).extracting(ReportResponse::getId).containsExactly(2L, 1L);
+        assertThat(loaded.get(1).getPeriodStart()).isEqualTo("2024.01.01");
+        verify(reportRepository, times(1)).findSummariesByIdIn(anyCollection());
+    }
+
+    @Test
+    void refresh_ShouldReplaceOnlyChangedReport() {
+        ReportSummaryView processing = summary(1L, ReportStatus.PROCESSING);
+        ReportSummaryView completed = summary(1L, ReportStatus.COMPLETED);
+        when(reportRepository.findSummariesByIdIn(List.of(1L)))
+                .thenReturn(List.of(processing))
+                .thenReturn(List.of(completed));
+        reportSummaryCache.get(1L);
+
+        reportSummaryCache.refresh(1L);
+
+        assertThat(reportSummaryCache.get(1L)).get()
+                .extracting(ReportResponse::getStatus).isEqualTo("COMPLETED");
+        verify(reportRepository, times(2)).findSummariesByIdIn(anyCollection());
+    }
+
+    private static ReportSummaryView summary(Long id, ReportStatus status) {
+        ReportSummaryView view = mock(ReportSummaryView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getReportPeriodStart()).thenReturn(LocalDate.of(2024, 1, 1));
+        when(view.getReportPeriodEnd()).thenReturn(LocalDate.of(2024, 1, 31));
+        when(view.getCreatedAt()).thenReturn(LocalDateTime.of(2024, 2, 1, 10, 0));
+        return view;
+    }
+}
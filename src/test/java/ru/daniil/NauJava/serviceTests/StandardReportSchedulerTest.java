@@ -0,0 +1,84 @@
+package ru.daniil.NauJava.serviceTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.daniil.NauJava.enums.StandardReportPeriod;
+import ru.daniil.NauJava.service.admin.ReportService;
+import ru.daniil.NauJava.service.scheduler.ClusterJobLock;
+import ru.daniil.NauJava.service.scheduler.StandardReportScheduler;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StandardReportSchedulerTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private ClusterJobLock clusterJobLock;
+
+    @InjectMocks
+    private StandardReportScheduler scheduler;
+
+    private LocalDate yesterday;
+
+    @BeforeEach
+    void setUp() {
+        yesterday = LocalDate.now().minusDays(1);
+    }
+
+    @Test
+    void precompute_ShouldRequestEveryStandardPeriodOncePerDay() {
+        holdLock(true);
+
+        scheduler.precompute();
+
+        verify(reportService).requestReport(yesterday, yesterday);
+        verify(reportService).requestReport(yesterday.minusDays(6), yesterday);
+        verify(reportService).requestReport(StandardReportPeriod.LAST_MONTH.start(LocalDate.now()),
+                StandardReportPeriod.LAST_MONTH.end(LocalDate.now()));
+    }
+
+    @Test
+    void precompute_WhenOtherNodeAlreadyRanToday_ShouldDoNothing() {
+        holdLock(false);
+
+        scheduler.precompute();
+
+        verify(reportService, never()).requestReport(any(), any());
+    }
+
+    @Test
+    void precompute_WhenRequestFails_ShouldNotThrow() {
+        holdLock(true);
+        when(reportService.requestReport(any(), any())).thenThrow(new RuntimeException("БД недоступна"));
+
+        assertThatCode(() -> scheduler.precompute()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void lastMonth_ShouldCoverWholePreviousCalendarMonth() {
+        LocalDate today = LocalDate.of(2024, 3, 15);
+
+        assertThat(StandardReportPeriod.LAST_MONTH.start(today)).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(StandardReportPeriod.LAST_MONTH.end(today)).isEqualTo(LocalDate.of(2024, 2, 29));
+    }
+
+    private void holdLock(boolean acquired) {
+        when(clusterJobLock.runOncePerSlot(anyString(), eq(LocalDate.now()), any())).thenAnswer(invocation -> {
+            if (acquired) {
+                invocation.<Runnable>getArgument(2).run();
+            }
+            return acquired;
+        });
+    }
+}
@@ -88,6 +88,19 @@ class UserDetailsServiceTest {
                 .hasMessageContaining("Пользователь не найден: nonexistent");
     }
 
+    @Test
+    void updatePassword_WhenUserExists_ShouldSaveNewHash() {
+        when(userRepository.findByLogin("testUser")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        UserDetails result = userDetailsService.updatePassword(
+                userDetailsService.loadUserByUsername("testUser"), "$2a$12$upgraded");
+
+        assertThat(testUser.getPassword()).isEqualTo("$2a$12$upgraded");
+        assertThat(result.getPassword()).isEqualTo("$2a$12$upgraded");
+        verify(userRepository, times(1)).save(testUser);
+    }
+
     @Test
     void assignRoleToUser_WhenValidData_ShouldAssignRole() {
         when(userRepository.findByLogin("testUser")).thenReturn(Optional.of(testUser));
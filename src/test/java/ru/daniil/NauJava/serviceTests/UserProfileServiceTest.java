@@ -111,13 +111,13 @@ class UserProfileServiceTest {
 
     @Test
     void getAuthUserProfile_WhenAuthenticated_ShouldReturnProfile() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(userProfileRepository.findByUser(testUser)).thenReturn(Optional.of(testProfile));
 
         UserProfile result = userProfileService.getAuthUserProfile();
 
         assertThat(result).isEqualTo(testProfile);
-        verify(userService, times(1)).getAuthUser();
+        verify(userService, times(1)).getAuthUserReference();
         verify(userProfileRepository, times(1)).findByUser(testUser);
     }
 
@@ -141,7 +141,7 @@ class UserProfileServiceTest {
 
     @Test
     void updateUserProfile_WhenValidData_ShouldUpdateProfile() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(userProfileRepository.findByUser(testUser)).thenReturn(Optional.of(testProfile));
         when(activityLevelService.getById(2L)).thenReturn(Optional.of(moderateActivity));
         when(userProfileRepository.save(any(UserProfile.class))).thenReturn(testProfile);
@@ -163,7 +163,7 @@ class UserProfileServiceTest {
 
     @Test
     void updateUserProfile_WhenActivityLevelNotFound_ShouldThrowException() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(userProfileRepository.findByUser(testUser)).thenReturn(Optional.of(testProfile));
         when(activityLevelService.getById(2L)).thenReturn(Optional.empty());
 
@@ -181,7 +181,7 @@ class UserProfileServiceTest {
 
     @Test
     void updateUserProfile_WhenNoActivityLevelId_ShouldSetNull() {
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(userProfileRepository.findByUser(testUser)).thenReturn(Optional.of(testProfile));
         when(userProfileRepository.save(any(UserProfile.class))).thenReturn(testProfile);
 
@@ -200,7 +200,7 @@ class UserProfileServiceTest {
         testProfile.setWeight(80.0);
         testProfile.setHeight(175);
 
-        when(userService.getAuthUser()).thenReturn(Optional.of(testUser));
+        when(userService.getAuthUserReference()).thenReturn(Optional.of(testUser));
         when(userProfileRepository.findByUser(testUser)).thenReturn(Optional.of(testProfile));
         when(userProfileRepository.save(any(UserProfile.class))).thenReturn(testProfile);
 
@@ -10,6 +10,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.daniil.NauJava.config.security.AuthenticatedUser;
 import ru.daniil.NauJava.entity.Role;
 import ru.daniil.NauJava.entity.User;
 import ru.daniil.NauJava.enums.RoleType;
@@ -155,9 +156,10 @@ class UserServiceTest {
 
     @Test
     void updateUserAccount_WhenValidData_ShouldUpdateUser() {
-        when(authentication.getPrincipal()).thenReturn(testUser);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(testUser));
         when(authentication.isAuthenticated()).thenReturn(true);
         when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findByLogin("updatedUser")).thenReturn(Optional.empty());
         when(userRepository.findByEmail("updated@example.com")).thenReturn(Optional.empty());
         when(passwordEncoder.encode("NewPassword123!")).thenReturn("encodedNewPassword");
@@ -183,9 +185,10 @@ class UserServiceTest {
     @Test
     void updateUserAccount_WhenDuplicateLogin_ShouldThrowException() {
         User anotherUser = new User("another@example.com", "anotherUser", "password");
-        when(authentication.getPrincipal()).thenReturn(testUser);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(testUser));
         when(authentication.isAuthenticated()).thenReturn(true);
         when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findByLogin("anotherUser")).thenReturn(Optional.of(anotherUser));
 
         UpdateAccountRequest updateRequest = new UpdateAccountRequest(
@@ -202,9 +205,10 @@ class UserServiceTest {
 
     @Test
     void updateUserAccount_WhenNoPasswordChange_ShouldNotEncodePassword() {
-        when(authentication.getPrincipal()).thenReturn(testUser);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(testUser));
         when(authentication.isAuthenticated()).thenReturn(true);
         when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findByLogin("updatedUser")).thenReturn(Optional.empty());
         when(userRepository.findByEmail("updated@example.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(User.class))).thenReturn(testUser);
@@ -223,9 +227,10 @@ class UserServiceTest {
 
     @Test
     void getAuthUser_WhenAuthenticated_ShouldReturnUser() {
-        when(authentication.getPrincipal()).thenReturn(testUser);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(testUser));
         when(authentication.isAuthenticated()).thenReturn(true);
         when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
         Optional<User> result = userService.getAuthUser();
 
@@ -233,6 +238,48 @@ class UserServiceTest {
         assertThat(result.get()).isEqualTo(testUser);
     }
 
+    @Test
+    void getAuthUserId_WhenAuthenticated_ShouldNotQueryRepository() {
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(testUser));
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+
+        Optional<Long> result = userService.getAuthUserId();
+
+        assertThat(result).contains(1L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getAuthUserId_WhenSessionHoldsUserEntity_ShouldReturnItsId() {
+        when(authentication.getPrincipal()).thenReturn(testUser);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+
+        assertThat(userService.getAuthUserId()).contains(1L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getAuthUserId_WhenAnonymous_ShouldReturnEmpty() {
+        when(authentication.getPrincipal()).thenReturn("anonymousUser");
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+
+        assertThat(userService.getAuthUserId()).isEmpty();
+    }
+
+    @Test
+    void getAuthUserReference_ShouldUseReferenceInsteadOfQuery() {
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(testUser));
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+
+        assertThat(userService.getAuthUserReference()).contains(testUser);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
     @Test
     void getAuthUser_WhenNotAuthenticated_ShouldReturnEmpty() {
         when(authentication.isAuthenticated()).thenReturn(false);
@@ -0,0 +1,48 @@
+package ru.daniil.NauJava.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_ShouldStayWithinExpectedError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 100_000; id++) {
+            sketch.add(id);
+        }
+
+        assertThat(sketch.estimate()).isBetween(95_000L, 105_000L);
+    }
+
+    @Test
+    void merge_ShouldCountOverlappingIdsOnce() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long id = 1; id <= 1_000; id++) {
+            first.add(id);
+            second.add(id + 500);
+        }
+
+        first.merge(HyperLogLog.fromBytes(second.toBytes()));
+
+        assertThat(first.estimate()).isBetween(1_450L, 1_550L);
+    }
+
+    @Test
+    void estimate_ForSmallSets_ShouldBeExactOrClose() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(42);
+        sketch.add(42);
+        sketch.add(7);
+
+        assertThat(sketch.estimate()).isEqualTo(2);
+    }
+
+    @Test
+    void fromBytes_WithWrongSize_ShouldThrowException() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[100]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
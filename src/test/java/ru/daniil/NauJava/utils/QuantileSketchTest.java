@@ -0,0 +1,63 @@
+package ru.daniil.NauJava.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantile_ShouldStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int value = 1; value <= 10_000; value++) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.quantile(0.5)).isCloseTo(5_000, withinPercentage(2));
+        assertThat(sketch.quantile(0.9)).isCloseTo(9_000, withinPercentage(2));
+        assertThat(sketch.quantile(0.99)).isCloseTo(9_900, withinPercentage(2));
+    }
+
+    @Test
+    void merge_ShouldMatchSingleSketchOverAllValues() {
+        QuantileSketch single = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int value = 1; value <= 2_000; value++) {
+            single.add(value);
+            (value % 2 == 0 ? first : second).add(value);
+        }
+
+        first.merge(QuantileSketch.fromBytes(second.toBytes()));
+
+        assertThat(first.count()).isEqualTo(2_000);
+        assertThat(first.quantile(0.9)).isEqualTo(single.quantile(0.9));
+    }
+
+    @Test
+    void quantile_WhenEmptyOrZeros_ShouldReturnZero() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertThat(sketch.quantile(0.5)).isZero();
+
+        sketch.add(0);
+        sketch.add(0);
+        assertThat(sketch.quantile(0.99)).isZero();
+    }
+
+    @Test
+    void add_WhenBinsOverflow_ShouldKeepUpperQuantiles() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 16);
+        for (int power = 0; power < 40; power++) {
+            sketch.add(Math.pow(2, power));
+        }
+
+        assertThat(sketch.quantile(1)).isCloseTo(Math.pow(2, 39), withinPercentage(2));
+        assertThat(sketch.toBytes().length).isLessThan(300);
+    }
+
+    @Test
+    void fromBytes_WhenUnknownVersion_ShouldThrowException() {
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(new byte[]{42}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
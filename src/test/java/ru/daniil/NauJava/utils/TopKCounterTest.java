@@ -0,0 +1,51 @@
+package ru.daniil.NauJava.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TopKCounterTest {
+
+    @Test
+    void top_ShouldFindFrequentIdsAmongRareOnes() {
+        TopKCounter counter = new TopKCounter(10);
+        for (long rare = 1_000; rare < 3_000; rare++) {
+            counter.add(rare);
+            if (rare % 4 == 0) {
+                counter.add(1L);
+                counter.add(1L);
+                counter.add(2L);
+            }
+        }
+
+        assertThat(counter.top(2)).extracting(Map.Entry::getKey).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void merge_ShouldKeepCapacityAndFrequentIds() {
+        TopKCounter first = new TopKCounter(3);
+        TopKCounter second = new TopKCounter(3);
+        for (int i = 0; i < 50; i++) {
+            first.add(1L);
+            second.add(1L);
+            second.add(2L);
+        }
+        first.add(3L);
+        first.add(4L);
+        second.add(5L);
+
+        first.merge(TopKCounter.read(ByteBuffer.wrap(second.toBytes())));
+
+        assertThat(first.top(10)).hasSizeLessThanOrEqualTo(3);
+        assertThat(first.top(2)).extracting(Map.Entry::getKey).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void read_WhenTruncated_ShouldThrowException() {
+        assertThatThrownBy(() -> TopKCounter.read(ByteBuffer.wrap(new byte[]{0, 0, 0, 1, 0, 0, 0, 5})))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
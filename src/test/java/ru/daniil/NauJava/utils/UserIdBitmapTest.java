@@ -0,0 +1,41 @@
+package ru.daniil.NauJava.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UserIdBitmapTest {
+
+    @Test
+    void merge_ShouldCountOverlappingIdsExactlyOnce() {
+        UserIdBitmap first = new UserIdBitmap();
+        UserIdBitmap second = new UserIdBitmap();
+        for (long id = 1; id <= 1_000; id++) {
+            first.add(id);
+            second.add(id + 500);
+        }
+
+        first.merge(UserIdBitmap.fromBytes(second.toBytes()));
+
+        assertThat(first.cardinality()).isEqualTo(1_500);
+    }
+
+    @Test
+    void toBytes_ShouldRestoreSparseIds() {
+        UserIdBitmap ids = new UserIdBitmap();
+        ids.add(3);
+        ids.add(200);
+        ids.add(1_000_000);
+
+        UserIdBitmap restored = UserIdBitmap.fromBytes(ids.toBytes());
+
+        assertThat(restored.cardinality()).isEqualTo(3);
+        assertThat(restored.toBytes()).isEqualTo(ids.toBytes());
+    }
+
+    @Test
+    void fromBytes_WhenTruncated_ShouldThrowException() {
+        assertThatThrownBy(() -> UserIdBitmap.fromBytes(new byte[]{(byte) 0x80}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}